@@ -0,0 +1,70 @@
+#!/bin/sh
+# Prepare an application directory for fast startup and dump its AppCDS archive.
+#
+#   create-cds-archive.sh <app-dir> [true|false]
+#
+# <app-dir> must hold app.jar (the application classes) and lib/*.jar (its dependencies),
+# as laid out by `mvn -Pfast-startup package` in target/fast-startup. The script writes
+# <app-dir>/classpath and, unless the second argument is "false", trains the application
+# once to record the classes it loads and dumps them into <app-dir>/app.jsa.
+#
+# The archive only works with the exact JVM build that dumped it and the same absolute
+# classpath, so the Docker image runs this script again in its runtime stage.
+set -e
+
+DIR=$(cd "$1" && pwd)
+ARCHIVE=${2:-true}
+MAIN=com.example.iotsimulatorbackend.IotSimulatorBackendApplication
+PORT=${TRAINING_PORT:-18080}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+# Absolute, sorted classpath; the run must use exactly the same one as the dump
+CP="$DIR/app.jar"
+for jar in $(ls "$DIR"/lib/*.jar | sort); do
+    CP="$CP:$jar"
+done
+printf '%s' "$CP" > "$DIR/classpath"
+
+if [ "$ARCHIVE" = "false" ]; then
+    echo "Fast-startup layout ready in $DIR (no CDS archive)"
+    exit 0
+fi
+
+# Training run: start up, then start one synthetic simulation so the request, JSON and
+# ingest paths are loaded too. Readings go to a closed port and simply fail.
+rm -f "$DIR/classes.lst" "$DIR/app.jsa"
+"$JAVA" -Xshare:off -XX:DumpLoadedClassList="$DIR/classes.lst" -cp "$CP" \
+    -Dspring.profiles.include=fast-startup \
+    "$MAIN" --server.port="$PORT" \
+    --simulator.device-ingest-url=http://127.0.0.1:9/ingest \
+    --simulator.schedule.phase-policy=none > "$DIR/training.log" 2>&1 &
+PID=$!
+
+started=false
+for _ in $(seq 1 240); do
+    if curl -sf -o /dev/null -X POST -H 'Content-Type: application/json' \
+        -d '{"persons": 1, "devicesPerPerson": 8, "geofencesPerPerson": 3, "seed": 1, "start": true}' \
+        "http://127.0.0.1:$PORT/api/synthetic/population"; then
+        started=true
+        break
+    fi
+    if ! kill -0 "$PID" 2>/dev/null; then
+        break
+    fi
+    sleep 0.5
+done
+if [ "$started" = true ]; then
+    sleep 3
+    curl -sf -o /dev/null "http://127.0.0.1:$PORT/api/metrics/ingest" || true
+fi
+kill "$PID" 2>/dev/null || true
+wait "$PID" 2>/dev/null || true
+
+if [ "$started" != true ]; then
+    echo "Training run did not come up, see $DIR/training.log" >&2
+    exit 1
+fi
+
+"$JAVA" -Xshare:dump -XX:SharedClassListFile="$DIR/classes.lst" -XX:SharedArchiveFile="$DIR/app.jsa" \
+    -cp "$CP" > "$DIR/dump.log" 2>&1 || { echo "CDS dump failed, see $DIR/dump.log" >&2; exit 1; }
+echo "CDS archive $DIR/app.jsa: $(wc -l < "$DIR/classes.lst") classes listed"
@@ -0,0 +1,20 @@
+#!/bin/sh
+# Start the backend from a directory prepared by create-cds-archive.sh, using its CDS
+# archive when there is one and the fast-startup Spring profile.
+#
+#   run.sh <app-dir> [application arguments...]
+set -e
+
+DIR=$(cd "$1" && pwd)
+shift
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+CDS=""
+if [ -f "$DIR/app.jsa" ]; then
+    # auto: a mismatched archive is ignored rather than failing startup
+    CDS="-XX:SharedArchiveFile=$DIR/app.jsa -Xshare:auto"
+fi
+
+exec "$JAVA" $JAVA_OPTS $CDS -cp "$(cat "$DIR/classpath")" \
+    -Dspring.profiles.include=fast-startup \
+    com.example.iotsimulatorbackend.IotSimulatorBackendApplication "$@"
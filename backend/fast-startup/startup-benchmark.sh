@@ -0,0 +1,90 @@
+#!/bin/bash
+# Time to first event: from launching the JVM until the first reading reaches the ingest
+# endpoint, for the default jar and for the fast-startup layout. Each run starts the
+# backend, loads a one-person synthetic population with start=true as soon as the API
+# answers, and waits for a local sink (src/test/java/.../IngestSink.java) to receive the
+# first reading.
+#
+#   mvn -Pfast-startup package -DskipTests          (-DskipTests still compiles the sink)
+#   fast-startup/startup-benchmark.sh [runs]          (from backend/)
+set -e
+
+RUNS=${1:-5}
+cd "$(dirname "$0")/.."
+DEFAULT_JAR=$(ls target/*.jar | grep -v '\.original$' | head -1)
+FAST_DIR=target/fast-startup
+APP_PORT=${BENCHMARK_APP_PORT:-18081}
+SINK_PORT=${BENCHMARK_SINK_PORT:-18082}
+WORK=$(mktemp -d)
+trap 'kill $(jobs -p) 2>/dev/null; rm -rf "$WORK"' EXIT
+
+if [ -z "$DEFAULT_JAR" ] || [ ! -f "$FAST_DIR/classpath" ] || [ ! -f target/test-classes/com/example/iotsimulatorbackend/IngestSink.class ]; then
+    echo "Build first: mvn -Pfast-startup package -DskipTests" >&2
+    exit 1
+fi
+[ -f "$FAST_DIR/app.jsa" ] || echo "⚠️  $FAST_DIR/app.jsa missing, fast runs will not use CDS" >&2
+
+now_ms() { date +%s%3N; }
+
+APP_ARGS=(--server.port=$APP_PORT
+          --simulator.device-ingest-url=http://127.0.0.1:$SINK_PORT/ingest
+          --simulator.schedule.phase-policy=none)
+
+# Prints "<ready ms> <first event ms>" relative to the JVM launch
+run_once() {
+    local mode=$1
+    rm -f "$WORK/first"
+    java -cp target/test-classes com.example.iotsimulatorbackend.IngestSink $SINK_PORT "$WORK/first" > /dev/null &
+    local sink=$!
+    # /ready, not the ingest path: only the first reading may set the first-event time
+    until curl -sf -o /dev/null "http://127.0.0.1:$SINK_PORT/ready"; do
+        kill -0 $sink 2>/dev/null || { echo "ingest sink exited" >&2; exit 1; }
+        sleep 0.05
+    done
+
+    local launched
+    launched=$(now_ms)
+    if [ "$mode" = default ]; then
+        java $JAVA_OPTS -jar "$DEFAULT_JAR" "${APP_ARGS[@]}" > "$WORK/app.log" 2>&1 &
+    else
+        fast-startup/run.sh "$FAST_DIR" "${APP_ARGS[@]}" > "$WORK/app.log" 2>&1 &
+    fi
+    local app=$!
+
+    until curl -sf -o /dev/null -X POST -H 'Content-Type: application/json' \
+        -d '{"persons": 1, "devicesPerPerson": 3, "geofencesPerPerson": 1, "seed": 1, "start": true}' \
+        "http://127.0.0.1:$APP_PORT/api/synthetic/population"; do
+        kill -0 $app 2>/dev/null || { echo "backend exited, see log:" >&2; cat "$WORK/app.log" >&2; exit 1; }
+        sleep 0.02
+    done
+    local ready
+    ready=$(now_ms)
+    until [ -s "$WORK/first" ]; do sleep 0.01; done
+
+    echo "$((ready - launched)) $(($(cat "$WORK/first") - launched))"
+    kill $app $sink 2>/dev/null
+    wait $app $sink 2>/dev/null || true
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'; }
+
+declare -A FIRST READY
+for mode in default fast; do
+    : > "$WORK/$mode.ready"
+    : > "$WORK/$mode.first"
+    for i in $(seq 1 "$RUNS"); do
+        read -r ready first < <(run_once $mode)
+        [ -n "$first" ] || exit 1
+        echo "$mode run $i: API ready ${ready} ms, first event ${first} ms"
+        echo "$ready" >> "$WORK/$mode.ready"
+        echo "$first" >> "$WORK/$mode.first"
+    done
+    READY[$mode]=$(median < "$WORK/$mode.ready")
+    FIRST[$mode]=$(median < "$WORK/$mode.first")
+done
+
+echo
+printf '%-10s %16s %22s\n' build "API ready (ms)" "first event (ms)"
+printf '%-10s %16s %22s\n' default "${READY[default]}" "${FIRST[default]}"
+printf '%-10s %16s %22s\n' fast "${READY[fast]}" "${FIRST[fast]}"
+awk -v d="${FIRST[default]}" -v f="${FIRST[fast]}" 'BEGIN { printf "time to first event: %.0f%% of default (median of %d runs)\n", 100 * f / d, '"$RUNS"' }'
@@ -0,0 +1,371 @@
+package com.example.iotsimulatorbackend.cluster;
+
+import com.example.iotsimulatorbackend.service.SimulationManager;
+import com.example.iotsimulatorbackend.service.SimulationStartJobs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster mode: several backend instances split the simulations between them.
+ *
+ * Every node heartbeats into a shared {@link ClusterStore}; nodes whose heartbeat is
+ * older than node-timeout-ms drop out of the membership. Simulations are owned by
+ * the node that {@link ConsistentHashRing} assigns to their elderly person ID, and
+ * every requested simulation is recorded in the store. On each heartbeat a node
+ * starts the recorded simulations it now owns but isn't running (failover or
+ * rebalance after a join) and stops the ones it no longer owns. Simulations are recorded
+ * before their start has finished, so a person with a start in progress on this node,
+ * queued or running, is left alone until it is.
+ * Any node accepts API calls and forwards them to the owner.
+ *
+ * Disabled unless simulator.cluster.enabled=true, in which case every call is local.
+ */
+@Component
+@Lazy(false)    // Joins the cluster and takes over simulations at startup, even with lazy initialization
+public class ClusterCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    /** Set on forwarded API calls so the receiving node handles them locally instead of routing again */
+    public static final String FORWARDED_HEADER = "X-Simulator-Forwarded-By";
+
+    // Owner response headers passed back to the client, e.g. for conditional statistics polling
+    private static final List<String> RELAYED_RESPONSE_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER);
+
+    @Value("${simulator.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${simulator.cluster.node-id:}")
+    private String configuredNodeId;
+
+    // URL other nodes use to reach this one
+    @Value("${simulator.cluster.advertised-url:http://localhost:${server.port:8080}}")
+    private String advertisedUrl;
+
+    // Directory shared by all nodes when no other ClusterStore bean is defined
+    @Value("${simulator.cluster.store-dir:${java.io.tmpdir}/iot-simulator-cluster}")
+    private String storeDir;
+
+    @Value("${simulator.cluster.heartbeat-interval-ms:2000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${simulator.cluster.node-timeout-ms:10000}")
+    private long nodeTimeoutMs;
+
+    @Value("${simulator.cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Autowired
+    private SimulationManager simulationManager;
+
+    @Autowired
+    private SimulationStartJobs startJobs;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Optional: define a ClusterStore bean to coordinate through something other than a shared directory
+    @Autowired(required = false)
+    private ClusterStore store;
+
+    private String nodeId;
+    private volatile Map<String, ClusterNode> liveNodes = Collections.emptyMap();
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(Collections.emptyList(), 1);
+    private final Set<String> takeoversInProgress = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService heartbeatExecutor;
+    private ExecutorService takeoverExecutor;
+
+    public ClusterCoordinator() {
+    }
+
+    /**
+     * A coordinator that is already enabled, for tests; call {@link #heartbeat()} to run a round
+     */
+    ClusterCoordinator(String nodeId, ClusterStore store, SimulationManager simulationManager,
+                       SimulationStartJobs startJobs, ExecutorService takeoverExecutor) {
+        this.enabled = true;
+        this.nodeId = nodeId;
+        this.advertisedUrl = "http://" + nodeId;
+        this.store = store;
+        this.simulationManager = simulationManager;
+        this.startJobs = startJobs;
+        this.takeoverExecutor = takeoverExecutor;
+        this.nodeTimeoutMs = 10_000;
+        this.virtualNodes = 128;
+    }
+
+    @PostConstruct
+    public void init() throws Exception {
+        if (!enabled) {
+            return;
+        }
+        nodeId = configuredNodeId != null && !configuredNodeId.isEmpty() ? configuredNodeId : UUID.randomUUID().toString();
+        if (store == null) {
+            store = new FileClusterStore(Paths.get(storeDir), objectMapper);
+        }
+
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor();
+        // Taking over a simulation runs its device setup, which must not delay heartbeats
+        takeoverExecutor = Executors.newSingleThreadExecutor();
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+
+        logger.info("🔗 Cluster mode enabled - node {} at {} (store: {})", nodeId, advertisedUrl, store.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        heartbeatExecutor.shutdownNow();
+        takeoverExecutor.shutdownNow();
+        try {
+            // Leave the assignments in place so the remaining nodes pick up this node's simulations
+            store.removeNode(nodeId);
+        } catch (Exception e) {
+            logger.warn("Could not deregister cluster node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The node that should handle calls for this elderly person, or null if this node
+     * should handle them (cluster mode off, call already forwarded, or we are the owner)
+     */
+    public ClusterNode remoteOwnerOf(String elderlyPersonId, String forwardedBy) {
+        if (!enabled || forwardedBy != null || elderlyPersonId == null) {
+            return null;
+        }
+        String owner = ring.ownerOf(elderlyPersonId);
+        if (owner == null || owner.equals(nodeId)) {
+            return null;
+        }
+        return liveNodes.get(owner);
+    }
+
+    /**
+     * Same as {@link #remoteOwnerOf} for calls that only carry a simulation ID
+     */
+    public ClusterNode remoteOwnerOfSimulation(String simulationId, String forwardedBy) {
+        if (!enabled || forwardedBy != null || simulationManager.isSimulationRunning(simulationId)) {
+            return null;
+        }
+        try {
+            SimulationAssignment assignment = store.getAssignment(simulationId);
+            return assignment != null ? remoteOwnerOf(assignment.getElderlyPersonId(), null) : null;
+        } catch (Exception e) {
+            logger.warn("Cluster store lookup failed for simulation {}: {}", simulationId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Record a simulation started on this node so the cluster keeps it running if this node leaves
+     */
+    public void registerSimulation(String simulationId, String elderlyPersonId, List<String> deviceIds) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Only one simulation per elderly person; drop records of ones it replaced
+            for (SimulationAssignment existing : store.listAssignments()) {
+                if (elderlyPersonId.equals(existing.getElderlyPersonId()) && !simulationId.equals(existing.getSimulationId())) {
+                    store.removeAssignment(existing.getSimulationId());
+                }
+            }
+            store.putAssignment(new SimulationAssignment(simulationId, elderlyPersonId,
+                    deviceIds != null ? new ArrayList<>(deviceIds) : Collections.emptyList(), System.currentTimeMillis()));
+        } catch (Exception e) {
+            logger.warn("Could not record simulation {} in the cluster store: {}", simulationId, e.getMessage());
+        }
+    }
+
+    /**
+     * Keep the recorded device set in step with a reconfigured simulation, so a takeover
+     * restarts the same devices. Stream rate and range changes are not carried over.
+     */
+    public void updateSimulationDevices(String simulationId, List<String> deviceIds) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            SimulationAssignment assignment = store.getAssignment(simulationId);
+            if (assignment != null) {
+                assignment.setDeviceIds(new ArrayList<>(deviceIds));
+                store.putAssignment(assignment);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not update simulation {} in the cluster store: {}", simulationId, e.getMessage());
+        }
+    }
+
+    public void unregisterSimulation(String simulationId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            store.removeAssignment(simulationId);
+        } catch (Exception e) {
+            logger.warn("Could not remove simulation {} from the cluster store: {}", simulationId, e.getMessage());
+        }
+    }
+
+    /**
+     * Forward an API call to the owning node and relay its status, body and content headers as they are.
+     * pathAndQuery is sent as given, so any query values in it must already be encoded.
+     */
+    public ResponseEntity<byte[]> forward(ClusterNode owner, HttpMethod method, String pathAndQuery, Object body) {
+        return forward(owner, method, pathAndQuery, body, null);
+    }
+
+    /**
+     * Same, passing the client's If-None-Match on so the owner can answer 304
+     */
+    public ResponseEntity<byte[]> forward(ClusterNode owner, HttpMethod method, String pathAndQuery, Object body,
+                                          String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(FORWARDED_HEADER, nodeId);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        try {
+            // A URI, not a String: RestTemplate would encode a String template a second time
+            ResponseEntity<byte[]> response = restTemplate.exchange(URI.create(owner.getBaseUrl() + pathAndQuery), method,
+                    new HttpEntity<>(body, headers), byte[].class);
+            return relay(response.getStatusCodeValue(), response.getHeaders(), response.getBody());
+        } catch (HttpStatusCodeException e) {
+            // The owner's error body (e.g. {"error": ...}) is what the client needs to see
+            return relay(e.getRawStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        } catch (RestClientException e) {
+            logger.warn("⚠️  Forwarding {} {} to node {} failed: {}", method, pathAndQuery, owner.getNodeId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+    }
+
+    private static ResponseEntity<byte[]> relay(int status, HttpHeaders ownerHeaders, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ownerHeaders != null) {
+            for (String name : RELAYED_RESPONSE_HEADERS) {
+                List<String> values = ownerHeaders.get(name);
+                if (values != null) {
+                    headers.put(name, values);
+                }
+            }
+        }
+        return ResponseEntity.status(status).headers(headers).body(body);
+    }
+
+    /**
+     * Membership and ownership as seen by this node
+     */
+    public Map<String, Object> getClusterStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        if (!enabled) {
+            return status;
+        }
+        status.put("nodeId", nodeId);
+        status.put("advertisedUrl", advertisedUrl);
+        status.put("liveNodes", new ArrayList<>(liveNodes.values()));
+
+        Map<String, Integer> simulationsPerNode = new TreeMap<>();
+        try {
+            for (SimulationAssignment assignment : store.listAssignments()) {
+                String owner = ring.ownerOf(assignment.getElderlyPersonId());
+                simulationsPerNode.merge(owner != null ? owner : "unassigned", 1, Integer::sum);
+            }
+        } catch (Exception e) {
+            status.put("storeError", e.getMessage());
+        }
+        status.put("simulationsPerNode", simulationsPerNode);
+        status.put("localSimulations", simulationManager.getRunningSimulationIds());
+        return status;
+    }
+
+    void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            store.heartbeat(new ClusterNode(nodeId, advertisedUrl, now));
+
+            Map<String, ClusterNode> live = new TreeMap<>();
+            for (ClusterNode node : store.listNodes()) {
+                if (node.getNodeId().equals(nodeId) || now - node.getLastHeartbeat() <= nodeTimeoutMs) {
+                    live.put(node.getNodeId(), node);
+                }
+            }
+            if (!live.keySet().equals(liveNodes.keySet())) {
+                ring = new ConsistentHashRing(live.keySet(), virtualNodes);
+                logger.info("🔗 Cluster membership changed: {} node(s) {}", live.size(), live.keySet());
+            }
+            liveNodes = live;
+
+            reconcile();
+        } catch (Exception e) {
+            logger.warn("⚠️  Cluster heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Start simulations this node now owns and stop the ones it has handed over
+     */
+    private void reconcile() throws Exception {
+        Set<String> running = simulationManager.getRunningSimulationIds();
+        for (SimulationAssignment assignment : store.listAssignments()) {
+            String simulationId = assignment.getSimulationId();
+            boolean owned = nodeId.equals(ring.ownerOf(assignment.getElderlyPersonId()));
+
+            if (owned && !running.contains(simulationId) && !isStarting(assignment.getElderlyPersonId())
+                    && takeoversInProgress.add(simulationId)) {
+                logger.info("🔁 Taking over simulation {} for elderly person {}", simulationId, assignment.getElderlyPersonId());
+                takeoverExecutor.execute(() -> {
+                    try {
+                        simulationManager.startSimulation(assignment.getElderlyPersonId(), assignment.getDeviceIds(), simulationId);
+                    } finally {
+                        takeoversInProgress.remove(simulationId);
+                    }
+                });
+            } else if (!owned && running.contains(simulationId)) {
+                logger.info("🔁 Handing over simulation {} to node {}", simulationId, ring.ownerOf(assignment.getElderlyPersonId()));
+                simulationManager.stopSimulation(simulationId);
+            }
+        }
+    }
+
+    // Recorded but not (yet) running because this node is still starting it, or a replacement for it
+    private boolean isStarting(String elderlyPersonId) {
+        return startJobs.isInProgress(elderlyPersonId) || simulationManager.hasSimulationFor(elderlyPersonId);
+    }
+}
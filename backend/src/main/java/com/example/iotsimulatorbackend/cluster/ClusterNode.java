@@ -0,0 +1,29 @@
+package com.example.iotsimulatorbackend.cluster;
+
+/**
+ * A backend instance taking part in cluster mode
+ */
+public class ClusterNode {
+    private String nodeId;
+    private String baseUrl;          // e.g., "http://10.0.0.5:8080", used to route API calls to the owner
+    private long lastHeartbeat;      // Epoch millis of the node's latest heartbeat
+
+    // Constructors
+    public ClusterNode() {}
+
+    public ClusterNode(String nodeId, String baseUrl, long lastHeartbeat) {
+        this.nodeId = nodeId;
+        this.baseUrl = baseUrl;
+        this.lastHeartbeat = lastHeartbeat;
+    }
+
+    // Getters and setters
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+    public String getBaseUrl() { return baseUrl; }
+    public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
+
+    public long getLastHeartbeat() { return lastHeartbeat; }
+    public void setLastHeartbeat(long lastHeartbeat) { this.lastHeartbeat = lastHeartbeat; }
+}
@@ -0,0 +1,31 @@
+package com.example.iotsimulatorbackend.cluster;
+
+import java.util.List;
+
+/**
+ * Shared coordination state for cluster mode: node membership (via heartbeats)
+ * and the set of simulations that should be running somewhere in the cluster.
+ * Implementations must be safe to use from several nodes at once.
+ */
+public interface ClusterStore {
+
+    /** Register the node or refresh its heartbeat */
+    void heartbeat(ClusterNode node) throws Exception;
+
+    /** Remove a node, e.g. on graceful shutdown */
+    void removeNode(String nodeId) throws Exception;
+
+    /** All registered nodes, including ones whose heartbeat may be stale */
+    List<ClusterNode> listNodes() throws Exception;
+
+    /** Record a simulation that should be running */
+    void putAssignment(SimulationAssignment assignment) throws Exception;
+
+    /** Forget a simulation (it was stopped) */
+    void removeAssignment(String simulationId) throws Exception;
+
+    /** Look up a simulation by ID, or null */
+    SimulationAssignment getAssignment(String simulationId) throws Exception;
+
+    List<SimulationAssignment> listAssignments() throws Exception;
+}
@@ -0,0 +1,59 @@
+package com.example.iotsimulatorbackend.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring mapping keys (elderly person IDs) to node IDs.
+ * Each node is placed on the ring at several virtual points so load stays even,
+ * and adding or removing a node only moves the keys adjacent to its points.
+ * Instances are immutable; build a new ring when membership changes.
+ */
+public final class ConsistentHashRing {
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final int nodeCount;
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodesPerNode) {
+        for (String nodeId : nodeIds) {
+            for (int i = 0; i < virtualNodesPerNode; i++) {
+                ring.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+        this.nodeCount = nodeIds.size();
+    }
+
+    /**
+     * Node that owns the key, or null if the ring is empty
+     */
+    public String ownerOf(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 64-bit FNV-1a followed by a murmur3 finalizer so similar keys spread across the ring
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
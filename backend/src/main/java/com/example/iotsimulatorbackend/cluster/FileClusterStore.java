@@ -0,0 +1,103 @@
+package com.example.iotsimulatorbackend.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ClusterStore backed by a directory shared between the nodes (local disk for
+ * several instances on one host, or a network mount). Each node and each
+ * simulation is one small JSON file, written atomically via rename so readers
+ * never see a partial record.
+ */
+public class FileClusterStore implements ClusterStore {
+    private static final String SUFFIX = ".json";
+
+    private final Path nodesDir;
+    private final Path simulationsDir;
+    private final ObjectMapper objectMapper;
+
+    public FileClusterStore(Path rootDir, ObjectMapper objectMapper) throws IOException {
+        this.nodesDir = Files.createDirectories(rootDir.resolve("nodes"));
+        this.simulationsDir = Files.createDirectories(rootDir.resolve("simulations"));
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void heartbeat(ClusterNode node) throws IOException {
+        write(nodesDir.resolve(fileName(node.getNodeId())), node);
+    }
+
+    @Override
+    public void removeNode(String nodeId) throws IOException {
+        Files.deleteIfExists(nodesDir.resolve(fileName(nodeId)));
+    }
+
+    @Override
+    public List<ClusterNode> listNodes() throws IOException {
+        return readAll(nodesDir, ClusterNode.class);
+    }
+
+    @Override
+    public void putAssignment(SimulationAssignment assignment) throws IOException {
+        write(simulationsDir.resolve(fileName(assignment.getSimulationId())), assignment);
+    }
+
+    @Override
+    public void removeAssignment(String simulationId) throws IOException {
+        Files.deleteIfExists(simulationsDir.resolve(fileName(simulationId)));
+    }
+
+    @Override
+    public SimulationAssignment getAssignment(String simulationId) throws IOException {
+        return read(simulationsDir.resolve(fileName(simulationId)), SimulationAssignment.class);
+    }
+
+    @Override
+    public List<SimulationAssignment> listAssignments() throws IOException {
+        return readAll(simulationsDir, SimulationAssignment.class);
+    }
+
+    private void write(Path target, Object value) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".tmp-", SUFFIX);
+        try {
+            objectMapper.writeValue(temp.toFile(), value);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private <T> T read(Path file, Class<T> type) throws IOException {
+        try {
+            return objectMapper.readValue(Files.readAllBytes(file), type);
+        } catch (NoSuchFileException e) {
+            // Removed by another node between listing and reading
+            return null;
+        }
+    }
+
+    private <T> List<T> readAll(Path dir, Class<T> type) throws IOException {
+        List<T> values = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "[!.]*" + SUFFIX)) {
+            for (Path file : files) {
+                T value = read(file, type);
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+        }
+        return values;
+    }
+
+    private static String fileName(String id) {
+        return id.replaceAll("[^A-Za-z0-9._-]", "_") + SUFFIX;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.iotsimulatorbackend.cluster;
+
+import java.util.List;
+
+/**
+ * Cluster-wide record of a requested simulation. Whichever node owns the
+ * elderly person on the hash ring is responsible for running it, so the record
+ * survives the node that originally started it.
+ */
+public class SimulationAssignment {
+    private String simulationId;
+    private String elderlyPersonId;
+    private List<String> deviceIds;  // Empty or null means all devices of the person
+    private long createdAt;
+
+    // Constructors
+    public SimulationAssignment() {}
+
+    public SimulationAssignment(String simulationId, String elderlyPersonId, List<String> deviceIds, long createdAt) {
+        this.simulationId = simulationId;
+        this.elderlyPersonId = elderlyPersonId;
+        this.deviceIds = deviceIds;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and setters
+    public String getSimulationId() { return simulationId; }
+    public void setSimulationId(String simulationId) { this.simulationId = simulationId; }
+
+    public String getElderlyPersonId() { return elderlyPersonId; }
+    public void setElderlyPersonId(String elderlyPersonId) { this.elderlyPersonId = elderlyPersonId; }
+
+    public List<String> getDeviceIds() { return deviceIds; }
+    public void setDeviceIds(List<String> deviceIds) { this.deviceIds = deviceIds; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+}
@@ -1,20 +1,49 @@
 package com.example.iotsimulatorbackend.controller;
 
+import com.example.iotsimulatorbackend.cluster.ClusterCoordinator;
+import com.example.iotsimulatorbackend.cluster.ClusterNode;
+import com.example.iotsimulatorbackend.model.BulkSensorGenerateRequest;
+import com.example.iotsimulatorbackend.model.CapacityPlanRequest;
 import com.example.iotsimulatorbackend.model.DataTypeConfig;
 import com.example.iotsimulatorbackend.model.Device;
+import com.example.iotsimulatorbackend.model.DeviceSetupResult;
 import com.example.iotsimulatorbackend.model.SimulationRequest;
 import com.example.iotsimulatorbackend.model.SimulationResponse;
-import com.example.iotsimulatorbackend.model.SimulationStatistics;
+import com.example.iotsimulatorbackend.model.SimulationUpdateRequest;
 import com.example.iotsimulatorbackend.model.GeofencePlace;
 import com.example.iotsimulatorbackend.model.SensorGenerateRequest;
+import com.example.iotsimulatorbackend.model.StatisticsSnapshot;
+import com.example.iotsimulatorbackend.model.StatisticsTimeSeries;
+import com.example.iotsimulatorbackend.model.SyntheticPopulationRequest;
+import com.example.iotsimulatorbackend.service.CapacityPlanner;
+import com.example.iotsimulatorbackend.service.DeviceIngestClient;
+import com.example.iotsimulatorbackend.service.DeviceStatisticsQuery;
+import com.example.iotsimulatorbackend.service.EventLog;
+import com.example.iotsimulatorbackend.service.FairDispatcher;
+import com.example.iotsimulatorbackend.service.GeofenceEventStream;
+import com.example.iotsimulatorbackend.service.IngestFanOut;
+import com.example.iotsimulatorbackend.service.SimulationHistory;
 import com.example.iotsimulatorbackend.service.SimulatorService;
 import com.example.iotsimulatorbackend.service.SimulationManager;
+import com.example.iotsimulatorbackend.service.SimulationStartJobs;
+import com.example.iotsimulatorbackend.service.SyntheticPopulation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 
 @RestController
 @RequestMapping("/api")
@@ -26,6 +55,36 @@ public class SimulatorController {
     @Autowired
     private SimulationManager simulationManager;
 
+    @Autowired
+    private EventLog eventLog;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private SimulationHistory simulationHistory;
+
+    @Autowired
+    private FairDispatcher fairDispatcher;
+
+    @Autowired
+    private DeviceIngestClient deviceIngestClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CapacityPlanner capacityPlanner;
+
+    @Autowired
+    private SimulationStartJobs startJobs;
+
+    @Autowired
+    private IngestFanOut ingestFanOut;
+
+    @Autowired
+    private GeofenceEventStream geofenceEvents;
+
     @GetMapping("/devices/{elderlyPersonId}")
     public ResponseEntity<List<Device>> getDevices(@PathVariable String elderlyPersonId) {
         return ResponseEntity.ok(service.getDevicesByElderlyPersonId(elderlyPersonId));
@@ -36,11 +95,36 @@ public class SimulatorController {
         return ResponseEntity.ok(service.getDataTypesByDeviceId(deviceId));
     }
 
+    /**
+     * Start a simulation. With async=true the start runs in the background: the response is
+     * 202 with the simulation ID, and /simulation/jobs/{simulationId} reports its progress.
+     */
     @PostMapping("/simulation/start")
-    public ResponseEntity<SimulationResponse> startSimulation(@RequestBody SimulationRequest request) {
+    public ResponseEntity<?> startSimulation(@RequestBody SimulationRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwardedBy) {
+        ClusterNode owner = clusterCoordinator.remoteOwnerOf(request.getElderlyPersonId(), forwardedBy);
+        if (owner != null) {
+            return async
+                ? clusterCoordinator.forward(owner, HttpMethod.POST, "/api/simulation/start?async=true", request)
+                : clusterCoordinator.forward(owner, HttpMethod.POST, "/api/simulation/start", request);
+        }
+
+        try {
+            SimulationManager.validateDispatchShare(request.getWeight(), request.getMaxConcurrency());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new SimulationResponse(null, "error", request.getElderlyPersonId(), 0, 0, e.getMessage()));
+        }
+        if (async) {
+            return startSimulationAsync(request);
+        }
+
         String simulationId = simulationManager.startSimulation(
             request.getElderlyPersonId(),
-            request.getDeviceIds()
+            request.getDeviceIds(),
+            request.getWeight(),
+            request.getMaxConcurrency()
         );
 
         if (simulationId == null) {
@@ -48,20 +132,113 @@ public class SimulatorController {
                 .body(new SimulationResponse(null, "error", request.getElderlyPersonId(),
                     0, 0, "No devices found for simulation"));
         }
+        clusterCoordinator.registerSimulation(simulationId, request.getElderlyPersonId(), request.getDeviceIds());
 
-        return ResponseEntity.ok(new SimulationResponse(
+        List<DeviceSetupResult> setupResults = simulationManager.getDeviceSetupResults(simulationId);
+        int streamCount = setupResults.stream().mapToInt(DeviceSetupResult::getStreamsScheduled).sum();
+
+        SimulationResponse response = new SimulationResponse(
             simulationId,
             "running",
             request.getElderlyPersonId(),
             request.getDeviceIds() != null ? request.getDeviceIds().size() : 0,
-            0,
+            streamCount,
             "Simulation started successfully"
-        ));
+        );
+        response.setDeviceSetup(setupResults);
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<?> startSimulationAsync(SimulationRequest request) {
+        if (request.getElderlyPersonId() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "elderlyPersonId is required"));
+        }
+        // Recorded before the start runs so progress queries to other nodes find the owner
+        String simulationId = UUID.randomUUID().toString();
+        clusterCoordinator.registerSimulation(simulationId, request.getElderlyPersonId(), request.getDeviceIds());
+        try {
+            Map<String, Object> progress = startJobs.submit(simulationId, request,
+                () -> clusterCoordinator.unregisterSimulation(simulationId));
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header("Location", "/api/simulation/jobs/" + simulationId)
+                .body(progress);
+        } catch (IllegalStateException e) {
+            clusterCoordinator.unregisterSimulation(simulationId);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            clusterCoordinator.unregisterSimulation(simulationId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "Too many simulation starts queued, retry later"));
+        }
+    }
+
+    /**
+     * Progress of an asynchronous start: devices set up, streams scheduled and errors so far
+     */
+    @GetMapping("/simulation/jobs/{simulationId}")
+    public ResponseEntity<?> getStartJob(@PathVariable String simulationId,
+            @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwardedBy) {
+        ClusterNode owner = clusterCoordinator.remoteOwnerOfSimulation(simulationId, forwardedBy);
+        if (owner != null) {
+            return clusterCoordinator.forward(owner, HttpMethod.GET, "/api/simulation/jobs/" + simulationId, null);
+        }
+        Map<String, Object> progress = startJobs.getProgress(simulationId);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Server-sent "progress" events of an asynchronous start, ending with a "done" event
+     */
+    @GetMapping(value = "/simulation/jobs/{simulationId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> watchStartJob(@PathVariable String simulationId,
+            @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwardedBy) {
+        ClusterNode owner = clusterCoordinator.remoteOwnerOfSimulation(simulationId, forwardedBy);
+        if (owner != null) {
+            // Event streams are not relayed; the client follows the redirect to the owner
+            return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                .header("Location", owner.getBaseUrl() + "/api/simulation/jobs/" + simulationId + "/events")
+                .build();
+        }
+        SseEmitter emitter = startJobs.watch(simulationId);
+        return emitter != null ? ResponseEntity.ok(emitter) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Dry run: resolve the devices of the proposed simulations and estimate the load they would
+     * add (events/s, peak, concurrency, bandwidth, heap) without starting anything
+     */
+    @PostMapping("/simulation/plan")
+    public ResponseEntity<?> planSimulations(@RequestBody CapacityPlanRequest request) {
+        if (request.getSimulations() == null || request.getSimulations().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No simulations to plan"));
+        }
+        if (request.getAssumedLatencyMs() != null && request.getAssumedLatencyMs() < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "assumedLatencyMs must be at least 1"));
+        }
+        try {
+            for (SimulationRequest simulation : request.getSimulations()) {
+                if (simulation.getElderlyPersonId() == null) {
+                    throw new IllegalArgumentException("elderlyPersonId is required for every simulation");
+                }
+                SimulationManager.validateDispatchShare(simulation.getWeight(), simulation.getMaxConcurrency());
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(capacityPlanner.plan(request));
     }
 
     @PostMapping("/simulation/stop")
-    public ResponseEntity<SimulationResponse> stopSimulation(@RequestParam String simulationId) {
+    public ResponseEntity<?> stopSimulation(@RequestParam String simulationId,
+            @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwardedBy) {
+        ClusterNode owner = clusterCoordinator.remoteOwnerOfSimulation(simulationId, forwardedBy);
+        if (owner != null) {
+            return clusterCoordinator.forward(owner, HttpMethod.POST, "/api/simulation/stop?simulationId=" + simulationId,
+                null);
+        }
+
         boolean stopped = simulationManager.stopSimulation(simulationId);
+        clusterCoordinator.unregisterSimulation(simulationId);
 
         return ResponseEntity.ok(new SimulationResponse(
             simulationId,
@@ -73,8 +250,41 @@ public class SimulatorController {
         ));
     }
 
+    // PATCH is the intended verb; POST is accepted too for clients (and forwarding nodes) without PATCH support
+    @RequestMapping(value = "/simulation/{simulationId}", method = {RequestMethod.PATCH, RequestMethod.POST})
+    public ResponseEntity<?> updateSimulation(@PathVariable String simulationId,
+            @RequestBody SimulationUpdateRequest request,
+            @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwardedBy) {
+        ClusterNode owner = clusterCoordinator.remoteOwnerOfSimulation(simulationId, forwardedBy);
+        if (owner != null) {
+            return clusterCoordinator.forward(owner, HttpMethod.POST, "/api/simulation/" + simulationId, request);
+        }
+
+        try {
+            Map<String, Object> result = simulationManager.updateSimulation(simulationId, request);
+            if (result == null) {
+                return ResponseEntity.notFound().build();
+            }
+            @SuppressWarnings("unchecked")
+            List<String> deviceIds = (List<String>) result.get("deviceIds");
+            clusterCoordinator.updateSimulationDevices(simulationId, deviceIds);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", e.getMessage())
+            );
+        }
+    }
+
     @GetMapping("/simulation/status/{simulationId}")
-    public ResponseEntity<SimulationResponse> getSimulationStatus(@PathVariable String simulationId) {
+    public ResponseEntity<?> getSimulationStatus(@PathVariable String simulationId,
+            @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwardedBy) {
+        ClusterNode owner = clusterCoordinator.remoteOwnerOfSimulation(simulationId, forwardedBy);
+        if (owner != null) {
+            return clusterCoordinator.forward(owner, HttpMethod.GET, "/api/simulation/status/" + simulationId,
+                null);
+        }
+
         boolean isRunning = simulationManager.isSimulationRunning(simulationId);
 
         return ResponseEntity.ok(new SimulationResponse(
@@ -87,15 +297,151 @@ public class SimulatorController {
         ));
     }
 
+    /**
+     * Statistics of a simulation from its cached snapshot. Supports If-None-Match (304 while the
+     * version is unchanged) and ?sinceVersion= for only the device and data type entries that
+     * changed after that version.
+     */
     @GetMapping("/simulation/statistics/{simulationId}")
-    public ResponseEntity<SimulationStatistics> getSimulationStatistics(@PathVariable String simulationId) {
-        SimulationStatistics statistics = simulationManager.getSimulationStatistics(simulationId);
+    public ResponseEntity<?> getSimulationStatistics(@PathVariable String simulationId,
+            @RequestParam(required = false) Long sinceVersion,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwardedBy) {
+        ClusterNode owner = clusterCoordinator.remoteOwnerOfSimulation(simulationId, forwardedBy);
+        if (owner != null) {
+            return clusterCoordinator.forward(owner, HttpMethod.GET, "/api/simulation/statistics/" + simulationId
+                + (sinceVersion != null ? "?sinceVersion=" + sinceVersion : ""), null, ifNoneMatch);
+        }
+
+        StatisticsSnapshot snapshot = simulationManager.getStatisticsSnapshot(simulationId);
 
-        if (statistics == null) {
+        if (snapshot == null) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(statistics);
+        if (sinceVersion != null) {
+            snapshot = snapshot.since(sinceVersion);
+        }
+        String eTag = snapshot.getETag();
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        try {
+            // no-cache: browsers revalidate with If-None-Match on every poll
+            return ResponseEntity.ok()
+                .eTag(eTag)
+                .header("Cache-Control", "no-cache")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.toJson(objectMapper));
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Per-device statistics, filtered and paged. sort is failureRate, latency, total (all worst
+     * or largest first) or deviceId; failure rates are percentages.
+     */
+    @GetMapping("/simulation/statistics/{simulationId}/devices")
+    public ResponseEntity<?> getDeviceStatistics(@PathVariable String simulationId,
+            @RequestParam(required = false) String device,
+            @RequestParam(required = false) String dataType,
+            @RequestParam(required = false) Double minFailureRate,
+            @RequestParam(required = false) Double maxFailureRate,
+            @RequestParam(defaultValue = "deviceId") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwardedBy) {
+        DeviceStatisticsQuery.Sort parsedSort = DeviceStatisticsQuery.Sort.fromKey(sort);
+        if (parsedSort == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown sort: " + sort));
+        }
+        if (page < 0 || size < 1 || size > 500) {
+            return ResponseEntity.badRequest().body(Map.of("error", "page must be >= 0 and size between 1 and 500"));
+        }
+
+        ClusterNode owner = clusterCoordinator.remoteOwnerOfSimulation(simulationId, forwardedBy);
+        if (owner != null) {
+            String query = UriComponentsBuilder.fromPath("/api/simulation/statistics/" + simulationId + "/devices")
+                .queryParamIfPresent("device", Optional.ofNullable(device))
+                .queryParamIfPresent("dataType", Optional.ofNullable(dataType))
+                .queryParamIfPresent("minFailureRate", Optional.ofNullable(minFailureRate))
+                .queryParamIfPresent("maxFailureRate", Optional.ofNullable(maxFailureRate))
+                .queryParam("sort", sort)
+                .queryParam("page", page)
+                .queryParam("size", size)
+                .encode()
+                .toUriString();
+            return clusterCoordinator.forward(owner, HttpMethod.GET, query, null);
+        }
+
+        DeviceStatisticsQuery query = new DeviceStatisticsQuery()
+            .deviceFilter(device)
+            .dataType(dataType)
+            .failureRateBetween(minFailureRate, maxFailureRate)
+            .sort(parsedSort)
+            .page(page, size);
+        Map<String, Object> result = simulationManager.queryDeviceStatistics(simulationId, query);
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // If-None-Match may list several tags, weak or strong
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @GetMapping("/simulation/statistics/{simulationId}/series")
+    public ResponseEntity<?> getSimulationStatisticsSeries(@PathVariable String simulationId,
+            @RequestParam(defaultValue = "second") String resolution,
+            @RequestParam(defaultValue = "60") int buckets,
+            @RequestParam(required = false) String dataType,
+            @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwardedBy) {
+        StatisticsTimeSeries.Resolution parsed = StatisticsTimeSeries.Resolution.fromKey(resolution);
+        if (parsed == null || buckets < 1 || buckets > StatisticsTimeSeries.maxBuckets(parsed)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ClusterNode owner = clusterCoordinator.remoteOwnerOfSimulation(simulationId, forwardedBy);
+        if (owner != null) {
+            String query = UriComponentsBuilder.fromPath("/api/simulation/statistics/" + simulationId + "/series")
+                .queryParam("resolution", resolution)
+                .queryParam("buckets", buckets)
+                .queryParamIfPresent("dataType", Optional.ofNullable(dataType))
+                .encode()
+                .toUriString();
+            return clusterCoordinator.forward(owner, HttpMethod.GET, query, null);
+        }
+
+        Map<String, Object> series = simulationManager.getStatisticsSeries(simulationId, dataType, parsed, buckets);
+        if (series == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(series);
+    }
+
+    @GetMapping("/simulation/history")
+    public ResponseEntity<Map<String, Object>> getSimulationHistory(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 200) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(simulationHistory.getHistory(page, size));
     }
 
     @PostMapping("/sensor/generate")
@@ -114,8 +460,134 @@ public class SimulatorController {
         }
     }
 
+    @PostMapping("/sensor/generate/bulk")
+    public ResponseEntity<?> generateSensorDataBulk(@RequestBody BulkSensorGenerateRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No items to generate"));
+        }
+        try {
+            return ResponseEntity.ok(simulationManager.generateAndSendSensorDataBulk(request.getItems()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", e.getMessage())
+            );
+        }
+    }
+
     @GetMapping("/geofence-places/{elderlyPersonId}")
     public ResponseEntity<List<GeofencePlace>> getGeofencePlaces(@PathVariable String elderlyPersonId) {
         return ResponseEntity.ok(service.getGeofencePlacesByElderlyPersonId(elderlyPersonId));
     }
+
+    /**
+     * Load a generated fleet for scale tests and optionally start a simulation for every person.
+     * The fleet lives only in this instance's memory, so it is not available in cluster mode.
+     */
+    @PostMapping("/synthetic/population")
+    public ResponseEntity<?> loadSyntheticPopulation(@RequestBody SyntheticPopulationRequest request) {
+        if (clusterCoordinator.isEnabled()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Synthetic populations are not available in cluster mode"));
+        }
+        if (request.getPersons() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "persons is required"));
+        }
+        try {
+            SyntheticPopulation population = new SyntheticPopulation(
+                request.getPersons(),
+                request.getDevicesPerPerson() != null ? request.getDevicesPerPerson() : 3,
+                request.getGeofencesPerPerson() != null ? request.getGeofencesPerPerson() : 3,
+                request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextInt(1_000_000),
+                request.getCities()
+            );
+            return ResponseEntity.ok(simulationManager.loadSyntheticPopulation(population, Boolean.TRUE.equals(request.getStart())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/synthetic/population")
+    public ResponseEntity<?> getSyntheticPopulation() {
+        Map<String, Object> summary = simulationManager.getSyntheticPopulationSummary();
+        if (summary == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(summary);
+    }
+
+    @DeleteMapping("/synthetic/population")
+    public ResponseEntity<Map<String, Object>> unloadSyntheticPopulation() {
+        return ResponseEntity.ok(Map.of("stopped", simulationManager.unloadSyntheticPopulation()));
+    }
+
+    @GetMapping("/metrics/supabase")
+    public ResponseEntity<Map<String, Object>> getSupabaseRequestMetrics() {
+        return ResponseEntity.ok(service.getRequestMetrics());
+    }
+
+    @GetMapping("/metrics/scheduling")
+    public ResponseEntity<Map<String, Object>> getSchedulingMetrics() {
+        return ResponseEntity.ok(simulationManager.getSchedulingMetrics());
+    }
+
+    @GetMapping("/metrics/dispatch")
+    public ResponseEntity<Map<String, Object>> getDispatchMetrics() {
+        return ResponseEntity.ok(fairDispatcher.getMetrics());
+    }
+
+    @GetMapping("/metrics/ingest")
+    public ResponseEntity<Map<String, Object>> getIngestMetrics() {
+        return ResponseEntity.ok(deviceIngestClient.getWireMetrics());
+    }
+
+    @GetMapping("/metrics/capture")
+    public ResponseEntity<Map<String, Object>> getCaptureMetrics() {
+        return ResponseEntity.ok(ingestFanOut.getMetrics());
+    }
+
+    @GetMapping("/capture/tap")
+    public ResponseEntity<?> getCaptureTap(@RequestParam(defaultValue = "100") int limit) {
+        List<Map<String, Object>> entries = ingestFanOut.getTap(limit);
+        if (entries == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "The capture tap is off; set simulator.capture.tap-size"));
+        }
+        return ResponseEntity.ok(entries);
+    }
+
+    @DeleteMapping("/capture/tap")
+    public ResponseEntity<Map<String, Object>> clearCaptureTap() {
+        return ResponseEntity.ok(Map.of("cleared", ingestFanOut.clearTap()));
+    }
+
+    @GetMapping("/geofence/events")
+    public ResponseEntity<?> getGeofenceEvents(
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String deviceId) {
+        if (!geofenceEvents.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Geofence events are off; set simulator.geofence-events.buffer-size"));
+        }
+        return ResponseEntity.ok(geofenceEvents.getLatest(limit, deviceId));
+    }
+
+    @DeleteMapping("/geofence/events")
+    public ResponseEntity<Map<String, Object>> clearGeofenceEvents() {
+        geofenceEvents.clear();
+        return ResponseEntity.ok(Map.of("cleared", geofenceEvents.isEnabled()));
+    }
+
+    @GetMapping("/metrics/geofence-events")
+    public ResponseEntity<Map<String, Object>> getGeofenceEventMetrics() {
+        return ResponseEntity.ok(geofenceEvents.getMetrics());
+    }
+
+    @GetMapping("/metrics/event-log")
+    public ResponseEntity<Map<String, Object>> getEventLogMetrics() {
+        return ResponseEntity.ok(eventLog.getMetrics());
+    }
+
+    @GetMapping("/cluster")
+    public ResponseEntity<Map<String, Object>> getClusterStatus() {
+        return ResponseEntity.ok(clusterCoordinator.getClusterStatus());
+    }
 }
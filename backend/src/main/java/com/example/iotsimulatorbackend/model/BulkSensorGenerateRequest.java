@@ -0,0 +1,18 @@
+package com.example.iotsimulatorbackend.model;
+
+import java.util.List;
+
+public class BulkSensorGenerateRequest {
+    private List<SensorGenerateRequest> items;  // (deviceId, dataType, count, location) entries
+
+    // Constructors
+    public BulkSensorGenerateRequest() {}
+
+    public BulkSensorGenerateRequest(List<SensorGenerateRequest> items) {
+        this.items = items;
+    }
+
+    // Getters and setters
+    public List<SensorGenerateRequest> getItems() { return items; }
+    public void setItems(List<SensorGenerateRequest> items) { this.items = items; }
+}
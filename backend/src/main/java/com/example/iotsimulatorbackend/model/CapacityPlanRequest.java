@@ -0,0 +1,23 @@
+package com.example.iotsimulatorbackend.model;
+
+import java.util.List;
+
+public class CapacityPlanRequest {
+    private List<SimulationRequest> simulations;  // Proposed simulations, as they would be passed to /simulation/start
+    private Long assumedLatencyMs;                // Optional: device-ingest round trip to plan with (default from config)
+
+    // Constructors
+    public CapacityPlanRequest() {}
+
+    public CapacityPlanRequest(List<SimulationRequest> simulations, Long assumedLatencyMs) {
+        this.simulations = simulations;
+        this.assumedLatencyMs = assumedLatencyMs;
+    }
+
+    // Getters and setters
+    public List<SimulationRequest> getSimulations() { return simulations; }
+    public void setSimulations(List<SimulationRequest> simulations) { this.simulations = simulations; }
+
+    public Long getAssumedLatencyMs() { return assumedLatencyMs; }
+    public void setAssumedLatencyMs(Long assumedLatencyMs) { this.assumedLatencyMs = assumedLatencyMs; }
+}
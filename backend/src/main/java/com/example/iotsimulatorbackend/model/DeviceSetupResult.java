@@ -0,0 +1,51 @@
+package com.example.iotsimulatorbackend.model;
+
+/**
+ * Outcome of setting up a single device when a simulation starts
+ * (config lookup from Supabase + scheduling of its data streams)
+ */
+public class DeviceSetupResult {
+    private String deviceId;           // Supabase UUID of the device
+    private String deviceName;
+    private String hardwareDeviceId;   // e.g., "KT001"
+    private String status;             // "scheduled", "partial" (some streams started), "no_configs", "error" or "timeout"
+    private int streamsScheduled;      // Number of data type streams started for this device
+    private long setupTimeMs;          // Time from submission until streams were scheduled
+    private String error;
+
+    // Constructors
+    public DeviceSetupResult() {}
+
+    public DeviceSetupResult(String deviceId, String deviceName, String hardwareDeviceId,
+                             String status, int streamsScheduled, long setupTimeMs, String error) {
+        this.deviceId = deviceId;
+        this.deviceName = deviceName;
+        this.hardwareDeviceId = hardwareDeviceId;
+        this.status = status;
+        this.streamsScheduled = streamsScheduled;
+        this.setupTimeMs = setupTimeMs;
+        this.error = error;
+    }
+
+    // Getters and setters
+    public String getDeviceId() { return deviceId; }
+    public void setDeviceId(String deviceId) { this.deviceId = deviceId; }
+
+    public String getDeviceName() { return deviceName; }
+    public void setDeviceName(String deviceName) { this.deviceName = deviceName; }
+
+    public String getHardwareDeviceId() { return hardwareDeviceId; }
+    public void setHardwareDeviceId(String hardwareDeviceId) { this.hardwareDeviceId = hardwareDeviceId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getStreamsScheduled() { return streamsScheduled; }
+    public void setStreamsScheduled(int streamsScheduled) { this.streamsScheduled = streamsScheduled; }
+
+    public long getSetupTimeMs() { return setupTimeMs; }
+    public void setSetupTimeMs(long setupTimeMs) { this.setupTimeMs = setupTimeMs; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,151 @@
+package com.example.iotsimulatorbackend.model;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GeofenceEvent model: a simulated location reading entered or left a geofence place.
+ * Ground truth for checking what a downstream geofence engine detects.
+ */
+public class GeofenceEvent {
+    public static final String ENTRY = "entry";
+    public static final String EXIT = "exit";
+
+    private String type; // entry, exit
+    private long at; // Epoch millis of the reading that crossed the boundary
+    private String deviceId;
+    private String dataType;
+    private String elderlyPersonId;
+    private String placeId;
+    private String placeName;
+    private String placeType;
+    private double latitude; // The reading's position
+    private double longitude;
+
+    // Constructors
+    public GeofenceEvent() {}
+
+    public GeofenceEvent(String type, long at, String deviceId, String dataType, GeofencePlace place,
+                         double latitude, double longitude) {
+        this.type = type;
+        this.at = at;
+        this.deviceId = deviceId;
+        this.dataType = dataType;
+        this.elderlyPersonId = place.getElderlyPersonId();
+        this.placeId = place.getId();
+        this.placeName = place.getName();
+        this.placeType = place.getPlaceType();
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getAt() {
+        return at;
+    }
+
+    public void setAt(long at) {
+        this.at = at;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getDataType() {
+        return dataType;
+    }
+
+    public void setDataType(String dataType) {
+        this.dataType = dataType;
+    }
+
+    public String getElderlyPersonId() {
+        return elderlyPersonId;
+    }
+
+    public void setElderlyPersonId(String elderlyPersonId) {
+        this.elderlyPersonId = elderlyPersonId;
+    }
+
+    public String getPlaceId() {
+        return placeId;
+    }
+
+    public void setPlaceId(String placeId) {
+        this.placeId = placeId;
+    }
+
+    public String getPlaceName() {
+        return placeName;
+    }
+
+    public void setPlaceName(String placeName) {
+        this.placeName = placeName;
+    }
+
+    public String getPlaceType() {
+        return placeType;
+    }
+
+    public void setPlaceType(String placeType) {
+        this.placeType = placeType;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    /**
+     * Convert to Map for JSON serialization
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("type", type);
+        map.put("at", Instant.ofEpochMilli(at).toString());
+        map.put("deviceId", deviceId);
+        map.put("dataType", dataType);
+        map.put("elderlyPersonId", elderlyPersonId);
+        map.put("placeId", placeId);
+        map.put("placeName", placeName);
+        map.put("placeType", placeType);
+        map.put("latitude", latitude);
+        map.put("longitude", longitude);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "GeofenceEvent{" +
+                "type='" + type + '\'' +
+                ", at=" + at +
+                ", deviceId='" + deviceId + '\'' +
+                ", placeId='" + placeId + '\'' +
+                '}';
+    }
+}
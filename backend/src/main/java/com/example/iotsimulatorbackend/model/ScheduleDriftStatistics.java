@@ -0,0 +1,79 @@
+package com.example.iotsimulatorbackend.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How far a simulation's stream runs fall behind their intended fire times,
+ * and what happened to ticks that were missed as a result
+ */
+public class ScheduleDriftStatistics {
+    // Upper bounds (ms) of the lateness histogram buckets; the last bucket is open-ended
+    private static final long[] LATENESS_BOUNDS_MS = {10, 100, 1_000, 10_000};
+    private static final String[] LATENESS_LABELS = {"<10ms", "<100ms", "<1s", "<10s", ">=10s"};
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder totalLatenessMs = new LongAdder();
+    private final AtomicLong maxLatenessMs = new AtomicLong();
+    private final AtomicLongArray latenessHistogram = new AtomicLongArray(LATENESS_LABELS.length);
+
+    private final LongAdder caughtUpTicks = new LongAdder();
+    private final LongAdder skippedTicks = new LongAdder();
+    private final LongAdder coalescedTicks = new LongAdder();
+
+    /**
+     * Record one run that was due at {@code intendedAt} and started at {@code actualAt}
+     */
+    public void recordRun(long intendedAt, long actualAt) {
+        long latenessMs = Math.max(0, actualAt - intendedAt);
+        runs.increment();
+        totalLatenessMs.add(latenessMs);
+        maxLatenessMs.accumulateAndGet(latenessMs, Math::max);
+
+        int bucket = 0;
+        while (bucket < LATENESS_BOUNDS_MS.length && latenessMs >= LATENESS_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        latenessHistogram.incrementAndGet(bucket);
+    }
+
+    public void recordCaughtUp() { caughtUpTicks.increment(); }
+    public void recordSkipped(long ticks) { skippedTicks.add(ticks); }
+    public void recordCoalesced(long ticks) { coalescedTicks.add(ticks); }
+
+    // Getters
+    public long getRuns() { return runs.sum(); }
+    public double getMeanLatenessMs() {
+        long count = runs.sum();
+        return count == 0 ? 0 : (double) totalLatenessMs.sum() / count;
+    }
+    public long getMaxLatenessMs() { return maxLatenessMs.get(); }
+    public Map<String, Long> getLatenessHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < LATENESS_LABELS.length; i++) {
+            histogram.put(LATENESS_LABELS[i], latenessHistogram.get(i));
+        }
+        return histogram;
+    }
+    public long getCaughtUpTicks() { return caughtUpTicks.sum(); }
+    public long getSkippedTicks() { return skippedTicks.sum(); }
+    public long getCoalescedTicks() { return coalescedTicks.sum(); }
+
+    /**
+     * Current values under the same names as the getters
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("runs", getRuns());
+        map.put("meanLatenessMs", getMeanLatenessMs());
+        map.put("maxLatenessMs", getMaxLatenessMs());
+        map.put("latenessHistogram", getLatenessHistogram());
+        map.put("caughtUpTicks", getCaughtUpTicks());
+        map.put("skippedTicks", getSkippedTicks());
+        map.put("coalescedTicks", getCoalescedTicks());
+        return map;
+    }
+}
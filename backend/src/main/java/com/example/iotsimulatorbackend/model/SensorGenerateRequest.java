@@ -4,6 +4,7 @@ public class SensorGenerateRequest {
     private String deviceId;
     private String dataType;
     private String location;  // Optional: location for the device
+    private Integer count;    // Optional: number of values to generate (bulk endpoint only, default 1)
 
     // Constructors
     public SensorGenerateRequest() {}
@@ -23,4 +24,7 @@ public class SensorGenerateRequest {
 
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
+
+    public Integer getCount() { return count; }
+    public void setCount(Integer count) { this.count = count; }
 }
@@ -5,6 +5,8 @@ import java.util.List;
 public class SimulationRequest {
     private String elderlyPersonId;      // Required: which elderly person's devices
     private List<String> deviceIds;      // Optional: specific devices. If empty, simulate all
+    private Double weight;               // Optional: share of the dispatch workers relative to other simulations
+    private Integer maxConcurrency;      // Optional: max readings of this simulation in flight at once
 
     // Constructors
     public SimulationRequest() {}
@@ -20,4 +22,10 @@ public class SimulationRequest {
 
     public List<String> getDeviceIds() { return deviceIds; }
     public void setDeviceIds(List<String> deviceIds) { this.deviceIds = deviceIds; }
+
+    public Double getWeight() { return weight; }
+    public void setWeight(Double weight) { this.weight = weight; }
+
+    public Integer getMaxConcurrency() { return maxConcurrency; }
+    public void setMaxConcurrency(Integer maxConcurrency) { this.maxConcurrency = maxConcurrency; }
 }
@@ -1,5 +1,7 @@
 package com.example.iotsimulatorbackend.model;
 
+import java.util.List;
+
 public class SimulationResponse {
     private String simulationId;        // Unique ID for this simulation session
     private String status;              // "running" or "stopped"
@@ -7,6 +9,7 @@ public class SimulationResponse {
     private int deviceCount;            // Number of devices being simulated
     private int dataTypeCount;          // Total number of data type configs
     private String message;
+    private List<DeviceSetupResult> deviceSetup; // Per-device setup timings (only on start)
 
     // Constructors
     public SimulationResponse() {}
@@ -39,4 +42,7 @@ public class SimulationResponse {
 
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
+
+    public List<DeviceSetupResult> getDeviceSetup() { return deviceSetup; }
+    public void setDeviceSetup(List<DeviceSetupResult> deviceSetup) { this.deviceSetup = deviceSetup; }
 }
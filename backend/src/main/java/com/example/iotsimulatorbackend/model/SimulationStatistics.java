@@ -1,8 +1,10 @@
 package com.example.iotsimulatorbackend.model;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Tracks statistics for an active simulation
@@ -11,17 +13,29 @@ public class SimulationStatistics {
     private final String simulationId;
     private final long startTime;
     private volatile long lastUpdatedTime;
+    private volatile long endTime;          // 0 while the simulation is running
 
     // Overall counters
     private final AtomicInteger totalDataPointsGenerated = new AtomicInteger(0);
     private final AtomicInteger totalDataPointsSuccessful = new AtomicInteger(0);
     private final AtomicInteger totalDataPointsFailed = new AtomicInteger(0);
 
-    // Per-device tracking
-    private final Map<String, DeviceStatistics> deviceStats = new HashMap<>();
+    // Per-device tracking (updated concurrently by the simulation's streams)
+    private final Map<String, DeviceStatistics> deviceStats = new ConcurrentHashMap<>();
 
     // Per-data-type tracking
-    private final Map<String, DataTypeStatistics> dataTypeStats = new HashMap<>();
+    private final Map<String, DataTypeStatistics> dataTypeStats = new ConcurrentHashMap<>();
+
+    // Recent per-second / per-minute buckets across all data types
+    private final StatisticsTimeSeries timeSeries = new StatisticsTimeSeries();
+
+    // Intended vs actual fire times of the simulation's streams
+    private final ScheduleDriftStatistics scheduleDrift = new ScheduleDriftStatistics();
+
+    // Last snapshot served to readers, and when it was last checked against the live counters
+    private final Object snapshotLock = new Object();
+    private volatile StatisticsSnapshot snapshot;
+    private volatile long snapshotCheckedAt;
 
     public SimulationStatistics(String simulationId) {
         this.simulationId = simulationId;
@@ -30,44 +44,58 @@ public class SimulationStatistics {
     }
 
     /**
-     * Record a successful data point generation
+     * Record a successful data point generation and how long the send took
      */
-    public void recordSuccess(String deviceId, String deviceName, String dataType, String displayName) {
+    public void recordSuccess(String deviceId, String deviceName, String dataType, String displayName, long latencyMs) {
         totalDataPointsGenerated.incrementAndGet();
         totalDataPointsSuccessful.incrementAndGet();
-        lastUpdatedTime = System.currentTimeMillis();
+        long now = System.currentTimeMillis();
+        lastUpdatedTime = now;
+        timeSeries.record(now, true, latencyMs);
 
         // Update device stats
         deviceStats.computeIfAbsent(deviceId, k -> new DeviceStatistics(deviceId, deviceName))
-                   .recordSuccess();
+                   .recordSuccess(dataType, latencyMs);
 
         // Update data type stats
         dataTypeStats.computeIfAbsent(dataType, k -> new DataTypeStatistics(dataType, displayName))
-                     .recordSuccess();
+                     .recordSuccess(now, latencyMs);
     }
 
     /**
-     * Record a failed data point generation
+     * Record a failed data point generation and how long the attempt took
      */
-    public void recordFailure(String deviceId, String deviceName, String dataType, String displayName) {
+    public void recordFailure(String deviceId, String deviceName, String dataType, String displayName, long latencyMs) {
         totalDataPointsGenerated.incrementAndGet();
         totalDataPointsFailed.incrementAndGet();
-        lastUpdatedTime = System.currentTimeMillis();
+        long now = System.currentTimeMillis();
+        lastUpdatedTime = now;
+        timeSeries.record(now, false, latencyMs);
 
         // Update device stats
         deviceStats.computeIfAbsent(deviceId, k -> new DeviceStatistics(deviceId, deviceName))
-                   .recordFailure();
+                   .recordFailure(dataType, latencyMs);
 
         // Update data type stats
         dataTypeStats.computeIfAbsent(dataType, k -> new DataTypeStatistics(dataType, displayName))
-                     .recordFailure();
+                     .recordFailure(now, latencyMs);
+    }
+
+    /**
+     * Freeze the elapsed time when the simulation stops
+     */
+    public void markFinished() {
+        if (endTime == 0) {
+            endTime = System.currentTimeMillis();
+        }
     }
 
     // Getters
     public String getSimulationId() { return simulationId; }
     public long getStartTime() { return startTime; }
     public long getLastUpdatedTime() { return lastUpdatedTime; }
-    public long getElapsedTimeSeconds() { return (System.currentTimeMillis() - startTime) / 1000; }
+    public long getEndTime() { return endTime; }
+    public long getElapsedTimeSeconds() { return ((endTime > 0 ? endTime : System.currentTimeMillis()) - startTime) / 1000; }
     public int getTotalDataPointsGenerated() { return totalDataPointsGenerated.get(); }
     public int getTotalDataPointsSuccessful() { return totalDataPointsSuccessful.get(); }
     public int getTotalDataPointsFailed() { return totalDataPointsFailed.get(); }
@@ -82,6 +110,43 @@ public class SimulationStatistics {
     }
     public Map<String, DeviceStatistics> getDeviceStats() { return deviceStats; }
     public Map<String, DataTypeStatistics> getDataTypeStats() { return dataTypeStats; }
+    public ScheduleDriftStatistics getScheduleDrift() { return scheduleDrift; }
+
+    /**
+     * Immutable snapshot for readers. Within {@code maxAgeMs} of the last check the same
+     * snapshot is returned; after that it is rebuilt only if something was recorded since.
+     */
+    public StatisticsSnapshot snapshot(long maxAgeMs) {
+        StatisticsSnapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - snapshotCheckedAt < maxAgeMs) {
+            return current;
+        }
+        synchronized (snapshotLock) {
+            current = snapshot;
+            long now = System.currentTimeMillis();
+            if (current != null && now - snapshotCheckedAt < maxAgeMs) {
+                return current;   // Another reader just refreshed it
+            }
+            long mark = changeMark();
+            if (current == null || current.getChangeMark() != mark) {
+                current = StatisticsSnapshot.build(this, current, mark);
+                snapshot = current;
+            }
+            snapshotCheckedAt = now;
+            return current;
+        }
+    }
+
+    // Sum of monotonic counters; changes whenever anything in the statistics does
+    private long changeMark() {
+        return totalDataPointsGenerated.get() + scheduleDrift.getRuns() + scheduleDrift.getSkippedTicks()
+                + scheduleDrift.getCoalescedTicks() + (endTime > 0 ? 1 : 0);
+    }
+
+    /**
+     * Bucketed history across all data types (not a bean property, so it stays out of the statistics JSON)
+     */
+    public StatisticsTimeSeries timeSeries() { return timeSeries; }
 
     /**
      * Inner class for per-device statistics
@@ -91,20 +156,33 @@ public class SimulationStatistics {
         private final String deviceName;
         private final AtomicInteger successCount = new AtomicInteger(0);
         private final AtomicInteger failureCount = new AtomicInteger(0);
+        private final AtomicLong totalLatencyMs = new AtomicLong(0);
+        // Data types this device has sent; a handful per device
+        private final Set<String> dataTypes = ConcurrentHashMap.newKeySet();
 
         public DeviceStatistics(String deviceId, String deviceName) {
             this.deviceId = deviceId;
             this.deviceName = deviceName;
         }
 
-        public void recordSuccess() { successCount.incrementAndGet(); }
-        public void recordFailure() { failureCount.incrementAndGet(); }
+        public void recordSuccess(String dataType, long latencyMs) {
+            dataTypes.add(dataType);
+            totalLatencyMs.addAndGet(latencyMs);
+            successCount.incrementAndGet();
+        }
+        public void recordFailure(String dataType, long latencyMs) {
+            dataTypes.add(dataType);
+            totalLatencyMs.addAndGet(latencyMs);
+            failureCount.incrementAndGet();
+        }
 
         public String getDeviceId() { return deviceId; }
         public String getDeviceName() { return deviceName; }
         public int getSuccessCount() { return successCount.get(); }
         public int getFailureCount() { return failureCount.get(); }
         public int getTotalCount() { return successCount.get() + failureCount.get(); }
+        public long getTotalLatencyMs() { return totalLatencyMs.get(); }
+        public Set<String> getDataTypes() { return dataTypes; }
     }
 
     /**
@@ -115,14 +193,23 @@ public class SimulationStatistics {
         private final String displayName;
         private final AtomicInteger successCount = new AtomicInteger(0);
         private final AtomicInteger failureCount = new AtomicInteger(0);
+        private final StatisticsTimeSeries timeSeries = new StatisticsTimeSeries();
 
         public DataTypeStatistics(String dataType, String displayName) {
             this.dataType = dataType;
             this.displayName = displayName;
         }
 
-        public void recordSuccess() { successCount.incrementAndGet(); }
-        public void recordFailure() { failureCount.incrementAndGet(); }
+        public void recordSuccess(long timestampMs, long latencyMs) {
+            successCount.incrementAndGet();
+            timeSeries.record(timestampMs, true, latencyMs);
+        }
+        public void recordFailure(long timestampMs, long latencyMs) {
+            failureCount.incrementAndGet();
+            timeSeries.record(timestampMs, false, latencyMs);
+        }
+
+        public StatisticsTimeSeries timeSeries() { return timeSeries; }
 
         public String getDataType() { return dataType; }
         public String getDisplayName() { return displayName; }
@@ -0,0 +1,66 @@
+package com.example.iotsimulatorbackend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact, immutable record of a finished simulation. Finished statistics are
+ * compacted into this form once they leave the retention window, dropping the
+ * per-device breakdown and keeping only the totals per data type.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)   // derived values such as successRate are written but not read back
+public class SimulationSummary {
+    private final String simulationId;
+    private final String elderlyPersonId;
+    private final long startTime;
+    private final long endTime;
+    private final int deviceCount;
+    private final int totalDataPointsGenerated;
+    private final int totalDataPointsSuccessful;
+    private final int totalDataPointsFailed;
+    private final Map<String, Integer> dataPointsByDataType;
+
+    public SimulationSummary(String simulationId, String elderlyPersonId, long startTime, long endTime,
+                             int deviceCount, int totalDataPointsGenerated, int totalDataPointsSuccessful,
+                             int totalDataPointsFailed, Map<String, Integer> dataPointsByDataType) {
+        this.simulationId = simulationId;
+        this.elderlyPersonId = elderlyPersonId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.deviceCount = deviceCount;
+        this.totalDataPointsGenerated = totalDataPointsGenerated;
+        this.totalDataPointsSuccessful = totalDataPointsSuccessful;
+        this.totalDataPointsFailed = totalDataPointsFailed;
+        this.dataPointsByDataType = Collections.unmodifiableMap(new TreeMap<>(dataPointsByDataType));
+    }
+
+    /**
+     * Compact the statistics of a finished simulation
+     */
+    public static SimulationSummary of(String elderlyPersonId, SimulationStatistics stats) {
+        Map<String, Integer> byDataType = new TreeMap<>();
+        stats.getDataTypeStats().forEach((dataType, s) -> byDataType.put(dataType, s.getTotalCount()));
+        return new SimulationSummary(stats.getSimulationId(), elderlyPersonId, stats.getStartTime(),
+                stats.getEndTime() > 0 ? stats.getEndTime() : System.currentTimeMillis(),
+                stats.getDeviceStats().size(), stats.getTotalDataPointsGenerated(),
+                stats.getTotalDataPointsSuccessful(), stats.getTotalDataPointsFailed(), byDataType);
+    }
+
+    // Getters
+    public String getSimulationId() { return simulationId; }
+    public String getElderlyPersonId() { return elderlyPersonId; }
+    public long getStartTime() { return startTime; }
+    public long getEndTime() { return endTime; }
+    public long getDurationSeconds() { return (endTime - startTime) / 1000; }
+    public int getDeviceCount() { return deviceCount; }
+    public int getTotalDataPointsGenerated() { return totalDataPointsGenerated; }
+    public int getTotalDataPointsSuccessful() { return totalDataPointsSuccessful; }
+    public int getTotalDataPointsFailed() { return totalDataPointsFailed; }
+    public double getSuccessRate() {
+        return totalDataPointsGenerated == 0 ? 0 : (totalDataPointsSuccessful * 100.0) / totalDataPointsGenerated;
+    }
+    public Map<String, Integer> getDataPointsByDataType() { return dataPointsByDataType; }
+}
@@ -0,0 +1,39 @@
+package com.example.iotsimulatorbackend.model;
+
+import java.util.List;
+
+/**
+ * Changes applied to a running simulation without restarting it
+ */
+public class SimulationUpdateRequest {
+    private List<String> addDeviceIds;       // Devices of the same elderly person to start simulating
+    private List<String> removeDeviceIds;    // Devices whose streams should stop
+    private List<StreamUpdate> streams;      // Rate / value range changes for existing streams
+    private Double weight;                   // New share of the dispatch workers
+    private Integer maxConcurrency;          // New cap on readings in flight at once
+
+    // Constructors
+    public SimulationUpdateRequest() {}
+
+    public SimulationUpdateRequest(List<String> addDeviceIds, List<String> removeDeviceIds, List<StreamUpdate> streams) {
+        this.addDeviceIds = addDeviceIds;
+        this.removeDeviceIds = removeDeviceIds;
+        this.streams = streams;
+    }
+
+    // Getters and setters
+    public List<String> getAddDeviceIds() { return addDeviceIds; }
+    public void setAddDeviceIds(List<String> addDeviceIds) { this.addDeviceIds = addDeviceIds; }
+
+    public List<String> getRemoveDeviceIds() { return removeDeviceIds; }
+    public void setRemoveDeviceIds(List<String> removeDeviceIds) { this.removeDeviceIds = removeDeviceIds; }
+
+    public List<StreamUpdate> getStreams() { return streams; }
+    public void setStreams(List<StreamUpdate> streams) { this.streams = streams; }
+
+    public Double getWeight() { return weight; }
+    public void setWeight(Double weight) { this.weight = weight; }
+
+    public Integer getMaxConcurrency() { return maxConcurrency; }
+    public void setMaxConcurrency(Integer maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+}
@@ -0,0 +1,239 @@
+package com.example.iotsimulatorbackend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of a simulation's statistics at one version, serialized with the same
+ * fields as {@link SimulationStatistics} plus the version.
+ *
+ * Versions are build times in ms (bumped by one if the clock hasn't moved), so they
+ * keep increasing across rebuilds and across a cluster takeover. Every device and data
+ * type entry remembers the version it last changed in, which is what {@link #since}
+ * uses to produce deltas. Entries that didn't change are shared with the previous
+ * snapshot rather than copied.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class StatisticsSnapshot {
+    private final long version;
+    private final Long sinceVersion;        // Set on deltas only
+    private final String simulationId;
+    private final long startTime;
+    private final long lastUpdatedTime;
+    private final long endTime;
+    private final long elapsedTimeSeconds;
+    private final int totalDataPointsGenerated;
+    private final int totalDataPointsSuccessful;
+    private final int totalDataPointsFailed;
+    private final double successRate;
+    private final double dataPointsPerMinute;
+    private final Map<String, DeviceEntry> deviceStats;
+    private final Map<String, DataTypeEntry> dataTypeStats;
+    private final Map<String, Object> scheduleDrift;
+
+    // Change mark of the statistics this was built from
+    private final long changeMark;
+    private volatile byte[] json;
+
+    private StatisticsSnapshot(long version, Long sinceVersion, StatisticsSnapshot totals,
+                               Map<String, DeviceEntry> deviceStats, Map<String, DataTypeEntry> dataTypeStats) {
+        this.version = version;
+        this.sinceVersion = sinceVersion;
+        this.simulationId = totals.simulationId;
+        this.startTime = totals.startTime;
+        this.lastUpdatedTime = totals.lastUpdatedTime;
+        this.endTime = totals.endTime;
+        this.elapsedTimeSeconds = totals.elapsedTimeSeconds;
+        this.totalDataPointsGenerated = totals.totalDataPointsGenerated;
+        this.totalDataPointsSuccessful = totals.totalDataPointsSuccessful;
+        this.totalDataPointsFailed = totals.totalDataPointsFailed;
+        this.successRate = totals.successRate;
+        this.dataPointsPerMinute = totals.dataPointsPerMinute;
+        this.scheduleDrift = totals.scheduleDrift;
+        this.changeMark = totals.changeMark;
+        this.deviceStats = deviceStats;
+        this.dataTypeStats = dataTypeStats;
+    }
+
+    private StatisticsSnapshot(SimulationStatistics stats, long version, long changeMark) {
+        this.version = version;
+        this.sinceVersion = null;
+        this.simulationId = stats.getSimulationId();
+        this.startTime = stats.getStartTime();
+        this.lastUpdatedTime = stats.getLastUpdatedTime();
+        this.endTime = stats.getEndTime();
+        this.elapsedTimeSeconds = stats.getElapsedTimeSeconds();
+        this.totalDataPointsGenerated = stats.getTotalDataPointsGenerated();
+        this.totalDataPointsSuccessful = stats.getTotalDataPointsSuccessful();
+        this.totalDataPointsFailed = stats.getTotalDataPointsFailed();
+        this.successRate = stats.getSuccessRate();
+        this.dataPointsPerMinute = stats.getDataPointsPerMinute();
+        this.scheduleDrift = Collections.unmodifiableMap(stats.getScheduleDrift().toMap());
+        this.changeMark = changeMark;
+        this.deviceStats = new HashMap<>();
+        this.dataTypeStats = new HashMap<>();
+    }
+
+    /**
+     * Snapshot of {@code stats}, reusing the entries of {@code previous} that haven't changed
+     */
+    static StatisticsSnapshot build(SimulationStatistics stats, StatisticsSnapshot previous, long changeMark) {
+        long now = System.currentTimeMillis();
+        long version = previous != null ? Math.max(now, previous.version + 1) : now;
+        StatisticsSnapshot snapshot = new StatisticsSnapshot(stats, version, changeMark);
+
+        for (SimulationStatistics.DeviceStatistics device : stats.getDeviceStats().values()) {
+            DeviceEntry old = previous != null ? previous.deviceStats.get(device.getDeviceId()) : null;
+            int success = device.getSuccessCount();
+            int failure = device.getFailureCount();
+            snapshot.deviceStats.put(device.getDeviceId(),
+                    old != null && old.successCount == success && old.failureCount == failure
+                            ? old
+                            : new DeviceEntry(device.getDeviceId(), device.getDeviceName(), success, failure,
+                                    device.getTotalLatencyMs(), Set.copyOf(device.getDataTypes()), version));
+        }
+        for (SimulationStatistics.DataTypeStatistics dataType : stats.getDataTypeStats().values()) {
+            DataTypeEntry old = previous != null ? previous.dataTypeStats.get(dataType.getDataType()) : null;
+            int success = dataType.getSuccessCount();
+            int failure = dataType.getFailureCount();
+            snapshot.dataTypeStats.put(dataType.getDataType(),
+                    old != null && old.successCount == success && old.failureCount == failure
+                            ? old
+                            : new DataTypeEntry(dataType.getDataType(), dataType.getDisplayName(), success, failure, version));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Totals plus only the device and data type entries that changed after {@code sinceVersion}.
+     * A version from before this simulation's first snapshot yields every entry.
+     */
+    public StatisticsSnapshot since(long sinceVersion) {
+        Map<String, DeviceEntry> changedDevices = new HashMap<>();
+        deviceStats.forEach((id, entry) -> {
+            if (entry.changedVersion > sinceVersion) {
+                changedDevices.put(id, entry);
+            }
+        });
+        Map<String, DataTypeEntry> changedDataTypes = new HashMap<>();
+        dataTypeStats.forEach((type, entry) -> {
+            if (entry.changedVersion > sinceVersion) {
+                changedDataTypes.put(type, entry);
+            }
+        });
+        return new StatisticsSnapshot(version, sinceVersion, this, changedDevices, changedDataTypes);
+    }
+
+    /**
+     * Entity tag for this representation; deltas are tagged with their base version too
+     */
+    @JsonIgnore
+    public String getETag() {
+        return sinceVersion == null ? "\"" + version + "\"" : "\"" + version + "-" + sinceVersion + "\"";
+    }
+
+    /**
+     * Serialized form, computed once per snapshot
+     */
+    public byte[] toJson(ObjectMapper objectMapper) throws JsonProcessingException {
+        byte[] bytes = json;
+        if (bytes == null) {
+            bytes = objectMapper.writeValueAsBytes(this);
+            json = bytes;
+        }
+        return bytes;
+    }
+
+    @JsonIgnore
+    long getChangeMark() { return changeMark; }
+
+    // Getters
+    public long getVersion() { return version; }
+    public Long getSinceVersion() { return sinceVersion; }
+    public String getSimulationId() { return simulationId; }
+    public long getStartTime() { return startTime; }
+    public long getLastUpdatedTime() { return lastUpdatedTime; }
+    public long getEndTime() { return endTime; }
+    public long getElapsedTimeSeconds() { return elapsedTimeSeconds; }
+    public int getTotalDataPointsGenerated() { return totalDataPointsGenerated; }
+    public int getTotalDataPointsSuccessful() { return totalDataPointsSuccessful; }
+    public int getTotalDataPointsFailed() { return totalDataPointsFailed; }
+    public double getSuccessRate() { return successRate; }
+    public double getDataPointsPerMinute() { return dataPointsPerMinute; }
+    public Map<String, DeviceEntry> getDeviceStats() { return Collections.unmodifiableMap(deviceStats); }
+    public Map<String, DataTypeEntry> getDataTypeStats() { return Collections.unmodifiableMap(dataTypeStats); }
+    public Map<String, Object> getScheduleDrift() { return scheduleDrift; }
+
+    /**
+     * Per-device counts at the time of the snapshot
+     */
+    public static final class DeviceEntry {
+        private final String deviceId;
+        private final String deviceName;
+        private final int successCount;
+        private final int failureCount;
+        private final long totalLatencyMs;
+        private final Set<String> dataTypes;
+        private final long changedVersion;
+
+        DeviceEntry(String deviceId, String deviceName, int successCount, int failureCount,
+                    long totalLatencyMs, Set<String> dataTypes, long changedVersion) {
+            this.deviceId = deviceId;
+            this.deviceName = deviceName;
+            this.successCount = successCount;
+            this.failureCount = failureCount;
+            this.totalLatencyMs = totalLatencyMs;
+            this.dataTypes = dataTypes;
+            this.changedVersion = changedVersion;
+        }
+
+        public String getDeviceId() { return deviceId; }
+        public String getDeviceName() { return deviceName; }
+        public int getSuccessCount() { return successCount; }
+        public int getFailureCount() { return failureCount; }
+        public int getTotalCount() { return successCount + failureCount; }
+        public double getFailureRate() {
+            int total = successCount + failureCount;
+            return total == 0 ? 0 : (failureCount * 100.0) / total;
+        }
+        public double getAvgLatencyMs() {
+            int total = successCount + failureCount;
+            return total == 0 ? 0 : (double) totalLatencyMs / total;
+        }
+        public Set<String> getDataTypes() { return dataTypes; }
+        public long getChangedVersion() { return changedVersion; }
+    }
+
+    /**
+     * Per-data-type counts at the time of the snapshot
+     */
+    public static final class DataTypeEntry {
+        private final String dataType;
+        private final String displayName;
+        private final int successCount;
+        private final int failureCount;
+        private final long changedVersion;
+
+        DataTypeEntry(String dataType, String displayName, int successCount, int failureCount, long changedVersion) {
+            this.dataType = dataType;
+            this.displayName = displayName;
+            this.successCount = successCount;
+            this.failureCount = failureCount;
+            this.changedVersion = changedVersion;
+        }
+
+        public String getDataType() { return dataType; }
+        public String getDisplayName() { return displayName; }
+        public int getSuccessCount() { return successCount; }
+        public int getFailureCount() { return failureCount; }
+        public int getTotalCount() { return successCount + failureCount; }
+        public long getChangedVersion() { return changedVersion; }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.iotsimulatorbackend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recent throughput of a simulation or data type in fixed time buckets.
+ *
+ * Keeps one ring of per-second and one ring of per-minute buckets (sent, failed,
+ * latency sum). Buckets are reused in place as time moves on, so recording never
+ * allocates and memory stays constant however long the simulation runs. Buckets
+ * with no traffic read back as zero, which is what makes stalls visible.
+ */
+public class StatisticsTimeSeries {
+    public static final int SECOND_BUCKETS = 120;   // last 2 minutes
+    public static final int MINUTE_BUCKETS = 60;    // last hour
+
+    public enum Resolution {
+        SECOND, MINUTE;
+
+        public static Resolution fromKey(String key) {
+            for (Resolution resolution : values()) {
+                if (resolution.name().equalsIgnoreCase(key)) {
+                    return resolution;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Ring seconds = new Ring(SECOND_BUCKETS, 1000L);
+    private final Ring minutes = new Ring(MINUTE_BUCKETS, 60_000L);
+
+    /**
+     * Record one send attempt
+     */
+    public void record(long timestampMs, boolean success, long latencyMs) {
+        seconds.record(timestampMs, success, latencyMs);
+        minutes.record(timestampMs, success, latencyMs);
+    }
+
+    /**
+     * The last {@code count} buckets up to and including the current one, oldest first
+     */
+    public List<Map<String, Object>> snapshot(Resolution resolution, int count, long nowMs) {
+        return (resolution == Resolution.MINUTE ? minutes : seconds).snapshot(count, nowMs);
+    }
+
+    public static int maxBuckets(Resolution resolution) {
+        return resolution == Resolution.MINUTE ? MINUTE_BUCKETS : SECOND_BUCKETS;
+    }
+
+    /**
+     * Approximate heap used by one instance (four long arrays per ring)
+     */
+    public static long estimatedBytes() {
+        return 4L * 8 * (SECOND_BUCKETS + MINUTE_BUCKETS) + 128;
+    }
+
+    private static final class Ring {
+        private final long widthMs;
+        private final long[] bucketIndex;   // Absolute bucket number (timestamp / width) held in each slot
+        private final long[] sent;
+        private final long[] failed;
+        private final long[] latencySumMs;
+
+        Ring(int size, long widthMs) {
+            this.widthMs = widthMs;
+            this.bucketIndex = new long[size];
+            this.sent = new long[size];
+            this.failed = new long[size];
+            this.latencySumMs = new long[size];
+            Arrays.fill(bucketIndex, -1);
+        }
+
+        synchronized void record(long timestampMs, boolean success, long latencyMs) {
+            long index = timestampMs / widthMs;
+            int slot = (int) (index % bucketIndex.length);
+            if (bucketIndex[slot] != index) {
+                // Slot still holds an old bucket; recycle it
+                bucketIndex[slot] = index;
+                sent[slot] = 0;
+                failed[slot] = 0;
+                latencySumMs[slot] = 0;
+            }
+            if (success) {
+                sent[slot]++;
+            } else {
+                failed[slot]++;
+            }
+            latencySumMs[slot] += latencyMs;
+        }
+
+        synchronized List<Map<String, Object>> snapshot(int count, long nowMs) {
+            int n = Math.max(1, Math.min(count, bucketIndex.length));
+            long current = nowMs / widthMs;
+            List<Map<String, Object>> buckets = new ArrayList<>(n);
+            for (long index = current - n + 1; index <= current; index++) {
+                int slot = (int) (index % bucketIndex.length);
+                boolean live = bucketIndex[slot] == index;
+                long bucketSent = live ? sent[slot] : 0;
+                long bucketFailed = live ? failed[slot] : 0;
+                long attempts = bucketSent + bucketFailed;
+
+                Map<String, Object> bucket = new LinkedHashMap<>();
+                bucket.put("start", index * widthMs);
+                bucket.put("sent", bucketSent);
+                bucket.put("failed", bucketFailed);
+                bucket.put("avgLatencyMs", attempts > 0 ? (double) latencySumMs[slot] / attempts : 0.0);
+                buckets.add(bucket);
+            }
+            return buckets;
+        }
+    }
+}
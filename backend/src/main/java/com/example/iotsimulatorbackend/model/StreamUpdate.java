@@ -0,0 +1,37 @@
+package com.example.iotsimulatorbackend.model;
+
+import java.util.Map;
+
+/**
+ * Change to the data streams of a running simulation, matched by data type
+ * and optionally narrowed to one device
+ */
+public class StreamUpdate {
+    private String dataType;              // Required: e.g., "heart_rate"
+    private String deviceId;              // Optional: Supabase device UUID; all devices when empty
+    private Integer frequencyPerDay;      // Optional: new generation rate
+    private Map<String, Object> config;   // Optional: keys merged into the compiled config, e.g. {"min": 60, "max": 90}
+
+    // Constructors
+    public StreamUpdate() {}
+
+    public StreamUpdate(String dataType, String deviceId, Integer frequencyPerDay, Map<String, Object> config) {
+        this.dataType = dataType;
+        this.deviceId = deviceId;
+        this.frequencyPerDay = frequencyPerDay;
+        this.config = config;
+    }
+
+    // Getters and setters
+    public String getDataType() { return dataType; }
+    public void setDataType(String dataType) { this.dataType = dataType; }
+
+    public String getDeviceId() { return deviceId; }
+    public void setDeviceId(String deviceId) { this.deviceId = deviceId; }
+
+    public Integer getFrequencyPerDay() { return frequencyPerDay; }
+    public void setFrequencyPerDay(Integer frequencyPerDay) { this.frequencyPerDay = frequencyPerDay; }
+
+    public Map<String, Object> getConfig() { return config; }
+    public void setConfig(Map<String, Object> config) { this.config = config; }
+}
@@ -0,0 +1,44 @@
+package com.example.iotsimulatorbackend.model;
+
+import java.util.List;
+
+public class SyntheticPopulationRequest {
+    private Integer persons;             // Required: number of elderly persons
+    private Integer devicesPerPerson;    // Optional: devices per person (default 3)
+    private Integer geofencesPerPerson;  // Optional: geofence places per person, the first one being home (default 3)
+    private Long seed;                   // Optional: same seed, same fleet (random if omitted)
+    private List<String> cities;         // Optional: built-in city names or "lat,lng" pairs (default all built-in cities)
+    private Boolean start;               // Optional: start one simulation per person right away
+
+    // Constructors
+    public SyntheticPopulationRequest() {}
+
+    public SyntheticPopulationRequest(Integer persons, Integer devicesPerPerson, Integer geofencesPerPerson,
+                                      Long seed, List<String> cities, Boolean start) {
+        this.persons = persons;
+        this.devicesPerPerson = devicesPerPerson;
+        this.geofencesPerPerson = geofencesPerPerson;
+        this.seed = seed;
+        this.cities = cities;
+        this.start = start;
+    }
+
+    // Getters and setters
+    public Integer getPersons() { return persons; }
+    public void setPersons(Integer persons) { this.persons = persons; }
+
+    public Integer getDevicesPerPerson() { return devicesPerPerson; }
+    public void setDevicesPerPerson(Integer devicesPerPerson) { this.devicesPerPerson = devicesPerPerson; }
+
+    public Integer getGeofencesPerPerson() { return geofencesPerPerson; }
+    public void setGeofencesPerPerson(Integer geofencesPerPerson) { this.geofencesPerPerson = geofencesPerPerson; }
+
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+
+    public List<String> getCities() { return cities; }
+    public void setCities(List<String> cities) { this.cities = cities; }
+
+    public Boolean getStart() { return start; }
+    public void setStart(Boolean start) { this.start = start; }
+}
@@ -0,0 +1,324 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.CapacityPlanRequest;
+import com.example.iotsimulatorbackend.model.DataTypeConfig;
+import com.example.iotsimulatorbackend.model.Device;
+import com.example.iotsimulatorbackend.model.SimulationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Dry run for proposed simulations: resolves their devices and data type configs the
+ * same way a start would, schedules nothing, and estimates the load they would add.
+ *
+ * Rates come from frequencyPerDay. The peak is found by laying the streams' first
+ * readings out with the configured phase policy and counting readings per second.
+ * Concurrency follows from rate x assumed ingest latency (Little's law), bandwidth
+ * from the encoded size of a sample reading per data type, and heap from per-stream
+ * and per-device estimates. Running simulations count towards the shared budget.
+ */
+@Service
+public class CapacityPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(CapacityPlanner.class);
+
+    // Rough heap cost of a scheduled stream (Stream, its timer, config) and of a device's statistics entries
+    private static final long STREAM_BYTES = 1024;
+    private static final long DEVICE_BYTES = 600;
+
+    // Request line and headers (including the bearer API key) sent with every reading
+    private static final long REQUEST_OVERHEAD_BYTES = 450;
+
+    // The peak estimate simulates at most an hour and at most this many readings
+    private static final long MAX_PEAK_HORIZON_MS = 3_600_000;
+    private static final long MAX_PEAK_READINGS = 2_000_000;
+
+    @Autowired
+    private SimulatorService simulatorService;
+
+    @Autowired
+    private SimulationManager simulationManager;
+
+    @Autowired
+    private FairDispatcher fairDispatcher;
+
+    @Autowired
+    private DeviceIngestClient deviceIngestClient;
+
+    // device-ingest round trip assumed when the request doesn't give one
+    @Value("${simulator.plan.assumed-latency-ms:250}")
+    private long defaultLatencyMs;
+
+    public Map<String, Object> plan(CapacityPlanRequest request) {
+        long latencyMs = request.getAssumedLatencyMs() != null ? request.getAssumedLatencyMs() : defaultLatencyMs;
+        double latencySeconds = latencyMs / 1000.0;
+        List<String> warnings = new ArrayList<>();
+
+        List<long[]> allPhases = new ArrayList<>();
+        Map<String, DataTypeLoad> dataTypes = new TreeMap<>();
+        List<Map<String, Object>> simulations = new ArrayList<>();
+        int totalDevices = 0;
+        double plannedRate = 0;
+
+        for (SimulationRequest simulation : request.getSimulations()) {
+            SimulationLoad load = resolve(simulation, dataTypes, warnings);
+            allPhases.addAll(load.phases);
+            totalDevices += load.devices;
+            plannedRate += load.eventsPerSecond;
+
+            int cap = simulation.getMaxConcurrency() != null ? simulation.getMaxConcurrency() : fairDispatcher.getDefaultMaxConcurrency();
+            int peak = peakPerSecond(load.phases);
+            double meanInFlight = load.eventsPerSecond * latencySeconds;
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("elderlyPersonId", simulation.getElderlyPersonId());
+            entry.put("devices", load.devices);
+            entry.put("streams", load.phases.size());
+            entry.put("eventsPerSecond", load.eventsPerSecond);
+            entry.put("peakEventsPerSecond", peak);
+            entry.put("meanInFlight", meanInFlight);
+            entry.put("maxConcurrency", cap);
+            entry.put("missingDeviceIds", load.missingDeviceIds);
+            simulations.add(entry);
+
+            if (load.devices == 0) {
+                warnings.add("No devices resolved for elderly person " + simulation.getElderlyPersonId() + "; it would not start");
+            }
+            if (meanInFlight > cap) {
+                warnings.add(String.format("Simulation for %s needs ~%.1f readings in flight at its mean rate but maxConcurrency is %d;"
+                        + " its queue will grow until readings are skipped", simulation.getElderlyPersonId(), meanInFlight, cap));
+            }
+            if (peak > fairDispatcher.getMaxQueuedPerSimulation()) {
+                warnings.add(String.format("Simulation for %s has bursts of %d readings in one second, more than the %d it may queue;"
+                        + " the excess is skipped", simulation.getElderlyPersonId(), peak, fairDispatcher.getMaxQueuedPerSimulation()));
+            }
+        }
+
+        double runningRate = simulationManager.getScheduledEventsPerSecond();
+        double totalRate = plannedRate + runningRate;
+        int peak = peakPerSecond(allPhases);
+        double peakRate = peak + runningRate;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("simulations", simulations);
+        result.put("load", loadSection(allPhases.size(), totalDevices, plannedRate, runningRate, peak, dataTypes));
+        result.put("concurrency", concurrencySection(latencyMs, totalRate, peakRate, warnings));
+        result.put("bandwidth", bandwidthSection(dataTypes, plannedRate, peak, warnings));
+        result.put("heap", heapSection(allPhases.size(), totalDevices, warnings));
+        result.put("feasible", totalRate * latencySeconds <= fairDispatcher.getWorkerCount());
+        result.put("warnings", warnings);
+        return result;
+    }
+
+    /**
+     * Streams a simulation would run: one per device and data type, as setup schedules them
+     */
+    private SimulationLoad resolve(SimulationRequest simulation, Map<String, DataTypeLoad> dataTypes, List<String> warnings) {
+        SimulationLoad load = new SimulationLoad();
+        List<String> requested = simulation.getDeviceIds();
+        Set<String> found = new HashSet<>();
+
+        for (Device device : simulatorService.getDevicesByElderlyPersonId(simulation.getElderlyPersonId())) {
+            if (requested != null && !requested.isEmpty() && !requested.contains(device.getId())) {
+                continue;
+            }
+            found.add(device.getId());
+            load.devices++;
+            for (DataTypeConfig config : simulatorService.getDataTypesByDeviceId(device.getId())) {
+                if (config.getFrequencyPerDay() <= 0) {
+                    warnings.add("Device " + device.getDeviceId() + " has no frequency for " + config.getDataType() + "; it cannot be scheduled");
+                    continue;
+                }
+                long intervalMs = SimulationManager.streamIntervalSeconds(config) * 1000;
+                String streamKey = device.getId() + "_" + config.getDataType();
+                load.phases.add(new long[] {simulationManager.initialDelayMs(streamKey, intervalMs), intervalMs});
+                load.eventsPerSecond += 1000.0 / intervalMs;
+
+                DataTypeLoad dataType = dataTypes.computeIfAbsent(config.getDataType(), k -> new DataTypeLoad(samplePayload(device, config)));
+                dataType.streams++;
+                dataType.eventsPerSecond += 1000.0 / intervalMs;
+            }
+        }
+        if (requested != null) {
+            for (String deviceId : requested) {
+                if (!found.contains(deviceId)) {
+                    load.missingDeviceIds.add(deviceId);
+                }
+            }
+        }
+        return load;
+    }
+
+    private Map<String, Object> loadSection(int streams, int devices, double plannedRate, double runningRate,
+                                            int peak, Map<String, DataTypeLoad> dataTypes) {
+        Map<String, Object> perDataType = new LinkedHashMap<>();
+        dataTypes.forEach((dataType, load) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("streams", load.streams);
+            entry.put("eventsPerSecond", load.eventsPerSecond);
+            perDataType.put(dataType, entry);
+        });
+
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("devices", devices);
+        section.put("streams", streams);
+        section.put("eventsPerSecond", plannedRate);
+        section.put("eventsPerDay", Math.round(plannedRate * 86_400));
+        section.put("phasePolicy", simulationManager.getPhasePolicyKey());
+        section.put("peakEventsPerSecond", peak);
+        section.put("peakToMean", plannedRate > 0 ? peak / plannedRate : 0.0);
+        section.put("runningEventsPerSecond", runningRate);
+        section.put("dataTypes", perDataType);
+        return section;
+    }
+
+    private Map<String, Object> concurrencySection(long latencyMs, double totalRate, double peakRate, List<String> warnings) {
+        double latencySeconds = latencyMs / 1000.0;
+        int workers = fairDispatcher.getWorkerCount();
+        int meanInFlight = (int) Math.ceil(totalRate * latencySeconds);
+        int peakInFlight = (int) Math.ceil(peakRate * latencySeconds);
+        // RestTemplate's default factory reuses at most http.maxConnections keep-alive connections per host
+        int keepAliveConnections = Integer.getInteger("http.maxConnections", 5);
+        int connectionsNeeded = Math.min(workers, peakInFlight);
+
+        if (meanInFlight > workers) {
+            warnings.add(String.format("At %.0f ms per send, %d dispatch workers sustain %.1f readings/s but the plan needs %.1f;"
+                    + " raise simulator.dispatch.workers to at least %d", (double) latencyMs, workers, workers / latencySeconds, totalRate, meanInFlight));
+        } else if (peakInFlight > workers) {
+            warnings.add(String.format("Peak second needs ~%d readings in flight but there are %d dispatch workers;"
+                    + " bursts will queue and run late", peakInFlight, workers));
+        }
+        if (connectionsNeeded > keepAliveConnections) {
+            warnings.add(String.format("Up to %d concurrent sends but only %d keep-alive connections are pooled (http.maxConnections);"
+                    + " the rest open a new connection per reading", connectionsNeeded, keepAliveConnections));
+        }
+
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("assumedLatencyMs", latencyMs);
+        section.put("meanInFlight", meanInFlight);
+        section.put("peakInFlight", peakInFlight);
+        section.put("dispatchWorkers", workers);
+        section.put("sustainableEventsPerSecond", workers / latencySeconds);
+        section.put("connectionsNeeded", connectionsNeeded);
+        section.put("keepAliveConnections", keepAliveConnections);
+        return section;
+    }
+
+    private Map<String, Object> bandwidthSection(Map<String, DataTypeLoad> dataTypes, double plannedRate, int peak, List<String> warnings) {
+        double bytesPerSecond = 0;
+        String encoding = null;
+        Map<String, Object> perDataType = new LinkedHashMap<>();
+        for (Map.Entry<String, DataTypeLoad> entry : dataTypes.entrySet()) {
+            try {
+                Map<String, Object> estimate = deviceIngestClient.estimateBytesPerEvent(entry.getValue().samplePayload);
+                double bodyBytes = (Double) estimate.get("bytesPerEvent");
+                encoding = (String) estimate.get("encoding");
+                bytesPerSecond += entry.getValue().eventsPerSecond * (bodyBytes + REQUEST_OVERHEAD_BYTES);
+                perDataType.put(entry.getKey(), estimate);
+            } catch (Exception e) {
+                logger.warn("Could not estimate payload size for {}: {}", entry.getKey(), e.getMessage());
+                warnings.add("Payload size for " + entry.getKey() + " could not be estimated");
+            }
+        }
+        double bytesPerEvent = plannedRate > 0 ? bytesPerSecond / plannedRate : 0;
+
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("encoding", encoding);
+        section.put("requestOverheadBytes", REQUEST_OVERHEAD_BYTES);
+        section.put("bytesPerEvent", bytesPerEvent);
+        section.put("meanBytesPerSecond", bytesPerSecond);
+        section.put("peakBytesPerSecond", peak * bytesPerEvent);
+        section.put("bytesPerDay", Math.round(bytesPerSecond * 86_400));
+        section.put("dataTypes", perDataType);
+        return section;
+    }
+
+    private Map<String, Object> heapSection(int streams, int devices, List<String> warnings) {
+        long needed = streams * STREAM_BYTES + devices * DEVICE_BYTES;
+        Runtime runtime = Runtime.getRuntime();
+        long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        if (needed > available / 2) {
+            warnings.add(String.format("Estimated %d MB of heap for streams and statistics against %d MB free; raise -Xmx",
+                    needed >> 20, available >> 20));
+        }
+
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("estimatedBytes", needed);
+        section.put("availableBytes", available);
+        return section;
+    }
+
+    private Map<String, Object> samplePayload(Device device, DataTypeConfig config) {
+        Object value;
+        if ("gps".equals(config.getDataType()) || "location".equals(config.getDataType())) {
+            Map<String, Double> coordinates = new LinkedHashMap<>();
+            coordinates.put("latitude", 52.520008);
+            coordinates.put("longitude", 13.404954);
+            value = coordinates;
+        } else {
+            try {
+                value = simulationManager.generateValue(config);
+            } catch (RuntimeException e) {
+                value = 0.0;
+            }
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("device_id", device.getDeviceId());
+        payload.put("data_type", config.getDataType());
+        payload.put("value", value);
+        if (config.getUnit() != null && !config.getUnit().trim().isEmpty()) {
+            payload.put("unit", config.getUnit());
+        }
+        return payload;
+    }
+
+    /**
+     * Most readings falling in any one second, for streams given as {initialDelayMs, intervalMs}.
+     * Simulates one longest interval (capped) so every stream fires at least once.
+     */
+    static int peakPerSecond(List<long[]> phases) {
+        if (phases.isEmpty()) {
+            return 0;
+        }
+        long longestInterval = 0;
+        double readingsPerMs = 0;
+        for (long[] phase : phases) {
+            longestInterval = Math.max(longestInterval, phase[1]);
+            readingsPerMs += 1.0 / phase[1];
+        }
+        long horizonMs = Math.min(Math.max(longestInterval, 60_000), MAX_PEAK_HORIZON_MS);
+        if (readingsPerMs * horizonMs > MAX_PEAK_READINGS) {
+            horizonMs = Math.max(1000, (long) (MAX_PEAK_READINGS / readingsPerMs));
+        }
+
+        int[] perSecond = new int[(int) (horizonMs / 1000) + 1];
+        int peak = 0;
+        for (long[] phase : phases) {
+            for (long t = phase[0]; t < horizonMs; t += phase[1]) {
+                peak = Math.max(peak, ++perSecond[(int) (t / 1000)]);
+            }
+        }
+        return peak;
+    }
+
+    private static final class SimulationLoad {
+        final List<long[]> phases = new ArrayList<>();
+        final List<String> missingDeviceIds = new ArrayList<>();
+        int devices;
+        double eventsPerSecond;
+    }
+
+    private static final class DataTypeLoad {
+        final Map<String, Object> samplePayload;
+        int streams;
+        double eventsPerSecond;
+
+        DataTypeLoad(Map<String, Object> samplePayload) {
+            this.samplePayload = samplePayload;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.iotsimulatorbackend.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A secondary destination for the request bodies sent to device-ingest, e.g. a file or an
+ * in-memory tap kept for verification. {@link IngestFanOut} gives each sink its own
+ * {@link SinkChannel}, so write() is only ever called from one thread at a time.
+ */
+interface CaptureSink extends SinkChannel.Sink<CaptureSink.Body> {
+
+    @Override
+    default int sizeOf(Body body) {
+        return body.getLength();
+    }
+
+    /**
+     * One encoded device-ingest body, shared read-only by every sink
+     */
+    final class Body {
+        private final long capturedAt;
+        private final String encoding;
+        private final int events;
+        private final ByteBuffer bytes;
+
+        Body(long capturedAt, String encoding, int events, byte[] body) {
+            this.capturedAt = capturedAt;
+            this.encoding = encoding;
+            this.events = events;
+            this.bytes = ByteBuffer.wrap(body).asReadOnlyBuffer();
+        }
+
+        long getCapturedAt() { return capturedAt; }
+        String getEncoding() { return encoding; }
+        int getEvents() { return events; }
+        int getLength() { return bytes.remaining(); }
+
+        /**
+         * A view of the body with its own position, so sinks never disturb each other
+         */
+        ByteBuffer getBytes() { return bytes.duplicate(); }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A device_type_data_configs.sample_data_config value parsed once into the
+ * "range"/"enum" form used by the value generators. Instances are immutable
+ * and shared by every DataTypeConfig built from the same sample config.
+ */
+final class CompiledSampleConfig {
+    static final CompiledSampleConfig DEFAULT_RANGE = new CompiledSampleConfig("range", Collections.emptyMap());
+    private static final TypeReference<List<Object>> LIST_TYPE = new TypeReference<List<Object>>() {};
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final String configType;
+    private final Map<String, Object> config;
+
+    private CompiledSampleConfig(String configType, Map<String, Object> config) {
+        this.configType = configType;
+        this.config = config;
+    }
+
+    String getConfigType() { return configType; }
+
+    Map<String, Object> getConfig() { return config; }
+
+    /**
+     * Compile a sample_data_config node, which may be a JSON object or JSON text
+     */
+    static CompiledSampleConfig compile(JsonNode sampleConfig, ObjectMapper objectMapper) throws Exception {
+        if (sampleConfig == null || sampleConfig.isNull()) {
+            return DEFAULT_RANGE;
+        }
+
+        JsonNode parsedSample = sampleConfig.isTextual()
+                ? objectMapper.readTree(sampleConfig.asText())
+                : sampleConfig;
+
+        String configType = "range";
+        Map<String, Object> config = new HashMap<>();
+
+        // Determine if it's range or enum based on sample_data_config content
+        if (parsedSample.has("type")) {
+            String type = parsedSample.get("type").asText();
+            if ("enum".equals(type)) {
+                configType = "enum";
+                if (parsedSample.has("values")) {
+                    config.put("values", Collections.unmodifiableList(
+                            objectMapper.convertValue(parsedSample.get("values"), LIST_TYPE)));
+                }
+            } else if ("boolean".equals(type)) {
+                configType = "enum";
+                config.put("values", List.of(true, false));
+            } else if ("random_number".equals(type)) {
+                if (parsedSample.has("min")) config.put("min", parsedSample.get("min").asDouble());
+                if (parsedSample.has("max")) config.put("max", parsedSample.get("max").asDouble());
+                if (parsedSample.has("precision")) config.put("precision", parsedSample.get("precision").asInt());
+            } else if ("blood_pressure".equals(type)) {
+                if (parsedSample.has("systolic")) {
+                    config.put("systolic_min", parsedSample.get("systolic").get("min").asInt());
+                    config.put("systolic_max", parsedSample.get("systolic").get("max").asInt());
+                }
+                if (parsedSample.has("diastolic")) {
+                    config.put("diastolic_min", parsedSample.get("diastolic").get("min").asInt());
+                    config.put("diastolic_max", parsedSample.get("diastolic").get("max").asInt());
+                }
+            } else if ("gps".equals(type)) {
+                // Special handling for GPS location data
+                config.put("type", "gps");
+                if (parsedSample.has("latitude")) {
+                    config.put("latitude", Collections.unmodifiableMap(
+                            objectMapper.convertValue(parsedSample.get("latitude"), MAP_TYPE)));
+                }
+                if (parsedSample.has("longitude")) {
+                    config.put("longitude", Collections.unmodifiableMap(
+                            objectMapper.convertValue(parsedSample.get("longitude"), MAP_TYPE)));
+                }
+            }
+        }
+
+        return new CompiledSampleConfig(configType, Collections.unmodifiableMap(config));
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends generated readings to the device-ingest edge function.
+ * Single readings are posted as one JSON object; batches are posted as JSON arrays
+ * of up to max-batch-size readings, falling back to one request per reading if the
+ * ingest endpoint rejects array bodies. device-ingest answers an array body with one
+ * status for the whole request, so a 2xx counts every reading in it as sent.
+ *
+ * Bodies are plain JSON unless simulator.ingest.encoding / compression select Smile or
+ * CBOR and gzip or deflate. If the sink answers 415 to a compact body, the client
+ * falls back to plain JSON for the rest of the run. Bytes sent are counted per encoding,
+ * bodies the sink answered with an error status apart from accepted ones. Every accepted
+ * body is also handed to {@link IngestFanOut} for local capture.
+ */
+@Service
+public class DeviceIngestClient {
+    private static final Logger logger = LoggerFactory.getLogger(DeviceIngestClient.class);
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IngestFanOut fanOut;
+
+    @Value("${simulator.device-ingest-url}")
+    private String deviceIngestUrl;
+
+    @Value("${simulator.ingest.max-batch-size:50}")
+    private int maxBatchSize;
+
+    // json, smile or cbor; anything but json needs a sink that decodes it
+    @Value("${simulator.ingest.encoding:json}")
+    private String encodingName;
+
+    // none, gzip or deflate
+    @Value("${simulator.ingest.compression:none}")
+    private String compressionName;
+
+    // Cleared the first time device-ingest rejects an array body, after which batches are sent item by item
+    private volatile boolean arrayBatchesAccepted = true;
+
+    // Statuses meaning the endpoint does not take array bodies (413: not this large), as opposed to
+    // rejecting the request itself, e.g. 401/403 for a bad API key or 422 for invalid readings
+    private static final Set<Integer> ARRAY_REJECTED_STATUSES = Set.of(400, 404, 405, 413, 415);
+
+    private PayloadEncoder plainEncoder;
+    // Replaced by plainEncoder if the sink rejects the configured encoding
+    private volatile PayloadEncoder encoder;
+    private final Map<String, WireStats> wireStats = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        PayloadEncoding encoding = PayloadEncoding.fromKey(encodingName);
+        if (encoding == null) {
+            logger.warn("Unknown simulator.ingest.encoding '{}', using json", encodingName);
+            encoding = PayloadEncoding.JSON;
+        }
+        PayloadCompression compression = PayloadCompression.fromKey(compressionName);
+        if (compression == null) {
+            logger.warn("Unknown simulator.ingest.compression '{}', using none", compressionName);
+            compression = PayloadCompression.NONE;
+        }
+        plainEncoder = new PayloadEncoder(PayloadEncoding.JSON, PayloadCompression.NONE, objectMapper);
+        encoder = plainEncoder.getEncoding() == encoding && plainEncoder.getCompression() == compression
+                ? plainEncoder
+                : new PayloadEncoder(encoding, compression, objectMapper);
+        if (!encoder.isPlainJson()) {
+            logger.info("📦 device-ingest bodies encoded as {}", encoder.getLabel());
+        }
+    }
+
+    /**
+     * Send a single reading. Transport and HTTP errors propagate to the caller.
+     */
+    public ResponseEntity<String> send(String apiKey, Map<String, Object> payload) throws Exception {
+        logger.debug("📤 Sending payload to device-ingest: {}", payload);
+        return post(apiKey, payload, 1);
+    }
+
+    /**
+     * Send readings that share one device API key. Never throws; the outcome of every
+     * reading is reported in the returned list, in the same order as the payloads.
+     */
+    public List<IngestResult> sendBatch(String apiKey, List<Map<String, Object>> payloads) {
+        List<IngestResult> results = new ArrayList<>(payloads.size());
+        int batchSize = Math.max(1, maxBatchSize);
+
+        for (int from = 0; from < payloads.size(); from += batchSize) {
+            List<Map<String, Object>> chunk = payloads.subList(from, Math.min(from + batchSize, payloads.size()));
+            if (chunk.size() > 1 && arrayBatchesAccepted) {
+                try {
+                    results.addAll(postArray(apiKey, chunk));
+                    continue;
+                } catch (HttpClientErrorException e) {
+                    int status = e.getRawStatusCode();
+                    if (!ARRAY_REJECTED_STATUSES.contains(status)) {
+                        String error = e.getMessage();
+                        chunk.forEach(p -> results.add(IngestResult.failure(error)));
+                        continue;
+                    }
+                    if (status == 413) {
+                        // Only this batch is too large; later, smaller ones may still go as arrays
+                        logger.warn("⚠️  device-ingest rejected a batch of {} readings as too large; sending it individually",
+                                chunk.size());
+                    } else {
+                        arrayBatchesAccepted = false;
+                        logger.warn("⚠️  device-ingest rejected a batch of {} readings ({}); sending readings individually from now on",
+                                chunk.size(), status);
+                    }
+                } catch (Exception e) {
+                    String error = e.getMessage();
+                    chunk.forEach(p -> results.add(IngestResult.failure(error)));
+                    continue;
+                }
+            }
+            for (Map<String, Object> payload : chunk) {
+                results.add(postSingle(apiKey, payload));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Bytes on the wire per encoding; bytesPerEvent is the figure to compare
+     */
+    public Map<String, Object> getWireMetrics() {
+        Map<String, Object> perEncoding = new TreeMap<>();
+        wireStats.forEach((label, stats) -> perEncoding.put(label, stats.toMap()));
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("configuredEncoding", encoder != null ? encoder.getLabel() : null);
+        metrics.put("arrayBatchesAccepted", arrayBatchesAccepted);
+        metrics.put("encodings", perEncoding);
+        return metrics;
+    }
+
+    /**
+     * Bytes one reading costs on the wire with the current encoding: the observed average over
+     * accepted requests, single and batched, once they carried enough readings, otherwise the
+     * encoded size of {@code samplePayload}. For batches the array framing is spread over its readings.
+     */
+    public Map<String, Object> estimateBytesPerEvent(Map<String, Object> samplePayload) throws Exception {
+        PayloadEncoder current = encoder;
+        WireStats stats = wireStats.get(current.getLabel());
+        Map<String, Object> estimate = new LinkedHashMap<>();
+        estimate.put("encoding", current.getLabel());
+        if (stats != null && stats.events.sum() >= 100) {
+            estimate.put("bytesPerEvent", (double) stats.bytes.sum() / stats.events.sum());
+            estimate.put("source", "observed");
+        } else {
+            estimate.put("bytesPerEvent", (double) current.encode(samplePayload).getBody().length);
+            estimate.put("source", "sample");
+        }
+        return estimate;
+    }
+
+    private List<IngestResult> postArray(String apiKey, List<Map<String, Object>> chunk) throws Exception {
+        ResponseEntity<String> response = post(apiKey, chunk, chunk.size());
+
+        List<IngestResult> results = new ArrayList<>(chunk.size());
+        IngestResult outcome = response.getStatusCode().is2xxSuccessful()
+                ? IngestResult.success()
+                : IngestResult.failure("Status: " + response.getStatusCode());
+        chunk.forEach(p -> results.add(outcome));
+        return results;
+    }
+
+    private IngestResult postSingle(String apiKey, Map<String, Object> payload) {
+        try {
+            ResponseEntity<String> response = post(apiKey, payload, 1);
+            return response.getStatusCode().is2xxSuccessful()
+                    ? IngestResult.success()
+                    : IngestResult.failure("Status: " + response.getStatusCode());
+        } catch (Exception e) {
+            return IngestResult.failure(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<String> post(String apiKey, Object body, int events) throws Exception {
+        PayloadEncoder current = encoder;
+        try {
+            return post(current, apiKey, body, events);
+        } catch (HttpClientErrorException e) {
+            if (current.isPlainJson() || e.getRawStatusCode() != 415) {
+                throw e;
+            }
+            if (encoder != plainEncoder) {
+                encoder = plainEncoder;
+                logger.warn("⚠️  device-ingest does not accept {} bodies (415); sending plain JSON from now on", current.getLabel());
+            }
+            return post(plainEncoder, apiKey, body, events);
+        }
+    }
+
+    private ResponseEntity<String> post(PayloadEncoder bodyEncoder, String apiKey, Object body, int events) throws Exception {
+        PayloadEncoder.Encoded encoded = bodyEncoder.encode(body);
+        WireStats stats = wireStats.computeIfAbsent(bodyEncoder.getLabel(), label -> new WireStats());
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.postForEntity(deviceIngestUrl,
+                    new HttpEntity<>(encoded.getBody(), headersFor(apiKey, bodyEncoder)), String.class);
+        } catch (HttpStatusCodeException e) {
+            // Counted apart, so a 415 followed by the plain JSON retry is not two sends of the readings
+            stats.recordRejected(encoded.getBody().length);
+            throw e;
+        }
+        stats.record(events, encoded.getBody().length, encoded.getUncompressedLength());
+        // Local copies get the accepted bytes; capture sinks queue them and never hold up the caller
+        fanOut.publish(bodyEncoder.getLabel(), events, encoded.getBody());
+        return response;
+    }
+
+    private HttpHeaders headersFor(String apiKey, PayloadEncoder bodyEncoder) {
+        HttpHeaders headers = new HttpHeaders();
+        // Use the device's API key in the Authorization header (device-ingest validates this)
+        headers.set("Authorization", "Bearer " + apiKey);
+        bodyEncoder.applyHeaders(headers);
+        return headers;
+    }
+
+    private static final class WireStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder events = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder uncompressedBytes = new LongAdder();
+        final LongAdder rejectedRequests = new LongAdder();
+        final LongAdder rejectedBytes = new LongAdder();
+
+        void recordRejected(int bodyBytes) {
+            rejectedRequests.increment();
+            rejectedBytes.add(bodyBytes);
+        }
+
+        void record(int eventCount, int bodyBytes, int serializedBytes) {
+            requests.increment();
+            events.add(eventCount);
+            bytes.add(bodyBytes);
+            uncompressedBytes.add(serializedBytes);
+        }
+
+        Map<String, Object> toMap() {
+            long eventCount = events.sum();
+            long byteCount = bytes.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", requests.sum());
+            map.put("events", eventCount);
+            map.put("bytes", byteCount);
+            map.put("uncompressedBytes", uncompressedBytes.sum());
+            map.put("bytesPerEvent", eventCount == 0 ? 0.0 : (double) byteCount / eventCount);
+            map.put("rejectedRequests", rejectedRequests.sum());
+            map.put("rejectedBytes", rejectedBytes.sum());
+            return map;
+        }
+    }
+
+    /**
+     * Outcome of sending one reading
+     */
+    public static class IngestResult {
+        private static final IngestResult SUCCESS = new IngestResult(true, null);
+
+        private final boolean success;
+        private final String error;
+
+        private IngestResult(boolean success, String error) {
+            this.success = success;
+            this.error = error;
+        }
+
+        public static IngestResult success() { return SUCCESS; }
+        public static IngestResult failure(String error) { return new IngestResult(false, error); }
+
+        public boolean isSuccess() { return success; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.StatisticsSnapshot.DeviceEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Filtered, sorted page of per-device statistics.
+ *
+ * Page {@code p} of size {@code s} needs only the first (p + 1) * s matches in sort
+ * order, so matches stream through a bounded heap of that many entries instead of
+ * being collected and sorted: O(n log k) time and O(k) memory for n devices. Only
+ * the k survivors are sorted.
+ */
+public final class DeviceStatisticsQuery {
+
+    public enum Sort {
+        FAILURE_RATE("failureRate", Comparator.comparingDouble(DeviceEntry::getFailureRate).reversed()),
+        LATENCY("latency", Comparator.comparingDouble(DeviceEntry::getAvgLatencyMs).reversed()),
+        TOTAL("total", Comparator.comparingInt(DeviceEntry::getTotalCount).reversed()),
+        DEVICE_ID("deviceId", (a, b) -> 0);
+
+        private final String key;
+        private final Comparator<DeviceEntry> order;
+
+        Sort(String key, Comparator<DeviceEntry> order) {
+            this.key = key;
+            // Ties (and deviceId sort) fall back to device ID so pages are stable
+            this.order = order.thenComparing(DeviceEntry::getDeviceId);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public static Sort fromKey(String key) {
+            for (Sort sort : values()) {
+                if (sort.key.equalsIgnoreCase(key)) {
+                    return sort;
+                }
+            }
+            return null;
+        }
+    }
+
+    private String deviceFilter;        // Case-insensitive substring of device ID or name
+    private String dataType;
+    private Double minFailureRate;      // Percent, inclusive
+    private Double maxFailureRate;
+    private Sort sort = Sort.DEVICE_ID;
+    private int page = 0;
+    private int size = 50;
+
+    public DeviceStatisticsQuery deviceFilter(String deviceFilter) {
+        this.deviceFilter = deviceFilter != null && !deviceFilter.isEmpty() ? deviceFilter.toLowerCase() : null;
+        return this;
+    }
+
+    public DeviceStatisticsQuery dataType(String dataType) {
+        this.dataType = dataType != null && !dataType.isEmpty() ? dataType : null;
+        return this;
+    }
+
+    public DeviceStatisticsQuery failureRateBetween(Double min, Double max) {
+        this.minFailureRate = min;
+        this.maxFailureRate = max;
+        return this;
+    }
+
+    public DeviceStatisticsQuery sort(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    public DeviceStatisticsQuery page(int page, int size) {
+        this.page = page;
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * Run the query; the result holds the page items and the number of matching devices
+     */
+    public Map<String, Object> run(Collection<DeviceEntry> devices) {
+        long limit = (long) (page + 1) * size;
+        int capacity = (int) Math.min(limit, devices.size());
+        Comparator<DeviceEntry> order = sort.order;
+        // Head is the worst entry kept so far, ready to be displaced by a better one
+        PriorityQueue<DeviceEntry> kept = new PriorityQueue<>(Math.max(1, capacity), order.reversed());
+
+        int matched = 0;
+        for (DeviceEntry device : devices) {
+            if (!matches(device)) {
+                continue;
+            }
+            matched++;
+            if (kept.size() < capacity) {
+                kept.add(device);
+            } else if (capacity > 0 && order.compare(device, kept.peek()) < 0) {
+                kept.poll();
+                kept.add(device);
+            }
+        }
+
+        List<DeviceEntry> top = new ArrayList<>(kept);
+        top.sort(order);
+        int from = (int) Math.min((long) page * size, top.size());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("page", page);
+        result.put("size", size);
+        result.put("sort", sort.getKey());
+        result.put("total", matched);
+        result.put("items", top.subList(from, top.size()));
+        return result;
+    }
+
+    private boolean matches(DeviceEntry device) {
+        if (deviceFilter != null
+                && !device.getDeviceId().toLowerCase().contains(deviceFilter)
+                && (device.getDeviceName() == null || !device.getDeviceName().toLowerCase().contains(deviceFilter))) {
+            return false;
+        }
+        if (dataType != null && !device.getDataTypes().contains(dataType)) {
+            return false;
+        }
+        double failureRate = device.getFailureRate();
+        return (minFailureRate == null || failureRate >= minFailureRate)
+                && (maxFailureRate == null || failureRate <= maxFailureRate);
+    }
+}
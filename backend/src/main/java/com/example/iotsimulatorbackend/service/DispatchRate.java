@@ -0,0 +1,77 @@
+package com.example.iotsimulatorbackend.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stream runs across all simulations in fixed time buckets, for the scheduling metrics.
+ *
+ * Keeps a ring of per-second and a ring of per-minute counters. Every stream run records
+ * here, so recording takes no lock: a bucket is recycled by whichever thread first sees it
+ * hold an old bucket number. A run recorded while its bucket is being recycled may be lost,
+ * which does not matter for a peak-to-mean estimate.
+ */
+final class DispatchRate {
+    static final int SECOND_BUCKETS = 120;   // last 2 minutes
+    static final int MINUTE_BUCKETS = 60;    // last hour
+
+    private final Ring seconds = new Ring(SECOND_BUCKETS, 1000L);
+    private final Ring minutes = new Ring(MINUTE_BUCKETS, 60_000L);
+
+    void record(long timestampMs) {
+        seconds.record(timestampMs);
+        minutes.record(timestampMs);
+    }
+
+    /**
+     * Runs in the last {@code count} per-second or per-minute buckets up to and including the
+     * current one, oldest first
+     */
+    long[] runs(boolean perMinute, int count, long nowMs) {
+        return (perMinute ? minutes : seconds).runs(count, nowMs);
+    }
+
+    private static final class Ring {
+        private final long widthMs;
+        private final AtomicLongArray bucketIndex;   // Absolute bucket number (timestamp / width) held in each slot
+        private final LongAdder[] counts;
+
+        Ring(int size, long widthMs) {
+            this.widthMs = widthMs;
+            this.bucketIndex = new AtomicLongArray(size);
+            this.counts = new LongAdder[size];
+            for (int i = 0; i < size; i++) {
+                bucketIndex.set(i, -1);
+                counts[i] = new LongAdder();
+            }
+        }
+
+        void record(long timestampMs) {
+            long index = timestampMs / widthMs;
+            int slot = (int) (index % counts.length);
+            long held = bucketIndex.get(slot);
+            if (held != index) {
+                if (held > index) {
+                    // A run from before the slot was recycled; its bucket is gone
+                    return;
+                }
+                if (bucketIndex.compareAndSet(slot, held, index)) {
+                    counts[slot].reset();
+                }
+            }
+            counts[slot].increment();
+        }
+
+        long[] runs(int count, long nowMs) {
+            int n = Math.max(1, Math.min(count, counts.length));
+            long current = nowMs / widthMs;
+            long[] runs = new long[n];
+            for (int i = 0; i < n; i++) {
+                long index = current - n + 1 + i;
+                int slot = (int) (index % counts.length);
+                runs[i] = bucketIndex.get(slot) == index ? counts[slot].sum() : 0;
+            }
+            return runs;
+        }
+    }
+}
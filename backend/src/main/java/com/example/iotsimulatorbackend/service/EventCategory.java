@@ -0,0 +1,33 @@
+package com.example.iotsimulatorbackend.service;
+
+/**
+ * Categories of structured events written through the {@link EventLog}.
+ * Each category is sampled and rate-limited independently.
+ */
+public enum EventCategory {
+    SCHEDULING("scheduling"),           // Per-stream scheduling details at simulation start
+    READING("reading"),                 // Every generated reading (very high volume)
+    INGEST_FAILURE("ingest_failure"),   // Failed sends to device-ingest
+    LOCATION("location"),               // Geofence arrivals and transitions from the movement engine
+    SUPABASE("supabase");               // Metadata lookups against Supabase
+
+    private final String key;
+
+    EventCategory(String key) {
+        this.key = key;
+    }
+
+    /** Name used in configuration and in the emitted events */
+    public String getKey() {
+        return key;
+    }
+
+    public static EventCategory fromKey(String key) {
+        for (EventCategory category : values()) {
+            if (category.key.equalsIgnoreCase(key)) {
+                return category;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.iotsimulatorbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous structured event log for the simulation hot path.
+ *
+ * Callers check {@link #shouldLog(EventCategory)} first, so nothing is formatted or
+ * allocated for categories that are disabled, sampled out or over their rate limit.
+ * Accepted events are put into a bounded ring buffer without blocking (events are
+ * dropped and counted when it is full) and written as logfmt lines by a background
+ * thread through the "com.example.iotsimulatorbackend.events" logger.
+ */
+@Component
+public class EventLog {
+    private static final Logger logger = LoggerFactory.getLogger(EventLog.class);
+    private static final Logger eventLogger = LoggerFactory.getLogger("com.example.iotsimulatorbackend.events");
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    @Value("${simulator.event-log.buffer-size:8192}")
+    private int bufferSize = 8192;
+
+    // Comma-separated "category=rate" pairs, rate in [0, 1]
+    @Value("${simulator.event-log.sample-rates:}")
+    private String sampleRatesSpec = "";
+
+    // Comma-separated "category=eventsPerSecond" pairs, 0 means unlimited
+    @Value("${simulator.event-log.rate-limits:}")
+    private String rateLimitsSpec = "";
+
+    // Comma-separated category names that are switched off entirely
+    @Value("${simulator.event-log.disabled:}")
+    private String disabledSpec = "";
+
+    private final CategoryState[] states = new CategoryState[EventCategory.values().length];
+    private volatile BlockingQueue<Event> buffer;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public EventLog() {
+        for (EventCategory category : EventCategory.values()) {
+            states[category.ordinal()] = new CategoryState();
+        }
+    }
+
+    /**
+     * An event log that accepts nothing, for generators created outside of a simulation
+     */
+    public static EventLog discarding() {
+        EventLog eventLog = new EventLog();
+        for (CategoryState state : eventLog.states) {
+            state.enabled = false;
+        }
+        return eventLog;
+    }
+
+    @PostConstruct
+    public void start() {
+        parseSpec(sampleRatesSpec, (state, value) -> state.sampleRate = Math.max(0, Math.min(1, Double.parseDouble(value))));
+        parseSpec(rateLimitsSpec, (state, value) -> state.maxPerSecond = Integer.parseInt(value));
+        for (String name : disabledSpec.split(",")) {
+            EventCategory category = EventCategory.fromKey(name.trim());
+            if (category != null) {
+                states[category.ordinal()].enabled = false;
+            }
+        }
+
+        buffer = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        running = true;
+        writerThread = new Thread(this::drain, "event-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Flush whatever is still buffered
+        BlockingQueue<Event> remaining = buffer;
+        if (remaining != null) {
+            Event event;
+            while ((event = remaining.poll()) != null) {
+                write(event);
+            }
+        }
+    }
+
+    /**
+     * Decide whether an event of this category should be recorded right now, applying the
+     * category's enabled flag, sample rate and rate limit. Call before building event fields.
+     */
+    public boolean shouldLog(EventCategory category) {
+        CategoryState state = states[category.ordinal()];
+        if (!state.enabled || buffer == null) {
+            return false;
+        }
+        if (state.sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= state.sampleRate) {
+            state.sampledOut.increment();
+            return false;
+        }
+        if (!state.tryAcquire()) {
+            state.rateLimited.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record an event with alternating field names and values. Never blocks; if the buffer is
+     * full the event is dropped and counted. Sampling is the caller's job via shouldLog.
+     */
+    public void log(EventCategory category, String event, Object... fields) {
+        BlockingQueue<Event> target = buffer;
+        if (target == null) {
+            return;
+        }
+        CategoryState state = states[category.ordinal()];
+        if (target.offer(new Event(category, event, System.currentTimeMillis(), fields))) {
+            state.accepted.increment();
+        } else {
+            state.dropped.increment();
+        }
+    }
+
+    /**
+     * Per-category counters plus buffer occupancy
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> categories = new LinkedHashMap<>();
+        long totalDropped = 0;
+        for (EventCategory category : EventCategory.values()) {
+            CategoryState state = states[category.ordinal()];
+            Map<String, Object> categoryMetrics = new LinkedHashMap<>();
+            categoryMetrics.put("enabled", state.enabled);
+            categoryMetrics.put("sampleRate", state.sampleRate);
+            categoryMetrics.put("maxPerSecond", state.maxPerSecond);
+            categoryMetrics.put("accepted", state.accepted.sum());
+            categoryMetrics.put("written", state.written.sum());
+            categoryMetrics.put("sampledOut", state.sampledOut.sum());
+            categoryMetrics.put("rateLimited", state.rateLimited.sum());
+            categoryMetrics.put("dropped", state.dropped.sum());
+            categories.put(category.getKey(), categoryMetrics);
+            totalDropped += state.dropped.sum();
+        }
+
+        BlockingQueue<Event> current = buffer;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("bufferSize", bufferSize);
+        metrics.put("buffered", current != null ? current.size() : 0);
+        metrics.put("dropped", totalDropped);
+        metrics.put("categories", categories);
+        return metrics;
+    }
+
+    private void drain() {
+        List<Event> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        while (running) {
+            try {
+                Event first = buffer.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                write(first);
+                buffer.drainTo(batch, DRAIN_BATCH_SIZE);
+                for (Event event : batch) {
+                    write(event);
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.warn("Event log writer failed to write an event: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void write(Event event) {
+        StringBuilder line = new StringBuilder(128)
+                .append("event=").append(event.name)
+                .append(" category=").append(event.category.getKey())
+                .append(" ts=").append(Instant.ofEpochMilli(event.timestamp));
+        Object[] fields = event.fields;
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            line.append(' ').append(fields[i]).append('=');
+            appendValue(line, fields[i + 1]);
+        }
+        eventLogger.info(line.toString());
+        states[event.category.ordinal()].written.increment();
+    }
+
+    /**
+     * A value as written after "key=": quoted if it contains a space, quote, '=', backslash or
+     * control character, with those escaped, so one value can never start a new record or field
+     */
+    static void appendValue(StringBuilder line, Object value) {
+        String text = String.valueOf(value);
+        if (!text.isEmpty() && !needsQuoting(text)) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (Character.isISOControl(c)) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    private static boolean needsQuoting(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ' || c == '"' || c == '=' || c == '\\' || Character.isISOControl(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void parseSpec(String spec, SpecApplier applier) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return;
+        }
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.split("=");
+            EventCategory category = parts.length == 2 ? EventCategory.fromKey(parts[0].trim()) : null;
+            if (category == null) {
+                logger.warn("Ignoring unknown event log setting: {}", pair);
+                continue;
+            }
+            applier.apply(states[category.ordinal()], parts[1].trim());
+        }
+    }
+
+    private interface SpecApplier {
+        void apply(CategoryState state, String value);
+    }
+
+    private static final class Event {
+        final EventCategory category;
+        final String name;
+        final long timestamp;
+        final Object[] fields;
+
+        Event(EventCategory category, String name, long timestamp, Object[] fields) {
+            this.category = category;
+            this.name = name;
+            this.timestamp = timestamp;
+            this.fields = fields;
+        }
+    }
+
+    private static final class CategoryState {
+        volatile boolean enabled = true;
+        volatile double sampleRate = 1.0;
+        volatile int maxPerSecond = 0;
+
+        final LongAdder accepted = new LongAdder();
+        final LongAdder written = new LongAdder();
+        final LongAdder sampledOut = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+
+        private volatile long windowSecond;
+        private final AtomicInteger windowCount = new AtomicInteger();
+
+        boolean tryAcquire() {
+            int limit = maxPerSecond;
+            if (limit <= 0) {
+                return true;
+            }
+            long second = System.currentTimeMillis() / 1000;
+            if (second != windowSecond) {
+                synchronized (this) {
+                    if (second != windowSecond) {
+                        windowSecond = second;
+                        windowCount.set(0);
+                    }
+                }
+            }
+            return windowCount.incrementAndGet() <= limit;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.iotsimulatorbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs stream readings for all simulations on a shared worker pool, with weighted
+ * fair sharing between simulations.
+ *
+ * Each simulation has its own bounded queue. Workers pick the next reading by deficit
+ * round-robin: on its turn a simulation may run as many readings as its weight allows,
+ * and never more at once than its concurrency cap. A simulation with thousands of
+ * streams or a slow ingest endpoint therefore backs up in its own queue instead of
+ * occupying every worker.
+ */
+@Component
+public class FairDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(FairDispatcher.class);
+
+    @Value("${simulator.dispatch.workers:10}")
+    private int workerCount = 10;
+
+    @Value("${simulator.dispatch.default-weight:1.0}")
+    private double defaultWeight = 1.0;
+
+    // Max readings of one simulation in flight at once
+    @Value("${simulator.dispatch.default-max-concurrency:4}")
+    private int defaultMaxConcurrency = 4;
+
+    // Readings waiting per simulation; further ones are rejected and counted
+    @Value("${simulator.dispatch.max-queued-per-simulation:1000}")
+    private int maxQueuedPerSimulation = 1000;
+
+    private final Object lock = new Object();
+    private final Map<String, Tenant> tenants = new HashMap<>();
+    // Simulations with queued readings, in round-robin order
+    private final Deque<Tenant> active = new ArrayDeque<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread worker = new Thread(this::work, "dispatch-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Register a simulation. Null weight or concurrency cap means the configured default.
+     */
+    public void register(String simulationId, Double weight, Integer maxConcurrency) {
+        synchronized (lock) {
+            Tenant tenant = tenants.computeIfAbsent(simulationId, Tenant::new);
+            tenant.weight = positiveWeight(weight != null ? weight : defaultWeight);
+            tenant.maxConcurrency = Math.max(1, maxConcurrency != null ? maxConcurrency : defaultMaxConcurrency);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Change the share of a registered simulation; null leaves a value unchanged
+     */
+    public boolean updateShare(String simulationId, Double weight, Integer maxConcurrency) {
+        synchronized (lock) {
+            Tenant tenant = tenants.get(simulationId);
+            if (tenant == null) {
+                return false;
+            }
+            if (weight != null) {
+                tenant.weight = positiveWeight(weight);
+            }
+            if (maxConcurrency != null) {
+                tenant.maxConcurrency = Math.max(1, maxConcurrency);
+            }
+            // A higher cap may make queued readings runnable
+            lock.notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Drop a simulation and anything still queued for it
+     */
+    public void unregister(String simulationId) {
+        synchronized (lock) {
+            Tenant tenant = tenants.remove(simulationId);
+            if (tenant != null) {
+                tenant.queue.clear();
+                active.remove(tenant);
+            }
+        }
+    }
+
+    /**
+     * Queue a reading for a simulation. Returns false if the simulation is not registered
+     * or its queue is full, in which case the caller decides what to do with the tick.
+     */
+    public boolean submit(String simulationId, Runnable task) {
+        synchronized (lock) {
+            Tenant tenant = tenants.get(simulationId);
+            if (tenant == null) {
+                return false;
+            }
+            if (tenant.queue.size() >= maxQueuedPerSimulation) {
+                tenant.rejected++;
+                return false;
+            }
+            tenant.queue.addLast(new Job(task, System.currentTimeMillis()));
+            if (!tenant.active) {
+                tenant.active = true;
+                active.addLast(tenant);
+            }
+            lock.notify();
+            return true;
+        }
+    }
+
+    /**
+     * Queue depth, in-flight count and queue wait per simulation
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> perSimulation = new TreeMap<>();
+        int queued = 0;
+        int inFlight = 0;
+        synchronized (lock) {
+            for (Tenant tenant : tenants.values()) {
+                Map<String, Object> tenantMetrics = new LinkedHashMap<>();
+                tenantMetrics.put("weight", tenant.weight);
+                tenantMetrics.put("maxConcurrency", tenant.maxConcurrency);
+                tenantMetrics.put("queued", tenant.queue.size());
+                tenantMetrics.put("inFlight", tenant.inFlight);
+                tenantMetrics.put("dispatched", tenant.dispatched);
+                tenantMetrics.put("rejected", tenant.rejected);
+                tenantMetrics.put("meanQueueWaitMs", tenant.dispatched == 0 ? 0.0 : (double) tenant.totalWaitMs / tenant.dispatched);
+                tenantMetrics.put("maxQueueWaitMs", tenant.maxWaitMs);
+                perSimulation.put(tenant.simulationId, tenantMetrics);
+                queued += tenant.queue.size();
+                inFlight += tenant.inFlight;
+            }
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("workers", workers.size());
+        metrics.put("queued", queued);
+        metrics.put("inFlight", inFlight);
+        metrics.put("simulations", perSimulation);
+        return metrics;
+    }
+
+    public int getWorkerCount() {
+        return Math.max(1, workerCount);
+    }
+
+    public int getDefaultMaxConcurrency() {
+        return defaultMaxConcurrency;
+    }
+
+    public int getMaxQueuedPerSimulation() {
+        return maxQueuedPerSimulation;
+    }
+
+    // A zero weight would never earn a turn and stall its queue
+    private static double positiveWeight(double weight) {
+        return Math.max(0.01, weight);
+    }
+
+    private void work() {
+        while (running) {
+            Tenant tenant;
+            Job job;
+            synchronized (lock) {
+                Tenant[] picked = new Tenant[1];
+                while ((job = pick(picked)) == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                tenant = picked[0];
+            }
+            try {
+                job.task.run();
+            } catch (Throwable t) {
+                logger.error("❌ Dispatched reading for simulation {} failed", tenant.simulationId, t);
+            } finally {
+                synchronized (lock) {
+                    tenant.inFlight--;
+                    // The simulation may have been capped; let a waiting worker look again
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deficit round-robin over simulations with queued readings. The head simulation runs
+     * readings while its deficit lasts and it is under its concurrency cap, then moves to the
+     * back. Caller holds the lock.
+     */
+    private Job pick(Tenant[] picked) {
+        boolean anyUnderCap = true;
+        // Weights below 1 need several passes to build up a whole reading's worth of deficit
+        while (anyUnderCap) {
+            anyUnderCap = false;
+            for (int i = 0, n = active.size(); i < n; i++) {
+                Tenant tenant = active.peekFirst();
+                if (tenant.inFlight < tenant.maxConcurrency) {
+                    anyUnderCap = true;
+                    if (tenant.deficit < 1) {
+                        // Start of this simulation's turn
+                        tenant.deficit += tenant.weight;
+                    }
+                    if (tenant.deficit >= 1) {
+                        tenant.deficit -= 1;
+                        Job job = tenant.queue.pollFirst();
+                        tenant.inFlight++;
+                        tenant.dispatched++;
+                        long waitMs = System.currentTimeMillis() - job.enqueuedAt;
+                        tenant.totalWaitMs += waitMs;
+                        tenant.maxWaitMs = Math.max(tenant.maxWaitMs, waitMs);
+
+                        if (tenant.queue.isEmpty()) {
+                            active.pollFirst();
+                            tenant.active = false;
+                            tenant.deficit = 0;
+                        } else if (tenant.deficit < 1) {
+                            active.addLast(active.pollFirst());
+                        }
+                        picked[0] = tenant;
+                        return job;
+                    }
+                }
+                active.addLast(active.pollFirst());
+            }
+        }
+        return null;
+    }
+
+    private static final class Job {
+        final Runnable task;
+        final long enqueuedAt;
+
+        Job(Runnable task, long enqueuedAt) {
+            this.task = task;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    // All fields guarded by the dispatcher lock
+    private static final class Tenant {
+        final String simulationId;
+        final Deque<Job> queue = new ArrayDeque<>();
+        double weight;
+        int maxConcurrency;
+        double deficit;
+        int inFlight;
+        boolean active;
+        long dispatched;
+        long rejected;
+        long totalWaitMs;
+        long maxWaitMs;
+
+        Tenant(String simulationId) {
+            this.simulationId = simulationId;
+        }
+    }
+}
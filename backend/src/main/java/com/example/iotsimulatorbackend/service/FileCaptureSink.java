@@ -0,0 +1,72 @@
+package com.example.iotsimulatorbackend.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends captured bodies to a file. Each record is a one-line JSON header, e.g.
+ * {"at":1700000000000,"encoding":"json","events":1,"bytes":87}, followed by the body
+ * itself and a newline. Plain JSON captures can thus be read line by line; binary or
+ * compressed bodies are read by their byte count.
+ */
+final class FileCaptureSink implements CaptureSink {
+
+    private final Path file;
+    private final OutputStream out;
+    private final byte[] chunk = new byte[8192];
+
+    FileCaptureSink(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), 64 * 1024);
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void write(Body body) throws IOException {
+        String header = "{\"at\":" + body.getCapturedAt()
+                + ",\"encoding\":\"" + body.getEncoding()
+                + "\",\"events\":" + body.getEvents()
+                + ",\"bytes\":" + body.getLength() + "}\n";
+        out.write(header.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer bytes = body.getBytes();
+        while (bytes.hasRemaining()) {
+            int n = Math.min(chunk.length, bytes.remaining());
+            bytes.get(chunk, 0, n);
+            out.write(chunk, 0, n);
+        }
+        out.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            // Nothing left to do with a file we cannot close
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DataTypeConfig;
+import com.example.iotsimulatorbackend.model.Device;
+import com.example.iotsimulatorbackend.model.GeofencePlace;
+import com.example.iotsimulatorbackend.service.SupabaseRows.DataTypeConfigRow;
+import com.example.iotsimulatorbackend.service.SupabaseRows.DeviceRow;
+import com.example.iotsimulatorbackend.service.SupabaseRows.DeviceTypeRow;
+import com.example.iotsimulatorbackend.service.SupabaseRows.ElderlyPersonRow;
+import com.example.iotsimulatorbackend.service.SupabaseRows.GeofencePlaceRow;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Fleet metadata from a local JSON or YAML file, so simulations start without Supabase.
+ *
+ * The file holds the same rows as the Supabase tables, under the table names
+ * (elderly_persons, devices, device_types, device_type_data_configs, geofence_places),
+ * so a dump of those tables can be used as is. Everything is read and indexed once at
+ * startup; lookups are map gets and sample configs are compiled once per device type.
+ */
+final class FileFleetProvider implements FleetMetadataProvider {
+
+    private final Path source;
+    private final Map<String, String> elderlyPersonIdByUserId = new HashMap<>();
+    private final Map<String, DeviceRow> devicesById = new HashMap<>();
+    private final Map<String, List<DeviceRow>> devicesByElderlyPerson = new HashMap<>();
+    private final Map<String, String> deviceTypeDescriptions = new HashMap<>();
+    private final Map<String, List<ConfigTemplate>> configsByDeviceTypeCode = new HashMap<>();
+    private final Map<String, List<GeofencePlaceRow>> geofencesByElderlyPerson = new HashMap<>();
+
+    private FileFleetProvider(Path source) {
+        this.source = source;
+    }
+
+    /**
+     * Read and index a fleet file; .yml / .yaml files are read as YAML, anything else as JSON
+     */
+    static FileFleetProvider load(Path file, ObjectMapper jsonMapper) throws Exception {
+        String name = file.getFileName().toString().toLowerCase();
+        ObjectMapper mapper = name.endsWith(".yml") || name.endsWith(".yaml") ? new ObjectMapper(new YAMLFactory()) : jsonMapper;
+        FleetFile fleet;
+        try (InputStream in = Files.newInputStream(file)) {
+            fleet = mapper.readValue(in, FleetFile.class);
+        } catch (IOException e) {
+            throw new IOException("Cannot read fleet file " + file + ": " + e.getMessage(), e);
+        }
+
+        FileFleetProvider provider = new FileFleetProvider(file);
+        provider.index(fleet, jsonMapper);
+        return provider;
+    }
+
+    private void index(FleetFile fleet, ObjectMapper jsonMapper) throws Exception {
+        for (ElderlyPersonRow person : rows(fleet.elderlyPersons)) {
+            if (person.userId != null) {
+                elderlyPersonIdByUserId.put(person.userId, person.id);
+            }
+        }
+        for (DeviceRow device : rows(fleet.devices)) {
+            devicesById.put(device.id, device);
+            devicesByElderlyPerson.computeIfAbsent(device.elderlyPersonId, k -> new ArrayList<>()).add(device);
+        }
+
+        Map<String, List<DataTypeConfigRow>> configRowsByDeviceTypeId = new HashMap<>();
+        for (DataTypeConfigRow row : rows(fleet.deviceTypeDataConfigs)) {
+            configRowsByDeviceTypeId.computeIfAbsent(row.deviceTypeId, k -> new ArrayList<>()).add(row);
+        }
+        for (DeviceTypeRow type : rows(fleet.deviceTypes)) {
+            deviceTypeDescriptions.put(type.code, type.description != null ? type.description : "");
+            int frequencyPerDay = type.dataFrequencyPerDay != null ? type.dataFrequencyPerDay : 4;
+
+            List<DataTypeConfigRow> rows = configRowsByDeviceTypeId.getOrDefault(type.id, Collections.emptyList());
+            rows.sort(Comparator.comparing((DataTypeConfigRow row) -> row.sortOrder, Comparator.nullsLast(Comparator.naturalOrder())));
+            List<ConfigTemplate> templates = new ArrayList<>(rows.size());
+            for (DataTypeConfigRow row : rows) {
+                templates.add(new ConfigTemplate(row, CompiledSampleConfig.compile(row.sampleDataConfig, jsonMapper), frequencyPerDay));
+            }
+            configsByDeviceTypeCode.put(type.code, templates);
+        }
+
+        for (GeofencePlaceRow place : rows(fleet.geofencePlaces)) {
+            if (place.isActive == null || place.isActive) {
+                geofencesByElderlyPerson.computeIfAbsent(place.elderlyPersonId, k -> new ArrayList<>()).add(place);
+            }
+        }
+    }
+
+    @Override
+    public List<Device> getDevicesByElderlyPersonId(String profileId) {
+        List<Device> devices = new ArrayList<>();
+        for (DeviceRow row : devicesByElderlyPerson.getOrDefault(resolveElderlyPersonId(profileId), Collections.emptyList())) {
+            String deviceTypeCode = row.deviceType != null ? row.deviceType : "";
+            devices.add(SimulatorService.toDevice(row, deviceTypeDescriptions.getOrDefault(deviceTypeCode, "")));
+        }
+        return devices;
+    }
+
+    @Override
+    public List<DataTypeConfig> getDataTypesByDeviceId(String deviceId) {
+        DeviceRow device = devicesById.get(deviceId);
+        if (device == null) {
+            return new ArrayList<>();
+        }
+        // Fresh configs on every call, as callers may adjust them
+        List<DataTypeConfig> configs = new ArrayList<>();
+        for (ConfigTemplate template : configsByDeviceTypeCode.getOrDefault(device.deviceType, Collections.emptyList())) {
+            configs.add(template.toConfig());
+        }
+        return configs;
+    }
+
+    @Override
+    public Device getDeviceById(String deviceId) {
+        DeviceRow row = devicesById.get(deviceId);
+        return row != null ? SimulatorService.toDevice(row, row.description != null ? row.description : "") : null;
+    }
+
+    @Override
+    public List<GeofencePlace> getGeofencePlacesByElderlyPersonId(String profileId) {
+        List<GeofencePlace> places = new ArrayList<>();
+        for (GeofencePlaceRow row : geofencesByElderlyPerson.getOrDefault(resolveElderlyPersonId(profileId), Collections.emptyList())) {
+            places.add(SimulatorService.toGeofencePlace(row));
+        }
+        return places;
+    }
+
+    Path getSource() {
+        return source;
+    }
+
+    /**
+     * Persons, devices, device types, data type configs and active geofences in the file
+     */
+    Map<String, Object> getCounts() {
+        int geofences = 0;
+        for (List<GeofencePlaceRow> places : geofencesByElderlyPerson.values()) {
+            geofences += places.size();
+        }
+        int configs = 0;
+        for (List<ConfigTemplate> templates : configsByDeviceTypeCode.values()) {
+            configs += templates.size();
+        }
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("elderlyPersonsWithDevices", devicesByElderlyPerson.size());
+        counts.put("devices", devicesById.size());
+        counts.put("deviceTypes", configsByDeviceTypeCode.size());
+        counts.put("dataTypeConfigs", configs);
+        counts.put("geofencePlaces", geofences);
+        return counts;
+    }
+
+    // An empty table in YAML reads as null
+    private static <T> List<T> rows(List<T> rows) {
+        return rows != null ? rows : Collections.emptyList();
+    }
+
+    // Same fallback as Supabase: an unknown user ID is taken to be the elderly person ID itself
+    private String resolveElderlyPersonId(String profileId) {
+        return elderlyPersonIdByUserId.getOrDefault(profileId, profileId);
+    }
+
+    private static final class ConfigTemplate {
+        final DataTypeConfigRow row;
+        final CompiledSampleConfig compiled;
+        final int frequencyPerDay;
+
+        ConfigTemplate(DataTypeConfigRow row, CompiledSampleConfig compiled, int frequencyPerDay) {
+            this.row = row;
+            this.compiled = compiled;
+            this.frequencyPerDay = frequencyPerDay;
+        }
+
+        DataTypeConfig toConfig() {
+            return new DataTypeConfig(row.dataType, row.displayName, row.unit != null ? row.unit : "", row.valueType,
+                    compiled.getConfigType(), compiled.getConfig(), frequencyPerDay);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FleetFile {
+        @JsonProperty("elderly_persons") public List<ElderlyPersonRow> elderlyPersons = new ArrayList<>();
+        @JsonProperty("devices") public List<DeviceRow> devices = new ArrayList<>();
+        @JsonProperty("device_types") public List<DeviceTypeRow> deviceTypes = new ArrayList<>();
+        @JsonProperty("device_type_data_configs") public List<DataTypeConfigRow> deviceTypeDataConfigs = new ArrayList<>();
+        @JsonProperty("geofence_places") public List<GeofencePlaceRow> geofencePlaces = new ArrayList<>();
+    }
+}
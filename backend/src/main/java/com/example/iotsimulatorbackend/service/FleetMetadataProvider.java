@@ -0,0 +1,35 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DataTypeConfig;
+import com.example.iotsimulatorbackend.model.Device;
+import com.example.iotsimulatorbackend.model.GeofencePlace;
+
+import java.util.List;
+
+/**
+ * Source of the fleet a simulation runs against: devices per elderly person, the data
+ * types each device reports, and the geofences used for location streams.
+ * {@link SimulatorService} reads them from Supabase unless a local fleet file is configured.
+ */
+public interface FleetMetadataProvider {
+
+    /**
+     * Devices of an elderly person; {@code profileId} may also be the person's user ID
+     */
+    List<Device> getDevicesByElderlyPersonId(String profileId);
+
+    /**
+     * Data type configs of a device, in their configured order
+     */
+    List<DataTypeConfig> getDataTypesByDeviceId(String deviceId);
+
+    /**
+     * A single device, or null if it does not exist
+     */
+    Device getDeviceById(String deviceId) throws Exception;
+
+    /**
+     * Active geofence places of an elderly person
+     */
+    List<GeofencePlace> getGeofencePlacesByElderlyPersonId(String profileId);
+}
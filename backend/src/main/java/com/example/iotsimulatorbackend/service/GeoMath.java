@@ -0,0 +1,113 @@
+package com.example.iotsimulatorbackend.service;
+
+/**
+ * Spherical-earth distance and movement for the location generators.
+ *
+ * The exact methods use the haversine / great-circle formulas. The local ones treat the
+ * earth around a reference point (usually a geofence place) as flat, with the east-west
+ * scale taken at the midpoint latitude from the reference's cached cosine and sine, so
+ * they need no trig calls. Within {@link #LOCAL_LIMIT_METERS} of the reference and below
+ * {@link #LOCAL_MAX_LATITUDE} their distances differ from haversine by less than
+ * {@link #LOCAL_MAX_RELATIVE_ERROR} (see GeoMathTest and GeoMathBenchmark); beyond that,
+ * callers switch to the exact methods. Nothing here allocates.
+ */
+final class GeoMath {
+    static final double EARTH_RADIUS_METERS = 6371e3;
+    static final double METERS_PER_DEGREE = EARTH_RADIUS_METERS * Math.PI / 180;
+
+    static final double LOCAL_LIMIT_METERS = 10_000;
+    static final double LOCAL_MAX_LATITUDE = 80;
+    static final double LOCAL_MAX_RELATIVE_ERROR = 1e-5;        // 10 cm over 10 km
+
+    private GeoMath() {}
+
+    /**
+     * Great-circle distance in meters (haversine)
+     */
+    static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double φ1 = Math.toRadians(lat1);
+        double φ2 = Math.toRadians(lat2);
+        double Δφ = Math.toRadians(lat2 - lat1);
+        double Δλ = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(Δφ / 2) * Math.sin(Δφ / 2) +
+                Math.cos(φ1) * Math.cos(φ2) * Math.sin(Δλ / 2) * Math.sin(Δλ / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_METERS * c;
+    }
+
+    /**
+     * Initial bearing from the first point to the second, in degrees (0-360)
+     */
+    static double bearing(double lat1, double lon1, double lat2, double lon2) {
+        double φ1 = Math.toRadians(lat1);
+        double φ2 = Math.toRadians(lat2);
+        double Δλ = Math.toRadians(lon2 - lon1);
+
+        double y = Math.sin(Δλ) * Math.cos(φ2);
+        double x = Math.cos(φ1) * Math.sin(φ2) - Math.sin(φ1) * Math.cos(φ2) * Math.cos(Δλ);
+        double bearing = Math.toDegrees(Math.atan2(y, x));
+
+        return (bearing + 360) % 360;
+    }
+
+    /**
+     * Latitude reached by moving {@code meters} along a great circle at {@code bearing} degrees
+     */
+    static double destinationLat(double lat, double bearing, double meters) {
+        double φ1 = Math.toRadians(lat);
+        double δ = meters / EARTH_RADIUS_METERS;
+        return Math.toDegrees(Math.asin(Math.sin(φ1) * Math.cos(δ) +
+                Math.cos(φ1) * Math.sin(δ) * Math.cos(Math.toRadians(bearing))));
+    }
+
+    /**
+     * Longitude reached by the same move; {@code destLat} is {@link #destinationLat}'s result
+     */
+    static double destinationLon(double lat, double lon, double bearing, double meters, double destLat) {
+        double φ1 = Math.toRadians(lat);
+        double φ2 = Math.toRadians(destLat);
+        double θ = Math.toRadians(bearing);
+        double δ = meters / EARTH_RADIUS_METERS;
+        return lon + Math.toDegrees(Math.atan2(Math.sin(θ) * Math.sin(δ) * Math.cos(φ1),
+                Math.cos(δ) - Math.sin(φ1) * Math.sin(φ2)));
+    }
+
+    /**
+     * Meters per degree of longitude halfway between {@code lat} and a reference latitude
+     * whose cosine and sine are known (first-order expansion around the reference)
+     */
+    static double metersPerDegreeLon(double lat, double refLat, double refCos, double refSin) {
+        return METERS_PER_DEGREE * (refCos + refSin * Math.toRadians(refLat - lat) * 0.5);
+    }
+
+    /**
+     * Distance in meters from a point to a nearby reference point, on the local flat approximation
+     */
+    static double localDistance(double lat, double lon, double refLat, double refLon, double refCos, double refSin) {
+        double north = (refLat - lat) * METERS_PER_DEGREE;
+        double east = (refLon - lon) * metersPerDegreeLon(lat, refLat, refCos, refSin);
+        return Math.sqrt(north * north + east * east);
+    }
+
+    /**
+     * Distance in meters to a reference point: the local approximation when it holds, haversine otherwise
+     */
+    static double distance(double lat, double lon, double refLat, double refLon, double refCos, double refSin) {
+        if (isLocal(refLat)) {
+            double local = localDistance(lat, lon, refLat, refLon, refCos, refSin);
+            if (local <= LOCAL_LIMIT_METERS) {
+                return local;
+            }
+        }
+        return distance(lat, lon, refLat, refLon);
+    }
+
+    /**
+     * Whether the local approximation holds for a reference at this latitude
+     */
+    static boolean isLocal(double refLat) {
+        return Math.abs(refLat) <= LOCAL_MAX_LATITUDE;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.GeofenceEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ground-truth stream of geofence entries and exits, as computed by the movement engine
+ * from the positions it actually emitted.
+ *
+ * The latest events are kept in memory for GET /api/geofence/events. Optionally every
+ * event is also appended to a file as one JSON object per line, through a
+ * {@link SinkChannel} like the capture sinks use; when the file falls behind, further
+ * events are dropped from the file (never from memory) and counted. Recording never
+ * blocks a reading.
+ */
+@Service
+public class GeofenceEventStream {
+    private static final Logger logger = LoggerFactory.getLogger(GeofenceEventStream.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Append every entry/exit to this file as JSON lines; empty keeps events in memory only
+    @Value("${simulator.geofence-events.file:}")
+    private String eventsFile;
+
+    // Keep this many of the latest events for GET /api/geofence/events; 0 with no file turns detection off
+    @Value("${simulator.geofence-events.buffer-size:1000}")
+    private int bufferSize;
+
+    // Events waiting for the file writer; beyond that they are dropped from the file
+    @Value("${simulator.geofence-events.queue-size:10000}")
+    private int queueSize;
+
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder exits = new LongAdder();
+
+    private ArrayDeque<GeofenceEvent> latest;           // Guarded by itself
+    private int latestLimit;
+    private SinkChannel<GeofenceEvent> fileChannel;     // Null without a file
+    private Path file;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path path = eventsFile == null || eventsFile.trim().isEmpty() ? null : Paths.get(eventsFile.trim());
+        start(path, bufferSize, queueSize);
+        if (path != null) {
+            logger.info("📍 Writing geofence entry/exit events to {}", path.toAbsolutePath());
+        }
+    }
+
+    void start(Path path, int bufferLimit, int fileQueueSize) throws IOException {
+        latestLimit = Math.max(0, bufferLimit);
+        latest = new ArrayDeque<>();
+        if (path == null) {
+            return;
+        }
+        file = path;
+        fileChannel = new SinkChannel<>(new JsonLinesSink(path, objectMapper), fileQueueSize, "geofence-events");
+        fileChannel.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fileChannel != null) {
+            fileChannel.stop();
+        }
+    }
+
+    /**
+     * Whether events go anywhere; without that the movement engine skips containment checks
+     */
+    public boolean isEnabled() {
+        return latestLimit > 0 || fileChannel != null;
+    }
+
+    /**
+     * Record one entry or exit. Never blocks and never throws.
+     */
+    public void record(GeofenceEvent event) {
+        if (GeofenceEvent.ENTRY.equals(event.getType())) {
+            entries.increment();
+        } else {
+            exits.increment();
+        }
+        if (latestLimit > 0) {
+            synchronized (latest) {
+                if (latest.size() == latestLimit) {
+                    latest.pollFirst();
+                }
+                latest.addLast(event);
+            }
+        }
+        if (fileChannel != null) {
+            fileChannel.offer(event);
+        }
+    }
+
+    /**
+     * The latest events, newest first, optionally only those of one device
+     */
+    public List<Map<String, Object>> getLatest(int limit, String deviceId) {
+        List<Map<String, Object>> events = new ArrayList<>();
+        if (latest == null) {
+            return events;
+        }
+        synchronized (latest) {
+            Iterator<GeofenceEvent> newestFirst = latest.descendingIterator();
+            while (newestFirst.hasNext() && events.size() < limit) {
+                GeofenceEvent event = newestFirst.next();
+                if (deviceId == null || deviceId.equals(event.getDeviceId())) {
+                    events.add(event.toMap());
+                }
+            }
+        }
+        return events;
+    }
+
+    public void clear() {
+        if (latest != null) {
+            synchronized (latest) {
+                latest.clear();
+            }
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        SinkChannel<GeofenceEvent> channel = fileChannel;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", isEnabled());
+        metrics.put("entries", entries.sum());
+        metrics.put("exits", exits.sum());
+        metrics.put("bufferSize", latestLimit);
+        metrics.put("file", file == null ? null : file.toString());
+        metrics.put("written", channel == null ? 0 : channel.getWritten());
+        metrics.put("dropped", channel == null ? 0 : channel.getDropped());
+        metrics.put("failed", channel == null ? 0 : channel.getFailed());
+        metrics.put("queued", channel == null ? 0 : channel.getQueued());
+        metrics.put("lastError", channel == null ? null : channel.getLastError());
+        return metrics;
+    }
+
+    /**
+     * Appends events to a file, one JSON object per line
+     */
+    private static final class JsonLinesSink implements SinkChannel.Sink<GeofenceEvent> {
+        private final ObjectMapper objectMapper;
+        private final Writer out;
+
+        JsonLinesSink(Path path, ObjectMapper objectMapper) throws IOException {
+            this.objectMapper = objectMapper;
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        @Override
+        public String getName() {
+            return "geofence-events";
+        }
+
+        @Override
+        public void write(GeofenceEvent event) throws IOException {
+            out.write(objectMapper.writeValueAsString(event.toMap()));
+            out.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.warn("⚠️  Could not close the geofence event file: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.iotsimulatorbackend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Uniform grid over a person's geofence circles, answering "which places contain this
+ * point" without testing every place.
+ *
+ * Cells are about twice the median radius (at least {@link #MIN_CELL_METERS}) on a side.
+ * Each place is listed in every cell its bounding box touches, so a point only tests the
+ * places of its own cell, found by binary search over the sorted cell keys. Places that
+ * would cover more than {@link #MAX_CELLS_PER_PLACE} cells, come near a pole, or cross
+ * the antimeridian are "wide": they are listed in every cell and also tested for points
+ * in empty cells. Containment itself is exact: distance to the center within the radius.
+ */
+final class GeofenceIndex {
+    static final double MIN_CELL_METERS = 100;
+    static final int MAX_CELLS_PER_PLACE = 64;
+
+    static final int[] NONE = new int[0];
+
+    private static final double MAX_GRID_LATITUDE = 85;
+
+    private final double[] lat;
+    private final double[] lon;
+    private final double[] cos;
+    private final double[] sin;
+    private final double[] radius;
+    private final double cellLat;               // Cell size in degrees
+    private final double cellLon;
+    private final long[] cellKeys;              // Sorted
+    private final int[][] cellPlaces;           // Place indices per cell, ascending
+    private final int[] wide;
+
+    /**
+     * Index places given by their centers (with cosine and sine of the latitude) and radii in meters
+     */
+    GeofenceIndex(double[] lat, double[] lon, double[] cos, double[] sin, double[] radius) {
+        this.lat = lat;
+        this.lon = lon;
+        this.cos = cos;
+        this.sin = sin;
+        this.radius = radius;
+        int n = lat.length;
+
+        double[] sorted = radius.clone();
+        Arrays.sort(sorted);
+        double cellMeters = Math.max(MIN_CELL_METERS, n == 0 ? 0 : 2 * sorted[n / 2]);
+        double maxAbsLat = 0;
+        for (double placeLat : lat) {
+            maxAbsLat = Math.max(maxAbsLat, Math.min(MAX_GRID_LATITUDE, Math.abs(placeLat)));
+        }
+        // Longitude cells are at least cellMeters wide at every indexed latitude
+        this.cellLat = cellMeters / GeoMath.METERS_PER_DEGREE;
+        this.cellLon = cellMeters / (GeoMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(maxAbsLat)));
+
+        Map<Long, List<Integer>> cells = new TreeMap<>();
+        List<Integer> wideList = new ArrayList<>();
+        for (int k = 0; k < n; k++) {
+            // A little margin for the local approximation's error at the edge
+            double reach = radius[k] * (1 + 1e-4) + 1;
+            double dLat = reach / GeoMath.METERS_PER_DEGREE;
+            double edgeLat = Math.abs(lat[k]) + dLat;
+            if (edgeLat > MAX_GRID_LATITUDE) {
+                wideList.add(k);
+                continue;
+            }
+            double dLon = reach / (GeoMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(edgeLat)));
+            if (lon[k] - dLon < -180 || lon[k] + dLon > 180) {
+                wideList.add(k);
+                continue;
+            }
+            long fromLat = cellOf(lat[k] - dLat, cellLat);
+            long toLat = cellOf(lat[k] + dLat, cellLat);
+            long fromLon = cellOf(lon[k] - dLon, cellLon);
+            long toLon = cellOf(lon[k] + dLon, cellLon);
+            if ((toLat - fromLat + 1) * (toLon - fromLon + 1) > MAX_CELLS_PER_PLACE) {
+                wideList.add(k);
+                continue;
+            }
+            for (long a = fromLat; a <= toLat; a++) {
+                for (long b = fromLon; b <= toLon; b++) {
+                    cells.computeIfAbsent(key(a, b), c -> new ArrayList<>()).add(k);
+                }
+            }
+        }
+
+        this.wide = wideList.stream().mapToInt(Integer::intValue).toArray();
+        this.cellKeys = new long[cells.size()];
+        this.cellPlaces = new int[cells.size()][];
+        int c = 0;
+        for (Map.Entry<Long, List<Integer>> cell : cells.entrySet()) {
+            cellKeys[c] = cell.getKey();
+            List<Integer> places = cell.getValue();
+            places.addAll(wideList);
+            int[] indices = places.stream().mapToInt(Integer::intValue).toArray();
+            Arrays.sort(indices);
+            cellPlaces[c++] = indices;
+        }
+    }
+
+    /**
+     * Indices of the places containing the point, ascending. Returns {@code previous} itself
+     * when the answer is unchanged, so a point that stays put allocates nothing.
+     */
+    int[] containing(double pointLat, double pointLon, int[] previous) {
+        int[] candidates = candidates(pointLat, pointLon);
+        int matched = 0;
+        boolean same = true;
+        for (int k : candidates) {
+            if (contains(k, pointLat, pointLon)) {
+                if (matched >= previous.length || previous[matched] != k) {
+                    same = false;
+                }
+                matched++;
+            }
+        }
+        if (same && matched == previous.length) {
+            return previous;
+        }
+        if (matched == 0) {
+            return NONE;
+        }
+        int[] result = new int[matched];
+        int r = 0;
+        for (int k : candidates) {
+            if (contains(k, pointLat, pointLon)) {
+                result[r++] = k;
+            }
+        }
+        return result;
+    }
+
+    boolean contains(int k, double pointLat, double pointLon) {
+        return GeoMath.distance(pointLat, pointLon, lat[k], lon[k], cos[k], sin[k]) <= radius[k];
+    }
+
+    /**
+     * Places that could contain the point
+     */
+    int[] candidates(double pointLat, double pointLon) {
+        int c = Arrays.binarySearch(cellKeys, key(cellOf(pointLat, cellLat), cellOf(pointLon, cellLon)));
+        return c >= 0 ? cellPlaces[c] : wide;
+    }
+
+    int cellCount() {
+        return cellKeys.length;
+    }
+
+    private static long cellOf(double degrees, double cellDegrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(long latCell, long lonCell) {
+        return (latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+}
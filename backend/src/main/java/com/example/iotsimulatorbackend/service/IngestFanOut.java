@@ -0,0 +1,166 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands every body sent to device-ingest, exactly as encoded, to the configured capture
+ * sinks: a local file and/or an in-memory tap of the latest bodies.
+ *
+ * Bodies are serialized once and shared read-only. Each sink has its own bounded queue
+ * and writer thread ({@link SinkChannel}); when a sink falls behind, its queue fills and
+ * further bodies are dropped and counted for that sink only. Neither the device-ingest
+ * request nor the other sinks ever wait for it. With no sinks configured, publishing
+ * costs nothing.
+ */
+@Service
+public class IngestFanOut {
+    private static final Logger logger = LoggerFactory.getLogger(IngestFanOut.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Append every device-ingest body to this file; empty disables the file sink
+    @Value("${simulator.capture.file:}")
+    private String captureFile;
+
+    // Keep this many of the latest bodies for GET /api/capture/tap; 0 disables the tap
+    @Value("${simulator.capture.tap-size:0}")
+    private int tapSize;
+
+    // Per sink; bodies arriving while a sink's queue is full are dropped for that sink
+    @Value("${simulator.capture.queue-size:10000}")
+    private int queueSize;
+
+    private volatile List<SinkChannel<CaptureSink.Body>> channels = List.of();
+    private MemoryTapSink tap;
+
+    @PostConstruct
+    public void init() throws IOException {
+        List<CaptureSink> sinks = new ArrayList<>();
+        if (captureFile != null && !captureFile.trim().isEmpty()) {
+            FileCaptureSink fileSink = new FileCaptureSink(Paths.get(captureFile.trim()));
+            sinks.add(fileSink);
+            logger.info("📼 Capturing device-ingest bodies to {}", fileSink.getFile().toAbsolutePath());
+        }
+        if (tapSize > 0) {
+            tap = new MemoryTapSink(tapSize);
+            sinks.add(tap);
+            logger.info("📼 Keeping the latest {} device-ingest bodies in memory", tapSize);
+        }
+        start(sinks, queueSize);
+    }
+
+    void start(List<CaptureSink> sinks, int sinkQueueSize) {
+        List<SinkChannel<CaptureSink.Body>> started = new ArrayList<>();
+        for (CaptureSink sink : sinks) {
+            SinkChannel<CaptureSink.Body> channel = new SinkChannel<>(sink, sinkQueueSize, "capture-" + sink.getName());
+            channel.start();
+            started.add(channel);
+        }
+        channels = List.copyOf(started);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<SinkChannel<CaptureSink.Body>> current = channels;
+        channels = List.of();
+        for (SinkChannel<CaptureSink.Body> channel : current) {
+            channel.stop();
+        }
+    }
+
+    /**
+     * Offer one encoded body to every sink. Never blocks and never throws.
+     *
+     * @param encoding encoder label, e.g. "json" or "smile+gzip"
+     * @param events   readings in the body
+     */
+    public void publish(String encoding, int events, byte[] body) {
+        List<SinkChannel<CaptureSink.Body>> current = channels;
+        if (current.isEmpty()) {
+            return;
+        }
+        CaptureSink.Body captured = new CaptureSink.Body(System.currentTimeMillis(), encoding, events, body);
+        for (SinkChannel<CaptureSink.Body> channel : current) {
+            channel.offer(captured);
+        }
+    }
+
+    /**
+     * The latest bodies from the in-memory tap, newest first, or null if the tap is off.
+     * Plain JSON bodies are returned parsed; anything else as base64.
+     */
+    public List<Map<String, Object>> getTap(int limit) {
+        MemoryTapSink current = tap;
+        if (current == null) {
+            return null;
+        }
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (CaptureSink.Body body : current.latest(Math.max(0, limit))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("capturedAt", Instant.ofEpochMilli(body.getCapturedAt()).toString());
+            entry.put("encoding", body.getEncoding());
+            entry.put("events", body.getEvents());
+            entry.put("bytes", body.getLength());
+            byte[] bytes = toArray(body.getBytes());
+            if ("json".equals(body.getEncoding())) {
+                try {
+                    entry.put("body", objectMapper.readTree(bytes));
+                } catch (IOException e) {
+                    entry.put("bodyBase64", Base64.getEncoder().encodeToString(bytes));
+                }
+            } else {
+                entry.put("bodyBase64", Base64.getEncoder().encodeToString(bytes));
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    public boolean clearTap() {
+        MemoryTapSink current = tap;
+        if (current == null) {
+            return false;
+        }
+        current.clear();
+        return true;
+    }
+
+    /**
+     * Per-sink counters and queue occupancy
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> sinks = new LinkedHashMap<>();
+        for (SinkChannel<CaptureSink.Body> channel : channels) {
+            sinks.put(channel.getSink().getName(), channel.toMap());
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", !sinks.isEmpty());
+        metrics.put("queueSize", queueSize);
+        metrics.put("sinks", sinks);
+        return metrics;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
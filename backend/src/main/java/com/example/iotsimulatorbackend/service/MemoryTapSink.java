@@ -0,0 +1,53 @@
+package com.example.iotsimulatorbackend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps the most recent captured bodies in memory, oldest evicted first
+ */
+final class MemoryTapSink implements CaptureSink {
+
+    private final int capacity;
+    private final Deque<Body> recent;       // Guarded by this
+
+    MemoryTapSink(int capacity) {
+        this.capacity = capacity;
+        this.recent = new ArrayDeque<>(capacity);
+    }
+
+    @Override
+    public String getName() {
+        return "tap";
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized void write(Body body) {
+        if (recent.size() == capacity) {
+            recent.pollFirst();
+        }
+        recent.addLast(body);
+    }
+
+    /**
+     * Up to {@code limit} of the latest bodies, newest first
+     */
+    synchronized List<Body> latest(int limit) {
+        List<Body> latest = new ArrayList<>(Math.min(limit, recent.size()));
+        for (Iterator<Body> it = recent.descendingIterator(); it.hasNext() && latest.size() < limit; ) {
+            latest.add(it.next());
+        }
+        return latest;
+    }
+
+    synchronized void clear() {
+        recent.clear();
+    }
+}
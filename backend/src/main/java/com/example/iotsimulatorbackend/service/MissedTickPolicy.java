@@ -0,0 +1,30 @@
+package com.example.iotsimulatorbackend.service;
+
+/**
+ * What a stream does when it fires late enough that one or more later ticks
+ * were also due (slow ingest calls or a saturated scheduler).
+ */
+public enum MissedTickPolicy {
+    CATCH_UP("catch_up"),   // Send every missed tick, at a capped multiple of the normal rate, until back on schedule
+    SKIP("skip"),           // Send one reading for the latest due tick, drop the older ones, stay on the original grid
+    COALESCE("coalesce");   // Merge all due ticks into one reading now and restart the schedule from now
+
+    private final String key;
+
+    MissedTickPolicy(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static MissedTickPolicy fromKey(String key) {
+        for (MissedTickPolicy policy : values()) {
+            if (policy.key.equalsIgnoreCase(key)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,496 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.GeofenceEvent;
+import com.example.iotsimulatorbackend.model.GeofencePlace;
+import com.example.iotsimulatorbackend.model.LocationData;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Movement state of every tracked location stream, kept as structure-of-arrays.
+ *
+ * Each entity is a slot in fixed-size pages of primitive arrays (position, current and next
+ * place, dwell and travel counters, random state) plus a reference to its person's shared,
+ * immutable {@link Places}. A step follows the rules of {@link LocationGenerator}: dwell at a
+ * place for a few minutes with small jitter inside its geofence, then walk to another place
+ * at 250 m/min and dwell there.
+ *
+ * Streams advance their own entity on each reading. Batch callers that own the whole engine
+ * use {@link #advanceAll} instead, which steps every entity in page-sized loops, optionally in
+ * parallel. Slots are added and removed under the engine's lock. Stepping is lock-free and
+ * relies on each entity being stepped by one thread at a time.
+ *
+ * Streams hold a handle to their entity: the slot plus the slot's generation, which remove()
+ * bumps. A reading that arrives after its stream was removed carries the old generation and
+ * is ignored, even once the slot has been reused. remove() waits for a step already under way
+ * on the slot, so a freed slot is never re-initialized under a late reading.
+ *
+ * With a geofence listener, every step also looks up which of the person's places contain
+ * the new position (through the places' {@link GeofenceIndex}) and reports each place
+ * entered or left as a {@link GeofenceEvent} stamped with the step's time. A stream's first
+ * reading reports entries for the places it starts in.
+ */
+final class MovementEngine {
+    static final int PAGE_SHIFT = 10;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    private static final double MOVEMENT_SPEED_METERS_PER_MINUTE = 250; // Assume 15 km/h walking speed
+    private static final double ARRIVAL_METERS = 50;
+    private static final long GPS_SAMPLING_UNCERTAINTY_MILLIS = 5 * 60 * 1000; // ±5 min due to 5-min GPS sampling
+
+    private final EventLog eventLog;
+    private final Consumer<GeofenceEvent> geofenceEvents;       // Null reports nothing
+    private final SplittableRandom seeds = new SplittableRandom();
+
+    private volatile Page[] pages = new Page[0];
+    private int slotsUsed;                                  // High-water mark; guarded by this
+    private int live;                                       // Guarded by this
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();  // Guarded by this
+
+    MovementEngine(EventLog eventLog) {
+        this(eventLog, null);
+    }
+
+    MovementEngine(EventLog eventLog, Consumer<GeofenceEvent> geofenceEvents) {
+        this.eventLog = eventLog;
+        this.geofenceEvents = geofenceEvents;
+    }
+
+    /**
+     * Start tracking a device's location stream at the first of {@code places}; returns its handle
+     */
+    synchronized long add(Places places, String deviceId, String dataType, long now) {
+        int slot;
+        Integer free = freeSlots.pollFirst();
+        if (free != null) {
+            slot = free;
+        } else {
+            slot = slotsUsed++;
+            int page = slot >>> PAGE_SHIFT;
+            if (page == pages.length) {
+                Page[] grown = Arrays.copyOf(pages, page + 1);
+                grown[page] = new Page(PAGE_SIZE);
+                pages = grown;
+            }
+        }
+        live++;
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int i = slot & (PAGE_SIZE - 1);
+        page.init(i, places, deviceId, dataType, now, seeds.nextLong(), eventLog);
+        return handle(slot, page.state.get(i) >>> 1);
+    }
+
+    /**
+     * Stop tracking an entity; does nothing if its handle is stale
+     */
+    synchronized void remove(long handle) {
+        int slot = slotOf(handle);
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int i = slot & (PAGE_SIZE - 1);
+        int idle = generationOf(handle) << 1;
+        // Fails while a step holds the slot; steps are short, so wait for it
+        while (!page.state.compareAndSet(i, idle, idle + 2)) {
+            if (page.state.get(i) >>> 1 != generationOf(handle)) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        page.places[i] = null;
+        page.inside[i] = GeofenceIndex.NONE;
+        page.deviceIds[i] = null;
+        page.dataTypes[i] = null;
+        live--;
+        freeSlots.addLast(slot);
+    }
+
+    /**
+     * Step one entity to {@code now} and return its new position, or null if its handle is stale
+     */
+    LocationData advance(long handle, long now) {
+        int slot = slotOf(handle);
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int i = slot & (PAGE_SIZE - 1);
+        int idle = generationOf(handle) << 1;
+        // Marks the slot busy; only remove() changes the state meanwhile, so failing means removed
+        if (!page.state.compareAndSet(i, idle, idle | 1)) {
+            return null;
+        }
+        try {
+            page.step(i, now, eventLog, geofenceEvents);
+            return new LocationData(page.lat[i], page.lon[i], page.accuracy[i]);
+        } finally {
+            page.state.set(i, idle);
+        }
+    }
+
+    /**
+     * Step every tracked entity to {@code now}, one page per task when {@code parallel}
+     */
+    void advanceAll(long now, boolean parallel) {
+        Page[] current = pages;
+        IntStream range = IntStream.range(0, current.length);
+        (parallel ? range.parallel() : range).forEach(p -> current[p].stepAll(now, eventLog, geofenceEvents));
+    }
+
+    /**
+     * The place an entity is at or last left; null if its handle is stale
+     */
+    GeofencePlace getCurrentPlace(long handle) {
+        int slot = slotOf(handle);
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int i = slot & (PAGE_SIZE - 1);
+        GeofencePlace place = page.currentPlace(i);
+        return page.state.get(i) >>> 1 == generationOf(handle) ? place : null;
+    }
+
+    double getLat(long handle) {
+        int slot = slotOf(handle);
+        return pages[slot >>> PAGE_SHIFT].lat[slot & (PAGE_SIZE - 1)];
+    }
+
+    double getLon(long handle) {
+        int slot = slotOf(handle);
+        return pages[slot >>> PAGE_SHIFT].lon[slot & (PAGE_SIZE - 1)];
+    }
+
+    static int slotOf(long handle) {
+        return (int) handle;
+    }
+
+    private static int generationOf(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    private static long handle(int slot, int generation) {
+        return (long) generation << 32 | slot;
+    }
+
+    synchronized int size() {
+        return live;
+    }
+
+    synchronized int capacity() {
+        return pages.length * PAGE_SIZE;
+    }
+
+    /**
+     * The geofence places of one person, with what a step needs precomputed. Shared by all of
+     * the person's location streams and never modified.
+     */
+    static final class Places {
+        private final List<GeofencePlace> source;
+        final GeofencePlace[] places;
+        final String[] ids;
+        final double[] lat;
+        final double[] lon;
+        final double[] cos;                 // Of the latitude, for GeoMath's local approximation
+        final double[] sin;
+        final int[] maxVariationMeters;     // Jitter while dwelling: 30% of the radius, at least 10 m
+        final double[] radius;
+        final GeofenceIndex index;
+
+        private Places(List<GeofencePlace> source) {
+            int n = source.size();
+            this.source = source;
+            this.places = source.toArray(new GeofencePlace[0]);
+            this.ids = new String[n];
+            this.lat = new double[n];
+            this.lon = new double[n];
+            this.cos = new double[n];
+            this.sin = new double[n];
+            this.maxVariationMeters = new int[n];
+            this.radius = new double[n];
+            for (int k = 0; k < n; k++) {
+                GeofencePlace place = places[k];
+                ids[k] = place.getId();
+                lat[k] = place.getLatitude();
+                lon[k] = place.getLongitude();
+                double φ = Math.toRadians(lat[k]);
+                cos[k] = Math.cos(φ);
+                sin[k] = Math.sin(φ);
+                maxVariationMeters[k] = Math.max(10, (int) (place.getRadiusMeters() * 0.3));
+                radius[k] = place.getRadiusMeters();
+            }
+            this.index = new GeofenceIndex(lat, lon, cos, sin, radius);
+        }
+
+        static Places of(List<GeofencePlace> places) {
+            return new Places(places);
+        }
+
+        /**
+         * Whether these were built from that very list
+         */
+        boolean isFrom(List<GeofencePlace> places) {
+            return source == places;
+        }
+
+        int size() {
+            return places.length;
+        }
+    }
+
+    /**
+     * State of up to {@code length} entities, one array per field
+     */
+    static final class Page {
+        final double[] lat;
+        final double[] lon;
+        final double[] accuracy;
+        final long[] random;                // SplitMix64 state
+        final long[] lastGenerationTime;
+        final int[] current;                // Place index, -1 without places
+        final int[] next;                   // Place being walked to, -1 while dwelling
+        final int[] minutesSinceLocationChange;
+        final int[] minutesAtCurrentPlace;
+        final Places[] places;              // Null for a free slot
+        final int[][] inside;               // Places containing the last position, ascending
+        final String[] deviceIds;
+        final String[] dataTypes;
+        final AtomicIntegerArray state;     // Slot generation << 1, plus 1 while advance() steps it
+
+        Page(int length) {
+            lat = new double[length];
+            lon = new double[length];
+            accuracy = new double[length];
+            random = new long[length];
+            lastGenerationTime = new long[length];
+            current = new int[length];
+            next = new int[length];
+            minutesSinceLocationChange = new int[length];
+            minutesAtCurrentPlace = new int[length];
+            places = new Places[length];
+            inside = new int[length][];
+            deviceIds = new String[length];
+            dataTypes = new String[length];
+            state = new AtomicIntegerArray(length);
+            Arrays.fill(inside, GeofenceIndex.NONE);
+        }
+
+        /**
+         * Bytes of state per entity, not counting the shared places
+         */
+        static int bytesPerEntity(int referenceBytes) {
+            return 5 * Long.BYTES + 5 * Integer.BYTES + 4 * referenceBytes;
+        }
+
+        void init(int i, Places p, String deviceId, String dataType, long now, long seed, EventLog eventLog) {
+            places[i] = p;
+            inside[i] = GeofenceIndex.NONE;
+            deviceIds[i] = deviceId;
+            dataTypes[i] = dataType;
+            random[i] = seed;
+            next[i] = -1;
+            minutesSinceLocationChange[i] = 0;
+            minutesAtCurrentPlace[i] = 0;
+            accuracy[i] = 0;
+            lastGenerationTime[i] = now;
+            if (p.size() == 0) {
+                current[i] = -1;
+                lat[i] = 0;
+                lon[i] = 0;
+                return;
+            }
+            // Start at first place and stay there for 2-5 minutes
+            current[i] = 0;
+            lat[i] = p.lat[0];
+            lon[i] = p.lon[0];
+            minutesAtCurrentPlace[i] = 2 + nextInt(i, 4);
+            if (eventLog.shouldLog(EventCategory.LOCATION)) {
+                logCycleStart(eventLog, p.places[0], minutesAtCurrentPlace[i], now);
+            }
+        }
+
+        GeofencePlace currentPlace(int i) {
+            Places p = places[i];
+            return p != null && current[i] >= 0 ? p.places[current[i]] : null;
+        }
+
+        void stepAll(long now, EventLog eventLog, Consumer<GeofenceEvent> geofenceEvents) {
+            for (int i = 0; i < places.length; i++) {
+                step(i, now, eventLog, geofenceEvents);
+            }
+        }
+
+        /**
+         * Stay at the current place until its dwell time is up, then move to another place.
+         * Returns false, changing nothing, if the slot is free.
+         */
+        boolean step(int i, long now, EventLog eventLog, Consumer<GeofenceEvent> geofenceEvents) {
+            // Read once: remove() may clear the slot at any point of the step
+            Places p = places[i];
+            if (p == null) {
+                return false;
+            }
+            int minutesElapsed = (int) ((now - lastGenerationTime[i]) / (60 * 1000));
+            if (minutesElapsed == 0) {
+                minutesElapsed = 1; // At least 1 minute
+            }
+            lastGenerationTime[i] = now;
+            minutesSinceLocationChange[i] += minutesElapsed;
+
+            if (minutesSinceLocationChange[i] >= minutesAtCurrentPlace[i] && p.size() > 1) {
+                int to = next[i];
+                if (to < 0) {
+                    // Pick a random different place
+                    String fromId = p.ids[current[i]];
+                    do {
+                        to = nextInt(i, p.size());
+                    } while (p.ids[to].equals(fromId));
+                    next[i] = to;
+
+                    if (eventLog.shouldLog(EventCategory.LOCATION)) {
+                        double distanceToNext = distanceTo(i, p, to);
+                        int minutesToArrival = (int) Math.ceil(distanceToNext / MOVEMENT_SPEED_METERS_PER_MINUTE);
+                        logTransitionStart(eventLog, p.places[current[i]], p.places[to], distanceToNext, minutesToArrival, now);
+                    }
+                }
+
+                moveToward(i, p, to, minutesElapsed);
+
+                if (distanceTo(i, p, to) < ARRIVAL_METERS) {
+                    current[i] = to;
+                    lat[i] = p.lat[to];
+                    lon[i] = p.lon[to];
+                    minutesSinceLocationChange[i] = 0;
+                    minutesAtCurrentPlace[i] = 2 + nextInt(i, 5);
+                    next[i] = -1;
+                    if (eventLog.shouldLog(EventCategory.LOCATION)) {
+                        logCycleStart(eventLog, p.places[to], minutesAtCurrentPlace[i], now);
+                    }
+                }
+            } else if (current[i] >= 0) {
+                // Stay at current place, add small random variation within the geofence
+                int c = current[i];
+                double randomDistance = nextDouble(i) * p.maxVariationMeters[c];
+                double randomBearing = Math.toRadians(nextDouble(i) * 360);
+                double metersPerDegreeLon = GeoMath.metersPerDegreeLon(lat[i], p.lat[c], p.cos[c], p.sin[c]);
+                lat[i] += randomDistance * Math.cos(randomBearing) / GeoMath.METERS_PER_DEGREE;
+                lon[i] += randomDistance * Math.sin(randomBearing) / metersPerDegreeLon;
+            }
+
+            // Small accuracy jitter (5-25 meters)
+            accuracy[i] = 5 + nextDouble(i) * 20;
+
+            if (geofenceEvents != null) {
+                reportTransitions(i, p, now, geofenceEvents);
+            }
+            return true;
+        }
+
+        /**
+         * Compare the places containing the new position with the previous ones; exits first
+         */
+        private void reportTransitions(int i, Places p, long now, Consumer<GeofenceEvent> geofenceEvents) {
+            int[] before = inside[i];
+            int[] after = p.index.containing(lat[i], lon[i], before);
+            String deviceId = deviceIds[i];
+            String dataType = dataTypes[i];
+            if (after == before || deviceId == null) {
+                // Unchanged, or removed during this step and so no longer reported on
+                return;
+            }
+            inside[i] = after;
+            for (int k : before) {
+                if (Arrays.binarySearch(after, k) < 0) {
+                    geofenceEvents.accept(new GeofenceEvent(GeofenceEvent.EXIT, now, deviceId, dataType,
+                            p.places[k], lat[i], lon[i]));
+                }
+            }
+            for (int k : after) {
+                if (Arrays.binarySearch(before, k) < 0) {
+                    geofenceEvents.accept(new GeofenceEvent(GeofenceEvent.ENTRY, now, deviceId, dataType,
+                            p.places[k], lat[i], lon[i]));
+                }
+            }
+        }
+
+        private void moveToward(int i, Places p, int to, int minutesElapsed) {
+            double destLat = p.lat[to];
+            double destLon = p.lon[to];
+            double distance = distanceTo(i, p, to);
+            double maxMovementMeters = MOVEMENT_SPEED_METERS_PER_MINUTE * minutesElapsed;
+
+            if (distance <= maxMovementMeters) {
+                lat[i] = destLat;
+                lon[i] = destLon;
+            } else if (distance <= GeoMath.LOCAL_LIMIT_METERS && GeoMath.isLocal(destLat)) {
+                // Nearby: a straight line on the local plane, which is a fraction of the way in degrees
+                double fraction = maxMovementMeters / distance;
+                lat[i] += (destLat - lat[i]) * fraction;
+                lon[i] += (destLon - lon[i]) * fraction;
+            } else {
+                double bearing = GeoMath.bearing(lat[i], lon[i], destLat, destLon);
+                double newLat = GeoMath.destinationLat(lat[i], bearing, maxMovementMeters);
+                lon[i] = GeoMath.destinationLon(lat[i], lon[i], bearing, maxMovementMeters, newLat);
+                lat[i] = newLat;
+            }
+        }
+
+        private double distanceTo(int i, Places p, int to) {
+            return GeoMath.distance(lat[i], lon[i], p.lat[to], p.lon[to], p.cos[to], p.sin[to]);
+        }
+
+        private long nextLong(int i) {
+            long z = (random[i] += 0x9E3779B97F4A7C15L);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        private double nextDouble(int i) {
+            return (nextLong(i) >>> 11) * 0x1.0p-53;
+        }
+
+        private int nextInt(int i, int bound) {
+            return (int) (nextDouble(i) * bound);
+        }
+
+        /**
+         * Log when arriving at a new location (entry event happened)
+         * Includes the entry timestamp and the expected exit window
+         */
+        private static void logCycleStart(EventLog eventLog, GeofencePlace place, int dwellMinutes, long cycleStartTime) {
+            // Exit range: dwell time + GPS sampling uncertainty
+            long exitTimeMin = cycleStartTime + (dwellMinutes * 60 * 1000L);
+            long exitTimeMax = exitTimeMin + GPS_SAMPLING_UNCERTAINTY_MILLIS;
+
+            eventLog.log(EventCategory.LOCATION, "geofence_entry",
+                    "place", place.getName(),
+                    "placeType", place.getPlaceType(),
+                    "lat", place.getLatitude(),
+                    "lon", place.getLongitude(),
+                    "dwellMinutes", dwellMinutes,
+                    "entryAt", Instant.ofEpochMilli(cycleStartTime),
+                    "exitWindowStart", Instant.ofEpochMilli(exitTimeMin),
+                    "exitWindowEnd", Instant.ofEpochMilli(exitTimeMax));
+        }
+
+        /**
+         * Log when starting transition to next location
+         * Includes the exit timestamp and the expected arrival window
+         */
+        private static void logTransitionStart(EventLog eventLog, GeofencePlace fromPlace, GeofencePlace toPlace,
+                                               double distanceMeters, int minutesToArrival, long exitTime) {
+            // Arrival range: travel time + GPS sampling uncertainty
+            long arrivalTimeMin = exitTime + (minutesToArrival * 60 * 1000L);
+            long arrivalTimeMax = arrivalTimeMin + GPS_SAMPLING_UNCERTAINTY_MILLIS;
+
+            eventLog.log(EventCategory.LOCATION, "geofence_transition",
+                    "from", fromPlace.getName(),
+                    "to", toPlace.getName(),
+                    "distanceMeters", Math.round(distanceMeters),
+                    "travelMinutes", minutesToArrival,
+                    "exitAt", Instant.ofEpochMilli(exitTime),
+                    "arrivalWindowStart", Instant.ofEpochMilli(arrivalTimeMin),
+                    "arrivalWindowEnd", Instant.ofEpochMilli(arrivalTimeMax));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.iotsimulatorbackend.service;
+
+/**
+ * Request body compression for an ingest sink, sent as the Content-Encoding header
+ */
+public enum PayloadCompression {
+    NONE("none", null),
+    GZIP("gzip", "gzip"),
+    DEFLATE("deflate", "deflate");  // zlib-wrapped, as HTTP "deflate" is defined
+
+    private final String key;
+    private final String contentEncoding;
+
+    PayloadCompression(String key, String contentEncoding) {
+        this.key = key;
+        this.contentEncoding = contentEncoding;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public static PayloadCompression fromKey(String key) {
+        for (PayloadCompression compression : values()) {
+            if (compression.key.equalsIgnoreCase(key)) {
+                return compression;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Turns readings into request bodies for one encoding and compression setting.
+ *
+ * Create one per sink and keep it: the object writer is built once, and each sending
+ * thread keeps its own Deflater and output buffer, so encoding a reading allocates
+ * little beyond the body itself. Thread-safe.
+ */
+public final class PayloadEncoder {
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final PayloadEncoding encoding;
+    private final PayloadCompression compression;
+    private final ObjectWriter writer;
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    /**
+     * @param jsonMapper application mapper, used as is for JSON bodies
+     */
+    public PayloadEncoder(PayloadEncoding encoding, PayloadCompression compression, ObjectMapper jsonMapper) {
+        this.encoding = encoding;
+        this.compression = compression;
+        this.writer = mapperFor(encoding, jsonMapper).writer();
+        // gzip frames raw deflate data itself; HTTP "deflate" is zlib-wrapped
+        boolean raw = compression == PayloadCompression.GZIP;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, raw));
+    }
+
+    public PayloadEncoding getEncoding() {
+        return encoding;
+    }
+
+    public PayloadCompression getCompression() {
+        return compression;
+    }
+
+    public boolean isPlainJson() {
+        return encoding == PayloadEncoding.JSON && compression == PayloadCompression.NONE;
+    }
+
+    /**
+     * Stats key, e.g. "json" or "smile+gzip"
+     */
+    public String getLabel() {
+        return compression == PayloadCompression.NONE ? encoding.getKey() : encoding.getKey() + "+" + compression.getKey();
+    }
+
+    public Encoded encode(Object value) throws IOException {
+        byte[] serialized = writer.writeValueAsBytes(value);
+        byte[] body = compression == PayloadCompression.NONE ? serialized : compress(serialized);
+        return new Encoded(body, serialized.length);
+    }
+
+    public void applyHeaders(HttpHeaders headers) {
+        headers.set("Content-Type", encoding.getContentType());
+        if (compression.getContentEncoding() != null) {
+            headers.set("Content-Encoding", compression.getContentEncoding());
+        }
+    }
+
+    private static ObjectMapper mapperFor(PayloadEncoding encoding, ObjectMapper jsonMapper) {
+        JsonFactory factory;
+        switch (encoding) {
+            case SMILE:
+                factory = new SmileFactory();
+                break;
+            case CBOR:
+                factory = new CBORFactory();
+                break;
+            default:
+                return jsonMapper;
+        }
+        return new ObjectMapper(factory);
+    }
+
+    private byte[] compress(byte[] data) {
+        Deflater deflater = deflaters.get();
+        byte[] buffer = buffers.get();
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 32);
+        boolean gzip = compression == PayloadCompression.GZIP;
+        if (gzip) {
+            out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+        }
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        if (gzip) {
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, data.length);
+            writeIntLittleEndian(out, (int) crc.getValue());
+            writeIntLittleEndian(out, data.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeIntLittleEndian(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    /**
+     * Request body plus its size before compression
+     */
+    public static final class Encoded {
+        private final byte[] body;
+        private final int uncompressedLength;
+
+        Encoded(byte[] body, int uncompressedLength) {
+            this.body = body;
+            this.uncompressedLength = uncompressedLength;
+        }
+
+        public byte[] getBody() { return body; }
+        public int getUncompressedLength() { return uncompressedLength; }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.iotsimulatorbackend.service;
+
+/**
+ * Body format of readings posted to an ingest sink. Smile and CBOR are binary
+ * encodings of the same JSON document model, so the sink sees identical fields.
+ */
+public enum PayloadEncoding {
+    JSON("json", "application/json"),
+    SMILE("smile", "application/x-jackson-smile"),
+    CBOR("cbor", "application/cbor");
+
+    private final String key;
+    private final String contentType;
+
+    PayloadEncoding(String key, String contentType) {
+        this.key = key;
+        this.contentType = contentType;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static PayloadEncoding fromKey(String key) {
+        for (PayloadEncoding encoding : values()) {
+            if (encoding.key.equalsIgnoreCase(key)) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.SimulationStatistics;
+import com.example.iotsimulatorbackend.model.SimulationSummary;
+import com.example.iotsimulatorbackend.model.StatisticsTimeSeries;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retention of statistics for simulations that have stopped.
+ *
+ * Full statistics of a finished simulation stay available through the statistics
+ * endpoint while they are within the retention window (count, age and an estimated
+ * memory budget). Evicted statistics are compacted into a {@link SimulationSummary},
+ * optionally appended to a JSON-lines archive file, and kept in a bounded list of
+ * past runs that backs the history endpoint.
+ */
+@Component
+public class SimulationHistory {
+    private static final Logger logger = LoggerFactory.getLogger(SimulationHistory.class);
+
+    // Rough heap cost of a SimulationStatistics and of each per-device / per-data-type entry
+    private static final long STATISTICS_BASE_BYTES = 512;
+    private static final long STATISTICS_ENTRY_BYTES = 200;
+
+    @Value("${simulator.history.finished-max-count:20}")
+    private int finishedMaxCount;
+
+    @Value("${simulator.history.finished-max-age-minutes:30}")
+    private long finishedMaxAgeMinutes;
+
+    @Value("${simulator.history.finished-memory-budget-kb:2048}")
+    private long finishedMemoryBudgetKb;
+
+    @Value("${simulator.history.max-summaries:1000}")
+    private int maxSummaries;
+
+    @Value("${simulator.history.max-summary-age-hours:168}")
+    private long maxSummaryAgeHours;
+
+    // JSON-lines file that receives every compacted summary; empty disables archiving
+    @Value("${simulator.history.archive-file:}")
+    private String archiveFile;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Finished simulations with full statistics, oldest first
+    private final LinkedHashMap<String, FinishedSimulation> finished = new LinkedHashMap<>();
+    private long finishedBytes;
+
+    // Compacted summaries, newest first
+    private final Deque<SimulationSummary> summaries = new ArrayDeque<>();
+
+    private long compactedCount;
+    private long expiredSummaryCount;
+    private long archiveFailures;
+
+    private ScheduledExecutorService maintenanceExecutor;
+    private Path archivePath;
+
+    @PostConstruct
+    public void init() {
+        if (archiveFile != null && !archiveFile.isEmpty()) {
+            archivePath = Paths.get(archiveFile);
+        }
+        // Single thread for age-based sweeps and archive writes, so stopping a simulation never waits on disk
+        maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "simulation-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenanceExecutor.scheduleWithFixedDelay(this::evictExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenanceExecutor.shutdown();
+        try {
+            maintenanceExecutor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Take over the statistics of a simulation that has just stopped
+     */
+    public void recordFinished(String elderlyPersonId, SimulationStatistics stats) {
+        stats.markFinished();
+        long bytes = estimateBytes(stats);
+        List<SimulationSummary> compacted = new ArrayList<>();
+        synchronized (this) {
+            FinishedSimulation previous = finished.put(stats.getSimulationId(),
+                    new FinishedSimulation(elderlyPersonId, stats, bytes));
+            if (previous != null) {
+                finishedBytes -= previous.estimatedBytes;
+            }
+            finishedBytes += bytes;
+
+            long budgetBytes = finishedMemoryBudgetKb * 1024;
+            Iterator<FinishedSimulation> oldest = finished.values().iterator();
+            while (oldest.hasNext() && (finished.size() > finishedMaxCount || finishedBytes > budgetBytes)) {
+                compacted.add(compact(oldest));
+            }
+        }
+        archive(compacted);
+    }
+
+    /**
+     * Full statistics of a finished simulation, or null once they have been compacted
+     */
+    public synchronized SimulationStatistics getFinishedStatistics(String simulationId) {
+        FinishedSimulation entry = finished.get(simulationId);
+        return entry != null ? entry.statistics : null;
+    }
+
+    /**
+     * Past runs, newest first. Runs still holding full statistics are summarised on the fly.
+     */
+    public Map<String, Object> getHistory(int page, int size) {
+        List<SimulationSummary> runs = new ArrayList<>();
+        synchronized (this) {
+            List<FinishedSimulation> recent = new ArrayList<>(finished.values());
+            Collections.reverse(recent);
+            for (FinishedSimulation entry : recent) {
+                runs.add(SimulationSummary.of(entry.elderlyPersonId, entry.statistics));
+            }
+            runs.addAll(summaries);
+        }
+
+        int from = (int) Math.min((long) page * size, runs.size());
+        int to = Math.min(from + size, runs.size());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("page", page);
+        result.put("size", size);
+        result.put("total", runs.size());
+        result.put("items", runs.subList(from, to));
+        result.put("retention", getRetentionMetrics());
+        return result;
+    }
+
+    public synchronized Map<String, Object> getRetentionMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("retainedFullStatistics", finished.size());
+        metrics.put("retainedFullStatisticsBytes", finishedBytes);
+        metrics.put("summaries", summaries.size());
+        metrics.put("compacted", compactedCount);
+        metrics.put("expiredSummaries", expiredSummaryCount);
+        metrics.put("archiveFile", archivePath != null ? archivePath.toString() : null);
+        metrics.put("archiveFailures", archiveFailures);
+        return metrics;
+    }
+
+    /**
+     * Heap estimate used for the memory budget: per-device and per-data-type entries plus
+     * one time series for the simulation and one per data type
+     */
+    static long estimateBytes(SimulationStatistics stats) {
+        int dataTypes = stats.getDataTypeStats().size();
+        return STATISTICS_BASE_BYTES
+                + STATISTICS_ENTRY_BYTES * (stats.getDeviceStats().size() + dataTypes)
+                + StatisticsTimeSeries.estimatedBytes() * (1 + dataTypes);
+    }
+
+    private void evictExpired() {
+        List<SimulationSummary> compacted = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            long finishedCutoff = now - TimeUnit.MINUTES.toMillis(finishedMaxAgeMinutes);
+            Iterator<FinishedSimulation> oldest = finished.values().iterator();
+            while (oldest.hasNext()) {
+                FinishedSimulation entry = oldest.next();
+                if (entry.statistics.getEndTime() > finishedCutoff) {
+                    break;
+                }
+                compacted.add(compact(entry, oldest));
+            }
+
+            long summaryCutoff = now - TimeUnit.HOURS.toMillis(maxSummaryAgeHours);
+            while (!summaries.isEmpty() && summaries.peekLast().getEndTime() < summaryCutoff) {
+                summaries.removeLast();
+                expiredSummaryCount++;
+            }
+        }
+        archive(compacted);
+    }
+
+    // Caller holds the lock; removes the oldest finished entry and keeps its summary
+    private SimulationSummary compact(Iterator<FinishedSimulation> oldest) {
+        return compact(oldest.next(), oldest);
+    }
+
+    private SimulationSummary compact(FinishedSimulation entry, Iterator<FinishedSimulation> position) {
+        position.remove();
+        finishedBytes -= entry.estimatedBytes;
+        compactedCount++;
+
+        SimulationSummary summary = SimulationSummary.of(entry.elderlyPersonId, entry.statistics);
+        summaries.addFirst(summary);
+        while (summaries.size() > maxSummaries) {
+            summaries.removeLast();
+            expiredSummaryCount++;
+        }
+        return summary;
+    }
+
+    private void archive(List<SimulationSummary> compacted) {
+        if (archivePath == null || compacted.isEmpty()) {
+            return;
+        }
+        maintenanceExecutor.execute(() -> {
+            try (Writer writer = Files.newBufferedWriter(archivePath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (SimulationSummary summary : compacted) {
+                    writer.write(objectMapper.writeValueAsString(summary));
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    archiveFailures++;
+                }
+                logger.warn("⚠️  Could not archive {} simulation summaries to {}: {}", compacted.size(), archivePath, e.getMessage());
+            }
+        });
+    }
+
+    private static final class FinishedSimulation {
+        final String elderlyPersonId;
+        final SimulationStatistics statistics;
+        final long estimatedBytes;
+
+        FinishedSimulation(String elderlyPersonId, SimulationStatistics statistics, long estimatedBytes) {
+            this.elderlyPersonId = elderlyPersonId;
+            this.statistics = statistics;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+}
@@ -1,53 +1,198 @@
 package com.example.iotsimulatorbackend.service;
 
 import com.example.iotsimulatorbackend.model.DataTypeConfig;
+import com.example.iotsimulatorbackend.model.DeviceSetupResult;
 import com.example.iotsimulatorbackend.model.GeofencePlace;
+import com.example.iotsimulatorbackend.model.SensorGenerateRequest;
+import com.example.iotsimulatorbackend.model.ScheduleDriftStatistics;
 import com.example.iotsimulatorbackend.model.SimulationStatistics;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.iotsimulatorbackend.model.SimulationUpdateRequest;
+import com.example.iotsimulatorbackend.model.StatisticsSnapshot;
+import com.example.iotsimulatorbackend.model.StatisticsTimeSeries;
+import com.example.iotsimulatorbackend.model.StreamUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class SimulationManager {
     private static final Logger logger = LoggerFactory.getLogger(SimulationManager.class);
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
+    // Only fires stream timers; the readings themselves run on the FairDispatcher's workers
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
     private final Map<String, SimulationTask> activeSimulations = new ConcurrentHashMap<>();
     private final Map<String, SimulationStatistics> simulationStats = new ConcurrentHashMap<>();
     private final Map<String, String> elderlyPersonToSimulation = new ConcurrentHashMap<>(); // Track which elderly person has which simulation
+    private final Map<String, Integer> startsInProgress = new ConcurrentHashMap<>(); // Elderly person ID -> starts running for them
 
     @Autowired
     private SimulatorService simulatorService;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private DeviceIngestClient deviceIngestClient;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private EventLog eventLog;
 
-    @Value("${simulator.device-ingest-url}")
-    private String deviceIngestUrl;
+    @Autowired
+    private SimulationHistory simulationHistory;
+
+    @Autowired
+    private FairDispatcher fairDispatcher;
+
+    @Autowired
+    private GeofenceEventStream geofenceEvents;
+
+    // Upper bound on the number of values a single bulk generation request may produce
+    @Value("${simulator.bulk.max-values:10000}")
+    private int bulkMaxValues;
+
+    private final Random random = new Random();
+
+    // Max number of devices whose configs are fetched from Supabase concurrently (shared by all simulations)
+    @Value("${simulator.setup.max-concurrency:8}")
+    private int setupMaxConcurrency;
+
+    // Per-simulation deadline for resolving device configs; devices not ready by then are reported as "timeout"
+    @Value("${simulator.setup.timeout-ms:30000}")
+    private long setupTimeoutMs;
+
+    private ExecutorService setupExecutor;
+
+    // Starts the simulations of a loaded synthetic population one after another, off the request thread
+    private final ExecutorService populationStarter = Executors.newSingleThreadExecutor();
+    private final Object populationLock = new Object();
+    private volatile PopulationStart populationStart;
+
+    // Largest synthetic population that may be loaded; each person becomes one simulation when started
+    @Value("${simulator.synthetic.max-persons:200000}")
+    private int syntheticMaxPersons;
+
+    // Statistics snapshots served to pollers are rebuilt at most this often
+    @Value("${simulator.statistics.snapshot-max-age-ms:1000}")
+    private long snapshotMaxAgeMs;
+
+    // Where each stream's first reading falls within its interval: none, hash or random
+    @Value("${simulator.schedule.phase-policy:hash}")
+    private String phasePolicyName;
+
+    // Upper bound on the first-reading offset; 0 spreads over the whole interval
+    @Value("${simulator.schedule.phase-window-ms:0}")
+    private long phaseWindowMs;
+
+    private StreamPhasePolicy phasePolicy = StreamPhasePolicy.HASH;
+
+    // What a late stream does about ticks that fell due meanwhile: catch_up, skip or coalesce
+    @Value("${simulator.schedule.missed-tick-policy:catch_up}")
+    private String missedTickPolicyName;
+
+    // catch_up replays missed ticks at most this many times faster than the stream's normal rate
+    @Value("${simulator.schedule.catch-up-rate-multiplier:4}")
+    private int catchUpRateMultiplier;
+
+    // catch_up replays at most this many missed ticks; older ones are skipped
+    @Value("${simulator.schedule.catch-up-max-ticks:10}")
+    private int catchUpMaxTicks;
+
+    private MissedTickPolicy missedTickPolicy = MissedTickPolicy.CATCH_UP;
+
+    // Values generated per refill for pre-generated streams; 0 generates every reading on its own
+    @Value("${simulator.values.pregenerate-chunk:0}")
+    private int pregenerateChunk;
+
+    // Only streams firing at least this often pre-generate; slower ones would hold a chunk for hours
+    @Value("${simulator.values.pregenerate-max-interval-ms:10000}")
+    private long pregenerateMaxIntervalMs;
+
+    // Every stream run across all simulations, to measure how evenly load is spread
+    private final DispatchRate dispatchRate = new DispatchRate();
+
+    // Movement state of every location stream across all simulations
+    private MovementEngine movementEngine;
+
+    @PostConstruct
+    public void init() {
+        setupExecutor = Executors.newFixedThreadPool(setupMaxConcurrency);
+        movementEngine = new MovementEngine(eventLog, geofenceEvents.isEnabled() ? geofenceEvents::record : null);
+        StreamPhasePolicy configured = StreamPhasePolicy.fromKey(phasePolicyName);
+        if (configured == null) {
+            logger.warn("Unknown simulator.schedule.phase-policy '{}', using {}", phasePolicyName, phasePolicy.getKey());
+        } else {
+            phasePolicy = configured;
+        }
+        MissedTickPolicy configuredMissedTickPolicy = MissedTickPolicy.fromKey(missedTickPolicyName);
+        if (configuredMissedTickPolicy == null) {
+            logger.warn("Unknown simulator.schedule.missed-tick-policy '{}', using {}", missedTickPolicyName, missedTickPolicy.getKey());
+        } else {
+            missedTickPolicy = configuredMissedTickPolicy;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        setupExecutor.shutdownNow();
+        populationStarter.shutdownNow();
+        scheduler.shutdownNow();
+    }
 
     /**
      * Start a new simulation for an elderly person
      * If a simulation is already running for this elderly person, it will be stopped first
      */
     public String startSimulation(String elderlyPersonId, List<String> specificDeviceIds) {
+        return startSimulation(elderlyPersonId, specificDeviceIds, null, null);
+    }
+
+    /**
+     * Start a simulation with its own share of the dispatch workers (null means the configured default)
+     */
+    public String startSimulation(String elderlyPersonId, List<String> specificDeviceIds,
+                                  Double weight, Integer maxConcurrency) {
+        return startSimulation(elderlyPersonId, specificDeviceIds, UUID.randomUUID().toString(), weight, maxConcurrency,
+                SimulationStartListener.NONE);
+    }
+
+    /**
+     * Start a simulation under a given ID. Used in cluster mode when a node takes over
+     * a simulation that was started on another node, so clients keep the same ID.
+     */
+    public String startSimulation(String elderlyPersonId, List<String> specificDeviceIds, String simulationId) {
+        return startSimulation(elderlyPersonId, specificDeviceIds, simulationId, null, null, SimulationStartListener.NONE);
+    }
+
+    /**
+     * Start a simulation under a given ID, reporting its progress to {@code listener}
+     */
+    String startSimulation(String elderlyPersonId, List<String> specificDeviceIds, String simulationId,
+                           Double weight, Integer maxConcurrency, SimulationStartListener listener) {
+        startsInProgress.merge(elderlyPersonId, 1, Integer::sum);
+        try {
+            return doStartSimulation(elderlyPersonId, specificDeviceIds, simulationId, weight, maxConcurrency, listener);
+        } finally {
+            startsInProgress.computeIfPresent(elderlyPersonId, (id, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private String doStartSimulation(String elderlyPersonId, List<String> specificDeviceIds, String simulationId,
+                                     Double weight, Integer maxConcurrency, SimulationStartListener listener) {
         // Check if there's already a running simulation for this elderly person
         String existingSimulationId = elderlyPersonToSimulation.get(elderlyPersonId);
         if (existingSimulationId != null && activeSimulations.containsKey(existingSimulationId)) {
@@ -57,8 +202,6 @@ public class SimulationManager {
             logger.info("✓ Previous simulation stopped successfully");
         }
 
-        String simulationId = UUID.randomUUID().toString();
-
         // Get all devices for this elderly person
         List<com.example.iotsimulatorbackend.model.Device> devicesToSimulate = new ArrayList<>();
         try {
@@ -79,32 +222,44 @@ public class SimulationManager {
 
             if (devicesToSimulate.isEmpty()) {
                 logger.warn("No devices found for elderly person ID: {}", elderlyPersonId);
+                listener.failed("No devices found for simulation");
                 return null;
             }
+            listener.devicesResolved(devicesToSimulate.size());
 
             // Create statistics tracking for this simulation
             SimulationStatistics statistics = new SimulationStatistics(simulationId);
             simulationStats.put(simulationId, statistics);
 
+            // Readings of this simulation are queued separately so it cannot starve other simulations
+            fairDispatcher.register(simulationId, weight, maxConcurrency);
+
             // Create and start simulation task
             SimulationTask task = new SimulationTask(simulationId, elderlyPersonId, devicesToSimulate,
-                simulatorService, restTemplate, objectMapper, deviceIngestUrl, statistics);
+                simulatorService, statistics);
+            task.startListener = listener;
             activeSimulations.put(simulationId, task);
             elderlyPersonToSimulation.put(elderlyPersonId, simulationId); // Track this simulation
-            task.start();
+            List<DeviceSetupResult> setupResults = task.start();
 
             logger.info("═══════════════════════════════════════════════════════════════════════════════════════");
             logger.info("🚀 SIMULATION STARTED");
             logger.info("   Simulation ID: {}", simulationId);
             logger.info("   Elderly Person ID: {}", elderlyPersonId);
             logger.info("   Total Devices: {}", devicesToSimulate.size());
-            devicesToSimulate.forEach(d ->
-                logger.info("   ├─ Device: {} ({})", d.getDeviceName(), d.getDeviceId())
+            setupResults.forEach(r ->
+                logger.info("   ├─ Device: {} ({}) - {} stream(s), {} in {} ms",
+                    r.getDeviceName(), r.getHardwareDeviceId(), r.getStreamsScheduled(), r.getStatus(), r.getSetupTimeMs())
             );
             logger.info("═══════════════════════════════════════════════════════════════════════════════════════");
             return simulationId;
         } catch (Exception e) {
             logger.error("❌ ERROR starting simulation for elderly person: {}", elderlyPersonId, e);
+            listener.failed("Simulation could not be started: " + e.getMessage());
+            if (!activeSimulations.containsKey(simulationId)) {
+                simulationStats.remove(simulationId);
+                fairDispatcher.unregister(simulationId);
+            }
             return null;
         }
     }
@@ -117,6 +272,7 @@ public class SimulationManager {
         if (task != null) {
             task.stop();
             activeSimulations.remove(simulationId);
+            fairDispatcher.unregister(simulationId);
 
             // Remove elderly person to simulation mapping
             String elderlyPersonId = task.getElderlyPersonId();
@@ -124,9 +280,10 @@ public class SimulationManager {
                 elderlyPersonToSimulation.remove(elderlyPersonId);
             }
 
-            // Log statistics summary
-            SimulationStatistics stats = simulationStats.get(simulationId);
+            // Log statistics summary and hand the statistics over to the bounded history
+            SimulationStatistics stats = simulationStats.remove(simulationId);
             if (stats != null) {
+                simulationHistory.recordFinished(elderlyPersonId, stats);
                 logger.info("═══════════════════════════════════════════════════════════════════════════════════════");
                 logger.info("⏹️  SIMULATION STOPPED");
                 logger.info("   Simulation ID: {}", simulationId);
@@ -142,6 +299,131 @@ public class SimulationManager {
         return false;
     }
 
+    /**
+     * Serve a synthetic population's IDs from now on and optionally start one simulation per person.
+     * Simulations of the population it replaces are stopped first, as their devices go away.
+     * The starts run in the background; the result and getSyntheticPopulationSummary report their progress.
+     */
+    public Map<String, Object> loadSyntheticPopulation(SyntheticPopulation population, boolean start) {
+        if (population.getPersonCount() > syntheticMaxPersons) {
+            throw new IllegalArgumentException("persons must be at most " + syntheticMaxPersons
+                    + " (simulator.synthetic.max-persons)");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        synchronized (populationLock) {
+            int stopped = unloadSyntheticPopulation();
+            simulatorService.setSyntheticPopulation(population);
+            logger.info("🧪 Synthetic population loaded: {} persons x {} devices x {} geofences (seed {})",
+                    population.getPersonCount(), population.getDevicesPerPerson(),
+                    population.getGeofencesPerPerson(), population.getSeed());
+
+            result.put("population", population.getSummary());
+            result.put("stoppedPrevious", stopped);
+            if (start) {
+                PopulationStart job = new PopulationStart(population.getPersonCount());
+                populationStart = job;
+                populationStarter.execute(() -> startPopulation(population, job));
+                result.put("start", job.getProgress());
+            }
+        }
+        return result;
+    }
+
+    private void startPopulation(SyntheticPopulation population, PopulationStart job) {
+        for (int i = 0; i < population.getPersonCount(); i++) {
+            // Under the lock so an unload cannot miss a simulation started while it stops the others
+            synchronized (populationLock) {
+                if (job.cancelled) {
+                    break;
+                }
+                String personId = population.getPersonId(i);
+                try {
+                    if (startSimulation(personId, null) != null) {
+                        job.started++;
+                    } else {
+                        job.failed++;
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Synthetic simulation for {} could not be started: {}", personId, e.getMessage());
+                    job.failed++;
+                }
+            }
+        }
+        job.finishedAt = System.currentTimeMillis();
+        logger.info("🧪 Started {} synthetic simulations in {} ms{}", job.started, job.finishedAt - job.startedAt,
+                job.cancelled ? " (unloaded before all were started)" : "");
+    }
+
+    /**
+     * Summary of the loaded synthetic population and the progress of its starts, or null if none is loaded
+     */
+    public Map<String, Object> getSyntheticPopulationSummary() {
+        SyntheticPopulation population = simulatorService.getSyntheticPopulation();
+        if (population == null) {
+            return null;
+        }
+        Map<String, Object> summary = new LinkedHashMap<>(population.getSummary());
+        PopulationStart job = populationStart;
+        if (job != null) {
+            summary.put("start", job.getProgress());
+        }
+        return summary;
+    }
+
+    /**
+     * Stop the simulations of the loaded synthetic population and forget it; returns the number stopped.
+     * Starts of that population still pending are abandoned.
+     */
+    public int unloadSyntheticPopulation() {
+        synchronized (populationLock) {
+            PopulationStart job = populationStart;
+            if (job != null) {
+                job.cancelled = true;
+                populationStart = null;
+            }
+            SyntheticPopulation population = simulatorService.getSyntheticPopulation();
+            if (population == null) {
+                return 0;
+            }
+            int stopped = 0;
+            for (Map.Entry<String, SimulationTask> entry : new ArrayList<>(activeSimulations.entrySet())) {
+                if (population.owns(entry.getValue().getElderlyPersonId()) && stopSimulation(entry.getKey())) {
+                    stopped++;
+                }
+            }
+            simulatorService.setSyntheticPopulation(null);
+            logger.info("🧪 Synthetic population unloaded, {} simulations stopped", stopped);
+            return stopped;
+        }
+    }
+
+    /**
+     * Progress of starting a synthetic population's simulations; counters are only written by the starter thread
+     */
+    private static class PopulationStart {
+        private final int total;
+        private final long startedAt = System.currentTimeMillis();
+        private volatile int started;
+        private volatile int failed;
+        private volatile long finishedAt;
+        private volatile boolean cancelled;
+
+        PopulationStart(int total) {
+            this.total = total;
+        }
+
+        Map<String, Object> getProgress() {
+            Map<String, Object> progress = new LinkedHashMap<>();
+            long finished = finishedAt;
+            progress.put("state", finished > 0 ? (cancelled ? "cancelled" : "finished") : "running");
+            progress.put("total", total);
+            progress.put("started", started);
+            progress.put("failed", failed);
+            progress.put("startTimeMs", (finished > 0 ? finished : System.currentTimeMillis()) - startedAt);
+            return progress;
+        }
+    }
+
     /**
      * Get simulation status
      */
@@ -150,10 +432,259 @@ public class SimulationManager {
     }
 
     /**
-     * Get simulation statistics
+     * Whether this instance is starting or running a simulation for the elderly person, under any ID
+     */
+    public boolean hasSimulationFor(String elderlyPersonId) {
+        if (startsInProgress.containsKey(elderlyPersonId)) {
+            return true;
+        }
+        String simulationId = elderlyPersonToSimulation.get(elderlyPersonId);
+        return simulationId != null && activeSimulations.containsKey(simulationId);
+    }
+
+    /**
+     * IDs of the simulations running on this instance
+     */
+    public Set<String> getRunningSimulationIds() {
+        return Collections.unmodifiableSet(activeSimulations.keySet());
+    }
+
+    /**
+     * Get the per-device setup results recorded when the simulation started
+     */
+    public List<DeviceSetupResult> getDeviceSetupResults(String simulationId) {
+        SimulationTask task = activeSimulations.get(simulationId);
+        return task != null ? task.getDeviceSetupResults() : Collections.emptyList();
+    }
+
+    /**
+     * Get simulation statistics, including finished simulations still within the retention window
      */
     public SimulationStatistics getSimulationStatistics(String simulationId) {
-        return simulationStats.get(simulationId);
+        SimulationStatistics stats = simulationStats.get(simulationId);
+        return stats != null ? stats : simulationHistory.getFinishedStatistics(simulationId);
+    }
+
+    /**
+     * Immutable, versioned copy of a simulation's statistics, shared by all readers
+     */
+    public StatisticsSnapshot getStatisticsSnapshot(String simulationId) {
+        SimulationStatistics stats = getSimulationStatistics(simulationId);
+        return stats != null ? stats.snapshot(snapshotMaxAgeMs) : null;
+    }
+
+    /**
+     * One page of per-device statistics from the current snapshot, or null if the simulation is unknown
+     */
+    public Map<String, Object> queryDeviceStatistics(String simulationId, DeviceStatisticsQuery query) {
+        StatisticsSnapshot snapshot = getStatisticsSnapshot(simulationId);
+        if (snapshot == null) {
+            return null;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("simulationId", simulationId);
+        result.put("version", snapshot.getVersion());
+        result.putAll(query.run(snapshot.getDeviceStats().values()));
+        return result;
+    }
+
+    /**
+     * Offset of a stream's first reading within its interval
+     */
+    long initialDelayMs(String streamKey, long intervalMs) {
+        long window = phaseWindowMs > 0 ? Math.min(phaseWindowMs, intervalMs) : intervalMs;
+        return phasePolicy.initialDelayMs(streamKey, window);
+    }
+
+    /**
+     * Interval between readings: 24 hours / frequencyPerDay, at least one second
+     */
+    static long streamIntervalSeconds(DataTypeConfig config) {
+        return Math.max(1, (24 * 60 * 60) / config.getFrequencyPerDay());
+    }
+
+    /**
+     * Readings per second the running simulations are scheduled to produce
+     */
+    public double getScheduledEventsPerSecond() {
+        double eventsPerSecond = 0;
+        for (SimulationTask task : activeSimulations.values()) {
+            eventsPerSecond += task.getScheduledEventsPerSecond();
+        }
+        return eventsPerSecond;
+    }
+
+    public String getPhasePolicyKey() {
+        return phasePolicy.getKey();
+    }
+
+    /**
+     * Aggregate dispatch rate across all simulations and how bursty it is. A peak-to-mean ratio
+     * near 1 means readings are spread evenly; in-phase streams show up as a high ratio.
+     */
+    public Map<String, Object> getSchedulingMetrics() {
+        long now = System.currentTimeMillis();
+        int activeStreams = 0;
+        for (SimulationTask task : activeSimulations.values()) {
+            activeStreams += task.getStreamCount();
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("phasePolicy", phasePolicy.getKey());
+        metrics.put("phaseWindowMs", phaseWindowMs);
+        metrics.put("missedTickPolicy", missedTickPolicy.getKey());
+        metrics.put("activeStreams", activeStreams);
+        metrics.put("trackedLocations", movementEngine.size());
+        metrics.put("locationSlots", movementEngine.capacity());
+        metrics.put("perSecond", peakToMean(false, 60, now));
+        metrics.put("perMinute", peakToMean(true, 30, now));
+        return metrics;
+    }
+
+    // Peak and mean over the last completed buckets (the current, partial bucket is left out)
+    private Map<String, Object> peakToMean(boolean perMinute, int window, long now) {
+        long[] buckets = dispatchRate.runs(perMinute, window + 1, now);
+        long peak = 0;
+        long total = 0;
+        for (int i = 0; i < buckets.length - 1; i++) {
+            peak = Math.max(peak, buckets[i]);
+            total += buckets[i];
+        }
+        double mean = (double) total / window;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("windowBuckets", window);
+        result.put("total", total);
+        result.put("mean", mean);
+        result.put("peak", peak);
+        result.put("peakToMean", mean > 0 ? peak / mean : 0.0);
+        return result;
+    }
+
+    /**
+     * Reconfigure a running simulation in place: add or remove devices and change the rate or
+     * value ranges of existing streams. Returns null if the simulation is not running here.
+     */
+    public Map<String, Object> updateSimulation(String simulationId, SimulationUpdateRequest update) {
+        SimulationTask task = activeSimulations.get(simulationId);
+        if (task == null) {
+            return null;
+        }
+
+        List<String> removeIds = update.getRemoveDeviceIds() != null ? update.getRemoveDeviceIds() : Collections.emptyList();
+        List<StreamUpdate> streamUpdates = update.getStreams() != null ? update.getStreams() : Collections.emptyList();
+        for (StreamUpdate streamUpdate : streamUpdates) {
+            validateStreamUpdate(streamUpdate);
+        }
+        validateDispatchShare(update.getWeight(), update.getMaxConcurrency());
+
+        // Devices to add must belong to the same elderly person; the task skips those it already simulates
+        List<com.example.iotsimulatorbackend.model.Device> devicesToAdd = new ArrayList<>();
+        if (update.getAddDeviceIds() != null && !update.getAddDeviceIds().isEmpty()) {
+            for (com.example.iotsimulatorbackend.model.Device device :
+                    simulatorService.getDevicesByElderlyPersonId(task.getElderlyPersonId())) {
+                if (update.getAddDeviceIds().contains(device.getId())) {
+                    devicesToAdd.add(device);
+                }
+            }
+        }
+
+        Map<String, Object> result = task.update(removeIds, devicesToAdd, streamUpdates);
+        result.put("deviceIds", task.getDeviceIds());
+        if (update.getWeight() != null || update.getMaxConcurrency() != null) {
+            fairDispatcher.updateShare(simulationId, update.getWeight(), update.getMaxConcurrency());
+            result.put("dispatch", Map.of(
+                    "weight", update.getWeight() != null ? update.getWeight() : "unchanged",
+                    "maxConcurrency", update.getMaxConcurrency() != null ? update.getMaxConcurrency() : "unchanged"));
+        }
+        logger.info("🔧 Simulation {} reconfigured: {} device(s) added, {} removed, {} stream(s) updated",
+                simulationId, ((List<?>) result.get("devicesAdded")).size(), result.get("devicesRemoved"),
+                result.get("streamsUpdated"));
+        return result;
+    }
+
+    /**
+     * Weight and concurrency cap must be positive when given
+     */
+    public static void validateDispatchShare(Double weight, Integer maxConcurrency) {
+        if (weight != null && !(weight > 0)) {
+            throw new IllegalArgumentException("weight must be greater than 0");
+        }
+        if (maxConcurrency != null && maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+    }
+
+    private void validateStreamUpdate(StreamUpdate streamUpdate) {
+        if (streamUpdate.getDataType() == null || streamUpdate.getDataType().isEmpty()) {
+            throw new IllegalArgumentException("Stream update needs a dataType");
+        }
+        Integer frequencyPerDay = streamUpdate.getFrequencyPerDay();
+        if (frequencyPerDay != null && (frequencyPerDay < 1 || frequencyPerDay > 24 * 60 * 60)) {
+            throw new IllegalArgumentException("frequencyPerDay must be between 1 and 86400");
+        }
+        if (streamUpdate.getConfig() != null) {
+            for (Map.Entry<String, Object> entry : streamUpdate.getConfig().entrySet()) {
+                if ("values".equals(entry.getKey())) {
+                    if (!(entry.getValue() instanceof List) || ((List<?>) entry.getValue()).isEmpty()) {
+                        throw new IllegalArgumentException("values must be a non-empty list");
+                    }
+                } else if (!(entry.getValue() instanceof Number)) {
+                    throw new IllegalArgumentException("Config value for " + entry.getKey() + " must be a number");
+                }
+            }
+        }
+    }
+
+    /**
+     * Merge config overrides into a copy of the stream's compiled config. Overriding "values" makes
+     * the stream an enum; overriding "min"/"max" makes it a range. The merged ranges must be valid.
+     */
+    private static void mergeSampleConfig(DataTypeConfig target, Map<String, Object> overrides) {
+        Map<String, Object> merged = new HashMap<>(target.getConfig() != null ? target.getConfig() : Collections.emptyMap());
+        merged.putAll(overrides);
+        if (overrides.containsKey("values")) {
+            target.setConfigType("enum");
+        } else if (overrides.containsKey("min") || overrides.containsKey("max")) {
+            target.setConfigType("range");
+        }
+        for (String prefix : new String[] {"", "systolic_", "diastolic_"}) {
+            Object min = merged.get(prefix + "min");
+            Object max = merged.get(prefix + "max");
+            if (min instanceof Number && max instanceof Number && ((Number) min).doubleValue() > ((Number) max).doubleValue()) {
+                throw new IllegalArgumentException(prefix + "min must not exceed " + prefix + "max");
+            }
+        }
+        target.setConfig(Collections.unmodifiableMap(merged));
+    }
+
+    /**
+     * Last {@code buckets} per-second or per-minute buckets for a simulation, optionally for one data type.
+     * Returns null if the simulation or data type is unknown.
+     */
+    public Map<String, Object> getStatisticsSeries(String simulationId, String dataType,
+                                                   StatisticsTimeSeries.Resolution resolution, int buckets) {
+        SimulationStatistics stats = getSimulationStatistics(simulationId);
+        if (stats == null) {
+            return null;
+        }
+        StatisticsTimeSeries series = stats.timeSeries();
+        if (dataType != null) {
+            SimulationStatistics.DataTypeStatistics dataTypeStats = stats.getDataTypeStats().get(dataType);
+            if (dataTypeStats == null) {
+                return null;
+            }
+            series = dataTypeStats.timeSeries();
+        }
+
+        // A stopped simulation's series ends when it stopped
+        long until = stats.getEndTime() > 0 ? stats.getEndTime() : System.currentTimeMillis();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("simulationId", simulationId);
+        result.put("dataType", dataType);
+        result.put("resolution", resolution.name().toLowerCase());
+        result.put("buckets", series.snapshot(resolution, buckets, until));
+        return result;
     }
 
     /**
@@ -166,7 +697,7 @@ public class SimulationManager {
 
     public Map<String, Object> generateAndSendSensorData(String deviceId, String dataType, String location) throws Exception {
         // Step 1: Get the device information directly from Supabase by device ID
-        com.example.iotsimulatorbackend.model.Device targetDevice = getDeviceById(deviceId);
+        com.example.iotsimulatorbackend.model.Device targetDevice = simulatorService.getDeviceById(deviceId);
 
         if (targetDevice == null) {
             throw new Exception("Device not found with ID: " + deviceId);
@@ -221,20 +752,12 @@ public class SimulationManager {
                 }
 
                 // Send to device-ingest endpoint
-                HttpHeaders headers = new HttpHeaders();
-                headers.set("Authorization", "Bearer " + targetDevice.getApiKey());
-                headers.set("Content-Type", "application/json");
-
-                String payloadJson = objectMapper.writeValueAsString(payload);
                 if (location != null && !location.trim().isEmpty()) {
-                    logger.debug("📤 Sending GPS for geofence '{}' at location '{}': {}", selectedGeofence.getName(), location, payloadJson);
+                    logger.debug("📤 Sending GPS for geofence '{}' at location '{}'", selectedGeofence.getName(), location);
                 } else {
-                    logger.debug("📤 Sending GPS for geofence '{}': {}", selectedGeofence.getName(), payloadJson);
+                    logger.debug("📤 Sending GPS for geofence '{}'", selectedGeofence.getName());
                 }
-
-                HttpEntity<String> request = new HttpEntity<>(payloadJson, headers);
-                ResponseEntity<String> response = restTemplate.postForEntity(
-                    deviceIngestUrl, request, String.class);
+                ResponseEntity<String> response = deviceIngestClient.send(targetDevice.getApiKey(), payload);
 
                 Map<String, Object> result = new LinkedHashMap<>();
                 if (response.getStatusCode().is2xxSuccessful()) {
@@ -287,20 +810,10 @@ public class SimulationManager {
         }
 
         // Step 6: Send to device-ingest endpoint
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + targetDevice.getApiKey());
-        headers.set("Content-Type", "application/json");
-
-        String payloadJson = objectMapper.writeValueAsString(payload);
         if (location != null && !location.trim().isEmpty()) {
-            logger.debug("📤 Sending individual sensor payload for location '{}' to device-ingest: {}", location, payloadJson);
-        } else {
-            logger.debug("📤 Sending individual sensor payload to device-ingest: {}", payloadJson);
+            logger.debug("📤 Sending individual sensor payload for location '{}' to device-ingest", location);
         }
-
-        HttpEntity<String> request = new HttpEntity<>(payloadJson, headers);
-        ResponseEntity<String> response = restTemplate.postForEntity(
-            deviceIngestUrl, request, String.class);
+        ResponseEntity<String> response = deviceIngestClient.send(targetDevice.getApiKey(), payload);
 
         Map<String, Object> result = new LinkedHashMap<>();
         if (response.getStatusCode().is2xxSuccessful()) {
@@ -330,45 +843,152 @@ public class SimulationManager {
     }
 
     /**
-     * Get a device by its ID directly from Supabase
+     * Generate and send many readings in one call. Device metadata, data type configs and
+     * geofences are resolved once per device (not once per reading), and each device's
+     * readings go out through the batched ingest path.
      */
-    private com.example.iotsimulatorbackend.model.Device getDeviceById(String deviceId) throws Exception {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("apikey", simulatorService.getSupabaseApiKey());
-            HttpEntity<String> entity = new HttpEntity<>(headers);
+    public Map<String, Object> generateAndSendSensorDataBulk(List<SensorGenerateRequest> items) throws Exception {
+        int totalRequested = 0;
+        for (SensorGenerateRequest item : items) {
+            totalRequested += countOf(item);
+        }
+        if (totalRequested > bulkMaxValues) {
+            throw new Exception("Bulk request asks for " + totalRequested + " values; the limit is " + bulkMaxValues);
+        }
+
+        // Group item indexes by device so each device is resolved once
+        Map<String, List<Integer>> itemsByDevice = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            itemsByDevice.computeIfAbsent(items.get(i).getDeviceId(), k -> new ArrayList<>()).add(i);
+        }
 
-            String devicesUrl = simulatorService.getDevicesUrl() + "?id=eq." + deviceId;
-            ResponseEntity<String> response = restTemplate.exchange(devicesUrl, HttpMethod.GET, entity, String.class);
-            JsonNode jsonArray = objectMapper.readTree(response.getBody());
+        List<Map<String, Object>> itemResults = new ArrayList<>(Collections.nCopies(items.size(), null));
+        Map<String, List<GeofencePlace>> geofencesByPerson = new HashMap<>();
+        int totalSent = 0;
+        int totalFailed = 0;
 
-            if (jsonArray.size() == 0) {
-                return null;
+        for (Map.Entry<String, List<Integer>> entry : itemsByDevice.entrySet()) {
+            String deviceId = entry.getKey();
+            com.example.iotsimulatorbackend.model.Device device;
+            Map<String, DataTypeConfig> configsByType = new HashMap<>();
+            try {
+                device = simulatorService.getDeviceById(deviceId);
+                if (device != null) {
+                    for (DataTypeConfig config : simulatorService.getDataTypesByDeviceId(deviceId)) {
+                        configsByType.put(config.getDataType(), config);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("❌ Error resolving device {} for bulk generation: {}", deviceId, e.getMessage());
+                device = null;
             }
 
-            JsonNode deviceNode = jsonArray.get(0);
-            com.example.iotsimulatorbackend.model.Device device = new com.example.iotsimulatorbackend.model.Device(
-                deviceNode.get("id").asText(),
-                deviceNode.get("elderly_person_id").asText(),
-                deviceNode.get("device_name").asText(),
-                deviceNode.get("device_id").asText(),
-                deviceNode.get("api_key").asText(),
-                deviceNode.has("device_type") && !deviceNode.get("device_type").isNull()
-                    ? deviceNode.get("device_type").asText() : "",
-                deviceNode.has("description") && !deviceNode.get("description").isNull()
-                    ? deviceNode.get("description").asText() : ""
-            );
+            // Generate every value for this device in one pass
+            List<Map<String, Object>> payloads = new ArrayList<>();
+            List<Integer> payloadOwners = new ArrayList<>();
+            for (int index : entry.getValue()) {
+                SensorGenerateRequest item = items.get(index);
+                Map<String, Object> itemResult = newBulkItemResult(index, item);
+                itemResults.set(index, itemResult);
+
+                if (device == null) {
+                    itemResult.put("error", "Device not found with ID: " + deviceId);
+                    continue;
+                }
+                DataTypeConfig config = configsByType.get(item.getDataType());
+                if (config == null) {
+                    itemResult.put("error", "Data type not found: " + item.getDataType() + " for device: " + deviceId);
+                    continue;
+                }
 
-            // Set location if available
-            if (deviceNode.has("location") && !deviceNode.get("location").isNull()) {
-                device.setLocation(deviceNode.get("location").asText());
+                List<GeofencePlace> geofences = Collections.emptyList();
+                if ("location".equals(config.getDataType()) && device.getElderlyPersonId() != null) {
+                    geofences = geofencesByPerson.computeIfAbsent(device.getElderlyPersonId(),
+                        simulatorService::getGeofencePlacesByElderlyPersonId);
+                }
+
+                String unit = config.getUnit();
+                List<Object> values = new ArrayList<>();
+                // Plain numbers and enum picks for the whole item are drawn in one pass
+                ValueBuffer buffer = geofences.isEmpty() ? ValueBuffer.of(config, countOf(item)) : null;
+                for (int n = 0; n < countOf(item); n++) {
+                    Object value;
+                    if (buffer != null) {
+                        value = buffer.next();
+                    } else {
+                        value = geofences.isEmpty()
+                            ? generateValue(config)
+                            : generateGpsWithinGeofence(geofences.get(random.nextInt(geofences.size())));
+                    }
+                    values.add(value);
+
+                    Map<String, Object> payload = new LinkedHashMap<>();
+                    payload.put("device_id", device.getDeviceId());
+                    payload.put("data_type", config.getDataType());
+                    payload.put("value", value);
+                    if (unit != null && !unit.trim().isEmpty()) {
+                        payload.put("unit", unit);
+                    }
+                    if (item.getLocation() != null && !item.getLocation().trim().isEmpty()) {
+                        payload.put("location", item.getLocation());
+                    }
+                    payloads.add(payload);
+                    payloadOwners.add(index);
+                }
+                itemResult.put("displayName", config.getDisplayName());
+                itemResult.put("unit", unit != null && !unit.trim().isEmpty() ? unit : null);
+                itemResult.put("values", values);
             }
 
-            return device;
-        } catch (Exception e) {
-            logger.error("Error fetching device by ID: {}", e.getMessage());
-            throw e;
+            if (payloads.isEmpty()) {
+                continue;
+            }
+
+            List<DeviceIngestClient.IngestResult> sendResults = deviceIngestClient.sendBatch(device.getApiKey(), payloads);
+            for (int p = 0; p < sendResults.size(); p++) {
+                DeviceIngestClient.IngestResult sendResult = sendResults.get(p);
+                Map<String, Object> itemResult = itemResults.get(payloadOwners.get(p));
+                if (sendResult.isSuccess()) {
+                    itemResult.merge("sent", 1, (a, b) -> (Integer) a + (Integer) b);
+                    totalSent++;
+                } else {
+                    itemResult.merge("failed", 1, (a, b) -> (Integer) a + (Integer) b);
+                    itemResult.putIfAbsent("error", sendResult.getError());
+                    totalFailed++;
+                }
+            }
+        }
+
+        for (Map<String, Object> itemResult : itemResults) {
+            int requested = (Integer) itemResult.get("requested");
+            itemResult.put("success", (Integer) itemResult.get("sent") == requested);
         }
+
+        logger.info("✓ Bulk generation: {} item(s), {} device(s), {} sent, {} failed",
+            items.size(), itemsByDevice.size(), totalSent, totalFailed);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", totalFailed == 0 && totalSent == totalRequested);
+        result.put("requested", totalRequested);
+        result.put("sent", totalSent);
+        result.put("failed", totalFailed);
+        result.put("items", itemResults);
+        return result;
+    }
+
+    private static int countOf(SensorGenerateRequest item) {
+        return item.getCount() != null ? Math.max(0, item.getCount()) : 1;
+    }
+
+    private static Map<String, Object> newBulkItemResult(int index, SensorGenerateRequest item) {
+        Map<String, Object> itemResult = new LinkedHashMap<>();
+        itemResult.put("index", index);
+        itemResult.put("deviceId", item.getDeviceId());
+        itemResult.put("dataType", item.getDataType());
+        itemResult.put("requested", countOf(item));
+        itemResult.put("sent", 0);
+        itemResult.put("failed", 0);
+        return itemResult;
     }
 
     /**
@@ -383,9 +1003,8 @@ public class SimulationManager {
         double randomDistance = Math.random() * radiusMeters;
         double randomBearing = Math.random() * 360;
 
-        double[] newCoords = moveByBearing(centerLat, centerLon, randomBearing, randomDistance);
-        double latitude = newCoords[0];
-        double longitude = newCoords[1];
+        double latitude = GeoMath.destinationLat(centerLat, randomBearing, randomDistance);
+        double longitude = GeoMath.destinationLon(centerLat, centerLon, randomBearing, randomDistance, latitude);
 
         // Round to 6 decimal places for realistic GPS coordinates
         double factor = Math.pow(10, 6);
@@ -401,10 +1020,7 @@ public class SimulationManager {
     /**
      * Generate a value based on data type configuration
      */
-    private Object generateValue(DataTypeConfig config) {
-        logger.debug("🔧 Generating value for data type: {}, configType: {}, config: {}",
-            config.getDataType(), config.getConfigType(), config.getConfig());
-
+    Object generateValue(DataTypeConfig config) {
         if ("enum".equals(config.getConfigType())) {
             List<?> values = (List<?>) config.getConfig().get("values");
             if (values != null && !values.isEmpty()) {
@@ -451,8 +1067,6 @@ public class SimulationManager {
                 latitude = Math.round(latitude * factor) / factor;
                 longitude = Math.round(longitude * factor) / factor;
 
-                logger.debug("📍 Generated GPS location: latitude={}, longitude={}", latitude, longitude);
-
                 Map<String, Double> result = new LinkedHashMap<>();
                 result.put("latitude", latitude);
                 result.put("longitude", longitude);
@@ -462,8 +1076,6 @@ public class SimulationManager {
                 double max = ((Number) conf.getOrDefault("max", 100)).doubleValue();
                 int precision = ((Number) conf.getOrDefault("precision", 0)).intValue();
 
-                logger.debug("📊 Generating random number - min: {}, max: {}, precision: {}", min, max, precision);
-
                 double value = min + (Math.random() * (max - min));
 
                 if (precision > 0) {
@@ -472,65 +1084,114 @@ public class SimulationManager {
                 } else {
                     value = Math.round(value);
                 }
-
-                logger.debug("✓ Generated value: {}", value);
                 return value;
             }
         }
     }
 
-    /**
-     * Move from a point by bearing and distance
-     * Returns new [latitude, longitude]
-     * Uses haversine formula for accurate distance calculations on earth's surface
-     */
-    private double[] moveByBearing(double lat, double lon, double bearing, double meters) {
-        double EARTH_RADIUS_METERS = 6371e3;
-        double φ1 = Math.toRadians(lat);
-        double λ1 = Math.toRadians(lon);
-        double θ = Math.toRadians(bearing);
-        double δ = meters / EARTH_RADIUS_METERS;
-
-        double φ2 = Math.asin(Math.sin(φ1) * Math.cos(δ) +
-                Math.cos(φ1) * Math.sin(δ) * Math.cos(θ));
-        double λ2 = λ1 + Math.atan2(Math.sin(θ) * Math.sin(δ) * Math.cos(φ1),
-                Math.cos(δ) - Math.sin(φ1) * Math.sin(φ2));
-
-        return new double[]{Math.toDegrees(φ2), Math.toDegrees(λ2)};
-    }
-
     private class SimulationTask {
         private final String simulationId;
         private final String elderlyPersonId;
         private final List<com.example.iotsimulatorbackend.model.Device> devices;
         private final SimulatorService simulatorService;
-        private final RestTemplate restTemplate;
-        private final ObjectMapper objectMapper;
-        private final String deviceIngestUrl;
         private final SimulationStatistics statistics;
-        private final Map<String, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
-        private final Map<String, LocationGenerator> locationGenerators;
+        private final Map<String, Stream> streams = new ConcurrentHashMap<>();
+        // Movement engine handle (slot and generation) of each location stream, by stream key
+        private final Map<String, Long> locationSlots = new ConcurrentHashMap<>();
+        private volatile MovementEngine.Places movementPlaces;
         private volatile boolean isRunning = false;
-        private List<GeofencePlace> geofencePlaces = new ArrayList<>();
+        private volatile List<GeofencePlace> geofencePlaces = new ArrayList<>();
+        // Guards scheduling against stop() and against setup windows that have already been reported
+        private final Object setupLock = new Object();
+        // Serializes update() so concurrent reconfigurations cannot add the same device twice
+        private final Object updateLock = new Object();
+        private volatile List<DeviceSetupResult> deviceSetupResults = Collections.emptyList();
+        // Told about each device of the initial setup; devices added later are not reported
+        private SimulationStartListener startListener = SimulationStartListener.NONE;
 
         public SimulationTask(String simulationId, String elderlyPersonId,
                             List<com.example.iotsimulatorbackend.model.Device> devices,
-                            SimulatorService simulatorService, RestTemplate restTemplate,
-                            ObjectMapper objectMapper, String deviceIngestUrl, SimulationStatistics statistics) {
+                            SimulatorService simulatorService, SimulationStatistics statistics) {
             this.simulationId = simulationId;
             this.elderlyPersonId = elderlyPersonId;
-            this.devices = devices;
+            this.devices = new java.util.concurrent.CopyOnWriteArrayList<>(devices);
             this.simulatorService = simulatorService;
-            this.restTemplate = restTemplate;
-            this.objectMapper = objectMapper;
-            this.deviceIngestUrl = deviceIngestUrl;
             this.statistics = statistics;
-            this.locationGenerators = new ConcurrentHashMap<>();
         }
 
-        public void start() {
+        /**
+         * Resolve device configs concurrently (bounded by the shared setup executor) and start
+         * each device's streams as soon as its own configs arrive. Blocks until every device is
+         * set up or the per-simulation deadline passes.
+         */
+        public List<DeviceSetupResult> start() {
             isRunning = true;
 
+            // Geofences are only needed by location streams, so load them alongside the device configs
+            CompletableFuture<List<GeofencePlace>> geofencesFuture =
+                    CompletableFuture.supplyAsync(this::loadGeofencePlaces, setupExecutor);
+
+            List<DeviceSetupResult> results = setUpDevices(devices, geofencesFuture, startListener);
+            deviceSetupResults = Collections.unmodifiableList(results);
+
+            int totalScheduled = results.stream().mapToInt(DeviceSetupResult::getStreamsScheduled).sum();
+            logger.info("📊 Scheduled {} data type generators across {} devices", totalScheduled, devices.size());
+            return deviceSetupResults;
+        }
+
+        /**
+         * Set up a batch of devices and wait for them until the setup deadline.
+         * Devices that miss the deadline start no further streams. They are reported as "timeout",
+         * or as "partial" with the streams they did start while waiting for geofence places.
+         */
+        private List<DeviceSetupResult> setUpDevices(List<com.example.iotsimulatorbackend.model.Device> batch,
+                                                     CompletableFuture<List<GeofencePlace>> geofencesFuture,
+                                                     SimulationStartListener listener) {
+            SetupWindow window = new SetupWindow();
+            List<CompletableFuture<DeviceSetupResult>> setupFutures = new ArrayList<>();
+            AtomicInteger[] scheduledSoFar = new AtomicInteger[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                com.example.iotsimulatorbackend.model.Device device = batch.get(i);
+                scheduledSoFar[i] = new AtomicInteger();
+                CompletableFuture<DeviceSetupResult> setup = setupDevice(device, geofencesFuture, window, scheduledSoFar[i]);
+                setup.thenAccept(listener::deviceSetUp);
+                setupFutures.add(setup);
+            }
+
+            try {
+                CompletableFuture.allOf(setupFutures.toArray(new CompletableFuture<?>[0]))
+                        .get(setupTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("⚠️  Device setup for simulation {} exceeded the {} ms deadline", simulationId, setupTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Individual failures are already captured per device
+            }
+
+            // Late configs must not start streams after the deadline has been reported
+            synchronized (setupLock) {
+                window.closed = true;
+            }
+
+            List<DeviceSetupResult> results = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                DeviceSetupResult result = setupFutures.get(i).getNow(null);
+                if (result == null) {
+                    com.example.iotsimulatorbackend.model.Device device = batch.get(i);
+                    // The window is closed, so this count is final
+                    int scheduled = scheduledSoFar[i].get();
+                    result = new DeviceSetupResult(device.getId(), device.getDeviceName(), device.getDeviceId(),
+                            scheduled > 0 ? "partial" : "timeout", scheduled, setupTimeoutMs,
+                            "Device setup did not finish within " + setupTimeoutMs + " ms");
+                    listener.deviceSetUp(result);
+                }
+                results.add(result);
+            }
+            return results;
+        }
+
+        private List<GeofencePlace> loadGeofencePlaces() {
             // Fetch geofence places for location-based simulation
             logger.info("📍 Attempting to load geofence places for elderly person: {}", elderlyPersonId);
             geofencePlaces = simulatorService.getGeofencePlacesByElderlyPersonId(elderlyPersonId);
@@ -546,42 +1207,102 @@ public class SimulationManager {
                 logger.warn("⚠️  NO GEOFENCE PLACES FOUND! Location simulation will use random values.");
                 logger.warn("    Please ensure geofence places are created for elderly person ID: {}", elderlyPersonId);
             }
+            return geofencePlaces;
+        }
 
-            // For each device, get its data type configs and start scheduling
-            int totalScheduled = 0;
-            for (com.example.iotsimulatorbackend.model.Device device : devices) {
-                try {
-                    List<DataTypeConfig> configs = simulatorService.getDataTypesByDeviceId(device.getId());
-
-                    if (configs.isEmpty()) {
-                        logger.warn("⚠️  No data type configs found for device: {} ({})", device.getDeviceName(), device.getDeviceId());
-                        continue;
-                    }
+        /**
+         * Fetch one device's data type configs and schedule its streams. Non-location streams start
+         * immediately; location streams start once the geofence places are available. If the places
+         * cannot be loaded, the device is reported as "partial" with the streams that did start.
+         * {@code scheduledSoFar} counts the streams started, for reporting a device that times out.
+         */
+        private CompletableFuture<DeviceSetupResult> setupDevice(com.example.iotsimulatorbackend.model.Device device,
+                                                                 CompletableFuture<List<GeofencePlace>> geofencesFuture,
+                                                                 SetupWindow window, AtomicInteger scheduledSoFar) {
+            long submittedAt = System.currentTimeMillis();
+
+            return CompletableFuture
+                    .supplyAsync(() -> simulatorService.getDataTypesByDeviceId(device.getId()), setupExecutor)
+                    .thenCompose(configs -> {
+                        if (configs.isEmpty()) {
+                            logger.warn("⚠️  No data type configs found for device: {} ({})", device.getDeviceName(), device.getDeviceId());
+                            return CompletableFuture.completedFuture(setupResult(device, "no_configs", 0, submittedAt, null));
+                        }
 
-                    // For each data type config, schedule generation
-                    for (DataTypeConfig config : configs) {
-                        logger.debug("   Data type: {} - ConfigType: {}", config.getDataType(), config.getConfigType());
-
-                        // Initialize LocationGenerator for GPS/location devices
-                        if (("gps".equals(config.getDataType()) || "location".equals(config.getDataType()))) {
-                            String generatorKey = device.getId() + "_" + config.getDataType();
-                            if (!geofencePlaces.isEmpty()) {
-                                locationGenerators.put(generatorKey, new LocationGenerator(geofencePlaces));
-                                logger.info("✅ Initialized LocationGenerator for device {} ({}) - will use {} geofence places",
-                                        device.getDeviceName(), device.getDeviceId(), geofencePlaces.size());
-                            } else {
-                                logger.warn("⚠️  Not initializing LocationGenerator - no geofence places loaded");
+                        List<DataTypeConfig> locationConfigs = new ArrayList<>();
+                        int scheduled = 0;
+                        for (DataTypeConfig config : configs) {
+                            logger.debug("   Data type: {} - ConfigType: {}", config.getDataType(), config.getConfigType());
+                            if (isLocationDataType(config.getDataType())) {
+                                locationConfigs.add(config);
+                            } else if (scheduleIfOpen(window, device, config)) {
+                                scheduled++;
+                                scheduledSoFar.incrementAndGet();
                             }
                         }
 
-                        scheduleDataGeneration(device, config);
-                        totalScheduled++;
-                    }
-                } catch (Exception e) {
-                    logger.error("❌ Error setting up simulation for device {} ({})", device.getDeviceId(), device.getDeviceName(), e);
+                        if (locationConfigs.isEmpty()) {
+                            return CompletableFuture.completedFuture(setupResult(device, "scheduled", scheduled, submittedAt, null));
+                        }
+
+                        int scheduledBeforeLocation = scheduled;
+                        return geofencesFuture.handle((places, e) -> {
+                            if (e != null) {
+                                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                                logger.error("❌ Geofence places for {} could not be loaded; not starting location streams of device {} ({})",
+                                        elderlyPersonId, device.getDeviceId(), device.getDeviceName(), cause);
+                                return setupResult(device, scheduledBeforeLocation > 0 ? "partial" : "error", scheduledBeforeLocation,
+                                        submittedAt, "Geofence places could not be loaded: " + cause.getMessage());
+                            }
+                            int locationScheduled = 0;
+                            for (DataTypeConfig config : locationConfigs) {
+                                // Track movement for GPS/location devices
+                                String generatorKey = device.getId() + "_" + config.getDataType();
+                                if (!places.isEmpty()) {
+                                    if (trackLocation(generatorKey, device.getDeviceId(), config.getDataType(), places)) {
+                                        logger.info("✅ Tracking location for device {} ({}) - will use {} geofence places",
+                                                device.getDeviceName(), device.getDeviceId(), places.size());
+                                    }
+                                } else {
+                                    logger.warn("⚠️  Not tracking location - no geofence places loaded");
+                                }
+                                if (scheduleIfOpen(window, device, config)) {
+                                    locationScheduled++;
+                                    scheduledSoFar.incrementAndGet();
+                                }
+                            }
+                            return setupResult(device, "scheduled", scheduledBeforeLocation + locationScheduled, submittedAt, null);
+                        });
+                    })
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        logger.error("❌ Error setting up simulation for device {} ({})", device.getDeviceId(), device.getDeviceName(), cause);
+                        int scheduled = scheduledSoFar.get();
+                        return setupResult(device, scheduled > 0 ? "partial" : "error", scheduled, submittedAt, cause.getMessage());
+                    });
+        }
+
+        /**
+         * Schedule a stream unless the simulation was stopped or the setup deadline already passed
+         */
+        private boolean scheduleIfOpen(SetupWindow window, com.example.iotsimulatorbackend.model.Device device, DataTypeConfig config) {
+            synchronized (setupLock) {
+                if (window.closed || !isRunning) {
+                    return false;
                 }
+                scheduleDataGeneration(device, config);
+                return true;
             }
-            logger.info("📊 Scheduled {} data type generators across {} devices", totalScheduled, devices.size());
+        }
+
+        private DeviceSetupResult setupResult(com.example.iotsimulatorbackend.model.Device device, String status,
+                                              int streamsScheduled, long submittedAt, String error) {
+            return new DeviceSetupResult(device.getId(), device.getDeviceName(), device.getDeviceId(),
+                    status, streamsScheduled, System.currentTimeMillis() - submittedAt, error);
+        }
+
+        private boolean isLocationDataType(String dataType) {
+            return "gps".equals(dataType) || "location".equals(dataType);
         }
 
         private void scheduleDataGeneration(com.example.iotsimulatorbackend.model.Device device, DataTypeConfig config) {
@@ -590,66 +1311,332 @@ public class SimulationManager {
             // Formula: interval_seconds = (24 hours * 60 minutes * 60 seconds) / frequencyPerDay
 
             int frequencyPerDay = config.getFrequencyPerDay(); // Dynamically from device_types.data_frequency_per_day
-            long intervalSeconds = (24 * 60 * 60) / frequencyPerDay; // 24 hours / frequency
-
-            // Format interval nicely for display
-            String intervalDisplay;
-            if (intervalSeconds < 60) {
-                intervalDisplay = intervalSeconds + "s";
-            } else if (intervalSeconds < 3600) {
-                intervalDisplay = (intervalSeconds / 60) + "m";
-            } else {
-                intervalDisplay = (intervalSeconds / 3600) + "h";
+            long intervalSeconds = intervalSeconds(config);
+
+            // Create a task key for tracking
+            String taskKey = device.getId() + "_" + config.getDataType();
+            long initialDelayMs = initialDelayMs(taskKey, intervalSeconds * 1000);
+
+            if (eventLog.shouldLog(EventCategory.SCHEDULING)) {
+                long firstMillis = System.currentTimeMillis() + initialDelayMs;
+                eventLog.log(EventCategory.SCHEDULING, "stream_scheduled",
+                        "simulationId", simulationId,
+                        "device", device.getDeviceId(),
+                        "dataType", config.getDataType(),
+                        "frequencyPerDay", frequencyPerDay,
+                        "intervalSeconds", intervalSeconds,
+                        "phasePolicy", phasePolicy.getKey(),
+                        "firstAt", java.time.Instant.ofEpochMilli(firstMillis),
+                        "nextAt", java.time.Instant.ofEpochMilli(firstMillis + intervalSeconds * 1000));
             }
 
-            // Calculate next execution times for logging
-            long nowMillis = System.currentTimeMillis();
-            long nextExecutionMillis = nowMillis; // First execution is immediate (initialDelay=0)
-            long subsequentExecutionMillis = nowMillis + (intervalSeconds * 1000);
+            // Each run schedules the next one; the first reading is placed by the phase policy
+            Stream stream = new Stream(device, config, intervalSeconds * 1000, System.currentTimeMillis() + initialDelayMs);
+            synchronized (stream) {
+                arm(stream, initialDelayMs);
+            }
 
-            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("HH:mm:ss");
-            String nextExecutionTime = sdf.format(new java.util.Date(nextExecutionMillis));
-            String subsequentExecutionTime = sdf.format(new java.util.Date(subsequentExecutionMillis));
+            Stream previous = streams.put(taskKey, stream);
+            if (previous != null) {
+                // The key is being rescheduled; its old stream must not keep running alongside
+                cancel(previous, false);
+            }
+        }
 
-            logger.info("⏱️  Scheduling {} for device {} ({}) - Frequency: {}/day",
-                    config.getDisplayName(), device.getDeviceName(), device.getDeviceId(),
-                    frequencyPerDay);
-            logger.info("    Interval: {} | First execution: {} (now) | Next: {} | Then every {}",
-                    intervalDisplay, nextExecutionTime, subsequentExecutionTime, intervalDisplay);
+        // Caller holds the stream's monitor
+        private void arm(Stream stream, long delayMs) {
+            int generation = stream.generation;
+            stream.future = scheduler.schedule(() -> dispatch(stream, generation),
+                    Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+        }
 
-            // Create a task key for tracking
-            String taskKey = device.getId() + "_" + config.getDataType();
+        /**
+         * Timer callback: hand the reading to the fair dispatcher. If this simulation's queue is
+         * full, the ticks due so far are skipped and the stream moves on to its next tick.
+         */
+        private void dispatch(Stream stream, int generation) {
+            if (fairDispatcher.submit(simulationId, () -> runStream(stream, generation))) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            synchronized (stream) {
+                if (stream.cancelled || stream.generation != generation || !isRunning) {
+                    return;
+                }
+                long missed = Math.max(0, now - stream.nextDueAt) / stream.intervalMs;
+                statistics.getScheduleDrift().recordSkipped(missed + 1);
+                stream.nextDueAt += (missed + 1) * stream.intervalMs;
+                arm(stream, stream.nextDueAt - now);
+            }
+        }
+
+        private void cancel(Stream stream, boolean interrupt) {
+            synchronized (stream) {
+                stream.cancelled = true;
+                if (stream.future != null) {
+                    stream.future.cancel(interrupt);
+                }
+            }
+        }
+
+        private long intervalSeconds(DataTypeConfig config) {
+            return streamIntervalSeconds(config);
+        }
+
+        /**
+         * One run of a stream: record how late it is against its intended fire time, apply the
+         * missed-tick policy, send the reading, then schedule the next run. Arming only after the
+         * send means runs of the same stream never overlap, as with the previous fixed-rate schedule.
+         */
+        private void runStream(Stream stream, int generation) {
+            long now = System.currentTimeMillis();
+            ScheduleDriftStatistics drift = statistics.getScheduleDrift();
+            long intervalMs;
+            long nextDueAt;
+            synchronized (stream) {
+                if (stream.cancelled || stream.generation != generation || !isRunning) {
+                    return;
+                }
+                long dueAt = stream.nextDueAt;
+                intervalMs = stream.intervalMs;
+                drift.recordRun(dueAt, now);
+
+                // Ticks after this one that are already due
+                long missed = now - dueAt >= intervalMs ? (now - dueAt) / intervalMs : 0;
+                switch (missedTickPolicy) {
+                    case SKIP:
+                        drift.recordSkipped(missed);
+                        nextDueAt = dueAt + (missed + 1) * intervalMs;
+                        break;
+                    case COALESCE:
+                        drift.recordCoalesced(missed);
+                        nextDueAt = missed > 0 ? now + intervalMs : dueAt + intervalMs;
+                        break;
+                    default:
+                        long dropped = Math.max(0, missed - catchUpMaxTicks);
+                        drift.recordSkipped(dropped);
+                        nextDueAt = dueAt + (dropped + 1) * intervalMs;
+                        break;
+                }
+                stream.nextDueAt = nextDueAt;
+                stream.lastRunAt = now;
+            }
+
+            dispatchRate.record(now);
+            // Read the config on every run so a reconfiguration takes effect on the next reading
+            generateAndSendData(stream, stream.config);
+
+            synchronized (stream) {
+                if (stream.cancelled || stream.generation != generation || !isRunning) {
+                    return;
+                }
+                long delayMs = nextDueAt - System.currentTimeMillis();
+                if (delayMs <= 0 && missedTickPolicy == MissedTickPolicy.CATCH_UP) {
+                    // Behind schedule: replay the next tick soon, but no faster than the capped rate
+                    drift.recordCaughtUp();
+                    delayMs = intervalMs / Math.max(1, catchUpRateMultiplier);
+                }
+                arm(stream, delayMs);
+            }
+        }
+
+        /**
+         * Apply a reconfiguration while the simulation keeps running. Only the affected streams are
+         * touched; statistics, location generators and the timing of other streams are kept.
+         */
+        public Map<String, Object> update(List<String> removeDeviceIds,
+                                          List<com.example.iotsimulatorbackend.model.Device> devicesToAdd,
+                                          List<StreamUpdate> streamUpdates) {
+            synchronized (updateLock) {
+                return applyUpdate(removeDeviceIds, devicesToAdd, streamUpdates);
+            }
+        }
+
+        private Map<String, Object> applyUpdate(List<String> removeDeviceIds,
+                                                List<com.example.iotsimulatorbackend.model.Device> devicesToAdd,
+                                                List<StreamUpdate> streamUpdates) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("simulationId", simulationId);
+            result.put("devicesRemoved", removeDevices(removeDeviceIds));
+
+            // Devices already simulated (including ones named twice in this update) are skipped
+            List<String> current = getDeviceIds();
+            List<com.example.iotsimulatorbackend.model.Device> newDevices = new ArrayList<>();
+            for (com.example.iotsimulatorbackend.model.Device device : devicesToAdd) {
+                if (!current.contains(device.getId())) {
+                    current.add(device.getId());
+                    newDevices.add(device);
+                }
+            }
+
+            List<DeviceSetupResult> added = Collections.emptyList();
+            if (!newDevices.isEmpty()) {
+                devices.addAll(newDevices);
+                added = setUpDevices(newDevices, CompletableFuture.completedFuture(geofencePlaces),
+                        SimulationStartListener.NONE);
+                List<DeviceSetupResult> merged = new ArrayList<>(deviceSetupResults);
+                merged.addAll(added);
+                deviceSetupResults = Collections.unmodifiableList(merged);
+            }
+            result.put("devicesAdded", added);
+
+            int updated = 0;
+            int rescheduled = 0;
+            List<String> unmatched = new ArrayList<>();
+            List<String> rejected = new ArrayList<>();
+            for (StreamUpdate streamUpdate : streamUpdates) {
+                int matched = 0;
+                int rejectedBefore = rejected.size();
+                for (Stream stream : streams.values()) {
+                    if (!stream.config.getDataType().equals(streamUpdate.getDataType())
+                            || (streamUpdate.getDeviceId() != null && !streamUpdate.getDeviceId().equals(stream.device.getId()))) {
+                        continue;
+                    }
+                    try {
+                        if (applyStreamUpdate(stream, streamUpdate)) {
+                            rescheduled++;
+                        }
+                        matched++;
+                    } catch (IllegalArgumentException e) {
+                        // The merged ranges are invalid for this stream; it keeps its current config
+                        rejected.add(streamUpdate.getDataType() + "@" + stream.device.getId() + ": " + e.getMessage());
+                    }
+                }
+                if (matched == 0 && rejected.size() == rejectedBefore) {
+                    unmatched.add(streamUpdate.getDataType() + (streamUpdate.getDeviceId() != null ? "@" + streamUpdate.getDeviceId() : ""));
+                }
+                updated += matched;
+            }
+            result.put("streamsUpdated", updated);
+            result.put("streamsRescheduled", rescheduled);
+            result.put("unmatchedStreams", unmatched);
+            result.put("rejectedStreams", rejected);
+            result.put("activeStreams", streams.size());
+            return result;
+        }
+
+        /**
+         * Give a location stream its own movement engine slot, replacing any it had.
+         * Returns false if the simulation was stopped meanwhile.
+         */
+        private boolean trackLocation(String streamKey, String deviceId, String dataType, List<GeofencePlace> places) {
+            MovementEngine.Places shared = movementPlaces;
+            if (shared == null || !shared.isFrom(places)) {
+                // The person's location streams normally all get the same geofence list
+                shared = MovementEngine.Places.of(places);
+                movementPlaces = shared;
+            }
+            synchronized (setupLock) {
+                if (!isRunning) {
+                    return false;
+                }
+                Long previous = locationSlots.put(streamKey,
+                        movementEngine.add(shared, deviceId, dataType, System.currentTimeMillis()));
+                if (previous != null) {
+                    movementEngine.remove(previous);
+                }
+                return true;
+            }
+        }
+
+        private int removeDevices(List<String> deviceIds) {
+            if (deviceIds.isEmpty()) {
+                return 0;
+            }
+            synchronized (setupLock) {
+                streams.entrySet().removeIf(entry -> {
+                    if (deviceIds.contains(entry.getValue().device.getId())) {
+                        cancel(entry.getValue(), false);
+                        return true;
+                    }
+                    return false;
+                });
+            }
+            locationSlots.entrySet().removeIf(entry -> {
+                if (deviceIds.stream().anyMatch(id -> entry.getKey().startsWith(id + "_"))) {
+                    movementEngine.remove(entry.getValue());
+                    return true;
+                }
+                return false;
+            });
+            int before = devices.size();
+            devices.removeIf(device -> deviceIds.contains(device.getId()));
+
+            List<DeviceSetupResult> remaining = new ArrayList<>(deviceSetupResults);
+            remaining.removeIf(r -> deviceIds.contains(r.getDeviceId()));
+            deviceSetupResults = Collections.unmodifiableList(remaining);
+            return before - devices.size();
+        }
+
+        /**
+         * Swap in the updated config and, if the rate changed, reschedule so the next reading lands
+         * one new interval after the last one instead of firing immediately.
+         * Returns true if the stream was rescheduled.
+         */
+        private boolean applyStreamUpdate(Stream stream, StreamUpdate streamUpdate) {
+            DataTypeConfig current = stream.config;
+            DataTypeConfig updated = new DataTypeConfig(current.getDataType(), current.getDisplayName(), current.getUnit(),
+                    current.getValueType(), current.getConfigType(), current.getConfig(),
+                    streamUpdate.getFrequencyPerDay() != null ? streamUpdate.getFrequencyPerDay() : current.getFrequencyPerDay());
+            if (streamUpdate.getConfig() != null && !streamUpdate.getConfig().isEmpty()) {
+                mergeSampleConfig(updated, streamUpdate.getConfig());
+            }
 
-            // Schedule the task to run at fixed rate
-            // Initial delay = 0 means first execution happens immediately
-            ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(() -> {
-                if (isRunning) {
-                    generateAndSendData(device, config);
+            synchronized (setupLock) {
+                if (!isRunning || streams.get(stream.device.getId() + "_" + current.getDataType()) != stream) {
+                    return false;
                 }
-            }, 0, intervalSeconds, java.util.concurrent.TimeUnit.SECONDS);
+                stream.config = updated;
 
-            scheduledTasks.put(taskKey, future);
+                long intervalMs = intervalSeconds(updated) * 1000;
+                if (intervalMs == intervalSeconds(current) * 1000) {
+                    return false;
+                }
+                long now = System.currentTimeMillis();
+                synchronized (stream) {
+                    if (stream.cancelled) {
+                        return false;
+                    }
+                    // A stream that has not fired yet is placed by the phase policy like a new one
+                    stream.intervalMs = intervalMs;
+                    stream.nextDueAt = stream.lastRunAt > 0
+                            ? Math.max(now, stream.lastRunAt + intervalMs)
+                            : now + initialDelayMs(stream.device.getId() + "_" + updated.getDataType(), intervalMs);
+                    // Supersede the current chain; a run still in flight will not re-arm
+                    stream.generation++;
+                    stream.future.cancel(false);
+                    arm(stream, stream.nextDueAt - now);
+                }
+            }
+            logger.info("🔧 Simulation {}: {} on device {} now at {} per day", simulationId,
+                    updated.getDataType(), stream.device.getDeviceId(), updated.getFrequencyPerDay());
+            return true;
         }
 
-        private void generateAndSendData(com.example.iotsimulatorbackend.model.Device device, DataTypeConfig config) {
+        private void generateAndSendData(Stream stream, DataTypeConfig config) {
+            com.example.iotsimulatorbackend.model.Device device = stream.device;
+            long sendStartNanos = 0;
             try {
-                // Generate value - use LocationGenerator for GPS/location data
+                // Generate value - GPS/location data comes from the shared movement engine
                 Object generatedValue;
                 if ("gps".equals(config.getDataType()) || "location".equals(config.getDataType())) {
                     String generatorKey = device.getId() + "_" + config.getDataType();
-                    LocationGenerator generator = locationGenerators.get(generatorKey);
-                    if (generator != null) {
-                        com.example.iotsimulatorbackend.model.LocationData locationData = generator.generateNextLocation();
+                    Long slot = locationSlots.get(generatorKey);
+                    // Null if the stream's slot was removed after this run began
+                    com.example.iotsimulatorbackend.model.LocationData locationData =
+                            slot != null ? movementEngine.advance(slot, System.currentTimeMillis()) : null;
+                    if (locationData != null) {
                         generatedValue = locationData.toMap();
 
                         // Log movement info
-                        if (generator.getCurrentPlace() != null) {
-                            logger.debug("📍 {} at {} ({}) - Lat: {}, Lon: {}",
-                                    device.getDeviceId(),
-                                    generator.getCurrentPlace().getName(),
-                                    generator.getCurrentPlace().getPlaceType(),
-                                    String.format("%.6f", generator.getCurrentLat()),
-                                    String.format("%.6f", generator.getCurrentLon()));
+                        GeofencePlace currentPlace = movementEngine.getCurrentPlace(slot);
+                        if (currentPlace != null && eventLog.shouldLog(EventCategory.READING)) {
+                            eventLog.log(EventCategory.READING, "location_reading",
+                                    "device", device.getDeviceId(),
+                                    "place", currentPlace.getName(),
+                                    "placeType", currentPlace.getPlaceType(),
+                                    "lat", locationData.getLatitude(),
+                                    "lon", locationData.getLongitude());
                         }
                     } else {
                         // Fallback if no generator
@@ -657,7 +1644,7 @@ public class SimulationManager {
                     }
                 } else {
                     // Use standard value generation
-                    generatedValue = generateValue(config);
+                    generatedValue = nextValue(stream, config);
                 }
 
                 // Create payload
@@ -678,42 +1665,63 @@ public class SimulationManager {
                 }
 
                 // Send to device-ingest endpoint
-                HttpHeaders headers = new HttpHeaders();
-                // Use the device's API key in the Authorization header (device-ingest validates this)
-                headers.set("Authorization", "Bearer " + device.getApiKey());
-                headers.set("Content-Type", "application/json");
-
-                String payloadJson = objectMapper.writeValueAsString(payload);
-                logger.debug("📤 Sending payload to device-ingest: {}", payloadJson);
-
-                HttpEntity<String> request = new HttpEntity<>(payloadJson, headers);
-
-                ResponseEntity<String> response = restTemplate.postForEntity(
-                    deviceIngestUrl, request, String.class);
+                sendStartNanos = System.nanoTime();
+                ResponseEntity<String> response = deviceIngestClient.send(device.getApiKey(), payload);
+                long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sendStartNanos);
 
                 if (response.getStatusCode().is2xxSuccessful()) {
                     // Record success in statistics
                     statistics.recordSuccess(device.getId(), device.getDeviceName(),
-                                           config.getDataType(), config.getDisplayName());
-                    if (!("gps".equals(config.getDataType()) || "location".equals(config.getDataType()))) {
-                        logger.debug("✓ {} [{}] = {} {} (device: {})",
-                                config.getDisplayName(), config.getDataType(),
-                                generatedValue, config.getUnit(), device.getDeviceId());
+                                           config.getDataType(), config.getDisplayName(), latencyMs);
+                    if (!isLocationDataType(config.getDataType()) && eventLog.shouldLog(EventCategory.READING)) {
+                        eventLog.log(EventCategory.READING, "reading_sent",
+                                "device", device.getDeviceId(),
+                                "dataType", config.getDataType(),
+                                "value", generatedValue,
+                                "unit", config.getUnit());
                     }
                 } else {
                     statistics.recordFailure(device.getId(), device.getDeviceName(),
-                                           config.getDataType(), config.getDisplayName());
-                    logger.warn("⚠️  Data send failed for {} on {} - Status: {}",
-                            config.getDisplayName(), device.getDeviceId(), response.getStatusCode());
+                                           config.getDataType(), config.getDisplayName(), latencyMs);
+                    if (eventLog.shouldLog(EventCategory.INGEST_FAILURE)) {
+                        eventLog.log(EventCategory.INGEST_FAILURE, "send_failed",
+                                "device", device.getDeviceId(),
+                                "dataType", config.getDataType(),
+                                "status", response.getStatusCode());
+                    }
                 }
             } catch (Exception e) {
+                // Latency counts only if the send itself was attempted
+                long latencyMs = sendStartNanos != 0 ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sendStartNanos) : 0;
                 statistics.recordFailure(device.getId(), device.getDeviceName(),
-                                       config.getDataType(), config.getDisplayName());
-                logger.warn("❌ Error generating/sending {} for device {} ({}): {}",
-                        config.getDisplayName(), device.getDeviceName(), device.getDeviceId(), e.getMessage());
+                                       config.getDataType(), config.getDisplayName(), latencyMs);
+                if (eventLog.shouldLog(EventCategory.INGEST_FAILURE)) {
+                    eventLog.log(EventCategory.INGEST_FAILURE, "send_error",
+                            "device", device.getDeviceId(),
+                            "dataType", config.getDataType(),
+                            "error", e.getMessage());
+                }
             }
         }
 
+        /**
+         * Next value of a non-location stream: the next pre-generated slot for fast streams when
+         * pre-generation is on, otherwise a freshly generated value
+         */
+        private Object nextValue(Stream stream, DataTypeConfig config) {
+            if (pregenerateChunk <= 0 || intervalSeconds(config) * 1000 > pregenerateMaxIntervalMs) {
+                stream.values = null;
+                return generateValue(config);
+            }
+            ValueBuffer buffer = stream.values;
+            if (buffer == null || !buffer.isFor(config)) {
+                // First run, or the stream was reconfigured since the chunk was drawn
+                buffer = ValueBuffer.of(config, pregenerateChunk);
+                stream.values = buffer;
+            }
+            return buffer != null ? buffer.next() : generateValue(config);
+        }
+
         private Object generateValue(DataTypeConfig config) {
             if ("enum".equals(config.getConfigType())) {
                 // Return random enum value
@@ -771,16 +1779,77 @@ public class SimulationManager {
         }
 
         public void stop() {
-            isRunning = false;
+            synchronized (setupLock) {
+                isRunning = false;
+                // Readings still in flight hold stale handles and leave the slots alone; see MovementEngine
+                locationSlots.values().forEach(movementEngine::remove);
+                locationSlots.clear();
+            }
             // Cancel all scheduled tasks
-            for (ScheduledFuture<?> future : scheduledTasks.values()) {
-                future.cancel(true);
+            for (Stream stream : streams.values()) {
+                cancel(stream, true);
             }
-            scheduledTasks.clear();
+            streams.clear();
         }
 
         public String getElderlyPersonId() {
             return elderlyPersonId;
         }
+
+        public int getStreamCount() {
+            return streams.size();
+        }
+
+        public double getScheduledEventsPerSecond() {
+            double eventsPerSecond = 0;
+            for (Stream stream : streams.values()) {
+                eventsPerSecond += 1000.0 / stream.intervalMs;
+            }
+            return eventsPerSecond;
+        }
+
+        public List<String> getDeviceIds() {
+            List<String> ids = new ArrayList<>();
+            for (com.example.iotsimulatorbackend.model.Device device : devices) {
+                ids.add(device.getId());
+            }
+            return ids;
+        }
+
+        public List<DeviceSetupResult> getDeviceSetupResults() {
+            return deviceSetupResults;
+        }
+    }
+
+    /**
+     * One scheduled data stream. The config is swapped in place on reconfiguration. Each run
+     * schedules the next one from the intended fire time; scheduling state is guarded by the
+     * stream's monitor.
+     */
+    private static final class Stream {
+        final com.example.iotsimulatorbackend.model.Device device;
+        volatile DataTypeConfig config;
+        volatile long lastRunAt;
+        volatile ValueBuffer values;    // Pre-generated readings for the current config, if any
+
+        ScheduledFuture<?> future;
+        long intervalMs;
+        long nextDueAt;     // Intended fire time of the next run
+        int generation;     // Bumped on reschedule so a superseded run does not re-arm
+        boolean cancelled;
+
+        Stream(com.example.iotsimulatorbackend.model.Device device, DataTypeConfig config, long intervalMs, long nextDueAt) {
+            this.device = device;
+            this.config = config;
+            this.intervalMs = intervalMs;
+            this.nextDueAt = nextDueAt;
+        }
+    }
+
+    /**
+     * A batch of device setups that share one deadline; closed under setupLock once results are reported
+     */
+    private static final class SetupWindow {
+        boolean closed;
     }
 }
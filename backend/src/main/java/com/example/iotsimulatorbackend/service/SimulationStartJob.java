@@ -0,0 +1,197 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DeviceSetupResult;
+import com.example.iotsimulatorbackend.model.SimulationRequest;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One asynchronous simulation start: its progress, and the event streams watching it.
+ *
+ * Progress is updated from the setup threads as each device finishes. Watchers get a
+ * "progress" event at most every {@link #PUSH_INTERVAL_MS} while devices are being set
+ * up, and always a final "done" event, after which their stream is closed.
+ */
+final class SimulationStartJob implements SimulationStartListener {
+
+    static final long PUSH_INTERVAL_MS = 200;
+    private static final int MAX_ERRORS_LISTED = 50;
+
+    private final String simulationId;
+    private final SimulationRequest request;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile String state = "queued";          // queued, resolving_devices, setting_up, running, failed
+    private volatile String error;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile int devicesTotal;
+    private volatile List<DeviceSetupResult> deviceSetup;
+
+    // Each device counts once, even if it is reported again after its timeout
+    private final Set<String> devicesReported = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger streamsScheduled = new AtomicInteger();
+    private final AtomicInteger deviceErrors = new AtomicInteger();
+    private final Queue<Map<String, Object>> errors = new ConcurrentLinkedQueue<>();
+
+    private final List<SseEmitter> watchers = new CopyOnWriteArrayList<>();
+    private volatile long lastPushAt;
+    private boolean finished;                           // Guarded by this
+
+    SimulationStartJob(String simulationId, SimulationRequest request) {
+        this.simulationId = simulationId;
+        this.request = request;
+    }
+
+    String getSimulationId() { return simulationId; }
+    SimulationRequest getRequest() { return request; }
+    long getCreatedAt() { return createdAt; }
+    long getFinishedAt() { return finishedAt; }
+
+    synchronized boolean isFinished() {
+        return finished;
+    }
+
+    void begin() {
+        startedAt = System.currentTimeMillis();
+        state = "resolving_devices";
+        publish(true);
+    }
+
+    @Override
+    public void devicesResolved(int deviceCount) {
+        devicesTotal = deviceCount;
+        state = "setting_up";
+        publish(true);
+    }
+
+    @Override
+    public void deviceSetUp(DeviceSetupResult result) {
+        if (!devicesReported.add(result.getDeviceId())) {
+            return;
+        }
+        streamsScheduled.addAndGet(result.getStreamsScheduled());
+        if (!"scheduled".equals(result.getStatus())) {
+            deviceErrors.incrementAndGet();
+            if (errors.size() < MAX_ERRORS_LISTED) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("deviceId", result.getDeviceId());
+                entry.put("deviceName", result.getDeviceName());
+                entry.put("status", result.getStatus());
+                entry.put("error", result.getError());
+                errors.add(entry);
+            }
+        }
+        publish(false);
+    }
+
+    @Override
+    public void failed(String error) {
+        this.error = error;
+    }
+
+    /**
+     * Record the outcome and close every watcher's stream; null results mean the start failed
+     */
+    void finish(List<DeviceSetupResult> results) {
+        if (results != null) {
+            deviceSetup = results;
+            state = "running";
+        } else {
+            state = "failed";
+            if (error == null) {
+                error = "Simulation could not be started";
+            }
+        }
+        finishedAt = System.currentTimeMillis();
+
+        List<SseEmitter> closing;
+        synchronized (this) {
+            finished = true;
+            closing = new ArrayList<>(watchers);
+            watchers.clear();
+        }
+        Map<String, Object> progress = getProgress();
+        for (SseEmitter watcher : closing) {
+            if (send(watcher, "done", progress)) {
+                watcher.complete();
+            }
+        }
+    }
+
+    /**
+     * Stream this job's progress to {@code watcher}, starting with the current state
+     */
+    void watch(SseEmitter watcher) {
+        boolean done;
+        synchronized (this) {
+            done = finished;
+            if (!done) {
+                watchers.add(watcher);
+            }
+        }
+        watcher.onCompletion(() -> watchers.remove(watcher));
+        watcher.onTimeout(() -> watchers.remove(watcher));
+        if (send(watcher, done ? "done" : "progress", getProgress()) && done) {
+            watcher.complete();
+        }
+    }
+
+    private void publish(boolean force) {
+        if (watchers.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!force && now - lastPushAt < PUSH_INTERVAL_MS) {
+            return;
+        }
+        lastPushAt = now;
+        Map<String, Object> progress = getProgress();
+        for (SseEmitter watcher : watchers) {
+            send(watcher, "progress", progress);
+        }
+    }
+
+    private boolean send(SseEmitter watcher, String event, Map<String, Object> progress) {
+        try {
+            watcher.send(SseEmitter.event().name(event).data(progress, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter is finished either way
+            watchers.remove(watcher);
+            return false;
+        }
+    }
+
+    Map<String, Object> getProgress() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("simulationId", simulationId);
+        progress.put("elderlyPersonId", request.getElderlyPersonId());
+        progress.put("state", state);
+        progress.put("devicesTotal", devicesTotal);
+        progress.put("devicesSetUp", devicesReported.size());
+        progress.put("streamsScheduled", streamsScheduled.get());
+        progress.put("deviceErrors", deviceErrors.get());
+        progress.put("errors", new ArrayList<>(errors));
+        if (error != null) {
+            progress.put("error", error);
+        }
+        progress.put("queuedMs", (startedAt != 0 ? startedAt : now) - createdAt);
+        if (startedAt != 0) {
+            progress.put("elapsedMs", (finishedAt != 0 ? finishedAt : now) - startedAt);
+        }
+        List<DeviceSetupResult> results = deviceSetup;
+        if (results != null) {
+            progress.put("deviceSetup", results);
+        }
+        return progress;
+    }
+}
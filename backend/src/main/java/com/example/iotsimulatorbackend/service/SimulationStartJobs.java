@@ -0,0 +1,151 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DeviceSetupResult;
+import com.example.iotsimulatorbackend.model.SimulationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Simulation starts that run in the background, so the request thread returns at once.
+ *
+ * A submitted start gets its simulation ID up front and runs on a small worker pool;
+ * its progress can be polled or streamed until it is running or has failed. Finished
+ * jobs stay queryable for the retention window. Only one start per elderly person may
+ * be in progress at a time.
+ */
+@Service
+public class SimulationStartJobs {
+    private static final Logger logger = LoggerFactory.getLogger(SimulationStartJobs.class);
+
+    @Autowired
+    private SimulationManager simulationManager;
+
+    // Starts running at once; each one waits for its own device setup
+    @Value("${simulator.start.job-workers:4}")
+    private int jobWorkers;
+
+    // Further submissions are refused until the queue drains
+    @Value("${simulator.start.max-queued-jobs:1000}")
+    private int maxQueuedJobs;
+
+    @Value("${simulator.start.job-retention-minutes:10}")
+    private long jobRetentionMinutes;
+
+    // Progress streams are closed after this long even if the start hasn't finished
+    @Value("${simulator.start.events-timeout-ms:120000}")
+    private long eventsTimeoutMs;
+
+    private ExecutorService jobExecutor;
+    private final Map<String, SimulationStartJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, String> inProgressByElderlyPerson = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        jobExecutor = new ThreadPoolExecutor(jobWorkers, jobWorkers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxQueuedJobs));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Queue a start under {@code simulationId}. {@code onFailed} runs if the simulation
+     * could not be started.
+     *
+     * @throws IllegalStateException if a start for the same elderly person is still in progress
+     * @throws RejectedExecutionException if too many starts are queued
+     */
+    public Map<String, Object> submit(String simulationId, SimulationRequest request, Runnable onFailed) {
+        evictExpired();
+        String elderlyPersonId = request.getElderlyPersonId();
+        String inProgress = inProgressByElderlyPerson.putIfAbsent(elderlyPersonId, simulationId);
+        if (inProgress != null) {
+            throw new IllegalStateException("A start is already in progress for this elderly person: " + inProgress);
+        }
+
+        SimulationStartJob job = new SimulationStartJob(simulationId, request);
+        jobs.put(simulationId, job);
+        try {
+            jobExecutor.execute(() -> run(job, onFailed));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(simulationId);
+            inProgressByElderlyPerson.remove(elderlyPersonId, simulationId);
+            throw e;
+        }
+        logger.info("🕒 Simulation start queued: {} for elderly person {}", simulationId, elderlyPersonId);
+        return job.getProgress();
+    }
+
+    private void run(SimulationStartJob job, Runnable onFailed) {
+        SimulationRequest request = job.getRequest();
+        List<DeviceSetupResult> results = null;
+        try {
+            job.begin();
+            String started = simulationManager.startSimulation(request.getElderlyPersonId(), request.getDeviceIds(),
+                    job.getSimulationId(), request.getWeight(), request.getMaxConcurrency(), job);
+            if (started != null) {
+                results = simulationManager.getDeviceSetupResults(started);
+            }
+        } catch (Throwable t) {
+            logger.error("❌ Simulation start job {} failed", job.getSimulationId(), t);
+            job.failed("Simulation could not be started: " + t.getMessage());
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+        } finally {
+            // Also on an Error, so the job is never left running with its watchers open
+            inProgressByElderlyPerson.remove(request.getElderlyPersonId(), job.getSimulationId());
+            try {
+                if (results == null) {
+                    onFailed.run();
+                }
+            } finally {
+                job.finish(results);
+            }
+        }
+    }
+
+    /**
+     * Whether a start for the elderly person is queued or running
+     */
+    public boolean isInProgress(String elderlyPersonId) {
+        return inProgressByElderlyPerson.containsKey(elderlyPersonId);
+    }
+
+    /**
+     * Progress of a start, or null if it is unknown or no longer retained
+     */
+    public Map<String, Object> getProgress(String simulationId) {
+        SimulationStartJob job = jobs.get(simulationId);
+        return job != null ? job.getProgress() : null;
+    }
+
+    /**
+     * Event stream of a start's progress, or null if it is unknown or no longer retained
+     */
+    public SseEmitter watch(String simulationId) {
+        SimulationStartJob job = jobs.get(simulationId);
+        if (job == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(eventsTimeoutMs);
+        job.watch(emitter);
+        return emitter;
+    }
+
+    private void evictExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() < cutoff);
+    }
+}
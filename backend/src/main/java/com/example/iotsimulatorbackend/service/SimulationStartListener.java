@@ -0,0 +1,28 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DeviceSetupResult;
+
+/**
+ * Progress of one simulation start, reported from the threads doing the work.
+ * A device may be reported twice if its setup finishes after the deadline has
+ * already reported it as timed out; listeners keep the first report.
+ */
+interface SimulationStartListener {
+
+    SimulationStartListener NONE = new SimulationStartListener() {};
+
+    /**
+     * The devices to simulate are known and their setup begins
+     */
+    default void devicesResolved(int deviceCount) {}
+
+    /**
+     * One device finished setting up, successfully or not
+     */
+    default void deviceSetUp(DeviceSetupResult result) {}
+
+    /**
+     * The simulation could not be started at all
+     */
+    default void failed(String error) {}
+}
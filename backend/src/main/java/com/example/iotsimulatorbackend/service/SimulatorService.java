@@ -3,22 +3,40 @@ package com.example.iotsimulatorbackend.service;
 import com.example.iotsimulatorbackend.model.Device;
 import com.example.iotsimulatorbackend.model.DataTypeConfig;
 import com.example.iotsimulatorbackend.model.GeofencePlace;
+import com.example.iotsimulatorbackend.service.SupabaseRows.DataTypeConfigRow;
+import com.example.iotsimulatorbackend.service.SupabaseRows.DeviceRow;
+import com.example.iotsimulatorbackend.service.SupabaseRows.DeviceTypeRow;
+import com.example.iotsimulatorbackend.service.SupabaseRows.ElderlyPersonRow;
+import com.example.iotsimulatorbackend.service.SupabaseRows.GeofencePlaceRow;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Fleet metadata (devices, data type configs, geofences) for simulations. Read from the
+ * Supabase REST API, or from a local fleet file when simulator.fleet.file is set.
+ */
 @Service
-public class SimulatorService {
+@Lazy(false)    // A broken fleet file must fail startup, not the first request
+public class SimulatorService implements FleetMetadataProvider {
+    private static final Logger logger = LoggerFactory.getLogger(SimulatorService.class);
+
     @Autowired
     private RestTemplate restTemplate;
 
@@ -43,10 +61,223 @@ public class SimulatorService {
     @Value("${supabase.apikey}")
     private String supabaseApiKey;
 
+    // Local fleet file (JSON or YAML) that replaces Supabase for all metadata lookups; empty uses Supabase
+    @Value("${simulator.fleet.file:}")
+    private String fleetFile;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EventLog eventLog;
+
+    private FileFleetProvider fileFleet;
+
+    // Generated scale-test fleet; its IDs are answered here, everything else goes to the file or Supabase
+    private volatile SyntheticPopulation syntheticPopulation;
+
+    // One coalescing group per Supabase table so the metrics show which lookups collapse
+    private final Map<String, SingleFlight<String, Object>> requestGroups = new ConcurrentHashMap<>();
+
+    // Distinct sample_data_config values kept compiled; the least recently used is evicted beyond that
+    @Value("${simulator.values.compiled-config-cache-size:1024}")
+    private int compiledConfigCacheSize;
+
+    // sample_data_config values compiled once, keyed by their JSON text; guarded by itself
+    private final Map<String, CompiledSampleConfig> compiledSampleConfigs = new LinkedHashMap<String, CompiledSampleConfig>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledSampleConfig> eldest) {
+            return size() > Math.max(1, compiledConfigCacheSize);
+        }
+    };
+
+    // Readers are immutable and thread-safe, so build them once
+    private ObjectReader elderlyPersonRowsReader;
+    private ObjectReader deviceRowsReader;
+    private ObjectReader deviceTypeRowsReader;
+    private ObjectReader dataTypeConfigRowsReader;
+    private ObjectReader geofencePlaceRowsReader;
+
+    @PostConstruct
+    public void init() throws Exception {
+        elderlyPersonRowsReader = objectMapper.readerFor(new TypeReference<List<ElderlyPersonRow>>() {});
+        deviceRowsReader = objectMapper.readerFor(new TypeReference<List<DeviceRow>>() {});
+        deviceTypeRowsReader = objectMapper.readerFor(new TypeReference<List<DeviceTypeRow>>() {});
+        dataTypeConfigRowsReader = objectMapper.readerFor(new TypeReference<List<DataTypeConfigRow>>() {});
+        geofencePlaceRowsReader = objectMapper.readerFor(new TypeReference<List<GeofencePlaceRow>>() {});
+
+        if (fleetFile != null && !fleetFile.isEmpty()) {
+            // A broken fleet file fails startup rather than silently falling back to Supabase
+            fileFleet = FileFleetProvider.load(Paths.get(fleetFile), objectMapper);
+            logger.info("📁 Fleet metadata from {} instead of Supabase: {}", fleetFile, fileFleet.getCounts());
+        }
+    }
+
+    /**
+     * GET a Supabase REST URL and bind the JSON array straight from the response stream
+     * into typed rows (no intermediate String or JsonNode tree).
+     * Concurrent callers asking for the same URL share one in-flight request, which keeps
+     * mass simulation starts from sending hundreds of identical device_types/config queries.
+     * The returned list is shared between coalesced callers and must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> fetch(String url, ObjectReader rowsReader) throws Exception {
+        return (List<T>) requestGroups
+            .computeIfAbsent(tableOf(url), table -> new SingleFlight<>())
+            .execute(url, () -> restTemplate.execute(url, HttpMethod.GET,
+                request -> {
+                    request.getHeaders().set("apikey", supabaseApiKey);
+                    request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+                },
+                response -> {
+                    try (InputStream body = response.getBody()) {
+                        List<T> rows = rowsReader.readValue(body);
+                        return rows != null ? rows : Collections.<T>emptyList();
+                    }
+                }));
+    }
+
+    /**
+     * Compile a sample_data_config once; later configs with the same content reuse the compiled form.
+     * Keyed by the JSON text rather than the node, which is mutable and belongs to the row.
+     */
+    private CompiledSampleConfig compileSampleConfig(String dataType, JsonNode sampleConfig) throws Exception {
+        if (sampleConfig == null || sampleConfig.isNull()) {
+            return CompiledSampleConfig.DEFAULT_RANGE;
+        }
+        String key = sampleConfig.toString();
+        CompiledSampleConfig compiled;
+        synchronized (compiledSampleConfigs) {
+            compiled = compiledSampleConfigs.get(key);
+        }
+        if (compiled == null) {
+            compiled = CompiledSampleConfig.compile(sampleConfig, objectMapper);
+            synchronized (compiledSampleConfigs) {
+                compiledSampleConfigs.putIfAbsent(key, compiled);
+            }
+            if (eventLog.shouldLog(EventCategory.SUPABASE)) {
+                eventLog.log(EventCategory.SUPABASE, "sample_config_compiled",
+                    "dataType", dataType, "configType", compiled.getConfigType(), "config", compiled.getConfig());
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Resolve a profile/user ID to the elderly_persons.id, falling back to the profile ID itself
+     */
+    private String resolveElderlyPersonId(String profileId) throws Exception {
+        List<ElderlyPersonRow> elderlyPersons = fetch(elderlyPersonsUrl + "?user_id=eq." + profileId + "&select=id", elderlyPersonRowsReader);
+
+        if (!elderlyPersons.isEmpty()) {
+            // Extract the elderly_person_id from the first (and should be only) result
+            String elderlyPersonId = elderlyPersons.get(0).id;
+            if (eventLog.shouldLog(EventCategory.SUPABASE)) {
+                eventLog.log(EventCategory.SUPABASE, "elderly_person_resolved",
+                    "userId", profileId, "elderlyPersonId", elderlyPersonId, "fallback", false);
+            }
+            return elderlyPersonId;
+        }
+        // Fallback: Use profileId directly as elderly_person_id
+        // (This handles systems where profiles are used as elderly persons directly)
+        if (eventLog.shouldLog(EventCategory.SUPABASE)) {
+            eventLog.log(EventCategory.SUPABASE, "elderly_person_resolved",
+                "userId", profileId, "elderlyPersonId", profileId, "fallback", true);
+        }
+        return profileId;
+    }
+
+    static Device toDevice(DeviceRow row, String description) {
+        Device device = new Device(
+            row.id,
+            row.elderlyPersonId,
+            row.deviceName,
+            row.deviceId,
+            row.apiKey,
+            row.deviceType != null ? row.deviceType : "",
+            description
+        );
+        // Set location if available; a structured one, e.g. {"lat": ..., "lon": ...}, is kept as its JSON text
+        if (row.location != null && !row.location.isNull()) {
+            device.setLocation(row.location.isTextual() ? row.location.asText() : row.location.toString());
+        }
+        return device;
+    }
+
+    static GeofencePlace toGeofencePlace(GeofencePlaceRow row) {
+        GeofencePlace place = new GeofencePlace(
+            row.id,
+            row.elderlyPersonId,
+            row.name,
+            row.placeType,
+            row.latitude,
+            row.longitude,
+            row.radiusMeters
+        );
+        place.setAddress(row.address);
+        place.setColor(row.color);
+        return place;
+    }
+
+    private static String tableOf(String url) {
+        int queryStart = url.indexOf('?');
+        String path = queryStart >= 0 ? url.substring(0, queryStart) : url;
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Issued vs coalesced Supabase requests, overall and per table
+     */
+    public Map<String, Object> getRequestMetrics() {
+        long totalIssued = 0;
+        long totalCoalesced = 0;
+        Map<String, Object> tables = new TreeMap<>();
+        for (Map.Entry<String, SingleFlight<String, Object>> entry : requestGroups.entrySet()) {
+            SingleFlight<String, Object> group = entry.getValue();
+            Map<String, Object> tableMetrics = new LinkedHashMap<>();
+            tableMetrics.put("issued", group.getIssuedCount());
+            tableMetrics.put("coalesced", group.getCoalescedCount());
+            tableMetrics.put("inFlight", group.getInFlightCount());
+            tables.put(entry.getKey(), tableMetrics);
+            totalIssued += group.getIssuedCount();
+            totalCoalesced += group.getCoalescedCount();
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("issued", totalIssued);
+        metrics.put("coalesced", totalCoalesced);
+        metrics.put("tables", tables);
+        synchronized (compiledSampleConfigs) {
+            metrics.put("compiledSampleConfigs", compiledSampleConfigs.size());
+        }
+        metrics.put("fleetSource", fileFleet != null ? "file:" + fileFleet.getSource() : "supabase");
+        SyntheticPopulation synthetic = syntheticPopulation;
+        if (synthetic != null) {
+            metrics.put("syntheticPersons", synthetic.getPersonCount());
+        }
+        return metrics;
+    }
+
+    /**
+     * Serve the IDs of a synthetic population from now on, replacing any earlier one
+     */
+    public void setSyntheticPopulation(SyntheticPopulation population) {
+        syntheticPopulation = population;
+    }
+
+    public SyntheticPopulation getSyntheticPopulation() {
+        return syntheticPopulation;
+    }
+
+    @Override
     public List<Device> getDevicesByElderlyPersonId(String profileId) {
+        SyntheticPopulation synthetic = syntheticPopulation;
+        if (synthetic != null && synthetic.owns(profileId)) {
+            return synthetic.getDevicesByElderlyPersonId(profileId);
+        }
+        if (fileFleet != null) {
+            return fileFleet.getDevicesByElderlyPersonId(profileId);
+        }
         try {
             // The profileId parameter is the user's auth ID (profiles.id = auth.users.id)
             // Two-step lookup process:
@@ -55,211 +286,129 @@ public class SimulatorService {
             // Step 2: If that fails (no elderly_persons data), fall back to using profileId directly
             //         as elderly_person_id (for systems that don't use elderly_persons table)
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("apikey", supabaseApiKey);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
             // Step 1: Try to query elderly_persons table to get the elderly_person_id
-            String elderlyPersonUrl = elderlyPersonsUrl + "?user_id=eq." + profileId;
-            System.out.println("Attempting to find elderly person for user ID: " + profileId);
-
-            ResponseEntity<String> elderlyPersonResponse = restTemplate.exchange(elderlyPersonUrl, HttpMethod.GET, entity, String.class);
-            JsonNode elderlyPersonArray = objectMapper.readTree(elderlyPersonResponse.getBody());
-
-            String elderlyPersonId;
-            if (elderlyPersonArray.size() > 0) {
-                // Extract the elderly_person_id from the first (and should be only) result
-                elderlyPersonId = elderlyPersonArray.get(0).get("id").asText();
-                System.out.println("Found elderly person ID: " + elderlyPersonId + " for user ID: " + profileId);
-            } else {
-                // Fallback: Use profileId directly as elderly_person_id
-                // (This handles systems where profiles are used as elderly persons directly)
-                elderlyPersonId = profileId;
-                System.out.println("No elderly person record found. Using profile ID directly as elderly_person_id: " + profileId);
-            }
+            String elderlyPersonId = resolveElderlyPersonId(profileId);
 
             // Step 2: Now query devices using the elderly_person_id
             String devicesQueryUrl = devicesUrl + "?elderly_person_id=eq." + elderlyPersonId;
-            System.out.println("Querying devices with URL: " + devicesQueryUrl);
 
-            ResponseEntity<String> devicesResponse = restTemplate.exchange(devicesQueryUrl, HttpMethod.GET, entity, String.class);
-            JsonNode jsonArray = objectMapper.readTree(devicesResponse.getBody());
+            List<DeviceRow> deviceRows = fetch(devicesQueryUrl, deviceRowsReader);
 
             // Fetch device types for description mapping
             String allDeviceTypesUrl = deviceTypesUrl + "?select=code,name,description";
-            ResponseEntity<String> deviceTypesResponse = restTemplate.exchange(allDeviceTypesUrl, HttpMethod.GET, entity, String.class);
-            JsonNode deviceTypesArray = objectMapper.readTree(deviceTypesResponse.getBody());
+            List<DeviceTypeRow> deviceTypeRows = fetch(allDeviceTypesUrl, deviceTypeRowsReader);
 
             Map<String, String> deviceTypeDescriptions = new HashMap<>();
-            for (JsonNode typeNode : deviceTypesArray) {
-                String code = typeNode.get("code").asText();
-                String description = typeNode.has("description") && !typeNode.get("description").isNull()
-                    ? typeNode.get("description").asText()
-                    : "";
-                deviceTypeDescriptions.put(code, description);
+            for (DeviceTypeRow typeRow : deviceTypeRows) {
+                deviceTypeDescriptions.put(typeRow.code, typeRow.description != null ? typeRow.description : "");
             }
 
             List<Device> devices = new ArrayList<>();
-            for (JsonNode deviceNode : jsonArray) {
-                String deviceTypeCode = deviceNode.has("device_type") && !deviceNode.get("device_type").isNull()
-                    ? deviceNode.get("device_type").asText()
-                    : "";
-                String description = deviceTypeDescriptions.getOrDefault(deviceTypeCode, "");
-
-                Device device = new Device(
-                    deviceNode.get("id").asText(),
-                    deviceNode.get("elderly_person_id").asText(),
-                    deviceNode.get("device_name").asText(),
-                    deviceNode.get("device_id").asText(),
-                    deviceNode.get("api_key").asText(),
-                    deviceTypeCode,
-                    description
-                );
-
-                // Set location if available
-                if (deviceNode.has("location") && !deviceNode.get("location").isNull()) {
-                    device.setLocation(deviceNode.get("location").asText());
-                }
-
-                devices.add(device);
+            for (DeviceRow deviceRow : deviceRows) {
+                String deviceTypeCode = deviceRow.deviceType != null ? deviceRow.deviceType : "";
+                devices.add(toDevice(deviceRow, deviceTypeDescriptions.getOrDefault(deviceTypeCode, "")));
             }
 
             // Log results for debugging
-            if (devices.isEmpty()) {
-                System.out.println("No devices found for elderly person ID: " + elderlyPersonId);
-            } else {
-                System.out.println("Found " + devices.size() + " devices for elderly person ID: " + elderlyPersonId);
+            if (eventLog.shouldLog(EventCategory.SUPABASE)) {
+                eventLog.log(EventCategory.SUPABASE, "devices_loaded",
+                    "elderlyPersonId", elderlyPersonId, "count", devices.size());
             }
 
             return devices;
         } catch (Exception e) {
-            System.err.println("Error fetching devices from Supabase: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching devices from Supabase: {}", e.getMessage(), e);
             return new ArrayList<>();
         }
     }
 
+    @Override
     public List<DataTypeConfig> getDataTypesByDeviceId(String deviceId) {
+        SyntheticPopulation synthetic = syntheticPopulation;
+        if (synthetic != null && synthetic.owns(deviceId)) {
+            return synthetic.getDataTypesByDeviceId(deviceId);
+        }
+        if (fileFleet != null) {
+            return fileFleet.getDataTypesByDeviceId(deviceId);
+        }
         try {
             // Step 1: Get device to find its device_type code
             String deviceUrl = devicesUrl + "?id=eq." + deviceId + "&select=device_type";
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("apikey", supabaseApiKey);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> deviceResponse = restTemplate.exchange(deviceUrl, HttpMethod.GET, entity, String.class);
-            JsonNode deviceArray = objectMapper.readTree(deviceResponse.getBody());
+            List<DeviceRow> deviceRows = fetch(deviceUrl, deviceRowsReader);
 
-            if (deviceArray.size() == 0) {
-                System.out.println("Device not found with ID: " + deviceId);
+            if (deviceRows.isEmpty()) {
+                logger.warn("Device not found with ID: {}", deviceId);
                 return new ArrayList<>();
             }
 
             // Extract device_type code from the device
-            String deviceTypeCode = deviceArray.get(0).get("device_type").asText();
-            System.out.println("Device type code for device " + deviceId + ": " + deviceTypeCode);
+            String deviceTypeCode = deviceRows.get(0).deviceType;
 
             // Step 2: Query device_types table to get the UUID id and data_frequency_per_day
             String deviceTypeUrl = deviceTypesUrl + "?code=eq." + deviceTypeCode + "&select=id,data_frequency_per_day";
-            ResponseEntity<String> deviceTypeResponse = restTemplate.exchange(deviceTypeUrl, HttpMethod.GET, entity, String.class);
-            JsonNode deviceTypeArray = objectMapper.readTree(deviceTypeResponse.getBody());
+            List<DeviceTypeRow> deviceTypeRows = fetch(deviceTypeUrl, deviceTypeRowsReader);
 
-            if (deviceTypeArray.size() == 0) {
-                System.out.println("Device type not found with code: " + deviceTypeCode);
+            if (deviceTypeRows.isEmpty()) {
+                logger.warn("Device type not found with code: {}", deviceTypeCode);
                 return new ArrayList<>();
             }
 
             // Extract device_type_id and data_frequency_per_day
-            String deviceTypeId = deviceTypeArray.get(0).get("id").asText();
-            int frequencyPerDay = deviceTypeArray.get(0).has("data_frequency_per_day") && !deviceTypeArray.get(0).get("data_frequency_per_day").isNull()
-                    ? deviceTypeArray.get(0).get("data_frequency_per_day").asInt()
+            String deviceTypeId = deviceTypeRows.get(0).id;
+            int frequencyPerDay = deviceTypeRows.get(0).dataFrequencyPerDay != null
+                    ? deviceTypeRows.get(0).dataFrequencyPerDay
                     : 4; // Default fallback value if not found
-            System.out.println("Device type ID for code " + deviceTypeCode + ": " + deviceTypeId + ", Frequency: " + frequencyPerDay + " per day");
 
             // Step 3: Query device_type_data_configs for this device_type_id
             String configUrl = deviceTypeDataConfigsUrl + "?device_type_id=eq." + deviceTypeId + "&order=sort_order";
-            ResponseEntity<String> configResponse = restTemplate.exchange(configUrl, HttpMethod.GET, entity, String.class);
-            JsonNode configArray = objectMapper.readTree(configResponse.getBody());
+            List<DataTypeConfigRow> configRows = fetch(configUrl, dataTypeConfigRowsReader);
 
             List<DataTypeConfig> dataTypeConfigs = new ArrayList<>();
-            for (JsonNode configNode : configArray) {
-                String dataType = configNode.get("data_type").asText();
-                String displayName = configNode.get("display_name").asText();
-                String unit = configNode.has("unit") && !configNode.get("unit").isNull() ? configNode.get("unit").asText() : "";
-                String valueType = configNode.get("value_type").asText();
-
-                // Parse sample_data_config to determine config type (range or enum)
-                JsonNode sampleConfig = configNode.get("sample_data_config");
-                String configType = "range";
-                Map<String, Object> config = new HashMap<>();
-
-                if (sampleConfig != null && !sampleConfig.isNull()) {
-                    // Check if it's already a JSON object or a string
-                    JsonNode parsedSample;
-                    if (sampleConfig.isTextual()) {
-                        // It's a string, parse it
-                        String sampleStr = sampleConfig.asText();
-                        parsedSample = objectMapper.readTree(sampleStr);
-                    } else {
-                        // It's already a JSON object
-                        parsedSample = sampleConfig;
-                    }
-                    System.out.println("📝 Parsing sample_data_config for " + dataType + ": " + parsedSample);
-
-                    // Determine if it's range or enum based on sample_data_config content
-                    if (parsedSample.has("type")) {
-                        String type = parsedSample.get("type").asText();
-                        if ("enum".equals(type)) {
-                            configType = "enum";
-                            if (parsedSample.has("values")) {
-                                config.put("values", objectMapper.convertValue(parsedSample.get("values"), List.class));
-                            }
-                        } else if ("boolean".equals(type)) {
-                            configType = "enum";
-                            config.put("values", List.of(true, false));
-                        } else if ("random_number".equals(type)) {
-                            configType = "range";
-                            if (parsedSample.has("min")) config.put("min", parsedSample.get("min").asDouble());
-                            if (parsedSample.has("max")) config.put("max", parsedSample.get("max").asDouble());
-                            if (parsedSample.has("precision")) config.put("precision", parsedSample.get("precision").asInt());
-                            System.out.println("📊 Parsed random_number config for " + dataType + ": " + config);
-                        } else if ("blood_pressure".equals(type)) {
-                            configType = "range";
-                            if (parsedSample.has("systolic")) {
-                                config.put("systolic_min", parsedSample.get("systolic").get("min").asInt());
-                                config.put("systolic_max", parsedSample.get("systolic").get("max").asInt());
-                            }
-                            if (parsedSample.has("diastolic")) {
-                                config.put("diastolic_min", parsedSample.get("diastolic").get("min").asInt());
-                                config.put("diastolic_max", parsedSample.get("diastolic").get("max").asInt());
-                            }
-                        } else if ("gps".equals(type)) {
-                            // Special handling for GPS location data
-                            configType = "range";
-                            config.put("type", "gps");
-                            if (parsedSample.has("latitude")) {
-                                config.put("latitude", objectMapper.convertValue(parsedSample.get("latitude"), Map.class));
-                            }
-                            if (parsedSample.has("longitude")) {
-                                config.put("longitude", objectMapper.convertValue(parsedSample.get("longitude"), Map.class));
-                            }
-                        }
-                    }
-                }
+            for (DataTypeConfigRow configRow : configRows) {
+                String unit = configRow.unit != null ? configRow.unit : "";
+
+                // sample_data_config determines the config type (range or enum); compiled once per distinct value
+                CompiledSampleConfig compiled = compileSampleConfig(configRow.dataType, configRow.sampleDataConfig);
 
-                DataTypeConfig dtConfig = new DataTypeConfig(dataType, displayName, unit, valueType, configType, config, frequencyPerDay);
+                DataTypeConfig dtConfig = new DataTypeConfig(configRow.dataType, configRow.displayName, unit, configRow.valueType,
+                        compiled.getConfigType(), compiled.getConfig(), frequencyPerDay);
                 dataTypeConfigs.add(dtConfig);
             }
 
-            System.out.println("Found " + dataTypeConfigs.size() + " data type configs for device type " + deviceTypeCode);
+            if (eventLog.shouldLog(EventCategory.SUPABASE)) {
+                eventLog.log(EventCategory.SUPABASE, "data_type_configs_loaded",
+                    "deviceId", deviceId, "deviceType", deviceTypeCode, "deviceTypeId", deviceTypeId,
+                    "frequencyPerDay", frequencyPerDay, "count", dataTypeConfigs.size());
+            }
             return dataTypeConfigs;
         } catch (Exception e) {
-            System.err.println("Error fetching data type configs from Supabase: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching data type configs from Supabase: {}", e.getMessage(), e);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Get a single device by its Supabase ID, or null if it does not exist
+     */
+    @Override
+    public Device getDeviceById(String deviceId) throws Exception {
+        SyntheticPopulation synthetic = syntheticPopulation;
+        if (synthetic != null && synthetic.owns(deviceId)) {
+            return synthetic.getDeviceById(deviceId);
+        }
+        if (fileFleet != null) {
+            return fileFleet.getDeviceById(deviceId);
+        }
+        List<DeviceRow> deviceRows = fetch(devicesUrl + "?id=eq." + deviceId, deviceRowsReader);
+
+        if (deviceRows.isEmpty()) {
+            return null;
+        }
+
+        DeviceRow deviceRow = deviceRows.get(0);
+        return toDevice(deviceRow, deviceRow.description != null ? deviceRow.description : "");
+    }
+
     // Getter methods for use by other services
     public String getDevicesUrl() {
         return devicesUrl;
@@ -273,65 +422,37 @@ public class SimulatorService {
      * Fetch geofence places for an elderly person
      * The profileId parameter might be a user_id, so we need to look up the actual elderly_person_id
      */
+    @Override
     public List<GeofencePlace> getGeofencePlacesByElderlyPersonId(String profileId) {
+        SyntheticPopulation synthetic = syntheticPopulation;
+        if (synthetic != null && synthetic.owns(profileId)) {
+            return synthetic.getGeofencePlacesByElderlyPersonId(profileId);
+        }
+        if (fileFleet != null) {
+            return fileFleet.getGeofencePlacesByElderlyPersonId(profileId);
+        }
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("apikey", supabaseApiKey);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
             // Step 1: Try to find the elderly_person_id from elderly_persons table
             //         where elderly_persons.user_id = profileId
-            String elderlyPersonUrl = elderlyPersonsUrl + "?user_id=eq." + profileId;
-            System.out.println("Looking up elderly person for user ID: " + profileId);
-
-            ResponseEntity<String> elderlyPersonResponse = restTemplate.exchange(elderlyPersonUrl, HttpMethod.GET, entity, String.class);
-            JsonNode elderlyPersonArray = objectMapper.readTree(elderlyPersonResponse.getBody());
-
-            String elderlyPersonId;
-            if (elderlyPersonArray.size() > 0) {
-                // Found the elderly person record - use the actual elderly_person_id
-                elderlyPersonId = elderlyPersonArray.get(0).get("id").asText();
-                System.out.println("✓ Found elderly person ID: " + elderlyPersonId + " for user ID: " + profileId);
-            } else {
-                // No elderly_persons record found - fallback to using profileId directly
-                elderlyPersonId = profileId;
-                System.out.println("⚠️  No elderly person record found. Using profile ID directly: " + profileId);
-            }
+            String elderlyPersonId = resolveElderlyPersonId(profileId);
 
             // Step 2: Now query geofence_places using the elderly_person_id
             String placesQueryUrl = geofencePlacesUrl + "?elderly_person_id=eq." + elderlyPersonId + "&is_active=eq.true";
-            System.out.println("Fetching geofence places from: " + placesQueryUrl);
-
-            ResponseEntity<String> response = restTemplate.exchange(placesQueryUrl, HttpMethod.GET, entity, String.class);
-            JsonNode jsonArray = objectMapper.readTree(response.getBody());
-
-            List<GeofencePlace> places = new ArrayList<>();
-            for (JsonNode placeNode : jsonArray) {
-                GeofencePlace place = new GeofencePlace(
-                    placeNode.get("id").asText(),
-                    placeNode.get("elderly_person_id").asText(),
-                    placeNode.get("name").asText(),
-                    placeNode.get("place_type").asText(),
-                    placeNode.get("latitude").asDouble(),
-                    placeNode.get("longitude").asDouble(),
-                    placeNode.get("radius_meters").asInt()
-                );
-
-                if (placeNode.has("address") && !placeNode.get("address").isNull()) {
-                    place.setAddress(placeNode.get("address").asText());
-                }
-                if (placeNode.has("color") && !placeNode.get("color").isNull()) {
-                    place.setColor(placeNode.get("color").asText());
-                }
-
-                places.add(place);
+
+            List<GeofencePlaceRow> placeRows = fetch(placesQueryUrl, geofencePlaceRowsReader);
+
+            List<GeofencePlace> places = new ArrayList<>(placeRows.size());
+            for (GeofencePlaceRow placeRow : placeRows) {
+                places.add(toGeofencePlace(placeRow));
             }
 
-            System.out.println("✓ Found " + places.size() + " geofence places for elderly person: " + elderlyPersonId);
+            if (eventLog.shouldLog(EventCategory.SUPABASE)) {
+                eventLog.log(EventCategory.SUPABASE, "geofence_places_loaded",
+                    "elderlyPersonId", elderlyPersonId, "count", places.size());
+            }
             return places;
         } catch (Exception e) {
-            System.err.println("Error fetching geofence places from Supabase: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching geofence places from Supabase: {}", e.getMessage(), e);
             return new ArrayList<>();
         }
     }
@@ -0,0 +1,67 @@
+package com.example.iotsimulatorbackend.service;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent calls for the same key into a single in-flight load.
+ * The first caller for a key performs the load; callers arriving while it is
+ * still running wait for and share its result (or its exception).
+ * Nothing is cached once the load completes.
+ */
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong issued = new AtomicLong(0);
+    private final AtomicLong coalesced = new AtomicLong(0);
+
+    public V execute(K key, Callable<V> loader) throws Exception {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        issued.incrementAndGet();
+        try {
+            V value = loader.call();
+            call.complete(value);
+            return value;
+        } catch (Throwable t) {
+            // Errors too: callers already waiting would otherwise block forever
+            call.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(CompletableFuture<V> call) throws Exception {
+        try {
+            return call.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Number of loads actually performed */
+    public long getIssuedCount() { return issued.get(); }
+
+    /** Number of calls that shared another caller's in-flight load */
+    public long getCoalescedCount() { return coalesced.get(); }
+
+    /** Number of loads currently running */
+    public int getInFlightCount() { return inFlight.size(); }
+}
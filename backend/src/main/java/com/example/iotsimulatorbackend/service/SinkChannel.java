@@ -0,0 +1,187 @@
+package com.example.iotsimulatorbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One sink behind its own bounded queue and writer thread, with counters.
+ *
+ * offer() never blocks: when the writer falls behind and the queue is full, the record is
+ * dropped and counted. The writer drains the queue in batches and flushes the sink after
+ * each one. Used for device-ingest capture sinks and the geofence event file.
+ */
+final class SinkChannel<T> {
+    private static final Logger logger = LoggerFactory.getLogger(SinkChannel.class);
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    /**
+     * Where a channel's records go. Only the channel's writer thread calls write() and flush(),
+     * and close() once that thread is done.
+     */
+    interface Sink<T> {
+
+        String getName();
+
+        void write(T record) throws IOException;
+
+        /**
+         * Called after each drained batch
+         */
+        default void flush() throws IOException {}
+
+        default void close() {}
+
+        /**
+         * Bytes a record adds to the written total; 0 if the sink does not measure them
+         */
+        default int sizeOf(T record) {
+            return 0;
+        }
+    }
+
+    private final Sink<T> sink;
+    private final String threadName;
+    private final BlockingQueue<T> queue;
+    private final LongAdder offered = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writtenBytes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile String lastError;
+    private volatile boolean running;
+    private Thread writer;
+
+    SinkChannel(Sink<T> sink, int queueSize, String threadName) {
+        this.sink = sink;
+        this.threadName = threadName;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+    }
+
+    Sink<T> getSink() {
+        return sink;
+    }
+
+    void start() {
+        running = true;
+        writer = new Thread(this::drain, threadName);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue a record for the writer, or drop it if the queue is full. Never blocks.
+     */
+    void offer(T record) {
+        offered.increment();
+        if (!queue.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Stop the writer, write out what is still queued and close the sink
+     */
+    void stop() {
+        // No interrupt: it would close the sink under a write in progress
+        running = false;
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            // Stuck in a write; leave the sink to it rather than write concurrently
+            return;
+        }
+        List<T> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        writeAll(remaining);
+        sink.close();
+    }
+
+    private void drain() {
+        List<T> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        while (running) {
+            try {
+                T first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+                writeAll(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void writeAll(List<T> batch) {
+        for (T record : batch) {
+            try {
+                sink.write(record);
+                written.increment();
+                writtenBytes.add(sink.sizeOf(record));
+            } catch (IOException e) {
+                recordFailure(e);
+            }
+        }
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    private void recordFailure(IOException e) {
+        failed.increment();
+        if (lastError == null) {
+            logger.warn("⚠️  {} failed to write: {}", threadName, e.getMessage());
+        }
+        lastError = e.getMessage();
+    }
+
+    long getWritten() {
+        return written.sum();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+
+    int getQueued() {
+        return queue.size();
+    }
+
+    String getLastError() {
+        return lastError;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("offered", offered.sum());
+        map.put("written", written.sum());
+        map.put("bytes", writtenBytes.sum());
+        map.put("dropped", dropped.sum());
+        map.put("failed", failed.sum());
+        map.put("queued", queue.size());
+        map.put("lastError", lastError);
+        return map;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.iotsimulatorbackend.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How the first reading of a stream is placed within its interval.
+ * Spreading first readings over the interval keeps streams that start together
+ * (one simulation, or many started in bulk) from firing in the same instant forever after.
+ */
+public enum StreamPhasePolicy {
+    NONE("none"),       // First reading immediately (every stream in phase)
+    HASH("hash"),       // Offset derived from the stream key; the same stream always gets the same phase
+    RANDOM("random");   // Uniformly random offset
+
+    private final String key;
+
+    StreamPhasePolicy(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Delay before the first reading, in [0, intervalMs)
+     */
+    public long initialDelayMs(String streamKey, long intervalMs) {
+        if (intervalMs <= 1) {
+            return 0;
+        }
+        switch (this) {
+            case HASH:
+                return Math.floorMod(mix(streamKey.hashCode()), intervalMs);
+            case RANDOM:
+                return ThreadLocalRandom.current().nextLong(intervalMs);
+            default:
+                return 0;
+        }
+    }
+
+    public static StreamPhasePolicy fromKey(String key) {
+        for (StreamPhasePolicy policy : values()) {
+            if (policy.key.equalsIgnoreCase(key)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    // murmur3 finalizer, so keys that differ in one character land far apart
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Typed rows for the Supabase REST tables the simulator reads.
+ * Responses are bound straight from the HTTP stream into these classes,
+ * so only the columns listed here are ever materialized. A local fleet file
+ * uses the same rows (see {@link FileFleetProvider}).
+ */
+final class SupabaseRows {
+
+    private SupabaseRows() {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class ElderlyPersonRow {
+        @JsonProperty("id") public String id;
+        @JsonProperty("user_id") public String userId;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class DeviceRow {
+        @JsonProperty("id") public String id;
+        @JsonProperty("elderly_person_id") public String elderlyPersonId;
+        @JsonProperty("device_name") public String deviceName;
+        @JsonProperty("device_id") public String deviceId;
+        @JsonProperty("api_key") public String apiKey;
+        @JsonProperty("device_type") public String deviceType;
+        @JsonProperty("description") public String description;
+        // Free text or a structured value such as {"lat": ..., "lon": ...}
+        @JsonProperty("location") public JsonNode location;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class DeviceTypeRow {
+        @JsonProperty("id") public String id;
+        @JsonProperty("code") public String code;
+        @JsonProperty("name") public String name;
+        @JsonProperty("description") public String description;
+        @JsonProperty("data_frequency_per_day") public Integer dataFrequencyPerDay;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class DataTypeConfigRow {
+        @JsonProperty("device_type_id") public String deviceTypeId;
+        @JsonProperty("sort_order") public Integer sortOrder;
+        @JsonProperty("data_type") public String dataType;
+        @JsonProperty("display_name") public String displayName;
+        @JsonProperty("unit") public String unit;
+        @JsonProperty("value_type") public String valueType;
+        // Stored either as a JSON object or as JSON text, so keep the small subtree as-is
+        @JsonProperty("sample_data_config") public JsonNode sampleDataConfig;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class GeofencePlaceRow {
+        @JsonProperty("id") public String id;
+        @JsonProperty("elderly_person_id") public String elderlyPersonId;
+        @JsonProperty("name") public String name;
+        @JsonProperty("place_type") public String placeType;
+        @JsonProperty("latitude") public double latitude;
+        @JsonProperty("longitude") public double longitude;
+        @JsonProperty("radius_meters") public int radiusMeters;
+        @JsonProperty("address") public String address;
+        @JsonProperty("color") public String color;
+        @JsonProperty("is_active") public Boolean isActive;
+    }
+}
@@ -0,0 +1,424 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DataTypeConfig;
+import com.example.iotsimulatorbackend.model.Device;
+import com.example.iotsimulatorbackend.model.GeofencePlace;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.*;
+
+/**
+ * Generated fleet of persons, devices, data type configs and geofences for scale tests.
+ *
+ * Nothing is stored per person: every lookup re-derives the person from the seed and
+ * the index encoded in the ID (home city, home position, device types, geofences), so
+ * a population of any size is created instantly, costs no memory and gives the same
+ * fleet for the same seed. Devices are drawn from a weighted catalog without repeats
+ * until every type is used, and geofences are placed within a few km of the person's
+ * home, which is itself scattered around one of the configured cities.
+ *
+ * IDs look like {@code syn-<seed>-p<person>}, {@code ...-d<device>} and {@code ...-g<place>}.
+ */
+public final class SyntheticPopulation implements FleetMetadataProvider {
+
+    public static final int MAX_DEVICES_PER_PERSON = 50;
+    public static final int MAX_GEOFENCES_PER_PERSON = 50;
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final double HOME_SPREAD_METERS = 8_000.0;       // Homes within this distance of the city centre
+    private static final double PLACE_MIN_METERS = 500.0;
+    private static final double PLACE_MAX_METERS = 5_000.0;
+    private static final double LOCATION_RANGE_DEGREES = 0.05;      // Fallback GPS range when a person has no geofences
+
+    private static final Map<String, double[]> BUILT_IN_CITIES = new LinkedHashMap<>();
+    static {
+        BUILT_IN_CITIES.put("warsaw", new double[] {52.2297, 21.0122});
+        BUILT_IN_CITIES.put("krakow", new double[] {50.0647, 19.9450});
+        BUILT_IN_CITIES.put("berlin", new double[] {52.5200, 13.4050});
+        BUILT_IN_CITIES.put("london", new double[] {51.5074, -0.1278});
+        BUILT_IN_CITIES.put("new_york", new double[] {40.7128, -74.0060});
+        BUILT_IN_CITIES.put("delhi", new double[] {28.6139, 77.2090});
+        BUILT_IN_CITIES.put("tokyo", new double[] {35.6762, 139.6503});
+        BUILT_IN_CITIES.put("sao_paulo", new double[] {-23.5505, -46.6333});
+    }
+
+    // Place types other than home, used in turn for a person's further geofences
+    private static final String[][] PLACES = {
+        {"hospital", "Hospital"},
+        {"relative", "Relative's House"},
+        {"park", "Park"},
+        {"other", "Pharmacy"},
+        {"work", "Day Centre"},
+        {"other", "Grocery Store"},
+    };
+
+    private static final DeviceType[] DEVICE_TYPES = {
+        new DeviceType("smartwatch", "Smart Watch", "Wrist-worn vital signs and activity tracker", 30, 288,
+            config("heart_rate", "Heart Rate", "bpm", "number", "{\"type\":\"random_number\",\"min\":60,\"max\":100}"),
+            config("oxygen_saturation", "Oxygen Saturation", "%", "number", "{\"type\":\"random_number\",\"min\":90,\"max\":100}"),
+            config("activity_level", "Activity Level", "%", "number", "{\"type\":\"random_number\",\"min\":0,\"max\":100}")),
+        new DeviceType("gps_tracker", "GPS Tracker", "Location tracker for geofence alerts", 15, 288,
+            config("location", "Location", "", "object", "{\"type\":\"gps\"}")),
+        new DeviceType("door_sensor", "Door Sensor", "Front door contact sensor", 15, 96,
+            config("door_status", "Door Status", "", "string", "{\"type\":\"enum\",\"values\":[\"open\",\"closed\"]}")),
+        new DeviceType("blood_pressure_monitor", "Blood Pressure Monitor", "Upper arm blood pressure cuff", 10, 4,
+            config("blood_pressure", "Blood Pressure", "mmHg", "object",
+                "{\"type\":\"blood_pressure\",\"systolic\":{\"min\":100,\"max\":145},\"diastolic\":{\"min\":60,\"max\":90}}")),
+        new DeviceType("thermometer", "Thermometer", "Body temperature sensor", 10, 6,
+            config("temperature", "Temperature", "°C", "number", "{\"type\":\"random_number\",\"min\":36,\"max\":38.5,\"precision\":1}")),
+        new DeviceType("bed_sensor", "Bed Sensor", "Bed occupancy and sleep sensor", 10, 48,
+            config("bed_occupancy", "Bed Occupancy", "", "string", "{\"type\":\"enum\",\"values\":[\"occupied\",\"vacant\"]}"),
+            config("sleep_duration", "Sleep Duration", "min", "number", "{\"type\":\"random_number\",\"min\":0,\"max\":600}")),
+        new DeviceType("motion_sensor", "Motion Sensor", "Room presence and movement sensor", 5, 96,
+            config("presence", "Presence", "", "boolean", "{\"type\":\"boolean\"}"),
+            config("movement", "Movement", "%", "number", "{\"type\":\"random_number\",\"min\":0,\"max\":100}")),
+        new DeviceType("smart_scale", "Smart Scale", "Bathroom scale with BMI", 5, 1,
+            config("bmi", "BMI", "kg/m²", "number", "{\"type\":\"random_number\",\"min\":18.5,\"max\":30,\"precision\":1}")),
+    };
+
+    private final int persons;
+    private final int devicesPerPerson;
+    private final int geofencesPerPerson;
+    private final long seed;
+    private final List<String> cityNames = new ArrayList<>();
+    private final double[][] cities;
+    private final String prefix;
+
+    /**
+     * @param cities built-in city names (see {@link #builtInCities()}) or "lat,lng" pairs; empty uses all built-in cities
+     * @throws IllegalArgumentException for out-of-range sizes or unknown cities
+     */
+    public SyntheticPopulation(int persons, int devicesPerPerson, int geofencesPerPerson, long seed, List<String> cities) {
+        if (persons < 1) {
+            throw new IllegalArgumentException("persons must be at least 1");
+        }
+        if (devicesPerPerson < 1 || devicesPerPerson > MAX_DEVICES_PER_PERSON) {
+            throw new IllegalArgumentException("devicesPerPerson must be between 1 and " + MAX_DEVICES_PER_PERSON);
+        }
+        if (geofencesPerPerson < 0 || geofencesPerPerson > MAX_GEOFENCES_PER_PERSON) {
+            throw new IllegalArgumentException("geofencesPerPerson must be between 0 and " + MAX_GEOFENCES_PER_PERSON);
+        }
+        this.persons = persons;
+        this.devicesPerPerson = devicesPerPerson;
+        this.geofencesPerPerson = geofencesPerPerson;
+        this.seed = seed;
+        this.prefix = "syn-" + Long.toString(seed, 36).replace('-', 'n') + "-p";
+
+        List<double[]> resolved = new ArrayList<>();
+        if (cities == null || cities.isEmpty()) {
+            cityNames.addAll(BUILT_IN_CITIES.keySet());
+            resolved.addAll(BUILT_IN_CITIES.values());
+        } else {
+            for (String city : cities) {
+                resolved.add(resolveCity(city));
+                cityNames.add(city.trim());
+            }
+        }
+        this.cities = resolved.toArray(new double[0][]);
+    }
+
+    public static Set<String> builtInCities() {
+        return Collections.unmodifiableSet(BUILT_IN_CITIES.keySet());
+    }
+
+    private static double[] resolveCity(String city) {
+        String name = city != null ? city.trim() : "";
+        double[] builtIn = BUILT_IN_CITIES.get(name.toLowerCase());
+        if (builtIn != null) {
+            return builtIn;
+        }
+        String[] parts = name.split(",");
+        if (parts.length == 2) {
+            try {
+                double lat = Double.parseDouble(parts[0].trim());
+                double lng = Double.parseDouble(parts[1].trim());
+                if (lat >= -85 && lat <= 85 && lng >= -180 && lng <= 180) {
+                    return new double[] {lat, lng};
+                }
+            } catch (NumberFormatException ignored) {
+                // Reported below
+            }
+        }
+        throw new IllegalArgumentException("Unknown city '" + city + "'; use one of " + BUILT_IN_CITIES.keySet()
+                + " or \"lat,lng\"");
+    }
+
+    // ---- Population ----
+
+    public int getPersonCount() { return persons; }
+    public int getDevicesPerPerson() { return devicesPerPerson; }
+    public int getGeofencesPerPerson() { return geofencesPerPerson; }
+    public long getSeed() { return seed; }
+
+    /**
+     * Elderly person ID of the person at {@code index} (0 to persons - 1)
+     */
+    public String getPersonId(int index) {
+        return prefix + index;
+    }
+
+    /**
+     * Whether an elderly person, device or geofence ID belongs to this population
+     */
+    public boolean owns(String id) {
+        return id != null && id.startsWith(prefix);
+    }
+
+    /**
+     * Sizes and the actual device type mix, which walks every person once
+     */
+    public Map<String, Object> getSummary() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        int[] counts = new int[DEVICE_TYPES.length];
+        for (int p = 0; p < persons; p++) {
+            for (int type : person(p).deviceTypes) {
+                counts[type]++;
+            }
+        }
+        for (int t = 0; t < DEVICE_TYPES.length; t++) {
+            mix.put(DEVICE_TYPES[t].code, counts[t]);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("seed", seed);
+        summary.put("persons", persons);
+        summary.put("devices", (long) persons * devicesPerPerson);
+        summary.put("geofencePlaces", (long) persons * geofencesPerPerson);
+        summary.put("cities", cityNames);
+        summary.put("firstPersonId", getPersonId(0));
+        summary.put("lastPersonId", getPersonId(persons - 1));
+        summary.put("deviceTypeMix", mix);
+        return summary;
+    }
+
+    // ---- FleetMetadataProvider ----
+
+    @Override
+    public List<Device> getDevicesByElderlyPersonId(String profileId) {
+        int p = personIndex(profileId);
+        if (p < 0 || !profileId.equals(getPersonId(p))) {
+            return new ArrayList<>();
+        }
+        Person person = person(p);
+        List<Device> devices = new ArrayList<>(devicesPerPerson);
+        for (int d = 0; d < devicesPerPerson; d++) {
+            devices.add(toDevice(person, d));
+        }
+        return devices;
+    }
+
+    @Override
+    public List<DataTypeConfig> getDataTypesByDeviceId(String deviceId) {
+        int[] index = childIndex(deviceId, "-d", devicesPerPerson);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+        Person person = person(index[0]);
+        DeviceType type = DEVICE_TYPES[person.deviceTypes[index[1]]];
+        // Fresh configs on every call, as callers may adjust them
+        List<DataTypeConfig> configs = new ArrayList<>(type.configs.size());
+        for (DataTypeConfig template : type.configs) {
+            Map<String, Object> config = "location".equals(template.getDataType())
+                    ? locationConfig(person)
+                    : template.getConfig();
+            configs.add(new DataTypeConfig(template.getDataType(), template.getDisplayName(), template.getUnit(),
+                    template.getValueType(), template.getConfigType(), config, type.frequencyPerDay));
+        }
+        return configs;
+    }
+
+    @Override
+    public Device getDeviceById(String deviceId) {
+        int[] index = childIndex(deviceId, "-d", devicesPerPerson);
+        return index != null ? toDevice(person(index[0]), index[1]) : null;
+    }
+
+    @Override
+    public List<GeofencePlace> getGeofencePlacesByElderlyPersonId(String profileId) {
+        int p = personIndex(profileId);
+        if (p < 0 || !profileId.equals(getPersonId(p))) {
+            return new ArrayList<>();
+        }
+        Person person = person(p);
+        SplittableRandom random = person.placeRandom;
+        String personId = person.id;
+        List<GeofencePlace> places = new ArrayList<>(geofencesPerPerson);
+        for (int g = 0; g < geofencesPerPerson; g++) {
+            GeofencePlace place;
+            if (g == 0) {
+                place = new GeofencePlace(personId + "-g0", personId, "Home", "home",
+                        round6(person.homeLat), round6(person.homeLng), 100);
+            } else {
+                String[] kind = PLACES[(g - 1) % PLACES.length];
+                double[] position = offset(person.homeLat, person.homeLng, random,
+                        PLACE_MIN_METERS, PLACE_MAX_METERS);
+                String name = g - 1 < PLACES.length ? kind[1] : kind[1] + " " + (1 + (g - 1) / PLACES.length);
+                place = new GeofencePlace(personId + "-g" + g, personId, name, kind[0],
+                        round6(position[0]), round6(position[1]), 50 + random.nextInt(251));
+            }
+            place.setAddress("Synthetic " + cityNames.get(person.city));
+            places.add(place);
+        }
+        return places;
+    }
+
+    // ---- Derivation ----
+
+    /**
+     * Person {@code p} drawn from its own stream of the seed: city, home, then device types.
+     * Geofences draw from the same stream afterwards, so they never shift the device types.
+     */
+    private Person person(int p) {
+        SplittableRandom random = new SplittableRandom(seed ^ (p * 0x9E3779B97F4A7C15L));
+        int city = random.nextInt(cities.length);
+        double[] home = offset(cities[city][0], cities[city][1], random, 0, HOME_SPREAD_METERS);
+
+        int[] deviceTypes = new int[devicesPerPerson];
+        boolean[] used = new boolean[DEVICE_TYPES.length];
+        int usedCount = 0;
+        for (int d = 0; d < devicesPerPerson; d++) {
+            if (usedCount == DEVICE_TYPES.length) {
+                Arrays.fill(used, false);
+                usedCount = 0;
+            }
+            int type = drawDeviceType(random, used);
+            used[type] = true;
+            usedCount++;
+            deviceTypes[d] = type;
+        }
+        return new Person(p, getPersonId(p), city, home[0], home[1], deviceTypes, random);
+    }
+
+    // Weighted draw among the device types not yet used by this person
+    private static int drawDeviceType(SplittableRandom random, boolean[] used) {
+        int total = 0;
+        for (int t = 0; t < DEVICE_TYPES.length; t++) {
+            if (!used[t]) {
+                total += DEVICE_TYPES[t].weight;
+            }
+        }
+        int pick = random.nextInt(total);
+        for (int t = 0; t < DEVICE_TYPES.length; t++) {
+            if (!used[t]) {
+                pick -= DEVICE_TYPES[t].weight;
+                if (pick < 0) {
+                    return t;
+                }
+            }
+        }
+        throw new IllegalStateException("Device type weights exhausted");
+    }
+
+    // Uniformly distributed point in a ring of minMeters..maxMeters around (lat, lng)
+    private static double[] offset(double lat, double lng, SplittableRandom random, double minMeters, double maxMeters) {
+        double bearing = random.nextDouble() * 2 * Math.PI;
+        double u = random.nextDouble();
+        double distance = Math.sqrt(minMeters * minMeters + u * (maxMeters * maxMeters - minMeters * minMeters));
+        double dLat = distance * Math.cos(bearing) / METERS_PER_DEGREE;
+        double dLng = distance * Math.sin(bearing) / (METERS_PER_DEGREE * Math.cos(Math.toRadians(lat)));
+        return new double[] {lat + dLat, lng + dLng};
+    }
+
+    private Device toDevice(Person person, int d) {
+        DeviceType type = DEVICE_TYPES[person.deviceTypes[d]];
+        String id = person.id + "-d" + d;
+        Device device = new Device(id, person.id, type.name + " " + (d + 1), "SYN-" + person.index + "-" + d,
+                "syn-key-" + Long.toHexString(seed ^ id.hashCode()), type.code, type.description);
+        device.setLocation(cityNames.get(person.city));
+        return device;
+    }
+
+    private static Map<String, Object> locationConfig(Person person) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("type", "gps");
+        config.put("latitude", Map.of("min", person.homeLat - LOCATION_RANGE_DEGREES, "max", person.homeLat + LOCATION_RANGE_DEGREES));
+        config.put("longitude", Map.of("min", person.homeLng - LOCATION_RANGE_DEGREES, "max", person.homeLng + LOCATION_RANGE_DEGREES));
+        return Collections.unmodifiableMap(config);
+    }
+
+    private int personIndex(String id) {
+        if (!owns(id)) {
+            return -1;
+        }
+        int end = prefix.length();
+        while (end < id.length() && Character.isDigit(id.charAt(end))) {
+            end++;
+        }
+        if (end == prefix.length() || end - prefix.length() > 9) {
+            return -1;
+        }
+        int p = Integer.parseInt(id.substring(prefix.length(), end));
+        return p < persons ? p : -1;
+    }
+
+    // Person and child index of "<person ID><marker><child>", or null if the ID isn't one
+    private int[] childIndex(String id, String marker, int children) {
+        int p = personIndex(id);
+        if (p < 0) {
+            return null;
+        }
+        int at = getPersonId(p).length();
+        if (!id.startsWith(marker, at)) {
+            return null;
+        }
+        String child = id.substring(at + marker.length());
+        if (child.isEmpty() || child.length() > 3 || !child.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        int c = Integer.parseInt(child);
+        return c < children && Integer.toString(c).equals(child) ? new int[] {p, c} : null;
+    }
+
+    private static double round6(double value) {
+        return Math.round(value * 1e6) / 1e6;
+    }
+
+    private static DataTypeConfig config(String dataType, String displayName, String unit, String valueType, String sampleConfig) {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            CompiledSampleConfig compiled = CompiledSampleConfig.compile(mapper.readTree(sampleConfig), mapper);
+            return new DataTypeConfig(dataType, displayName, unit, valueType, compiled.getConfigType(), compiled.getConfig());
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid built-in sample config for " + dataType, e);
+        }
+    }
+
+    private static final class Person {
+        final int index;
+        final String id;
+        final int city;
+        final double homeLat;
+        final double homeLng;
+        final int[] deviceTypes;
+        final SplittableRandom placeRandom;
+
+        Person(int index, String id, int city, double homeLat, double homeLng, int[] deviceTypes,
+               SplittableRandom placeRandom) {
+            this.index = index;
+            this.id = id;
+            this.city = city;
+            this.homeLat = homeLat;
+            this.homeLng = homeLng;
+            this.deviceTypes = deviceTypes;
+            this.placeRandom = placeRandom;
+        }
+    }
+
+    private static final class DeviceType {
+        final String code;
+        final String name;
+        final String description;
+        final int weight;
+        final int frequencyPerDay;
+        final List<DataTypeConfig> configs;
+
+        DeviceType(String code, String name, String description, int weight, int frequencyPerDay, DataTypeConfig... configs) {
+            this.code = code;
+            this.name = name;
+            this.description = description;
+            this.weight = weight;
+            this.frequencyPerDay = frequencyPerDay;
+            this.configs = List.of(configs);
+        }
+    }
+}
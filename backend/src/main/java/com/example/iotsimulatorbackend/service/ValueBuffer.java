@@ -0,0 +1,120 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DataTypeConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Upcoming values of one numeric or enum stream, generated a chunk at a time.
+ *
+ * Each refill draws the whole chunk in one loop over a primitive array and then applies
+ * precision rounding (range) or keeps the drawn indices (enum), so the per-reading cost is
+ * reading the next slot. Values follow the same distribution and rounding as
+ * {@code generateValue}. A buffer belongs to the config it was built from; callers rebuild
+ * it when the stream is reconfigured.
+ */
+final class ValueBuffer {
+
+    private final DataTypeConfig config;
+    private final SplittableRandom random = new SplittableRandom();
+
+    // Range streams
+    private final double[] values;
+    private final double min;
+    private final double span;
+    private final double factor;        // 10^precision, or 0 to round to whole numbers
+
+    // Enum streams
+    private final int[] indices;
+    private final List<?> enumValues;
+
+    private int next;                   // Guarded by this; the chunk is used up when it reaches its length
+
+    private ValueBuffer(DataTypeConfig config, int chunkSize, List<?> enumValues) {
+        this.config = config;
+        if (enumValues != null) {
+            this.enumValues = enumValues;
+            this.indices = new int[chunkSize];
+            this.next = indices.length;
+            this.values = null;
+            this.min = 0;
+            this.span = 0;
+            this.factor = 0;
+        } else {
+            Map<String, Object> conf = config.getConfig();
+            double max = ((Number) conf.getOrDefault("max", 100)).doubleValue();
+            int precision = ((Number) conf.getOrDefault("precision", 0)).intValue();
+            this.min = ((Number) conf.getOrDefault("min", 0)).doubleValue();
+            this.span = max - min;
+            this.factor = precision > 0 ? Math.pow(10, precision) : 0;
+            this.values = new double[chunkSize];
+            this.next = values.length;
+            this.enumValues = null;
+            this.indices = null;
+        }
+    }
+
+    /**
+     * A buffer for {@code config}, or null if its values are not plain numbers or enum picks
+     * (blood pressure and locations are generated one reading at a time)
+     */
+    static ValueBuffer of(DataTypeConfig config, int chunkSize) {
+        if (chunkSize <= 0 || config.getConfig() == null) {
+            return null;
+        }
+        if ("enum".equals(config.getConfigType())) {
+            List<?> values = (List<?>) config.getConfig().get("values");
+            return values != null && !values.isEmpty() ? new ValueBuffer(config, chunkSize, values) : null;
+        }
+        String dataType = config.getDataType();
+        if ("blood_pressure".equals(dataType) || "gps".equals(dataType) || "location".equals(dataType)) {
+            return null;
+        }
+        return new ValueBuffer(config, chunkSize, null);
+    }
+
+    boolean isFor(DataTypeConfig config) {
+        return this.config == config;
+    }
+
+    synchronized Object next() {
+        if (indices != null) {
+            if (next == indices.length) {
+                fillIndices();
+            }
+            return enumValues.get(indices[next++]);
+        }
+        if (next == values.length) {
+            fillValues();
+        }
+        return values[next++];
+    }
+
+    private void fillValues() {
+        double[] v = values;
+        for (int i = 0; i < v.length; i++) {
+            v[i] = min + random.nextDouble() * span;
+        }
+        if (factor > 0) {
+            for (int i = 0; i < v.length; i++) {
+                v[i] = Math.round(v[i] * factor) / factor;
+            }
+        } else {
+            for (int i = 0; i < v.length; i++) {
+                v[i] = Math.round(v[i]);
+            }
+        }
+        next = 0;
+    }
+
+    private void fillIndices() {
+        int[] idx = indices;
+        int bound = enumValues.size();
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = random.nextInt(bound);
+        }
+        next = 0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.iotsimulatorbackend;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stand-in device-ingest endpoint for fast-startup/startup-benchmark.sh: accepts POSTs
+ * under /ingest and writes the epoch millis at which the first one arrived to the given
+ * file. GET /ready answers 204 for the readiness probe without counting as a reading.
+ * Not a unit test; run it after test-compile:
+ *
+ *   java -cp target/test-classes com.example.iotsimulatorbackend.IngestSink <port> <first-event-file>
+ */
+public final class IngestSink {
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        Path firstEventFile = Paths.get(args[1]);
+        AtomicBoolean seen = new AtomicBoolean();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/ready", exchange -> respond(exchange, 204, null));
+        server.createContext("/ingest", exchange -> {
+            long receivedAt = System.currentTimeMillis();
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, null);
+                return;
+            }
+            if (seen.compareAndSet(false, true)) {
+                Files.write(firstEventFile, Long.toString(receivedAt).getBytes(StandardCharsets.UTF_8));
+            }
+            respond(exchange, 200, "{\"success\":true}");
+        });
+        server.start();
+        System.out.println("Ingest sink listening on " + port);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] response = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.iotsimulatorbackend.cluster;
+
+import com.example.iotsimulatorbackend.service.SimulationManager;
+import com.example.iotsimulatorbackend.service.SimulationStartJobs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterCoordinatorTest {
+
+    @Test
+    void takesOverRecordedSimulationsItOwns() throws Exception {
+        FakeSimulations simulations = new FakeSimulations();
+        FileClusterStore store = new FileClusterStore(Files.createTempDirectory("cluster"), new ObjectMapper());
+        store.putAssignment(new SimulationAssignment("sim-1", "person-1", List.of("d1"), 0));
+
+        runHeartbeat("node-a", store, simulations, new FakeStartJobs());
+
+        assertEquals(List.of("sim-1"), simulations.started);
+    }
+
+    @Test
+    void leavesSimulationsWithAStartInProgressAlone() throws Exception {
+        FakeSimulations simulations = new FakeSimulations();
+        FakeStartJobs startJobs = new FakeStartJobs();
+        FileClusterStore store = new FileClusterStore(Files.createTempDirectory("cluster"), new ObjectMapper());
+        // An async start recorded before its job has resolved devices
+        store.putAssignment(new SimulationAssignment("queued", "person-1", null, 0));
+        startJobs.inProgress.add("person-1");
+        // A synchronous start still setting up devices
+        store.putAssignment(new SimulationAssignment("resolving", "person-2", null, 0));
+        simulations.busy.add("person-2");
+        // A restart whose new simulation runs while the old record is still there
+        store.putAssignment(new SimulationAssignment("replaced", "person-3", null, 0));
+        simulations.busy.add("person-3");
+
+        runHeartbeat("node-a", store, simulations, startJobs);
+
+        assertEquals(Collections.emptyList(), simulations.started);
+    }
+
+    @Test
+    void handsOverSimulationsAnotherNodeOwns() throws Exception {
+        FakeSimulations simulations = new FakeSimulations();
+        FileClusterStore store = new FileClusterStore(Files.createTempDirectory("cluster"), new ObjectMapper());
+        store.heartbeat(new ClusterNode("node-b", "http://node-b", System.currentTimeMillis()));
+        String personOfB = personOwnedBy("node-b", List.of("node-a", "node-b"));
+        String personOfA = personOwnedBy("node-a", List.of("node-a", "node-b"));
+        store.putAssignment(new SimulationAssignment("sim-b", personOfB, null, 0));
+        store.putAssignment(new SimulationAssignment("sim-a", personOfA, null, 0));
+        simulations.running.add("sim-b");
+        simulations.running.add("sim-a");
+
+        ClusterCoordinator coordinator = runHeartbeat("node-a", store, simulations, new FakeStartJobs());
+
+        assertEquals(List.of("sim-b"), simulations.stopped);
+        assertEquals(Collections.emptyList(), simulations.started);
+        assertEquals("http://node-b", coordinator.remoteOwnerOf(personOfB, null).getBaseUrl());
+        assertNull(coordinator.remoteOwnerOf(personOfA, null));
+        // Calls already forwarded once are handled where they arrive
+        assertNull(coordinator.remoteOwnerOf(personOfB, "node-c"));
+    }
+
+    @Test
+    void takesOverFromNodesWhoseHeartbeatIsStale() throws Exception {
+        FakeSimulations simulations = new FakeSimulations();
+        FileClusterStore store = new FileClusterStore(Files.createTempDirectory("cluster"), new ObjectMapper());
+        store.heartbeat(new ClusterNode("node-b", "http://node-b", System.currentTimeMillis() - 60_000));
+        String personOfB = personOwnedBy("node-b", List.of("node-a", "node-b"));
+        store.putAssignment(new SimulationAssignment("sim-b", personOfB, List.of("d1"), 0));
+
+        ClusterCoordinator coordinator = runHeartbeat("node-a", store, simulations, new FakeStartJobs());
+
+        assertEquals(List.of("sim-b"), simulations.started);
+        assertNull(coordinator.remoteOwnerOf(personOfB, null));
+        assertEquals(1, ((List<?>) coordinator.getClusterStatus().get("liveNodes")).size());
+    }
+
+    // One heartbeat round, waiting for the takeovers it started
+    private static ClusterCoordinator runHeartbeat(String nodeId, ClusterStore store, FakeSimulations simulations,
+                                                   FakeStartJobs startJobs) throws Exception {
+        ExecutorService takeovers = Executors.newSingleThreadExecutor();
+        ClusterCoordinator coordinator = new ClusterCoordinator(nodeId, store, simulations, startJobs, takeovers);
+        coordinator.heartbeat();
+        takeovers.shutdown();
+        assertTrue(takeovers.awaitTermination(5, TimeUnit.SECONDS));
+        return coordinator;
+    }
+
+    private static String personOwnedBy(String nodeId, List<String> nodeIds) {
+        ConsistentHashRing ring = new ConsistentHashRing(nodeIds, 128);
+        for (int i = 0; ; i++) {
+            if (nodeId.equals(ring.ownerOf("person-" + i))) {
+                return "person-" + i;
+            }
+        }
+    }
+
+    /**
+     * Records starts and stops instead of running simulations
+     */
+    static class FakeSimulations extends SimulationManager {
+        final List<String> started = Collections.synchronizedList(new ArrayList<>());
+        final List<String> stopped = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> running = Collections.synchronizedSet(new HashSet<>());
+        final Set<String> busy = Collections.synchronizedSet(new HashSet<>());
+
+        @Override
+        public String startSimulation(String elderlyPersonId, List<String> deviceIds, String simulationId) {
+            started.add(simulationId);
+            running.add(simulationId);
+            return simulationId;
+        }
+
+        @Override
+        public boolean stopSimulation(String simulationId) {
+            stopped.add(simulationId);
+            return running.remove(simulationId);
+        }
+
+        @Override
+        public Set<String> getRunningSimulationIds() {
+            return new HashSet<>(running);
+        }
+
+        @Override
+        public boolean isSimulationRunning(String simulationId) {
+            return running.contains(simulationId);
+        }
+
+        @Override
+        public boolean hasSimulationFor(String elderlyPersonId) {
+            return busy.contains(elderlyPersonId);
+        }
+    }
+
+    static class FakeStartJobs extends SimulationStartJobs {
+        final Set<String> inProgress = new HashSet<>();
+
+        @Override
+        public boolean isInProgress(String elderlyPersonId) {
+            return inProgress.contains(elderlyPersonId);
+        }
+    }
+}
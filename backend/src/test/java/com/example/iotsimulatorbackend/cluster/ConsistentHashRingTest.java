@@ -0,0 +1,54 @@
+package com.example.iotsimulatorbackend.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 10000;
+
+    @Test
+    void keysSpreadEvenlyAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+
+        Map<String, Integer> perNode = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            perNode.merge(ring.ownerOf("person-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, perNode.size());
+        for (int count : perNode.values()) {
+            // Within 25% of a perfect third
+            assertTrue(Math.abs(count - KEYS / 3) < KEYS / 12, "unbalanced: " + perNode);
+        }
+    }
+
+    @Test
+    void addingNodeOnlyMovesKeysToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-b", "node-c", "node-d"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "person-" + i;
+            String oldOwner = before.ownerOf(key);
+            String newOwner = after.ownerOf(key);
+            if (!oldOwner.equals(newOwner)) {
+                assertEquals("node-d", newOwner);
+                moved++;
+            }
+        }
+        // Roughly a quarter of the keys should move to the new node
+        assertTrue(moved > KEYS / 8 && moved < KEYS * 3 / 8, "moved " + moved);
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertNull(new ConsistentHashRing(List.of(), 128).ownerOf("person-1"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.iotsimulatorbackend.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileClusterStoreTest {
+
+    @Test
+    void storesNodesAndAssignments() throws Exception {
+        Path root = Files.createTempDirectory("cluster");
+        FileClusterStore store = new FileClusterStore(root, new ObjectMapper());
+
+        store.heartbeat(new ClusterNode("node-a", "http://a:8080", 1000));
+        store.heartbeat(new ClusterNode("node-a", "http://a:8080", 2000));
+        store.heartbeat(new ClusterNode("node-b", "http://b:8080", 1500));
+        store.putAssignment(new SimulationAssignment("sim-1", "person-1", List.of("d1", "d2"), 42));
+
+        // A second store on the same directory sees the same state, as another node would
+        FileClusterStore other = new FileClusterStore(root, new ObjectMapper());
+        List<ClusterNode> nodes = other.listNodes();
+        assertEquals(2, nodes.size());
+        assertEquals(2000, nodes.stream().filter(n -> n.getNodeId().equals("node-a")).findFirst().get().getLastHeartbeat());
+
+        SimulationAssignment assignment = other.getAssignment("sim-1");
+        assertEquals("person-1", assignment.getElderlyPersonId());
+        assertEquals(List.of("d1", "d2"), assignment.getDeviceIds());
+        assertEquals(1, other.listAssignments().size());
+
+        other.removeAssignment("sim-1");
+        other.removeNode("node-b");
+        assertNull(store.getAssignment("sim-1"));
+        assertEquals(0, store.listAssignments().size());
+        assertEquals(1, store.listNodes().size());
+    }
+
+    @Test
+    void idsAreSafeFileNamesAndNoTempFilesRemain() throws Exception {
+        Path root = Files.createTempDirectory("cluster");
+        FileClusterStore store = new FileClusterStore(root, new ObjectMapper());
+
+        store.putAssignment(new SimulationAssignment("../sim/1", "person-1", null, 0));
+        assertEquals("../sim/1", store.getAssignment("../sim/1").getSimulationId());
+        try (Stream<Path> files = Files.list(root.resolve("simulations"))) {
+            assertEquals(List.of(".._sim_1.json"), files.map(f -> f.getFileName().toString()).collect(java.util.stream.Collectors.toList()));
+        }
+        store.removeAssignment("not-there");
+    }
+}
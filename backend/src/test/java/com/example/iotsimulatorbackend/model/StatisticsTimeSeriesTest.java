@@ -0,0 +1,46 @@
+package com.example.iotsimulatorbackend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsTimeSeriesTest {
+
+    private static final long BASE = 1_700_000_000_000L;
+
+    @Test
+    void bucketsAggregateAndGapsReadAsZero() {
+        StatisticsTimeSeries series = new StatisticsTimeSeries();
+        series.record(BASE, true, 10);
+        series.record(BASE + 500, false, 30);
+        series.record(BASE + 3000, true, 4);
+
+        List<Map<String, Object>> buckets = series.snapshot(StatisticsTimeSeries.Resolution.SECOND, 4, BASE + 3000);
+
+        assertEquals(4, buckets.size());
+        assertEquals(1L, buckets.get(0).get("sent"));
+        assertEquals(1L, buckets.get(0).get("failed"));
+        assertEquals(20.0, buckets.get(0).get("avgLatencyMs"));
+        assertEquals(0L, buckets.get(1).get("sent"));
+        assertEquals(0L, buckets.get(2).get("sent"));
+        assertEquals(1L, buckets.get(3).get("sent"));
+    }
+
+    @Test
+    void oldBucketsAreRecycledAfterWrapAround() {
+        StatisticsTimeSeries series = new StatisticsTimeSeries();
+        series.record(BASE, true, 1);
+        long later = BASE + 1000L * StatisticsTimeSeries.SECOND_BUCKETS;
+        series.record(later, true, 1);
+
+        List<Map<String, Object>> buckets = series.snapshot(StatisticsTimeSeries.Resolution.SECOND,
+                StatisticsTimeSeries.SECOND_BUCKETS, later);
+
+        long total = buckets.stream().mapToLong(b -> (Long) b.get("sent")).sum();
+        assertEquals(1L, total);
+        assertEquals(later, buckets.get(buckets.size() - 1).get("start"));
+    }
+}
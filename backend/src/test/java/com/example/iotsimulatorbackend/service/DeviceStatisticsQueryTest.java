@@ -0,0 +1,89 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.SimulationStatistics;
+import com.example.iotsimulatorbackend.model.StatisticsSnapshot.DeviceEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceStatisticsQueryTest {
+
+    private static Collection<DeviceEntry> devices(int count) {
+        SimulationStatistics stats = new SimulationStatistics("sim");
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            String deviceId = String.format("device-%04d", i);
+            String dataType = i % 3 == 0 ? "heart_rate" : "steps";
+            int attempts = 1 + random.nextInt(10);
+            for (int a = 0; a < attempts; a++) {
+                if (random.nextInt(4) == 0) {
+                    stats.recordFailure(deviceId, "Device " + i, dataType, dataType, random.nextInt(200));
+                } else {
+                    stats.recordSuccess(deviceId, "Device " + i, dataType, dataType, random.nextInt(200));
+                }
+            }
+        }
+        return stats.snapshot(0).getDeviceStats().values();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> ids(Map<String, Object> result) {
+        return ((List<DeviceEntry>) result.get("items")).stream().map(DeviceEntry::getDeviceId).collect(Collectors.toList());
+    }
+
+    @Test
+    void pagesMatchAFullSort() {
+        Collection<DeviceEntry> devices = devices(500);
+        List<DeviceEntry> sorted = new ArrayList<>(devices);
+        sorted.sort(Comparator.comparingDouble(DeviceEntry::getFailureRate).reversed().thenComparing(DeviceEntry::getDeviceId));
+
+        for (int page = 0; page < 3; page++) {
+            Map<String, Object> result = new DeviceStatisticsQuery()
+                    .sort(DeviceStatisticsQuery.Sort.FAILURE_RATE)
+                    .page(page, 20)
+                    .run(devices);
+            List<String> expected = sorted.subList(page * 20, page * 20 + 20).stream()
+                    .map(DeviceEntry::getDeviceId).collect(Collectors.toList());
+            assertEquals(expected, ids(result));
+            assertEquals(500, result.get("total"));
+        }
+    }
+
+    @Test
+    void filtersApplyBeforePaging() {
+        Collection<DeviceEntry> devices = devices(300);
+
+        Map<String, Object> result = new DeviceStatisticsQuery()
+                .dataType("heart_rate")
+                .failureRateBetween(50.0, null)
+                .page(0, 1000)
+                .run(devices);
+
+        long expected = devices.stream()
+                .filter(d -> d.getDataTypes().contains("heart_rate") && d.getFailureRate() >= 50.0)
+                .count();
+        assertEquals((int) expected, result.get("total"));
+        List<String> ids = ids(result);
+        assertEquals(expected, ids.size());
+        assertEquals(ids.stream().sorted().collect(Collectors.toList()), ids);
+    }
+
+    @Test
+    void pageBeyondTheMatchesIsEmpty() {
+        Map<String, Object> result = new DeviceStatisticsQuery()
+                .deviceFilter("DEVICE-000")
+                .page(1, 10)
+                .run(devices(50));
+
+        assertEquals(10, result.get("total"));
+        assertTrue(ids(result).isEmpty());
+    }
+}
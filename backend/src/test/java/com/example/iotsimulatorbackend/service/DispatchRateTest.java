@@ -0,0 +1,55 @@
+package com.example.iotsimulatorbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchRateTest {
+
+    private static final long BASE = 1_700_000_000_000L;
+
+    @Test
+    void runsAreCountedPerBucketAndGapsReadAsZero() {
+        DispatchRate rate = new DispatchRate();
+        rate.record(BASE);
+        rate.record(BASE + 500);
+        rate.record(BASE + 3000);
+
+        assertArrayEquals(new long[] {2, 0, 0, 1}, rate.runs(false, 4, BASE + 3000));
+        assertArrayEquals(new long[] {3}, rate.runs(true, 1, BASE + 3000));
+    }
+
+    @Test
+    void oldBucketsAreRecycledAndLateRunsIgnored() {
+        DispatchRate rate = new DispatchRate();
+        rate.record(BASE);
+        long later = BASE + 1000L * DispatchRate.SECOND_BUCKETS;
+        rate.record(later);
+        // Same slot as the recycled bucket, but from before it
+        rate.record(BASE + 10);
+
+        long[] runs = rate.runs(false, DispatchRate.SECOND_BUCKETS, later);
+        assertEquals(1, runs[runs.length - 1]);
+        assertEquals(1, Arrays.stream(runs).sum());
+    }
+
+    @Test
+    void concurrentRunsInOneBucketAreAllCounted() throws Exception {
+        DispatchRate rate = new DispatchRate();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    rate.record(BASE + 100);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertArrayEquals(new long[] {40_000}, rate.runs(false, 1, BASE + 100));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.iotsimulatorbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogTest {
+
+    private static String valueOf(Object value) {
+        StringBuilder line = new StringBuilder();
+        EventLog.appendValue(line, value);
+        return line.toString();
+    }
+
+    @Test
+    void plainValuesAreWrittenAsIs() {
+        assertEquals("dev-1", valueOf("dev-1"));
+        assertEquals("42", valueOf(42));
+        assertEquals("\"\"", valueOf(""));
+    }
+
+    @Test
+    void valuesThatCouldSplitARecordOrForgeAFieldAreQuotedAndEscaped() {
+        assertEquals("\"a b\"", valueOf("a b"));
+        assertEquals("\"k=v\"", valueOf("k=v"));
+        assertEquals("\"say \\\"hi\\\"\"", valueOf("say \"hi\""));
+        assertEquals("\"C:\\\\tmp\"", valueOf("C:\\tmp"));
+        assertEquals("\"500\\r\\nevent=forged\"", valueOf("500\r\nevent=forged"));
+        assertEquals("\"a\\u0000b\"", valueOf("a\u0000b"));
+
+        // A trailing backslash cannot escape the closing quote
+        String written = valueOf("x\\");
+        assertEquals("\"x\\\\\"", written);
+        assertEquals(-1, written.indexOf('\n'));
+    }
+}
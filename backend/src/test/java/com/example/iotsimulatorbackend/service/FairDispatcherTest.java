@@ -0,0 +1,82 @@
+package com.example.iotsimulatorbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairDispatcherTest {
+
+    @Test
+    void noisySimulationDoesNotStarveQuietOne() throws Exception {
+        FairDispatcher dispatcher = new FairDispatcher();
+        dispatcher.start();
+        try {
+            dispatcher.register("noisy", 1.0, 2);
+            dispatcher.register("quiet", 1.0, 2);
+
+            AtomicInteger noisyDone = new AtomicInteger();
+            for (int i = 0; i < 200; i++) {
+                assertTrue(dispatcher.submit("noisy", () -> {
+                    sleep(5);
+                    noisyDone.incrementAndGet();
+                }));
+            }
+            CountDownLatch quietDone = new CountDownLatch(20);
+            for (int i = 0; i < 20; i++) {
+                assertTrue(dispatcher.submit("quiet", () -> {
+                    sleep(5);
+                    quietDone.countDown();
+                }));
+            }
+
+            assertTrue(quietDone.await(5, TimeUnit.SECONDS));
+            // With equal weights the quiet simulation finishes long before the noisy backlog drains
+            assertTrue(noisyDone.get() < 100, "noisy completed " + noisyDone.get());
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void concurrencyCapIsRespected() throws Exception {
+        FairDispatcher dispatcher = new FairDispatcher();
+        dispatcher.start();
+        try {
+            dispatcher.register("capped", 5.0, 3);
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger maxInFlight = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(30);
+            for (int i = 0; i < 30; i++) {
+                dispatcher.submit("capped", () -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    sleep(5);
+                    inFlight.decrementAndGet();
+                    done.countDown();
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(maxInFlight.get() <= 3, "max in flight " + maxInFlight.get());
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void unregisteredSimulationIsRejected() {
+        FairDispatcher dispatcher = new FairDispatcher();
+        assertFalse(dispatcher.submit("unknown", () -> { }));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DataTypeConfig;
+import com.example.iotsimulatorbackend.model.Device;
+import com.example.iotsimulatorbackend.model.GeofencePlace;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileFleetProviderTest {
+
+    private static final String FLEET = "{"
+            + "\"elderly_persons\": [{\"id\": \"p1\", \"user_id\": \"u1\"}],"
+            + "\"devices\": ["
+            + "  {\"id\": \"d1\", \"elderly_person_id\": \"p1\", \"device_name\": \"Watch\", \"device_id\": \"W-1\","
+            + "   \"api_key\": \"k1\", \"device_type\": \"smartwatch\", \"location\": {\"lat\": 52.1, \"lon\": 21.0}},"
+            + "  {\"id\": \"d2\", \"elderly_person_id\": \"p2\", \"device_name\": \"Scale\", \"device_id\": \"S-1\","
+            + "   \"api_key\": \"k2\", \"device_type\": \"scale\", \"location\": \"Bathroom\"}],"
+            + "\"device_types\": [{\"id\": \"t1\", \"code\": \"smartwatch\", \"description\": \"Smart watch\", \"data_frequency_per_day\": 96}],"
+            + "\"device_type_data_configs\": ["
+            + "  {\"device_type_id\": \"t1\", \"data_type\": \"steps\", \"display_name\": \"Steps\", \"value_type\": \"number\", \"sort_order\": 2,"
+            + "   \"sample_data_config\": {\"type\": \"random_number\", \"min\": 0, \"max\": 100}},"
+            + "  {\"device_type_id\": \"t1\", \"data_type\": \"heart_rate\", \"display_name\": \"Heart Rate\", \"unit\": \"bpm\", \"value_type\": \"number\", \"sort_order\": 1,"
+            + "   \"sample_data_config\": {\"type\": \"random_number\", \"min\": 60, \"max\": 100}}],"
+            + "\"geofence_places\": ["
+            + "  {\"id\": \"g1\", \"elderly_person_id\": \"p1\", \"name\": \"Home\", \"place_type\": \"home\", \"latitude\": 52.1, \"longitude\": 21.0, \"radius_meters\": 100},"
+            + "  {\"id\": \"g2\", \"elderly_person_id\": \"p1\", \"name\": \"Old flat\", \"place_type\": \"home\", \"latitude\": 52.2, \"longitude\": 21.1, \"radius_meters\": 50, \"is_active\": false}]"
+            + "}";
+
+    private static FileFleetProvider load() throws Exception {
+        Path file = Files.createTempFile("fleet", ".json");
+        try {
+            Files.write(file, FLEET.getBytes(StandardCharsets.UTF_8));
+            return FileFleetProvider.load(file, new ObjectMapper());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void resolvesUserIdsToElderlyPersons() throws Exception {
+        FileFleetProvider fleet = load();
+
+        assertEquals(List.of("d1"), fleet.getDevicesByElderlyPersonId("u1").stream().map(Device::getId).collect(Collectors.toList()));
+        assertEquals(List.of("d1"), fleet.getDevicesByElderlyPersonId("p1").stream().map(Device::getId).collect(Collectors.toList()));
+        assertTrue(fleet.getDevicesByElderlyPersonId("nobody").isEmpty());
+        assertEquals("W-1", fleet.getDeviceById("d1").getDeviceId());
+        assertNull(fleet.getDeviceById("missing"));
+    }
+
+    @Test
+    void locationsMayBeTextOrStructured() throws Exception {
+        FileFleetProvider fleet = load();
+
+        assertEquals("{\"lat\":52.1,\"lon\":21.0}", fleet.getDeviceById("d1").getLocation());
+        assertEquals("Bathroom", fleet.getDeviceById("d2").getLocation());
+    }
+
+    @Test
+    void dataTypesFollowSortOrderAndAreFreshPerCall() throws Exception {
+        FileFleetProvider fleet = load();
+
+        List<DataTypeConfig> configs = fleet.getDataTypesByDeviceId("d1");
+        assertEquals(List.of("heart_rate", "steps"), configs.stream().map(DataTypeConfig::getDataType).collect(Collectors.toList()));
+        assertEquals(96, configs.get(0).getFrequencyPerDay());
+        assertNotSame(configs.get(0), fleet.getDataTypesByDeviceId("d1").get(0));
+        // Device type missing from the file
+        assertTrue(fleet.getDataTypesByDeviceId("d2").isEmpty());
+    }
+
+    @Test
+    void inactiveGeofencesAreLeftOut() throws Exception {
+        List<GeofencePlace> places = load().getGeofencePlacesByElderlyPersonId("u1");
+
+        assertEquals(1, places.size());
+        assertEquals("Home", places.get(0).getName());
+    }
+}
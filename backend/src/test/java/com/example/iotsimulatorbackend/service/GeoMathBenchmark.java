@@ -0,0 +1,123 @@
+package com.example.iotsimulatorbackend.service;
+
+import java.util.SplittableRandom;
+
+/**
+ * Speed and accuracy of GeoMath's local approximation against the haversine / great-circle
+ * methods, on random moves of up to 10 km. Not a unit test; run it after test-compile:
+ *
+ *   java -cp target/classes:target/test-classes com.example.iotsimulatorbackend.service.GeoMathBenchmark
+ */
+public final class GeoMathBenchmark {
+    private static final int POINTS = 1 << 16;
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] lat = new double[POINTS];
+        double[] lon = new double[POINTS];
+        double[] refLat = new double[POINTS];
+        double[] refLon = new double[POINTS];
+        double[] refCos = new double[POINTS];
+        double[] refSin = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            lat[i] = (random.nextDouble() * 2 - 1) * 70;
+            lon[i] = (random.nextDouble() * 2 - 1) * 179;
+            double meters = random.nextDouble() * GeoMath.LOCAL_LIMIT_METERS;
+            double bearing = random.nextDouble() * 360;
+            refLat[i] = GeoMath.destinationLat(lat[i], bearing, meters);
+            refLon[i] = GeoMath.destinationLon(lat[i], lon[i], bearing, meters, refLat[i]);
+            refCos[i] = Math.cos(Math.toRadians(refLat[i]));
+            refSin[i] = Math.sin(Math.toRadians(refLat[i]));
+        }
+
+        double maxError = 0;
+        double sumError = 0;
+        double maxAbsolute = 0;
+        for (int i = 0; i < POINTS; i++) {
+            double exact = GeoMath.distance(lat[i], lon[i], refLat[i], refLon[i]);
+            double local = GeoMath.localDistance(lat[i], lon[i], refLat[i], refLon[i], refCos[i], refSin[i]);
+            double error = exact > 1 ? Math.abs(local - exact) / exact : 0;
+            maxError = Math.max(maxError, error);
+            maxAbsolute = Math.max(maxAbsolute, Math.abs(local - exact));
+            sumError += error;
+        }
+        System.out.printf("distance error: mean %.2e, max %.2e (bound %.0e), max %.3f m%n",
+                sumError / POINTS, maxError, GeoMath.LOCAL_MAX_RELATIVE_ERROR, maxAbsolute);
+
+        double sink = 0;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            sink += haversine(lat, lon, refLat, refLon) + local(lat, lon, refLat, refLon, refCos, refSin)
+                    + greatCircleStep(lat, lon, refLat, refLon) + localStep(lat, lon, refLat, refLon, refCos, refSin);
+        }
+
+        long start = System.nanoTime();
+        sink += haversine(lat, lon, refLat, refLon);
+        long haversineNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        sink += local(lat, lon, refLat, refLon, refCos, refSin);
+        long localNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        sink += greatCircleStep(lat, lon, refLat, refLon);
+        long greatCircleNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        sink += localStep(lat, lon, refLat, refLon, refCos, refSin);
+        long localStepNanos = System.nanoTime() - start;
+
+        double calls = (double) POINTS * ROUNDS;
+        System.out.printf("distance:   haversine %.1f ns, local %.1f ns (%.1fx)%n",
+                haversineNanos / calls, localNanos / calls, (double) haversineNanos / localNanos);
+        System.out.printf("step 250 m: great circle %.1f ns, local %.1f ns (%.1fx)%n",
+                greatCircleNanos / calls, localStepNanos / calls, (double) greatCircleNanos / localStepNanos);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static double haversine(double[] lat, double[] lon, double[] refLat, double[] refLon) {
+        double sum = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int i = 0; i < POINTS; i++) {
+                sum += GeoMath.distance(lat[i], lon[i], refLat[i], refLon[i]);
+            }
+        }
+        return sum;
+    }
+
+    private static double local(double[] lat, double[] lon, double[] refLat, double[] refLon,
+                                double[] refCos, double[] refSin) {
+        double sum = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int i = 0; i < POINTS; i++) {
+                sum += GeoMath.localDistance(lat[i], lon[i], refLat[i], refLon[i], refCos[i], refSin[i]);
+            }
+        }
+        return sum;
+    }
+
+    // What LocationGenerator did for every step before: distance, bearing, then the destination point
+    private static double greatCircleStep(double[] lat, double[] lon, double[] refLat, double[] refLon) {
+        double sum = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int i = 0; i < POINTS; i++) {
+                double distance = GeoMath.distance(lat[i], lon[i], refLat[i], refLon[i]);
+                double bearing = GeoMath.bearing(lat[i], lon[i], refLat[i], refLon[i]);
+                double step = Math.min(250, distance);
+                double newLat = GeoMath.destinationLat(lat[i], bearing, step);
+                sum += newLat + GeoMath.destinationLon(lat[i], lon[i], bearing, step, newLat);
+            }
+        }
+        return sum;
+    }
+
+    private static double localStep(double[] lat, double[] lon, double[] refLat, double[] refLon,
+                                    double[] refCos, double[] refSin) {
+        double sum = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int i = 0; i < POINTS; i++) {
+                double distance = GeoMath.localDistance(lat[i], lon[i], refLat[i], refLon[i], refCos[i], refSin[i]);
+                double fraction = distance > 250 ? 250 / distance : 1;
+                sum += lat[i] + (refLat[i] - lat[i]) * fraction + lon[i] + (refLon[i] - lon[i]) * fraction;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.GeofencePlace;
+import com.example.iotsimulatorbackend.model.LocationData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoMathTest {
+
+    @Test
+    void localDistanceStaysWithinTheErrorBound() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 200_000; i++) {
+            double lat = (random.nextDouble() * 2 - 1) * GeoMath.LOCAL_MAX_LATITUDE;
+            double lon = (random.nextDouble() * 2 - 1) * 179;
+            double meters = 1 + random.nextDouble() * (GeoMath.LOCAL_LIMIT_METERS - 1);
+            double bearing = random.nextDouble() * 360;
+            double refLat = GeoMath.destinationLat(lat, bearing, meters);
+            double refLon = GeoMath.destinationLon(lat, lon, bearing, meters, refLat);
+
+            double exact = GeoMath.distance(lat, lon, refLat, refLon);
+            double local = GeoMath.localDistance(lat, lon, refLat, refLon,
+                    Math.cos(Math.toRadians(refLat)), Math.sin(Math.toRadians(refLat)));
+            assertEquals(exact, local, exact * GeoMath.LOCAL_MAX_RELATIVE_ERROR,
+                    "lat " + lat + ", " + meters + " m at " + bearing);
+        }
+    }
+
+    @Test
+    void destinationMatchesDistanceAndBearing() {
+        double lat = GeoMath.destinationLat(52.23, 45, 1000);
+        double lon = GeoMath.destinationLon(52.23, 21.01, 45, 1000, lat);
+        assertEquals(1000, GeoMath.distance(52.23, 21.01, lat, lon), 1e-6);
+        assertEquals(45, GeoMath.bearing(52.23, 21.01, lat, lon), 1e-6);
+    }
+
+    @Test
+    void generatorStillTravelsBetweenNearbyAndDistantPlaces() {
+        // 2 km apart, then one place 300 km away that takes the great-circle path
+        for (GeofencePlace away : List.of(
+                new GeofencePlace("b", "p", "Park", "park", 52.248, 21.01, 100),
+                new GeofencePlace("c", "p", "Cottage", "relative", 54.35, 18.65, 100))) {
+            LocationGenerator generator = new LocationGenerator(List.of(
+                    new GeofencePlace("a", "p", "Home", "home", 52.23, 21.01, 100), away));
+
+            boolean arrived = false;
+            double previousLat = 52.23;
+            double previousLon = 21.01;
+            for (int i = 0; i < 2000 && !arrived; i++) {
+                LocationData location = generator.generateNextLocation();
+                // A minute's walk of 250 m, plus the snap onto a place less than 50 m away
+                assertTrue(GeoMath.distance(previousLat, previousLon, location.getLatitude(), location.getLongitude()) <= 300);
+                previousLat = location.getLatitude();
+                previousLon = location.getLongitude();
+                arrived = "b".equals(generator.getCurrentPlace().getId()) || "c".equals(generator.getCurrentPlace().getId());
+            }
+            assertTrue(arrived, "never reached " + away.getName());
+            assertEquals(away.getLatitude(), generator.getCurrentLat());
+        }
+    }
+}
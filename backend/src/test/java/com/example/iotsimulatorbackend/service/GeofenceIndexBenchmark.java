@@ -0,0 +1,85 @@
+package com.example.iotsimulatorbackend.service;
+
+import java.util.SplittableRandom;
+
+/**
+ * Containment checks per point through GeofenceIndex against testing every place, for
+ * one person with 3 to 1000 places spread over a city. Not a unit test; run it after
+ * test-compile:
+ *
+ *   java -cp target/classes:target/test-classes com.example.iotsimulatorbackend.service.GeofenceIndexBenchmark
+ */
+public final class GeofenceIndexBenchmark {
+    private static final int POINTS = 1 << 14;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        for (int places : new int[] {3, 30, 300, 1000}) {
+            run(places);
+        }
+    }
+
+    private static void run(int n) {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        double[] cos = new double[n];
+        double[] sin = new double[n];
+        double[] radius = new double[n];
+        for (int k = 0; k < n; k++) {
+            lat[k] = 52.15 + random.nextDouble() * 0.2;
+            lon[k] = 20.9 + random.nextDouble() * 0.3;
+            cos[k] = Math.cos(Math.toRadians(lat[k]));
+            sin[k] = Math.sin(Math.toRadians(lat[k]));
+            radius[k] = 50 + random.nextDouble() * 250;
+        }
+        double[] pointLat = new double[POINTS];
+        double[] pointLon = new double[POINTS];
+        for (int p = 0; p < POINTS; p++) {
+            pointLat[p] = 52.15 + random.nextDouble() * 0.2;
+            pointLon[p] = 20.9 + random.nextDouble() * 0.3;
+        }
+        GeofenceIndex index = new GeofenceIndex(lat, lon, cos, sin, radius);
+
+        long sink = 0;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            sink += indexed(index, pointLat, pointLon) + linear(index, n, pointLat, pointLon);
+        }
+        long start = System.nanoTime();
+        sink += indexed(index, pointLat, pointLon);
+        long indexedNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        sink += linear(index, n, pointLat, pointLon);
+        long linearNanos = System.nanoTime() - start;
+
+        double calls = (double) POINTS * ROUNDS;
+        System.out.printf("%4d places (%d cells): index %.1f ns/point, every place %.1f ns/point (checksum %d)%n",
+                n, index.cellCount(), indexedNanos / calls, linearNanos / calls, sink);
+    }
+
+    private static long indexed(GeofenceIndex index, double[] pointLat, double[] pointLon) {
+        long found = 0;
+        int[] inside = GeofenceIndex.NONE;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int p = 0; p < POINTS; p++) {
+                inside = index.containing(pointLat[p], pointLon[p], inside);
+                found += inside.length;
+            }
+        }
+        return found;
+    }
+
+    private static long linear(GeofenceIndex index, int n, double[] pointLat, double[] pointLon) {
+        long found = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int p = 0; p < POINTS; p++) {
+                for (int k = 0; k < n; k++) {
+                    if (index.contains(k, pointLat[p], pointLon[p])) {
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.iotsimulatorbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeofenceIndexTest {
+
+    @Test
+    void matchesTestingEveryPlace() {
+        SplittableRandom random = new SplittableRandom(7);
+        int n = 500;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        double[] cos = new double[n];
+        double[] sin = new double[n];
+        double[] radius = new double[n];
+        for (int k = 0; k < n; k++) {
+            lat[k] = 52.2 + random.nextDouble() * 0.2;
+            lon[k] = 21.0 + random.nextDouble() * 0.3;
+            // Mostly small places, some large enough to be wide
+            radius[k] = k % 50 == 0 ? 5_000 : 20 + random.nextDouble() * 300;
+            cos[k] = Math.cos(Math.toRadians(lat[k]));
+            sin[k] = Math.sin(Math.toRadians(lat[k]));
+        }
+        GeofenceIndex index = new GeofenceIndex(lat, lon, cos, sin, radius);
+
+        int inside = 0;
+        for (int p = 0; p < 20_000; p++) {
+            double pointLat = 52.19 + random.nextDouble() * 0.22;
+            double pointLon = 20.99 + random.nextDouble() * 0.32;
+            List<Integer> expected = new ArrayList<>();
+            for (int k = 0; k < n; k++) {
+                if (GeoMath.distance(pointLat, pointLon, lat[k], lon[k]) <= radius[k] - 0.01) {
+                    expected.add(k);
+                }
+            }
+            int[] actual = index.containing(pointLat, pointLon, GeofenceIndex.NONE);
+            for (int k : expected) {
+                assertTrue(contains(actual, k), "place " + k + " at " + pointLat + "," + pointLon);
+            }
+            for (int k : actual) {
+                assertTrue(GeoMath.distance(pointLat, pointLon, lat[k], lon[k]) <= radius[k] + 0.01);
+            }
+            assertTrue(index.candidates(pointLat, pointLon).length < n / 4);
+            inside += actual.length;
+        }
+        assertTrue(inside > 0);
+    }
+
+    @Test
+    void unchangedAnswerIsTheSameArray() {
+        double[] lat = {52.23, 52.24};
+        double[] lon = {21.01, 21.03};
+        double[] cos = {Math.cos(Math.toRadians(52.23)), Math.cos(Math.toRadians(52.24))};
+        double[] sin = {Math.sin(Math.toRadians(52.23)), Math.sin(Math.toRadians(52.24))};
+        GeofenceIndex index = new GeofenceIndex(lat, lon, cos, sin, new double[] {100, 200});
+
+        int[] home = index.containing(52.2301, 21.0101, GeofenceIndex.NONE);
+        assertArrayEquals(new int[] {0}, home);
+        assertSame(home, index.containing(52.2302, 21.0100, home));
+        assertSame(GeofenceIndex.NONE, index.containing(52.235, 21.02, home));
+    }
+
+    @Test
+    void placesAcrossTheAntimeridianAndNearThePoleAreFound() {
+        double[] lat = {10, 89.9};
+        double[] lon = {179.999, 0};
+        double[] cos = {Math.cos(Math.toRadians(10)), Math.cos(Math.toRadians(89.9))};
+        double[] sin = {Math.sin(Math.toRadians(10)), Math.sin(Math.toRadians(89.9))};
+        GeofenceIndex index = new GeofenceIndex(lat, lon, cos, sin, new double[] {500, 1_000});
+
+        assertArrayEquals(new int[] {0}, index.containing(10, -179.999, GeofenceIndex.NONE));
+        assertArrayEquals(new int[] {1}, index.containing(89.905, 0, GeofenceIndex.NONE));
+    }
+
+    private static boolean contains(int[] indices, int k) {
+        for (int index : indices) {
+            if (index == k) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
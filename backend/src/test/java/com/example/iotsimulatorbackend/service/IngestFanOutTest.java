@@ -0,0 +1,128 @@
+package com.example.iotsimulatorbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestFanOutTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void slowSinkDropsOnlyItsOwnCopies() throws Exception {
+        CountDownLatch slowEntered = new CountDownLatch(1);
+        CountDownLatch releaseSlow = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink("slow") {
+            @Override
+            public void write(Body body) {
+                slowEntered.countDown();
+                await(releaseSlow);
+                super.write(body);
+            }
+        };
+        RecordingSink fast = new RecordingSink("fast");
+
+        IngestFanOut fanOut = new IngestFanOut();
+        fanOut.start(List.of(slow, fast), 60);
+        try {
+            fanOut.publish("json", 1, "{\"n\":0}".getBytes(StandardCharsets.UTF_8));
+            assertTrue(slowEntered.await(5, TimeUnit.SECONDS));
+
+            // The slow sink is stuck on the first body: its queue takes 60 more, then drops
+            for (int i = 1; i <= 70; i++) {
+                fanOut.publish("json", 1, ("{\"n\":" + i + "}").getBytes(StandardCharsets.UTF_8));
+                if (i == 60) {
+                    waitFor(fast, 61);
+                }
+            }
+            waitFor(fast, 71);
+
+            Map<String, Object> sinks = (Map<String, Object>) fanOut.getMetrics().get("sinks");
+            Map<String, Object> fastMetrics = (Map<String, Object>) sinks.get("fast");
+            Map<String, Object> slowMetrics = (Map<String, Object>) sinks.get("slow");
+            assertEquals(71L, fastMetrics.get("written"));
+            assertEquals(0L, fastMetrics.get("dropped"));
+            assertEquals(71L, slowMetrics.get("offered"));
+            assertEquals(10L, slowMetrics.get("dropped"));
+        } finally {
+            releaseSlow.countDown();
+            fanOut.shutdown();
+        }
+        assertEquals(61, slow.bodies.size());
+        assertEquals("{\"n\":70}", text(fast.bodies.get(70)));
+    }
+
+    @Test
+    void sinksShareOneReadOnlyBody() throws Exception {
+        RecordingSink first = new RecordingSink("first");
+        RecordingSink second = new RecordingSink("second");
+        IngestFanOut fanOut = new IngestFanOut();
+        fanOut.start(List.of(first, second), 10);
+        try {
+            fanOut.publish("smile+gzip", 3, new byte[]{1, 2, 3, 4});
+            waitFor(first, 1);
+            waitFor(second, 1);
+        } finally {
+            fanOut.shutdown();
+        }
+
+        CaptureSink.Body body = first.bodies.get(0);
+        assertSame(body, second.bodies.get(0));
+        assertEquals("smile+gzip", body.getEncoding());
+        assertEquals(3, body.getEvents());
+        ByteBuffer bytes = body.getBytes();
+        assertTrue(bytes.isReadOnly());
+        bytes.get();
+        // Reading one view does not move another
+        assertEquals(4, body.getBytes().remaining());
+    }
+
+    private static void waitFor(RecordingSink sink, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sink.bodies.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, sink.bodies.size(), sink.getName());
+    }
+
+    private static String text(CaptureSink.Body body) {
+        ByteBuffer bytes = body.getBytes();
+        byte[] array = new byte[bytes.remaining()];
+        bytes.get(array);
+        return new String(array, StandardCharsets.UTF_8);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingSink implements CaptureSink {
+        final String name;
+        final List<Body> bodies = new CopyOnWriteArrayList<>();
+
+        RecordingSink(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void write(Body body) {
+            bodies.add(body);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.GeofencePlace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap per tracked entity and steps per second of MovementEngine, next to one
+ * LocationGenerator object per entity. Not a unit test; run it after test-compile:
+ *
+ *   java -Xmx2g -cp target/classes:target/test-classes:<slf4j-api jar> \
+ *       com.example.iotsimulatorbackend.service.MovementEngineBenchmark [entities]
+ */
+public final class MovementEngineBenchmark {
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        int entities = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        EventLog eventLog = EventLog.discarding();
+
+        // One person per entity with three places each; places are not counted below
+        List<List<GeofencePlace>> placeLists = new ArrayList<>(entities);
+        List<MovementEngine.Places> shared = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            double lat = 52.0 + (i % 1000) * 1e-3;
+            double lon = 21.0 + (i / 1000) * 1e-3;
+            List<GeofencePlace> places = List.of(
+                    new GeofencePlace("h" + i, "p" + i, "Home", "home", lat, lon, 100),
+                    new GeofencePlace("a" + i, "p" + i, "Park", "park", lat + 0.01, lon + 0.01, 200),
+                    new GeofencePlace("b" + i, "p" + i, "Shop", "other", lat - 0.01, lon + 0.02, 50));
+            placeLists.add(places);
+            shared.add(MovementEngine.Places.of(places));
+        }
+
+        long now = System.currentTimeMillis();
+        long before = usedHeap();
+        MovementEngine engine = new MovementEngine(eventLog);
+        long[] slots = new long[entities];
+        for (int i = 0; i < entities; i++) {
+            slots[i] = engine.add(shared.get(i), "d" + i, "gps", now);
+        }
+        long engineBytes = usedHeap() - before;
+
+        before = usedHeap();
+        LocationGenerator[] generators = new LocationGenerator[entities];
+        for (int i = 0; i < entities; i++) {
+            generators[i] = new LocationGenerator(placeLists.get(i), eventLog);
+        }
+        long generatorBytes = usedHeap() - before;
+
+        System.out.printf("entities: %d%n", entities);
+        System.out.printf("heap/entity: engine %.1f B (arrays %d B), one object each %.1f B%n",
+                (double) engineBytes / entities, MovementEngine.Page.bytesPerEntity(4),
+                (double) generatorBytes / entities);
+
+        double checksum = 0;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            now += 60_000;
+            engine.advanceAll(now, false);
+            for (LocationGenerator generator : generators) {
+                checksum += generator.generateNextLocation().getLatitude();
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            now += 60_000;
+            for (long slot : slots) {
+                checksum += engine.advance(slot, now).getLatitude();
+            }
+        }
+        report("engine, one advance() per reading", start, entities);
+
+        start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            now += 60_000;
+            engine.advanceAll(now, false);
+        }
+        report("engine, advanceAll", start, entities);
+
+        start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            now += 60_000;
+            engine.advanceAll(now, true);
+        }
+        report("engine, advanceAll in parallel (" + Runtime.getRuntime().availableProcessors() + " cpus)", start, entities);
+
+        start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (LocationGenerator generator : generators) {
+                checksum += generator.generateNextLocation().getLatitude();
+            }
+        }
+        report("one LocationGenerator object each", start, entities);
+        System.out.println("(checksum " + (checksum + engine.getLat(slots[0])) + ")");
+    }
+
+    private static void report(String label, long startNanos, int entities) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-55s %,.0f steps/s%n", label + ":", entities * (double) ROUNDS / seconds);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
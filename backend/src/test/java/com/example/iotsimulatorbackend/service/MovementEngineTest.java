@@ -0,0 +1,177 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.GeofenceEvent;
+import com.example.iotsimulatorbackend.model.GeofencePlace;
+import com.example.iotsimulatorbackend.model.LocationData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementEngineTest {
+
+    private static final List<GeofencePlace> PLACES = List.of(
+            new GeofencePlace("home", "p", "Home", "home", 52.2300, 21.0100, 100),
+            new GeofencePlace("park", "p", "Park", "park", 52.2400, 21.0300, 200),
+            new GeofencePlace("clinic", "p", "Clinic", "hospital", 52.2200, 20.9900, 50));
+
+    @Test
+    void dwellsThenWalksBetweenPlaces() {
+        MovementEngine engine = new MovementEngine(EventLog.discarding());
+        long now = 1_000_000_000L;
+        long slot = engine.add(MovementEngine.Places.of(PLACES), "d", "gps", now);
+        assertEquals("home", engine.getCurrentPlace(slot).getId());
+
+        Set<String> visited = new HashSet<>();
+        double lat = engine.getLat(slot);
+        double lon = engine.getLon(slot);
+        for (int minute = 0; minute < 600; minute++) {
+            now += 60_000;
+            LocationData location = engine.advance(slot, now);
+            // A minute's walk of 250 m, plus the snap onto a place less than 50 m away
+            assertTrue(GeoMath.distance(lat, lon, location.getLatitude(), location.getLongitude()) <= 300);
+            assertTrue(location.getAccuracy() >= 5 && location.getAccuracy() <= 25);
+            lat = location.getLatitude();
+            lon = location.getLongitude();
+            visited.add(engine.getCurrentPlace(slot).getId());
+        }
+        assertEquals(Set.of("home", "park", "clinic"), visited);
+    }
+
+    @Test
+    void batchStepsMatchSingleSteps() {
+        MovementEngine.Places places = MovementEngine.Places.of(PLACES);
+        MovementEngine.Page batch = new MovementEngine.Page(8);
+        MovementEngine.Page single = new MovementEngine.Page(8);
+        long now = 1_000_000_000L;
+        for (int i = 0; i < 8; i++) {
+            batch.init(i, places, "d" + i, "gps", now, 1000 + i, EventLog.discarding());
+            single.init(i, places, "d" + i, "gps", now, 1000 + i, EventLog.discarding());
+        }
+        for (int minute = 0; minute < 120; minute++) {
+            now += 60_000;
+            batch.stepAll(now, EventLog.discarding(), null);
+            for (int i = 0; i < 8; i++) {
+                single.step(i, now, EventLog.discarding(), null);
+            }
+        }
+        for (int i = 0; i < 8; i++) {
+            assertEquals(single.lat[i], batch.lat[i]);
+            assertEquals(single.lon[i], batch.lon[i]);
+            assertEquals(single.current[i], batch.current[i]);
+        }
+    }
+
+    @Test
+    void reportsEntriesAndExitsOfTheEmittedPositions() {
+        List<GeofenceEvent> events = new ArrayList<>();
+        MovementEngine engine = new MovementEngine(EventLog.discarding(), events::add);
+        long now = 1_000_000_000L;
+        long slot = engine.add(MovementEngine.Places.of(PLACES), "d", "gps", now);
+
+        Map<String, Boolean> inside = new HashMap<>();
+        for (int minute = 0; minute < 600; minute++) {
+            now += 60_000;
+            LocationData location = engine.advance(slot, now);
+            for (GeofenceEvent event : events) {
+                boolean entered = GeofenceEvent.ENTRY.equals(event.getType());
+                // Entries and exits of each place alternate, starting with an entry
+                assertNotEquals(entered, inside.getOrDefault(event.getPlaceId(), false));
+                inside.put(event.getPlaceId(), entered);
+                assertEquals(now, event.getAt());
+                assertEquals("d", event.getDeviceId());
+                assertEquals(location.getLatitude(), event.getLatitude());
+            }
+            events.clear();
+            // What the events say matches where the reading is (away from the boundary itself)
+            for (GeofencePlace place : PLACES) {
+                double distance = GeoMath.distance(location.getLatitude(), location.getLongitude(),
+                        place.getLatitude(), place.getLongitude());
+                if (Math.abs(distance - place.getRadiusMeters()) > 0.01) {
+                    assertEquals(distance < place.getRadiusMeters(), inside.getOrDefault(place.getId(), false));
+                }
+            }
+        }
+        assertEquals(Set.of("home", "park", "clinic"), inside.keySet());
+    }
+
+    @Test
+    void removingAnEntityWhileItIsAdvancedIsSafe() throws Exception {
+        List<GeofenceEvent> events = Collections.synchronizedList(new ArrayList<>());
+        MovementEngine engine = new MovementEngine(EventLog.discarding(), events::add);
+        MovementEngine.Places places = MovementEngine.Places.of(PLACES);
+        AtomicLong clock = new AtomicLong(1_000_000_000L);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int round = 0; round < 200; round++) {
+            long slot = engine.add(places, "d" + round, "gps", clock.get());
+            CountDownLatch started = new CountDownLatch(1);
+            Thread reader = new Thread(() -> {
+                try {
+                    for (int n = 0; n < 1_000; n++) {
+                        engine.advance(slot, clock.addAndGet(60_000));
+                        engine.advanceAll(clock.get(), false);
+                        started.countDown();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                    started.countDown();
+                }
+            });
+            reader.start();
+            started.await();
+            engine.remove(slot);
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertEquals(0, engine.size());
+        for (GeofenceEvent event : events) {
+            assertNotNull(event.getDeviceId());
+        }
+
+        // Removed: a late reading is ignored and moves nothing
+        long slot = engine.add(places, "d", "gps", clock.get());
+        engine.advance(slot, clock.addAndGet(60_000));
+        double lat = engine.getLat(slot);
+        engine.remove(slot);
+        assertNull(engine.advance(slot, clock.addAndGet(600_000)));
+        assertEquals(lat, engine.getLat(slot));
+        assertNull(engine.getCurrentPlace(slot));
+    }
+
+    @Test
+    void freedSlotsAreReusedAndStaleHandlesIgnored() {
+        MovementEngine engine = new MovementEngine(EventLog.discarding());
+        MovementEngine.Places places = MovementEngine.Places.of(PLACES);
+        long now = 1_000_000_000L;
+        long first = engine.add(places, "d", "gps", now);
+        engine.remove(first);
+        assertEquals(0, engine.size());
+
+        long second = engine.add(places, "e", "gps", now + 1);
+        assertEquals(MovementEngine.slotOf(first), MovementEngine.slotOf(second));
+        assertNotEquals(first, second);
+
+        // A late reading of the removed stream leaves the slot's new entity alone
+        double lat = engine.getLat(second);
+        assertNull(engine.advance(first, now + 600_000));
+        assertNull(engine.getCurrentPlace(first));
+        assertEquals(lat, engine.getLat(second));
+        engine.remove(first);
+        assertEquals(1, engine.size());
+
+        assertEquals("home", engine.getCurrentPlace(second).getId());
+        assertNotNull(engine.advance(second, now + 60_000));
+        assertEquals(MovementEngine.PAGE_SIZE, engine.capacity());
+    }
+}
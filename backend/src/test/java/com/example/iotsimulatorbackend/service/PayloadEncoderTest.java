@@ -0,0 +1,97 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadEncoderTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private static Map<String, Object> reading(int samples) {
+        Map<String, Object> reading = new LinkedHashMap<>();
+        reading.put("deviceId", "dev-1");
+        reading.put("dataType", "heart_rate");
+        reading.put("value", 72.5);
+        reading.put("timestamp", "2024-01-01T00:00:00Z");
+        List<Object> history = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            history.add(Map.of("seq", i, "value", 60 + (i * 7919) % 40));
+        }
+        reading.put("history", history);
+        return reading;
+    }
+
+    private static ObjectMapper decoderFor(PayloadEncoding encoding, ObjectMapper jsonMapper) {
+        switch (encoding) {
+            case SMILE:
+                return new ObjectMapper(new SmileFactory());
+            case CBOR:
+                return new ObjectMapper(new CBORFactory());
+            default:
+                return jsonMapper;
+        }
+    }
+
+    private static byte[] decompress(PayloadCompression compression, byte[] body) throws IOException {
+        InputStream in = new ByteArrayInputStream(body);
+        switch (compression) {
+            case GZIP:
+                in = new GZIPInputStream(in);
+                break;
+            case DEFLATE:
+                in = new InflaterInputStream(in);
+                break;
+            default:
+                break;
+        }
+        try (InputStream stream = in) {
+            return stream.readAllBytes();
+        }
+    }
+
+    @Test
+    void everyEncodingAndCompressionDecodesBackToTheSameReading() throws Exception {
+        // Small and larger-than-buffer bodies, encoded twice so the per-thread Deflater is reused
+        for (Map<String, Object> reading : List.of(reading(0), reading(2000))) {
+            JsonNode expected = jsonMapper.valueToTree(reading);
+            for (PayloadEncoding encoding : PayloadEncoding.values()) {
+                for (PayloadCompression compression : PayloadCompression.values()) {
+                    PayloadEncoder encoder = new PayloadEncoder(encoding, compression, jsonMapper);
+                    for (int round = 0; round < 2; round++) {
+                        PayloadEncoder.Encoded encoded = encoder.encode(reading);
+                        byte[] serialized = decompress(compression, encoded.getBody());
+
+                        String label = encoder.getLabel() + " round " + round;
+                        assertEquals(encoded.getUncompressedLength(), serialized.length, label);
+                        assertEquals(expected, decoderFor(encoding, jsonMapper).readTree(serialized), label);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void plainJsonIsTheMappersOwnOutput() throws Exception {
+        PayloadEncoder encoder = new PayloadEncoder(PayloadEncoding.JSON, PayloadCompression.NONE, jsonMapper);
+        Map<String, Object> reading = reading(3);
+
+        assertTrue(encoder.isPlainJson());
+        assertEquals("json", encoder.getLabel());
+        assertArrayEquals(jsonMapper.writeValueAsBytes(reading), encoder.encode(reading).getBody());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.iotsimulatorbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersForSameKeyShareOneLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> flight.execute("device_types?code=eq.X", () -> {
+                loads.incrementAndGet();
+                release.await(5, TimeUnit.SECONDS);
+                return "body";
+            })));
+        }
+
+        // Wait until every caller has either started the load or joined it
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flight.getIssuedCount() + flight.getCoalescedCount() < 8 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("body", result.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdownNow();
+
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getIssuedCount());
+        assertEquals(7, flight.getCoalescedCount());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    void waitersSeeAnErrorThrownByTheLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch followerWaiting = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        Future<String> leader = pool.submit(() -> flight.execute("k", () -> {
+            followerWaiting.await(5, TimeUnit.SECONDS);
+            // Give the follower time to block on the shared call
+            Thread.sleep(50);
+            throw new AssertionError("loader broke");
+        }));
+        while (flight.getInFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+        Future<String> follower = pool.submit(() -> {
+            followerWaiting.countDown();
+            return flight.execute("k", () -> "not called");
+        });
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertTrue(leaderFailure.getCause() instanceof AssertionError);
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertTrue(followerFailure.getCause() instanceof AssertionError);
+        assertEquals(1, flight.getCoalescedCount());
+        assertEquals(0, flight.getInFlightCount());
+        pool.shutdownNow();
+    }
+
+    @Test
+    void completedLoadsAreNotCached() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute("k", loads::incrementAndGet);
+        flight.execute("k", loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+        assertEquals(2, flight.getIssuedCount());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DataTypeConfig;
+import com.example.iotsimulatorbackend.model.Device;
+import com.example.iotsimulatorbackend.model.GeofencePlace;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticPopulationTest {
+
+    @Test
+    void sameSeedGivesTheSameFleet() {
+        SyntheticPopulation a = new SyntheticPopulation(1000, 4, 3, 7, List.of("warsaw", "52.52,13.40"));
+        SyntheticPopulation b = new SyntheticPopulation(1000, 4, 3, 7, List.of("warsaw", "52.52,13.40"));
+
+        String personId = a.getPersonId(123);
+        List<Device> devicesA = a.getDevicesByElderlyPersonId(personId);
+        List<Device> devicesB = b.getDevicesByElderlyPersonId(personId);
+        assertEquals(4, devicesA.size());
+        for (int i = 0; i < devicesA.size(); i++) {
+            assertEquals(devicesA.get(i).getDeviceType(), devicesB.get(i).getDeviceType());
+            assertEquals(devicesA.get(i).getApiKey(), devicesB.get(i).getApiKey());
+        }
+        GeofencePlace homeA = a.getGeofencePlacesByElderlyPersonId(personId).get(0);
+        GeofencePlace homeB = b.getGeofencePlacesByElderlyPersonId(personId).get(0);
+        assertEquals(homeA.getLatitude(), homeB.getLatitude());
+        assertEquals(homeA.getLongitude(), homeB.getLongitude());
+        assertEquals(a.getSummary(), b.getSummary());
+    }
+
+    @Test
+    void idsResolveBackToTheirPerson() {
+        SyntheticPopulation population = new SyntheticPopulation(50, 5, 4, 99, null);
+        String personId = population.getPersonId(49);
+
+        Set<String> types = new HashSet<>();
+        for (Device device : population.getDevicesByElderlyPersonId(personId)) {
+            assertTrue(population.owns(device.getId()));
+            assertEquals(personId, device.getElderlyPersonId());
+            assertEquals(device.getDeviceType(), population.getDeviceById(device.getId()).getDeviceType());
+            List<DataTypeConfig> configs = population.getDataTypesByDeviceId(device.getId());
+            assertFalse(configs.isEmpty());
+            types.add(device.getDeviceType());
+        }
+        // No repeated device types while the catalog has unused ones
+        assertEquals(5, types.size());
+
+        List<GeofencePlace> places = population.getGeofencePlacesByElderlyPersonId(personId);
+        assertEquals(4, places.size());
+        assertEquals("home", places.get(0).getPlaceType());
+
+        assertTrue(population.getDevicesByElderlyPersonId(population.getPersonId(0) + "0").isEmpty());
+        assertTrue(population.getDevicesByElderlyPersonId(population.getPersonId(50)).isEmpty());
+        assertNull(population.getDeviceById(personId + "-d5"));
+        assertFalse(new SyntheticPopulation(50, 5, 4, 100, null).owns(personId));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deviceMixFollowsTheCatalogWeights() {
+        SyntheticPopulation population = new SyntheticPopulation(20_000, 1, 0, 3, null);
+
+        Map<String, Integer> mix = (Map<String, Integer>) population.getSummary().get("deviceTypeMix");
+        // Smartwatches weigh 30 of 100, smart scales 5
+        assertEquals(6000, mix.get("smartwatch"), 400);
+        assertEquals(1000, mix.get("smart_scale"), 200);
+        assertEquals(20_000, mix.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void rejectsUnknownCities() {
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticPopulation(10, 1, 1, 1, List.of("atlantis")));
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticPopulation(10, 0, 1, 1, null));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.iotsimulatorbackend.service;
+
+import com.example.iotsimulatorbackend.model.DataTypeConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueBufferTest {
+
+    @Test
+    void rangeValuesStayInBoundsAndKeepTheirPrecision() {
+        DataTypeConfig config = new DataTypeConfig("temperature", "Temperature", "C", "number", "range",
+                Map.of("min", 36.0, "max", 37.5, "precision", 1));
+        ValueBuffer buffer = ValueBuffer.of(config, 16);
+
+        // Several refills of the chunk
+        for (int i = 0; i < 100; i++) {
+            double value = (Double) buffer.next();
+            assertTrue(value >= 36.0 && value <= 37.5, "out of range: " + value);
+            assertTrue(BigDecimal.valueOf(value).scale() <= 1, "too precise: " + value);
+        }
+        assertTrue(buffer.isFor(config));
+        assertFalse(buffer.isFor(new DataTypeConfig("temperature", "Temperature", "C", "number", "range",
+                Map.of("min", 36.0, "max", 37.5, "precision", 1))));
+    }
+
+    @Test
+    void wholeNumbersWithoutPrecision() {
+        DataTypeConfig config = new DataTypeConfig("steps", "Steps", "", "number", "range", Map.of("min", 0, "max", 10));
+        ValueBuffer buffer = ValueBuffer.of(config, 7);
+        for (int i = 0; i < 50; i++) {
+            double value = (Double) buffer.next();
+            assertEquals(Math.rint(value), value);
+        }
+    }
+
+    @Test
+    void enumPicksOnlyConfiguredValues() {
+        List<String> stages = List.of("awake", "light", "deep", "rem");
+        DataTypeConfig config = new DataTypeConfig("sleep_stage", "Sleep Stage", "", "string", "enum",
+                Map.of("values", stages));
+        ValueBuffer buffer = ValueBuffer.of(config, 32);
+
+        Set<Object> seen = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            seen.add(buffer.next());
+        }
+        assertEquals(Set.copyOf(stages), seen);
+    }
+
+    @Test
+    void structuredValuesAreNotBuffered() {
+        assertNull(ValueBuffer.of(new DataTypeConfig("blood_pressure", "Blood Pressure", "mmHg", "object", "range",
+                Map.of()), 16));
+        assertNull(ValueBuffer.of(new DataTypeConfig("location", "Location", "", "object", "range", Map.of()), 16));
+        assertNull(ValueBuffer.of(new DataTypeConfig("mood", "Mood", "", "string", "enum", Map.of()), 16));
+        assertNull(ValueBuffer.of(new DataTypeConfig("steps", "Steps", "", "number", "range", Map.of()), 0));
+    }
+}
@@ -49,12 +49,14 @@ while [[ $# -gt 0 ]]; do
     case $1 in
         --rebuild) REBUILD=true; shift ;;
         --clean) CLEAN=true; shift ;;
+        --fast-startup) export BACKEND_DOCKERFILE=Dockerfile.fast-startup; shift ;;
         --help)
             echo "Usage: ./start-docker.sh [OPTIONS]"
             echo ""
             echo "Options:"
             echo "  --rebuild    Rebuild Docker images"
             echo "  --clean      Remove all containers and images first"
+            echo "  --fast-startup  Build the backend with the startup-optimized image"
             echo "  --help       Show this help"
             exit 0
             ;;